@@ -0,0 +1,134 @@
+package server.common.kafka;
+
+import io.micronaut.configuration.kafka.serde.JsonObjectSerde;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.json.JsonObjectSerializer;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import server.attribute.stats.model.Stats;
+import server.common.dto.Motion;
+import server.motion.dto.PlayerMotion;
+
+/**
+ * JSON against {@link KafkaPayloadCodec} for the two most frequent payloads, a player motion and
+ * a stats update. Record sizes are printed once at setup, throughput and allocation per operation
+ * come from the run:
+ *
+ * <pre>./gradlew jmh</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaSerdeBenchmark {
+
+    private static final String TOPIC = "player-motion-update";
+
+    private JsonObjectSerde<PlayerMotion> jsonPlayerMotion;
+    private JsonObjectSerde<Stats> jsonStats;
+
+    private PlayerMotion playerMotion;
+    private Stats stats;
+
+    private byte[] playerMotionJson;
+    private byte[] playerMotionBinary;
+    private byte[] statsJson;
+    private byte[] statsBinary;
+
+    @Setup
+    public void setup() {
+        JsonObjectSerializer serializer = new JsonObjectSerializer(JsonMapper.createDefault());
+        jsonPlayerMotion = new JsonObjectSerde<>(serializer, PlayerMotion.class);
+        jsonStats = new JsonObjectSerde<>(serializer, Stats.class);
+
+        playerMotion =
+                new PlayerMotion(
+                        "character1",
+                        new Motion("tooksworth", 240, 350, 230, 0, 0, 90, 10, 0, 0, false),
+                        true,
+                        Instant.now());
+        stats =
+                new Stats(
+                        "character1",
+                        new HashMap<>(Map.of("STR", 15, "STA", 12, "DEX", 10, "INT", 8)),
+                        new HashMap<>(
+                                Map.of(
+                                        "MAX_HP", 250.0,
+                                        "CURRENT_HP", 180.0,
+                                        "MAX_MP", 120.0,
+                                        "CURRENT_MP", 60.0,
+                                        "PHY_AMP", 1.05,
+                                        "ATTACK_SPEED", 1.2)),
+                        new HashMap<>(Map.of("MAX_HP", 20.0)),
+                        new HashMap<>(),
+                        3);
+
+        playerMotionJson = jsonPlayerMotion.serialize(TOPIC, playerMotion);
+        playerMotionBinary =
+                KafkaPayloadCodec.encode(KafkaPayloadCodec.PLAYER_MOTION, playerMotion);
+        statsJson = jsonStats.serialize(TOPIC, stats);
+        statsBinary = KafkaPayloadCodec.encode(KafkaPayloadCodec.STATS, stats);
+
+        System.out.printf(
+                "%nplayer motion: json %d B, binary %d B; stats: json %d B, binary %d B%n",
+                playerMotionJson.length,
+                playerMotionBinary.length,
+                statsJson.length,
+                statsBinary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerializePlayerMotion() {
+        return jsonPlayerMotion.serialize(TOPIC, playerMotion);
+    }
+
+    @Benchmark
+    public byte[] binarySerializePlayerMotion() {
+        return KafkaPayloadCodec.encode(KafkaPayloadCodec.PLAYER_MOTION, playerMotion);
+    }
+
+    @Benchmark
+    public PlayerMotion jsonDeserializePlayerMotion() {
+        return jsonPlayerMotion.deserialize(TOPIC, playerMotionJson);
+    }
+
+    @Benchmark
+    public PlayerMotion binaryDeserializePlayerMotion() throws IOException {
+        return KafkaPayloadCodec.decode(KafkaPayloadCodec.PLAYER_MOTION, playerMotionBinary);
+    }
+
+    @Benchmark
+    public byte[] jsonSerializeStats() {
+        return jsonStats.serialize(TOPIC, stats);
+    }
+
+    @Benchmark
+    public byte[] binarySerializeStats() {
+        return KafkaPayloadCodec.encode(KafkaPayloadCodec.STATS, stats);
+    }
+
+    @Benchmark
+    public Stats jsonDeserializeStats() {
+        return jsonStats.deserialize(TOPIC, statsJson);
+    }
+
+    @Benchmark
+    public Stats binaryDeserializeStats() throws IOException {
+        return KafkaPayloadCodec.decode(KafkaPayloadCodec.STATS, statsBinary);
+    }
+}
@@ -0,0 +1,146 @@
+package server.socket.v2;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.common.configuration.UdpServerConfiguration;
+import server.common.dto.Motion;
+import server.motion.dto.PlayerMotion;
+import server.session.cache.UdpSessionRegistry;
+import server.socket.model.SocketMessage;
+import server.socket.model.types.MessageType;
+import server.socket.service.SocketProcessOutgoingService;
+import server.socket.v2.codec.MotionBinaryCodec;
+import server.socket.v2.codec.UdpMessageCodec;
+import server.socket.v2.delta.MotionBaselineRegistry;
+import server.utils.FeatureFlag;
+
+/**
+ * Receive path of {@link UDPServer}: a binary motion datagram is received by a {@link UdpReactor}
+ * into a pooled packet, queued for a worker, decoded and handed to message processing, which here
+ * only counts it. Each operation waits for its datagram to come out the other end. The jmh task
+ * runs with the GC profiler:
+ *
+ * <pre>./gradlew jmh</pre>
+ *
+ * <p>gc.alloc.rate.norm counts every thread, so it covers the reactor and the worker. The
+ * receive, the hand-off to the worker and the release allocate nothing, what is left per op is the
+ * decoded message itself: the SocketMessage, its PlayerMotion and Motion and their strings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UdpReceivePathBenchmark {
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private UDPServer server;
+
+    private DatagramChannel sender;
+    private InetSocketAddress target;
+
+    private ByteBuffer payload;
+
+    @Setup
+    public void setup() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+
+        UdpServerConfiguration configuration = new UdpServerConfiguration();
+        configuration.setPort(freePort());
+        configuration.setReactors(1);
+        configuration.setWorkers(1);
+        FeatureFlag featureFlag = new FeatureFlag();
+        featureFlag.setEnableUdpBinaryCodec(true);
+
+        server = new UDPServer();
+        server.configuration = configuration;
+        server.featureFlag = featureFlag;
+        server.codec = new UdpMessageCodec(featureFlag);
+        server.meterRegistry = new SimpleMeterRegistry();
+        server.sequenceTracker = new UdpSequenceTracker(server.meterRegistry);
+        server.motionBaselines =
+                new MotionBaselineRegistry(configuration, new UdpSessionRegistry());
+        server.socketProcessOutgoingService =
+                new SocketProcessOutgoingService() {
+                    @Override
+                    public void processUDPMessage(SocketMessage socketMessage) {
+                        processed.incrementAndGet();
+                    }
+                };
+        server.startServer();
+
+        sender = DatagramChannel.open();
+        sender.bind(new InetSocketAddress(loopback, 0));
+        target = new InetSocketAddress(loopback, configuration.getPort());
+
+        payload = ByteBuffer.allocateDirect(configuration.getMaxPacketSize());
+        MotionBinaryCodec.encode(motionMessage(), payload);
+        payload.flip();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stopServer();
+        sender.close();
+    }
+
+    @Benchmark
+    public long receiveDecodeAndDispatch() throws IOException {
+        long expected = processed.get() + 1;
+        payload.rewind();
+        sender.send(payload, target);
+
+        while (processed.get() < expected) {
+            Thread.onSpinWait();
+        }
+        return expected;
+    }
+
+    private static SocketMessage motionMessage() {
+        Motion motion =
+                Motion.builder()
+                        .map("tooksworth")
+                        .x(240)
+                        .y(350)
+                        .z(230)
+                        .pitch(0)
+                        .roll(0)
+                        .yaw(90)
+                        .vx(10)
+                        .vy(0)
+                        .vz(0)
+                        .isFalling(false)
+                        .build();
+
+        SocketMessage message = new SocketMessage();
+        message.setUpdateType(MessageType.PLAYER_MOTION.getType());
+        message.setPlayerMotion(new PlayerMotion("character1", motion, null, null));
+        return message;
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramChannel probe = DatagramChannel.open()) {
+            probe.bind(new InetSocketAddress(0));
+            return ((InetSocketAddress) probe.getLocalAddress()).getPort();
+        }
+    }
+}
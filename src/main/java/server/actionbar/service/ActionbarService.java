@@ -11,8 +11,8 @@ import server.actionbar.model.ActorActionbar;
 import server.actionbar.repository.ActionbarRepository;
 import server.session.SessionParamHelper;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
@@ -20,7 +20,7 @@ public class ActionbarService {
 
     @Inject ActionbarRepository actionbarRepository;
 
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
+    @Inject SessionOutboundService sessionOutboundService;
 
     public void getActorActionbar(WebSocketSession session) {
         // this is only for players
@@ -37,7 +37,7 @@ public class ActionbarService {
                             response.setMessageType(SocketResponseType.UPDATE_ACTIONBAR.getType());
                             response.setActionbarList(actionbar);
 
-                            session.send(response).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, response);
                         })
                 .doOnError(
                         err ->
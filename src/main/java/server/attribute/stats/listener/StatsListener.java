@@ -6,13 +6,13 @@ import io.micronaut.configuration.kafka.annotation.OffsetStrategy;
 import io.micronaut.configuration.kafka.annotation.Topic;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
-import server.attribute.stats.model.DamageSource;
 import server.attribute.stats.model.DamageUpdateMessage;
 import server.attribute.stats.model.Stats;
 import server.attribute.stats.service.StatsService;
 import server.socket.model.SocketResponse;
 import server.socket.model.SocketResponseType;
 import server.socket.service.WebsocketClientUpdatesService;
+import server.utils.FeatureFlag;
 
 @Slf4j
 @KafkaListener(
@@ -28,6 +28,9 @@ public class StatsListener {
     @Inject
     StatsService statsService;
 
+    @Inject
+    FeatureFlag featureFlag;
+
     @Topic("update-actor-stats")
     public void receiveUpdatePlayerAttributes(Stats stats) {
         SocketResponse socketResponse =
@@ -41,6 +44,14 @@ public class StatsListener {
 
     @Topic("processed-damage-updates")
     public void receiveDamageUpdates(DamageUpdateMessage damageUpdateMessage) {
+        if (Boolean.TRUE.equals(featureFlag.getEnableNodeRouting())) {
+            // the shared topic is kept for combat, sessions get it through their node topic
+            return;
+        }
+        sendDamageUpdates(damageUpdateMessage);
+    }
+
+    public void sendDamageUpdates(DamageUpdateMessage damageUpdateMessage) {
         log.info("Received processed-damage-updates message: {}", damageUpdateMessage);
         SocketResponse socketResponse =
                 SocketResponse.builder()
@@ -52,11 +63,4 @@ public class StatsListener {
                 socketResponse, damageUpdateMessage.getOriginStats().getActorId());
     }
 
-    @Topic("request-take-damage")
-    public void requestTakeDamage(DamageSource damageSource) {
-        log.info("request to take damage received! {}", damageSource);
-        statsService.takeDamage(
-                damageSource.getActorId(), damageSource.getDamageMap(), damageSource.getSourceActorId());
-    }
-
 }
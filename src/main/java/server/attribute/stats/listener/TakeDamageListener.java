@@ -0,0 +1,59 @@
+package server.attribute.stats.listener;
+
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.OffsetReset;
+import io.micronaut.configuration.kafka.annotation.OffsetStrategy;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import server.attribute.stats.model.DamageSource;
+import server.attribute.stats.service.StatsService;
+import server.common.executor.KeyedOrderedExecutor;
+
+// batch listeners are per class, so damage requests are kept apart from the other stats topics
+@Slf4j
+@KafkaListener(
+        groupId = "take-damage-listener",
+        offsetReset = OffsetReset.LATEST,
+        offsetStrategy = OffsetStrategy.SYNC,
+        clientId = "take-damage-listener",
+        batch = true)
+public class TakeDamageListener {
+
+    @Inject StatsService statsService;
+
+    @Inject KeyedOrderedExecutor keyedExecutor;
+
+    @Topic("request-take-damage")
+    public void requestTakeDamage(List<DamageSource> damageSources) {
+        // the poll's offsets are committed once this returns, so its damage has to be applied
+        CompletableFuture.allOf(
+                        damageSources.stream()
+                                .map(this::takeDamage)
+                                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private CompletableFuture<Void> takeDamage(DamageSource damageSource) {
+        log.info("request to take damage received! {}", damageSource);
+        String actorId = damageSource.getActorId();
+        // damage reads and writes the target's stats, so hits on one actor go one at a time
+        return keyedExecutor.execute(
+                actorId,
+                () ->
+                        statsService
+                                .takeDamage(
+                                        actorId,
+                                        damageSource.getDamageMap(),
+                                        damageSource.getSourceActorId())
+                                .blockingSubscribe(
+                                        stats -> {},
+                                        err ->
+                                                log.error(
+                                                        "Failed to apply damage to {}, {}",
+                                                        actorId,
+                                                        err.getMessage())));
+    }
+}
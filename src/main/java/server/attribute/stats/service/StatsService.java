@@ -16,7 +16,7 @@ import server.combat.model.CombatData;
 import server.combat.service.ActorThreatService;
 import server.common.uuid.UUIDHelper;
 import server.session.SessionParamHelper;
-import server.socket.producer.UpdateProducer;
+import server.socket.producer.SocketUpdateRouter;
 
 @Slf4j
 @Singleton
@@ -24,7 +24,7 @@ public class StatsService {
 
     @Inject ActorStatsRepository repository;
 
-    @Inject UpdateProducer updateProducer;
+    @Inject SocketUpdateRouter socketUpdateRouter;
 
     @Inject SessionParamHelper sessionParamHelper;
 
@@ -138,13 +138,14 @@ public class StatsService {
                 .subscribe();
     }
 
-    public void takeDamage(String actorId, Map<String, Double> damageMap, String sourceActorId) {
+    public Single<Stats> takeDamage(
+            String actorId, Map<String, Double> damageMap, String sourceActorId) {
         Single<Stats> targetActor = getStatsFor(actorId);
         Single<Stats> sourceActor = getStatsFor(sourceActorId);
 
-        Single.zip(targetActor, sourceActor, (targetStats, sourceStats) -> {
+        return Single.zip(targetActor, sourceActor, (targetStats, sourceStats) -> {
             return takeDamage(targetStats, damageMap, sourceStats);
-        }).subscribe();
+        });
     }
 
     public Stats takeDamage(Stats stats, Map<String, Double> damageMap, Stats sourceStats) {
@@ -166,7 +167,7 @@ public class StatsService {
 
         log.info("Updating damage, {}, {}, {}", damageSource, stats, sourceStats);
 
-        updateProducer.updateDamage(new DamageUpdateMessage(damageSource, stats, sourceStats));
+        socketUpdateRouter.updateDamage(new DamageUpdateMessage(damageSource, stats, sourceStats));
 
         handleThreat(damageMap, stats.getActorId(), sourceStats.getActorId());
         return stats;
@@ -247,7 +248,7 @@ public class StatsService {
                     .blockingSubscribe();
             Stats notifyUpdates =
                     Stats.builder().actorId(stats.getActorId()).derivedStats(updated).build();
-            updateProducer.updateStats(notifyUpdates);
+            socketUpdateRouter.updateStats(notifyUpdates);
         }
     }
 
@@ -260,7 +261,7 @@ public class StatsService {
                     .blockingSubscribe();
             Stats notifyUpdates =
                     Stats.builder().actorId(stats.getActorId()).baseStats(updated).build();
-            updateProducer.updateStats(notifyUpdates);
+            socketUpdateRouter.updateStats(notifyUpdates);
         }
     }
 
@@ -52,10 +52,11 @@ public class Bleeding extends Status {
                 damageMap.put(dmgType, this.getDerivedEffects().get(dmgType));
                 DamageSource damageSource = new DamageSource();
                 damageSource.setDamageMap(damageMap);
+                damageSource.setActorId(dependencies.getActorId());
                 damageSource.setSourceActorId(dependencies.getActorStats().getActorId());
                 damageSource.setSourceStatusId(this.getId());
 
-                this.statusProducer.requestTakeDamage(damageSource);
+                this.statusProducer.requestTakeDamage(damageSource.getActorId(), damageSource);
 
             } catch (Exception e) {
                 log.error("Error applying bleed effect, check the value maps");
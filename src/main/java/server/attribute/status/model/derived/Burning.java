@@ -68,7 +68,7 @@ public class Burning extends Status {
 
                 log.info("requesting producer to take damage! {}", damageMap);
 
-                this.statusProducer.requestTakeDamage(damageSource);
+                this.statusProducer.requestTakeDamage(damageSource.getActorId(), damageSource);
             } catch (Exception e) {
                 log.error("Error applying burn effect, check the value maps");
                 throw e;
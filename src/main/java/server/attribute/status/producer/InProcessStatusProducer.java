@@ -0,0 +1,22 @@
+package server.attribute.status.producer;
+
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import server.attribute.stats.model.DamageSource;
+import server.common.configuration.EventBusConfiguration;
+import server.common.eventbus.InProcessEventBus;
+
+@Singleton
+@Replaces(StatusProducer.class)
+@Requires(property = EventBusConfiguration.MODE, value = EventBusConfiguration.IN_PROCESS)
+public class InProcessStatusProducer implements StatusProducer {
+
+    @Inject InProcessEventBus eventBus;
+
+    @Override
+    public void requestTakeDamage(String actorId, DamageSource damageSource) {
+        eventBus.publish("request-take-damage", damageSource);
+    }
+}
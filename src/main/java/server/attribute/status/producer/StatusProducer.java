@@ -1,13 +1,15 @@
 package server.attribute.status.producer;
 
 import io.micronaut.configuration.kafka.annotation.KafkaClient;
+import io.micronaut.configuration.kafka.annotation.KafkaKey;
 import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.messaging.annotation.MessageBody;
 import server.attribute.stats.model.DamageSource;
 
 @KafkaClient(id = "status-internal-producer")
 public interface StatusProducer {
 
     @Topic("request-take-damage")
-    void requestTakeDamage(DamageSource damageSource);
+    void requestTakeDamage(@KafkaKey String actorId, @MessageBody DamageSource damageSource);
 
 }
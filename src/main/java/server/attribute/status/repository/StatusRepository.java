@@ -1,6 +1,7 @@
 package server.attribute.status.repository;
 
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
 
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.ReplaceOptions;
@@ -10,8 +11,10 @@ import com.mongodb.reactivestreams.client.MongoCollection;
 import io.micronaut.cache.annotation.CacheConfig;
 import io.micronaut.cache.annotation.CacheInvalidate;
 import io.micronaut.cache.annotation.Cacheable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import jakarta.inject.Singleton;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
@@ -52,6 +55,12 @@ public class StatusRepository {
                 .doOnError(err -> log.error("Failed to fetch actor statuses, {}", err.getMessage()));
     }
 
+    public Single<List<ActorStatus>> getActorStatuses(Set<String> actorIds) {
+        return Flowable.fromPublisher(actorStatusCollection.find(in("actorId", actorIds)))
+                .toList()
+                .doOnError(err -> log.error("Failed to fetch actor statuses, {}", err.getMessage()));
+    }
+
     @CacheInvalidate(
             value = {ACTOR_STATUS_CACHE, ACTOR_STATUS_CACHE, ACTOR_AGGREGATED_STATUSES},
             parameters = {"actorId"},
@@ -7,7 +7,9 @@ import io.reactivex.rxjava3.core.Single;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.time.Instant;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import server.attribute.status.model.ActorStatus;
@@ -15,7 +17,7 @@ import server.attribute.status.model.Status;
 import server.attribute.status.producer.StatusProducer;
 import server.attribute.status.repository.StatusRepository;
 import server.session.SessionParamHelper;
-import server.socket.producer.UpdateProducer;
+import server.socket.producer.SocketUpdateRouter;
 
 @Singleton
 @Slf4j
@@ -23,7 +25,7 @@ public class StatusService {
 
     @Inject StatusRepository statusRepository;
 
-    @Inject UpdateProducer updateProducer;
+    @Inject SocketUpdateRouter socketUpdateRouter;
 
     @Inject SessionParamHelper sessionParamHelper;
 
@@ -43,6 +45,20 @@ public class StatusService {
                                         err.getMessage()));
     }
 
+    /** Statuses of many actors in one query, actors without a status are left out. */
+    public Single<Map<String, ActorStatus>> getActorStatuses(Set<String> actorIds) {
+        return statusRepository
+                .getActorStatuses(actorIds)
+                .map(
+                        statuses ->
+                                statuses.stream()
+                                        .collect(
+                                                Collectors.toMap(
+                                                        ActorStatus::getActorId,
+                                                        Function.identity(),
+                                                        (a, b) -> a)));
+    }
+
     public ActorStatus removeExpiredStatuses(ActorStatus actorStatus) {
         Set<Status> removed = actorStatus.removeOldStatuses();
         if (removed.isEmpty()) {
@@ -61,7 +77,7 @@ public class StatusService {
                         false,
                         actorStatus.aggregateStatusEffects());
         // notify the user about removed statuses
-        updateProducer.updateStatus(update);
+        socketUpdateRouter.updateStatus(update);
 
         return actorStatus;
     }
@@ -81,7 +97,7 @@ public class StatusService {
 
         ActorStatus update = new ActorStatus(actorStatus.getActorId(), statuses, false, null);
         update.setStatusEffects(actorStatus.getStatusEffects());
-        updateProducer.updateStatus(update);
+        socketUpdateRouter.updateStatus(update);
     }
 
     public void addStatusToActor(ActorStatus actorStatus, Set<Status> statuses) {
@@ -102,7 +118,7 @@ public class StatusService {
 
         ActorStatus update = new ActorStatus(actorStatus.getActorId(), statuses, true, null);
         update.setStatusEffects(actorStatus.getStatusEffects());
-        updateProducer.updateStatus(update);
+        socketUpdateRouter.updateStatus(update);
     }
 
     public Single<ActorStatus> removeAllStatuses(String actorId) {
@@ -114,7 +130,7 @@ public class StatusService {
                                     new ActorStatus(
                                             actorId, status.getActorStatuses(), false, Set.of());
 
-                            updateProducer.updateStatus(update);
+                            socketUpdateRouter.updateStatus(update);
 
                             status.getActorStatuses().clear();
                             status.aggregateStatusEffects();
@@ -5,10 +5,13 @@ import io.micronaut.configuration.kafka.annotation.OffsetReset;
 import io.micronaut.configuration.kafka.annotation.OffsetStrategy;
 import io.micronaut.configuration.kafka.annotation.Topic;
 import jakarta.inject.Inject;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import server.attribute.stats.model.DamageUpdateMessage;
 import server.combat.model.ThreatUpdate;
 import server.combat.service.CombatService;
+import server.common.executor.KeyedOrderedExecutor;
 import server.socket.model.SocketResponse;
 import server.socket.model.SocketResponseType;
 import server.socket.service.WebsocketClientUpdatesService;
@@ -19,23 +22,43 @@ import server.socket.service.WebsocketClientUpdatesService;
         groupId = "internal-combat-listener-group",
         offsetReset = OffsetReset.LATEST,
         offsetStrategy = OffsetStrategy.SYNC,
-        clientId = "internal-combat-listener-client")
+        clientId = "internal-combat-listener-client",
+        batch = true)
 public class InternalCombatListener {
 
     @Inject CombatService combatService;
 
+    @Inject KeyedOrderedExecutor keyedExecutor;
+
     @Inject
     WebsocketClientUpdatesService clientUpdatesService;
 
 
     @Topic("processed-damage-updates")
-    public void receiveDamageUpdates(DamageUpdateMessage damageUpdateMessage) {
-        combatService.handleActorDeath(
-                damageUpdateMessage.getTargetStats(), damageUpdateMessage.getOriginStats());
+    public void receiveDamageUpdates(List<DamageUpdateMessage> damageUpdateMessages) {
+        // deaths are handled before the poll's offsets are committed, so none are lost
+        CompletableFuture.allOf(
+                        damageUpdateMessages.stream()
+                                .map(this::handleActorDeath)
+                                .toArray(CompletableFuture[]::new))
+                .join();
     }
 
     @Topic("update-threat-levels")
-    public void receiveUpdateActorThreat(ThreatUpdate threatUpdate) {
+    public void receiveUpdateActorThreat(List<ThreatUpdate> threatUpdates) {
+        threatUpdates.forEach(this::sendThreatUpdate);
+    }
+
+    private CompletableFuture<Void> handleActorDeath(DamageUpdateMessage damageUpdateMessage) {
+        return keyedExecutor.execute(
+                damageUpdateMessage.getTargetStats().getActorId(),
+                () ->
+                        combatService.handleActorDeath(
+                                damageUpdateMessage.getTargetStats(),
+                                damageUpdateMessage.getOriginStats()));
+    }
+
+    private void sendThreatUpdate(ThreatUpdate threatUpdate) {
         log.info("Received actor threat update in kafka, passing to clients");
         SocketResponse socketResponse =
                 SocketResponse.builder()
@@ -3,17 +3,16 @@ package server.combat.model;
 import io.micronaut.core.annotation.ReflectiveAccess;
 import io.micronaut.serde.annotation.Serdeable;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import lombok.AllArgsConstructor;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import server.common.uuid.UUIDHelper;
 
+// one instance per actor is shared by everything in combat on the owning node, see
+// CombatDataCache, so its collections are concurrent and always replaced by concurrent copies
 @Data
-@AllArgsConstructor
 @Serdeable
 @ReflectiveAccess
 @NoArgsConstructor
@@ -21,35 +20,63 @@ public class CombatData {
 
     private String actorId;
 
-    private Instant mainHandLastAttack;
-    private Instant offhandLastAttack;
+    private volatile Instant mainHandLastAttack;
+    private volatile Instant offhandLastAttack;
 
-    Map<String, Boolean> attackSent;
+    volatile Map<String, Boolean> attackSent = new ConcurrentHashMap<>();
 
-    private Set<String> targets;
+    private volatile Set<String> targets = ConcurrentHashMap.newKeySet();
 
-    private Instant lastHelperNotification;
+    private volatile Instant lastHelperNotification;
 
     boolean isPlayer;
 
     // key refers to skill name/id
-    private Map<String, Instant> activatedSkills;
+    private volatile Map<String, Instant> activatedSkills = new ConcurrentHashMap<>();
 
-    private String combatState;
+    private volatile String combatState;
 
     public CombatData(String actorId) {
         this.setActorId(actorId);
         this.mainHandLastAttack = Instant.now().minusSeconds(20);
         this.offhandLastAttack = Instant.now().minusSeconds(20);
-        this.targets = new HashSet<>();
         this.lastHelperNotification = Instant.now().minusSeconds(20);
-        this.attackSent = new HashMap<>();
         this.isPlayer = !UUIDHelper.isValid(actorId);
         this.combatState = CombatState.IDLE.getType();
-        this.activatedSkills = new HashMap<>();
     }
 
-    public Map<String, Instant> getActivatedSkills() {
-        return activatedSkills == null ? new HashMap<>() : activatedSkills;
+    // detached from this instance, so it can be encoded while combat carries on changing it
+    public CombatData copy() {
+        CombatData copy = new CombatData();
+        copy.setActorId(actorId);
+        copy.setMainHandLastAttack(mainHandLastAttack);
+        copy.setOffhandLastAttack(offhandLastAttack);
+        copy.setAttackSent(attackSent);
+        copy.setTargets(targets);
+        copy.setLastHelperNotification(lastHelperNotification);
+        copy.setPlayer(isPlayer);
+        copy.setActivatedSkills(activatedSkills);
+        copy.setCombatState(combatState);
+        return copy;
+    }
+
+    public void setAttackSent(Map<String, Boolean> attackSent) {
+        this.attackSent =
+                attackSent == null ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(attackSent);
+    }
+
+    public void setTargets(Set<String> targets) {
+        Set<String> copy = ConcurrentHashMap.newKeySet();
+        if (targets != null) {
+            copy.addAll(targets);
+        }
+        this.targets = copy;
+    }
+
+    public void setActivatedSkills(Map<String, Instant> activatedSkills) {
+        this.activatedSkills =
+                activatedSkills == null
+                        ? new ConcurrentHashMap<>()
+                        : new ConcurrentHashMap<>(activatedSkills);
     }
 }
@@ -11,7 +11,7 @@ import server.attribute.status.repository.StatusRepository;
 import server.combat.model.ActorThreat;
 import server.combat.model.ThreatUpdate;
 import server.combat.repository.ActorThreatRepository;
-import server.socket.producer.UpdateProducer;
+import server.socket.producer.SocketUpdateRouter;
 
 @Singleton
 @Slf4j
@@ -19,7 +19,7 @@ public class ActorThreatService {
 
     @Inject ActorThreatRepository actorThreatRepository;
 
-    @Inject UpdateProducer updateProducer;
+    @Inject SocketUpdateRouter socketUpdateRouter;
 
     @Inject StatusRepository statusRepository;
 
@@ -125,7 +125,7 @@ public class ActorThreatService {
 
     private void sendThreatUpdates(ThreatUpdate threatUpdate) {
         log.info("sending threat update! {}", threatUpdate);
-        updateProducer.updateThreatLevels(threatUpdate);
+        socketUpdateRouter.updateThreatLevels(threatUpdate);
     }
 
     @Scheduled(fixedDelay = "2s")
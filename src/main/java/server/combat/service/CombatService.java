@@ -28,6 +28,7 @@ import server.faction.service.ActorHostilityService;
 import server.items.equippable.service.EquipItemService;
 import server.monster.server_integration.service.MobInstanceService;
 import server.motion.repository.ActorMotionRepository;
+import server.motion.service.DeadReckoningService;
 import server.session.SessionParamHelper;
 import server.socket.model.SocketResponse;
 import server.socket.model.SocketResponseType;
@@ -59,6 +60,8 @@ public class CombatService {
 
     @Inject ActorThreatService actorThreatService;
 
+    @Inject DeadReckoningService deadReckoningService;
+
     Single<Boolean> canEngageCombat(String actorId, String targetId) {
         if (!UUIDHelper.isPlayer(targetId)) {
             // for now if the target is a mob, we can engage
@@ -91,6 +94,10 @@ public class CombatService {
             return false;
         }
 
+        // both sides may have moved on since their last update
+        attackerMotion = deadReckoningService.extrapolate(combatData.getActorId(), attackerMotion);
+        targetMotion = deadReckoningService.extrapolate(target, targetMotion);
+
         boolean inRange = attackerMotion.withinRange(targetMotion, distanceThreshold);
         boolean facingTarget = attackerMotion.facingMotion(targetMotion);
 
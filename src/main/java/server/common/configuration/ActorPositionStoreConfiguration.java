@@ -0,0 +1,12 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+@ConfigurationProperties("actor-position-store")
+@Data
+public class ActorPositionStoreConfiguration {
+
+    // most actors, players and mobs, held at once. memory is taken in pages of 4096 as needed
+    private int capacity = 131_072;
+}
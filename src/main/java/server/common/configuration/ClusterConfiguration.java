@@ -0,0 +1,23 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Data;
+
+@ConfigurationProperties("cluster")
+@Data
+public class ClusterConfiguration {
+
+    // unique per server instance, it names this node's consumer groups and topics
+    private String nodeId = "local";
+
+    // redis, or local when there is a single node (or in tests)
+    private String directory = "redis";
+
+    // directory entries of a node that stopped refreshing them are ignored after this long
+    private Duration entryTtl = Duration.ofSeconds(30);
+
+    public static String nodeTopic(String topic, String nodeId) {
+        return topic + "." + nodeId;
+    }
+}
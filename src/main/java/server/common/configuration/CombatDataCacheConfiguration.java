@@ -0,0 +1,16 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Data;
+
+@ConfigurationProperties("combat-data-cache")
+@Data
+public class CombatDataCacheConfiguration {
+
+    // actors untouched this long are dropped from the node once redis has their latest data
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // how long shutdown waits for the last replication to redis
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+}
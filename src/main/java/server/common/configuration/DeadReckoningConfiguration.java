@@ -0,0 +1,25 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Data;
+
+@ConfigurationProperties("dead-reckoning")
+@Data
+public class DeadReckoningConfiguration {
+
+    // distance between the real and the predicted position before observers need an update
+    private int errorThreshold = 50;
+
+    // change in any velocity component before observers need an update
+    private int velocityThreshold = 25;
+
+    // change in yaw, in degrees, before observers need an update. Turning in place doesn't move
+    private int yawThreshold = 10;
+
+    // predictions are held in place after this, a stalled client shouldn't keep moving
+    private Duration maxExtrapolation = Duration.ofSeconds(1);
+
+    // observers get an update at least this often, even when the prediction holds
+    private Duration heartbeat = Duration.ofSeconds(1);
+}
@@ -0,0 +1,25 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Data;
+
+@ConfigurationProperties("event-bus")
+@Data
+public class EventBusConfiguration {
+
+    public static final String MODE = "event-bus.mode";
+    public static final String IN_PROCESS = "in-process";
+
+    // kafka, or in-process to deliver every topic inside this node
+    private String mode = "kafka";
+
+    // events each listener can have waiting before publishers are held back
+    private int capacity = 65_536;
+
+    // most events handed to a batch listener at once, like max.poll.records
+    private int maxBatchSize = 500;
+
+    // how long a publisher waits for room before the event is dropped
+    private Duration publishTimeout = Duration.ofMillis(100);
+}
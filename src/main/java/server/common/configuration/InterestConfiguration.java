@@ -0,0 +1,27 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+@ConfigurationProperties("interest")
+@Data
+public class InterestConfiguration {
+
+    // actors become visible inside the enter radius and stay visible until past the leave radius
+    private int playerEnterRadius = 10_000;
+
+    private int playerLeaveRadius = 12_000;
+
+    private int mobEnterRadius = 20_000;
+
+    private int mobLeaveRadius = 22_000;
+
+    // only the nearest actors are sent to a session when a crowd gathers in one spot
+    private int maxPlayers = 50;
+
+    private int maxMobs = 100;
+
+    public int getMaxLeaveRadius() {
+        return Math.max(playerLeaveRadius, mobLeaveRadius);
+    }
+}
@@ -0,0 +1,30 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.util.Set;
+import lombok.Data;
+
+@ConfigurationProperties("kafka-serde")
+@Data
+public class KafkaSerdeConfiguration {
+
+    // topics written in the binary format when enableKafkaBinarySerde is on, node topics included
+    private Set<String> binaryTopics =
+            Set.of(
+                    "player-motion-update",
+                    "player-motion-update-result",
+                    "mob-motion-update",
+                    "mob-motion-update-result",
+                    "update-actor-stats",
+                    "processed-damage-updates",
+                    "update-actor-status");
+
+    public boolean isBinary(String topic) {
+        if (topic == null) {
+            return false;
+        }
+        // node topics are <topic>.<node-id>
+        int node = topic.indexOf('.');
+        return binaryTopics.contains(node < 0 ? topic : topic.substring(0, node));
+    }
+}
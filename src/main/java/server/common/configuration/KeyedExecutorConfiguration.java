@@ -0,0 +1,18 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+@ConfigurationProperties("keyed-executor")
+@Data
+public class KeyedExecutorConfiguration {
+
+    // threads shared by every key, each key only ever runs on one of them at a time
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // tasks a key runs before giving its thread up to the other keys
+    private int maxTasksPerTurn = 64;
+
+    // tasks waiting across every key before execute blocks, holding up the listener's poll
+    private int maxPendingTasks = 10_000;
+}
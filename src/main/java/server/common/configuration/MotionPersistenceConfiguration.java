@@ -0,0 +1,19 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import java.time.Duration;
+import lombok.Data;
+
+@ConfigurationProperties("motion-persistence")
+@Data
+public class MotionPersistenceConfiguration {
+
+    // updates sent to mongo in a single bulk write
+    private int maxBatchSize = 500;
+
+    // attempts for a motion before it is dropped, the next update for the actor replaces it anyway
+    private int maxAttempts = 3;
+
+    // how long shutdown waits for the last flush
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,12 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+@ConfigurationProperties("spatial-grid")
+@Data
+public class SpatialGridConfiguration {
+
+    // width of a grid cell in world units, close to the common query radius keeps scans small
+    private int cellSize = 5_000;
+}
@@ -0,0 +1,38 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+@ConfigurationProperties("udp-server")
+@Data
+public class UdpServerConfiguration {
+
+    private int port = 9876;
+
+    // number of receive reactors, each owns its own channel and selector on the shared port
+    private int reactors = Runtime.getRuntime().availableProcessors();
+
+    // max datagram size we expect to receive
+    private int maxPacketSize = 1024;
+
+    // pooled direct receive buffers per reactor, bounds how many packets can wait for a worker
+    private int buffersPerReactor = 256;
+
+    // threads decoding and handling received packets, so the reactors only do IO
+    private int workers = 8;
+
+    // outbound datagrams queued per reactor when the socket buffer is full, beyond this we drop
+    private int maxPendingSends = 4096;
+
+    private int retries = 10;
+
+    // largest coalesced datagram we build, kept under the common path MTU to avoid fragmentation
+    private int mtu = 1200;
+
+    // motion deltas round positions and rotations to multiples of these before diffing
+    private int positionQuantum = 1;
+    private int rotationQuantum = 1;
+
+    // sent motion states kept per actor per client, a delta needs the acked one to still be here
+    private int baselineHistory = 32;
+}
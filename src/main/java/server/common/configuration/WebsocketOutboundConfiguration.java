@@ -0,0 +1,21 @@
+package server.common.configuration;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import lombok.Data;
+
+@ConfigurationProperties("websocket-outbound")
+@Data
+public class WebsocketOutboundConfiguration {
+
+    public enum SlowConsumerPolicy {
+        // close the connection, the client reconnects and gets a fresh state
+        DISCONNECT,
+        // drop everything queued and re-send nearby actors on the next synchronisation
+        RESYNC
+    }
+
+    // frames queued per session before it is treated as a slow consumer
+    private int maxQueuedFrames = 512;
+
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DISCONNECT;
+}
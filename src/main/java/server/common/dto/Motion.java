@@ -83,6 +83,41 @@ public class Motion {
         return xValid && yValid && zValid;
     }
 
+    /**
+     * Position after moving at the current velocity for the given time, velocity is in units per
+     * second. Rotation and velocity are carried over unchanged.
+     */
+    public Motion extrapolate(long elapsedMillis) {
+        if (elapsedMillis <= 0 || x == null || y == null || z == null) {
+            return this;
+        }
+
+        return new Motion(
+                map,
+                x + travelled(vx, elapsedMillis),
+                y + travelled(vy, elapsedMillis),
+                z + travelled(vz, elapsedMillis),
+                pitch,
+                roll,
+                yaw,
+                vx,
+                vy,
+                vz,
+                isFalling);
+    }
+
+    public long distanceTo(Motion motion) {
+        long dx = (long) this.getX() - motion.getX();
+        long dy = (long) this.getY() - motion.getY();
+        long dz = (long) this.getZ() - motion.getZ();
+
+        return Math.round(Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+
+    private static int travelled(Integer velocity, long elapsedMillis) {
+        return velocity == null ? 0 : (int) (velocity * elapsedMillis / 1000);
+    }
+
     private boolean validDimension(long v1, long v2, int threshold) {
         return ValueRange.of(v1 - threshold, v1 + threshold).isValidValue(v2);
     }
@@ -0,0 +1,310 @@
+package server.common.eventbus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.processor.ExecutableMethodProcessor;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.util.SupplierUtil;
+import io.micronaut.inject.BeanDefinition;
+import io.micronaut.inject.ExecutableMethod;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.EventBusConfiguration;
+
+/**
+ * Delivers topics inside the node for single node deployments, in place of a Kafka round trip.
+ * The {@code @Topic} methods of every {@code @KafkaListener} are picked up as they are, so the same
+ * handlers run in either mode.
+ *
+ * <p>Each consumer group gets its own bounded ring and dispatcher thread, so, like with Kafka,
+ * every group sees every event on its topics, in publish order per topic, and a slow group doesn't
+ * hold up the others. Batch listeners get whatever is waiting, up to the configured batch size.
+ *
+ * <p>Payloads are written to JSON when published and read back by each group, as a Kafka serde
+ * would. Every group gets its own copy, so neither the publisher nor another group changing a
+ * payload afterwards can race with a listener.
+ */
+@Slf4j
+@Singleton
+@Requires(property = EventBusConfiguration.MODE, value = EventBusConfiguration.IN_PROCESS)
+public class InProcessEventBus implements ExecutableMethodProcessor<Topic> {
+
+    // the payload as JSON, strings as they are, read into a fresh copy per group
+    private record Event(String topic, byte[] payload) {}
+
+    // batch handlers are given the List of events as their payload
+    private record Handler(Class<?> type, boolean batch, Consumer<Object> deliver) {}
+
+    private final EventBusConfiguration configuration;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+    private final BeanContext beanContext;
+
+    private final ConcurrentMap<String, Group> groups = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, List<Group>> subscriptions = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    public InProcessEventBus(
+            EventBusConfiguration configuration,
+            JsonMapper jsonMapper,
+            MeterRegistry meterRegistry,
+            BeanContext beanContext) {
+        this.configuration = configuration;
+        this.jsonMapper = jsonMapper;
+        this.meterRegistry = meterRegistry;
+        this.beanContext = beanContext;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void process(BeanDefinition<?> beanDefinition, ExecutableMethod<?, ?> method) {
+        // producer methods carry @Topic as well
+        if (!beanDefinition.hasAnnotation(KafkaListener.class)) {
+            return;
+        }
+        if (method.getArguments().length != 1) {
+            log.warn("Skipping {}, in-process listeners take a single payload", method);
+            return;
+        }
+
+        String groupId =
+                beanDefinition
+                        .stringValue(KafkaListener.class, "groupId")
+                        .filter(id -> !id.isEmpty())
+                        .orElse(beanDefinition.getBeanType().getName());
+        Argument<?> argument = method.getArguments()[0];
+        boolean batch =
+                beanDefinition.booleanValue(KafkaListener.class, "batch").orElse(false)
+                        && List.class.isAssignableFrom(argument.getType());
+        Class<?> type =
+                batch
+                        ? argument.getFirstTypeVariable()
+                                .<Class<?>>map(Argument::getType)
+                                .orElse(Object.class)
+                        : argument.getType();
+
+        Supplier<Object> bean = SupplierUtil.memoized(() -> beanContext.getBean(beanDefinition));
+        ExecutableMethod<Object, Object> target = (ExecutableMethod<Object, Object>) method;
+        for (String topic : method.stringValues(Topic.class)) {
+            register(
+                    groupId,
+                    topic,
+                    new Handler(type, batch, payload -> target.invoke(bean.get(), payload)));
+        }
+    }
+
+    public <T> void subscribe(String groupId, String topic, Class<T> type, Consumer<T> handler) {
+        register(
+                groupId,
+                topic,
+                new Handler(type, false, payload -> handler.accept(type.cast(payload))));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> void subscribeBatch(
+            String groupId, String topic, Class<T> type, Consumer<List<T>> handler) {
+        register(
+                groupId,
+                topic,
+                new Handler(type, true, payload -> handler.accept((List<T>) payload)));
+    }
+
+    /** Hands the payload to every group on the topic, returns false if any of them dropped it. */
+    public boolean publish(String topic, Object payload) {
+        List<Group> subscribed = subscriptions.get(topic);
+        if (subscribed == null) {
+            return true;
+        }
+
+        Event event;
+        try {
+            event = new Event(topic, write(payload));
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write event on {}, {}", topic, e.getMessage());
+            return false;
+        }
+
+        boolean delivered = true;
+        for (Group group : subscribed) {
+            delivered &= group.offer(event);
+        }
+        return delivered;
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        groups.values().forEach(Group::stop);
+    }
+
+    private void register(String groupId, String topic, Handler handler) {
+        Group group = groups.computeIfAbsent(groupId, Group::new);
+        if (group.handlers.putIfAbsent(topic, handler) != null) {
+            // a group consumes each event once, so the first handler keeps the topic
+            log.warn("{} already has a handler for {}, ignoring another", groupId, topic);
+            return;
+        }
+        subscriptions.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(group);
+        log.info("In-process event bus delivering {} to {}", topic, groupId);
+    }
+
+    private byte[] write(Object payload) throws IOException {
+        if (payload == null) {
+            return null;
+        }
+        return payload instanceof String s
+                ? s.getBytes(StandardCharsets.UTF_8)
+                : jsonMapper.writeValueAsBytes(payload);
+    }
+
+    // what a Kafka serde round trip would have done, e.g. json strings read as models
+    private Object read(byte[] payload, Class<?> type) throws IOException {
+        if (payload == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+        return jsonMapper.readValue(payload, Argument.of(type));
+    }
+
+    private final class Group implements Runnable {
+
+        private final String groupId;
+        private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+        private final BlockingQueue<Event> ring;
+        private final Counter dropped;
+        private final Thread thread;
+
+        Group(String groupId) {
+            this.groupId = groupId;
+            this.ring = new ArrayBlockingQueue<>(configuration.getCapacity());
+            this.dropped = meterRegistry.counter("event.bus.dropped", "group", groupId);
+            this.thread = new Thread(this, "event-bus-" + groupId);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        boolean offer(Event event) {
+            boolean offered;
+            try {
+                // the dispatcher publishing to its own group can't wait for itself
+                offered =
+                        Thread.currentThread() == thread
+                                ? ring.offer(event)
+                                : ring.offer(
+                                        event,
+                                        configuration.getPublishTimeout().toMillis(),
+                                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                offered = false;
+            }
+
+            if (!offered) {
+                dropped.increment();
+                log.warn("Event bus full for {}, dropped event on {}", groupId, event.topic());
+            }
+            return offered;
+        }
+
+        @Override
+        public void run() {
+            List<Event> drained = new ArrayList<>(configuration.getMaxBatchSize());
+            while (running) {
+                try {
+                    Event first = ring.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    drained.add(first);
+                    ring.drainTo(drained, configuration.getMaxBatchSize() - 1);
+                    dispatch(drained);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    drained.clear();
+                }
+            }
+        }
+
+        void stop() {
+            if (!ring.isEmpty()) {
+                log.warn(
+                        "Stopping event bus for {} with {} events undelivered",
+                        groupId,
+                        ring.size());
+            }
+            thread.interrupt();
+        }
+
+        private void dispatch(List<Event> events) {
+            // topics are independent, only the order within a topic is kept
+            Map<String, List<byte[]>> byTopic = new LinkedHashMap<>();
+            for (Event event : events) {
+                byTopic.computeIfAbsent(event.topic(), t -> new ArrayList<>())
+                        .add(event.payload());
+            }
+
+            byTopic.forEach(
+                    (topic, payloads) -> {
+                        Handler handler = handlers.get(topic);
+                        if (handler == null) {
+                            return;
+                        }
+
+                        List<Object> converted = new ArrayList<>(payloads.size());
+                        for (byte[] payload : payloads) {
+                            try {
+                                converted.add(read(payload, handler.type()));
+                            } catch (IOException | RuntimeException e) {
+                                log.error(
+                                        "Failed to read event on {} for {}, {}",
+                                        topic,
+                                        groupId,
+                                        e.getMessage());
+                            }
+                        }
+
+                        if (handler.batch()) {
+                            if (!converted.isEmpty()) {
+                                deliver(topic, handler, converted);
+                            }
+                        } else {
+                            converted.forEach(payload -> deliver(topic, handler, payload));
+                        }
+                    });
+        }
+
+        private void deliver(String topic, Handler handler, Object payload) {
+            try {
+                handler.deliver().accept(payload);
+            } catch (RuntimeException e) {
+                log.error("Listener {} failed on {}, {}", groupId, topic, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package server.common.executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Singleton;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.KeyedExecutorConfiguration;
+
+/**
+ * Runs tasks in parallel across keys and strictly in submission order within a key. Listeners
+ * hand their per actor work here, keyed by actor id, so one actor's motion or damage is never
+ * applied out of order while different actors are processed side by side.
+ *
+ * <p>Each key with work waiting has a queue that is run by one pooled thread at a time. A key
+ * gives its thread up after a bounded number of tasks, so a busy actor can't starve the rest.
+ * Tasks may block, a key's next task only starts once the previous one has returned.
+ *
+ * <p>At most {@code maxPendingTasks} tasks wait across all keys. Past that, {@link #execute}
+ * blocks the submitting listener, so its consumer stops polling rather than queueing without
+ * bound. The returned future completes once the task has run, listeners that must not commit
+ * offsets ahead of their work wait for it before returning.
+ */
+@Slf4j
+@Singleton
+public class KeyedOrderedExecutor {
+
+    private final KeyedExecutorConfiguration configuration;
+
+    private final ExecutorService workers;
+
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Semaphore capacity;
+
+    public KeyedOrderedExecutor(
+            KeyedExecutorConfiguration configuration, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.capacity = new Semaphore(configuration.getMaxPendingTasks());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers =
+                Executors.newFixedThreadPool(
+                        configuration.getThreads(),
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            "keyed-executor-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+
+        meterRegistry.gauge("keyed.executor.pending", pending);
+        meterRegistry.gauge("keyed.executor.keys", lanes, Map::size);
+    }
+
+    /**
+     * Runs the task once every task submitted before it for the same key has finished. Blocks
+     * while the executor is full. The future completes when the task has run, failed or not.
+     */
+    public CompletableFuture<Void> execute(String key, Runnable task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for keyed executor capacity, dropping task for {}", key);
+            done.complete(null);
+            return done;
+        }
+
+        pending.incrementAndGet();
+        Task tracked = new Task(key, task, done);
+        if (key == null) {
+            // nothing to order against
+            submit(tracked);
+            return done;
+        }
+
+        lanes.compute(
+                key,
+                (k, lane) -> {
+                    if (lane == null) {
+                        lane = new Lane(k);
+                    }
+                    lane.tasks.add(tracked);
+                    if (!lane.scheduled) {
+                        lane.scheduled = true;
+                        submit(lane);
+                    }
+                    return lane;
+                });
+        return done;
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pending.get() > 0) {
+            log.warn("Stopping keyed executor with {} tasks pending", pending.get());
+        }
+        // nobody waits on the work that never started
+        workers.shutdownNow().forEach(KeyedOrderedExecutor::drop);
+    }
+
+    private void submit(Runnable runnable) {
+        try {
+            workers.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            log.warn("Keyed executor is stopped, dropping task");
+            drop(runnable);
+        }
+    }
+
+    private static void drop(Runnable runnable) {
+        if (runnable instanceof Lane lane) {
+            Task task;
+            while ((task = lane.tasks.poll()) != null) {
+                task.finish();
+            }
+        } else if (runnable instanceof Task task) {
+            task.finish();
+        }
+    }
+
+    private final class Task implements Runnable {
+
+        private final String key;
+
+        private final Runnable work;
+
+        private final CompletableFuture<Void> done;
+
+        Task(String key, Runnable work, CompletableFuture<Void> done) {
+            this.key = key;
+            this.work = work;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                log.error("Keyed task for {} failed, {}", key, e.getMessage(), e);
+            } finally {
+                finish();
+            }
+        }
+
+        void finish() {
+            pending.decrementAndGet();
+            capacity.release();
+            done.complete(null);
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final String key;
+
+        private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+
+        // only read and written inside lanes.compute for this key
+        private boolean scheduled;
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            Task task;
+            int ran = 0;
+            while (ran < configuration.getMaxTasksPerTurn() && (task = tasks.poll()) != null) {
+                task.run();
+                ran++;
+            }
+
+            // tasks are only added inside compute, so none can be missed between here and there
+            lanes.compute(
+                    key,
+                    (k, lane) -> {
+                        if (tasks.isEmpty()) {
+                            scheduled = false;
+                            return null;
+                        }
+                        submit(this);
+                        return this;
+                    });
+        }
+    }
+}
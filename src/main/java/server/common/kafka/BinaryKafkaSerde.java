@@ -0,0 +1,81 @@
+package server.common.kafka;
+
+import io.micronaut.configuration.kafka.serde.JsonObjectSerde;
+import java.io.IOException;
+import java.util.Map;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+import server.common.configuration.KafkaSerdeConfiguration;
+import server.common.kafka.KafkaPayloadCodec.Schema;
+import server.utils.FeatureFlag;
+
+/**
+ * Writes the configured topics with {@link KafkaPayloadCodec} and everything else as JSON. Records
+ * are read in either format, recognised by their first byte, so consumers keep working while
+ * producers switch format during a rolling upgrade.
+ */
+public class BinaryKafkaSerde<T> implements Serde<T>, Serializer<T>, Deserializer<T> {
+
+    private final Schema<T> schema;
+    private final JsonObjectSerde<T> json;
+    private final KafkaSerdeConfiguration configuration;
+    private final FeatureFlag featureFlag;
+
+    public BinaryKafkaSerde(
+            Schema<T> schema,
+            JsonObjectSerde<T> json,
+            KafkaSerdeConfiguration configuration,
+            FeatureFlag featureFlag) {
+        this.schema = schema;
+        this.json = json;
+        this.configuration = configuration;
+        this.featureFlag = featureFlag;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (Boolean.TRUE.equals(featureFlag.getEnableKafkaBinarySerde())
+                && configuration.isBinary(topic)) {
+            return KafkaPayloadCodec.encode(schema, data);
+        }
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (!KafkaPayloadCodec.isBinary(data)) {
+            return json.deserialize(topic, data);
+        }
+        try {
+            return KafkaPayloadCodec.decode(schema, data);
+        } catch (IOException e) {
+            throw new SerializationException(
+                    "Failed to read binary " + schema.payloadType().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return this;
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return this;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // nothing to configure
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -0,0 +1,61 @@
+package server.common.kafka;
+
+import io.micronaut.configuration.kafka.serde.JsonObjectSerde;
+import io.micronaut.configuration.kafka.serde.SerdeRegistry;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.json.JsonObjectSerializer;
+import jakarta.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.kafka.common.serialization.Serde;
+import server.common.configuration.KafkaSerdeConfiguration;
+import server.common.kafka.KafkaPayloadCodec.Schema;
+import server.utils.FeatureFlag;
+
+/**
+ * Gives Kafka clients and listeners a {@link BinaryKafkaSerde} for the payload types that have a
+ * binary schema. It is asked before the default JSON registry, other types fall through to it.
+ */
+@Singleton
+public class GameSerdeRegistry implements SerdeRegistry {
+
+    private final JsonObjectSerializer jsonObjectSerializer;
+    private final KafkaSerdeConfiguration configuration;
+    private final FeatureFlag featureFlag;
+
+    private final Map<Class<?>, Serde<?>> serdes = new ConcurrentHashMap<>();
+
+    public GameSerdeRegistry(
+            JsonObjectSerializer jsonObjectSerializer,
+            KafkaSerdeConfiguration configuration,
+            FeatureFlag featureFlag) {
+        this.jsonObjectSerializer = jsonObjectSerializer;
+        this.configuration = configuration;
+        this.featureFlag = featureFlag;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Serde<T> getSerde(Class<T> type) {
+        for (Schema<?> schema : KafkaPayloadCodec.SCHEMAS) {
+            if (schema.payloadType() == type) {
+                return (Serde<T>)
+                        serdes.computeIfAbsent(type, t -> create((Schema<T>) schema, type));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private <T> Serde<T> create(Schema<T> schema, Class<T> type) {
+        return new BinaryKafkaSerde<>(
+                schema,
+                new JsonObjectSerde<>(jsonObjectSerializer, type),
+                configuration,
+                featureFlag);
+    }
+}
@@ -0,0 +1,427 @@
+package server.common.kafka;
+
+import static server.socket.v2.codec.MotionBinaryCodec.readMotion;
+import static server.socket.v2.codec.MotionBinaryCodec.readString;
+import static server.socket.v2.codec.MotionBinaryCodec.readVarInt;
+import static server.socket.v2.codec.MotionBinaryCodec.writeMotion;
+import static server.socket.v2.codec.MotionBinaryCodec.writeString;
+import static server.socket.v2.codec.MotionBinaryCodec.writeVarInt;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import server.attribute.stats.model.DamageSource;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.attribute.status.model.Status;
+import server.attribute.status.model.derived.Bleeding;
+import server.attribute.status.model.derived.Burning;
+import server.attribute.status.model.derived.Dead;
+import server.attribute.status.model.derived.Silenced;
+import server.attribute.status.model.derived.Stunned;
+import server.attribute.status.model.derived.Unconscious;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+
+/**
+ * Compact binary format for the high volume Kafka payloads.
+ *
+ * <p>Every record starts with a zero magic byte, which a JSON record can never start with, then a
+ * type byte and a schema version byte. Strings, motion and integers are written as in {@link
+ * server.socket.v2.codec.MotionBinaryCodec}.
+ *
+ * <pre>
+ * record        [0x00][type][version][payload]
+ * PlayerMotion  [actorId][?motion][isOnline][?updatedAt]
+ * Monster       [mobId][actorId][?motion][?updatedAt][timestamp]
+ * Stats         [actorId][baseStats][derivedStats][itemEffects][statusEffects][?attributePoints]
+ * ActorStatus   [actorId][add][statusEffects][count]{[category][id][derivedEffects]
+ *                   [statusEffects][?added][?expiration][canStack][origin]}*count
+ * DamageUpdate  [?damageSource][?targetStats][?originStats]
+ * DamageSource  [actorId][sourceActorId][sourceSkillId][sourceStatusId][damageMap]
+ * </pre>
+ *
+ * [?field] is a presence byte followed by the field when it is 1. Booleans that may be null are a
+ * byte, 0 for null, 1 false and 2 true. Maps and sets are a count followed by their entries, a
+ * count of -1 is null. Doubles are 8 bytes, instants are seconds and nanos as varints.
+ *
+ * <p>To change a schema, bump its version and keep reading the previous one, so records written
+ * before a rolling upgrade can still be consumed.
+ */
+public final class KafkaPayloadCodec {
+
+    public static final byte MAGIC = 0x00;
+
+    public static final byte VERSION = 1;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    public record Schema<T>(
+            byte type,
+            Class<T> payloadType,
+            BiConsumer<ByteBuffer, T> writer,
+            Function<ByteBuffer, T> reader) {}
+
+    public static final Schema<PlayerMotion> PLAYER_MOTION =
+            new Schema<>(
+                    (byte) 0x01,
+                    PlayerMotion.class,
+                    KafkaPayloadCodec::writePlayerMotion,
+                    KafkaPayloadCodec::readPlayerMotion);
+
+    public static final Schema<Monster> MONSTER =
+            new Schema<>(
+                    (byte) 0x02,
+                    Monster.class,
+                    KafkaPayloadCodec::writeMonster,
+                    KafkaPayloadCodec::readMonster);
+
+    public static final Schema<Stats> STATS =
+            new Schema<>(
+                    (byte) 0x03,
+                    Stats.class,
+                    KafkaPayloadCodec::writeStats,
+                    KafkaPayloadCodec::readStats);
+
+    public static final Schema<ActorStatus> ACTOR_STATUS =
+            new Schema<>(
+                    (byte) 0x04,
+                    ActorStatus.class,
+                    KafkaPayloadCodec::writeActorStatus,
+                    KafkaPayloadCodec::readActorStatus);
+
+    public static final Schema<DamageUpdateMessage> DAMAGE_UPDATE =
+            new Schema<>(
+                    (byte) 0x05,
+                    DamageUpdateMessage.class,
+                    KafkaPayloadCodec::writeDamageUpdate,
+                    KafkaPayloadCodec::readDamageUpdate);
+
+    public static final Set<Schema<?>> SCHEMAS =
+            Set.of(PLAYER_MOTION, MONSTER, STATS, ACTOR_STATUS, DAMAGE_UPDATE);
+
+    private KafkaPayloadCodec() {}
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static <T> byte[] encode(Schema<T> schema, T value) {
+        ByteBuffer out = BUFFERS.get();
+        while (true) {
+            out.clear();
+            try {
+                out.put(MAGIC).put(schema.type()).put(VERSION);
+                schema.writer().accept(out, value);
+
+                byte[] bytes = new byte[out.position()];
+                out.flip().get(bytes);
+                return bytes;
+            } catch (BufferOverflowException e) {
+                if (out.capacity() >= MAX_BUFFER_SIZE) {
+                    throw new IllegalArgumentException(
+                            "Binary payload is larger than " + MAX_BUFFER_SIZE + " bytes");
+                }
+                out = ByteBuffer.allocate(out.capacity() * 2);
+                BUFFERS.set(out);
+            }
+        }
+    }
+
+    public static <T> T decode(Schema<T> schema, byte[] data) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.get() != MAGIC) {
+                throw new IOException("Not a binary payload");
+            }
+            byte type = in.get();
+            if (type != schema.type()) {
+                throw new IOException(
+                        "Expected a " + schema.payloadType().getSimpleName() + ", type: " + type);
+            }
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary payload version: " + version);
+            }
+
+            return schema.reader().apply(in);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary payload");
+        }
+    }
+
+    static void writePlayerMotion(ByteBuffer out, PlayerMotion playerMotion) {
+        writeString(out, playerMotion.getActorId());
+        writePresent(out, playerMotion.getMotion() != null);
+        if (playerMotion.getMotion() != null) {
+            writeMotion(out, playerMotion.getMotion());
+        }
+        writeBoolean(out, playerMotion.getIsOnline());
+        writeInstant(out, playerMotion.getUpdatedAt());
+    }
+
+    static PlayerMotion readPlayerMotion(ByteBuffer in) {
+        String actorId = readString(in);
+        return new PlayerMotion(
+                actorId, readPresent(in) ? readMotion(in) : null, readBoolean(in), readInstant(in));
+    }
+
+    static void writeMonster(ByteBuffer out, Monster monster) {
+        writeString(out, monster.getMobId());
+        writeString(out, monster.getActorId());
+        writePresent(out, monster.getMotion() != null);
+        if (monster.getMotion() != null) {
+            writeMotion(out, monster.getMotion());
+        }
+        writeInstant(out, monster.getUpdatedAt());
+        writeString(out, monster.getTimestamp());
+    }
+
+    static Monster readMonster(ByteBuffer in) {
+        String mobId = readString(in);
+        String actorId = readString(in);
+        return new Monster(
+                mobId,
+                actorId,
+                readPresent(in) ? readMotion(in) : null,
+                readInstant(in),
+                readString(in));
+    }
+
+    static void writeStats(ByteBuffer out, Stats stats) {
+        writeString(out, stats.getActorId());
+        writeMap(out, stats.getBaseStats(), v -> writeVarInt(out, v));
+        writeMap(out, stats.getDerivedStats(), out::putDouble);
+        writeMap(out, stats.getItemEffects(), out::putDouble);
+        writeMap(out, stats.getStatusEffects(), out::putDouble);
+        writePresent(out, stats.getAttributePoints() != null);
+        if (stats.getAttributePoints() != null) {
+            writeVarInt(out, stats.getAttributePoints());
+        }
+    }
+
+    static Stats readStats(ByteBuffer in) {
+        String actorId = readString(in);
+        Map<String, Integer> baseStats = readMap(in, () -> readVarInt(in));
+        Map<String, Double> derivedStats = readMap(in, in::getDouble);
+        Map<String, Double> itemEffects = readMap(in, in::getDouble);
+        Map<String, Double> statusEffects = readMap(in, in::getDouble);
+        Integer attributePoints = readPresent(in) ? readVarInt(in) : null;
+
+        return new Stats(
+                actorId, baseStats, derivedStats, itemEffects, statusEffects, attributePoints);
+    }
+
+    static void writeActorStatus(ByteBuffer out, ActorStatus actorStatus) {
+        writeString(out, actorStatus.getActorId());
+        out.put((byte) (actorStatus.isAdd() ? 1 : 0));
+        writeStrings(out, actorStatus.getStatusEffects());
+
+        // the getter turns a null set into an empty one, as it does for JSON
+        Set<Status> statuses = actorStatus.getActorStatuses();
+        writeVarInt(out, statuses.size());
+        for (Status status : statuses) {
+            writeString(out, status.getCategory());
+            writeString(out, status.getId());
+            writeMap(out, status.getDerivedEffects(), out::putDouble);
+            writeStrings(out, status.getStatusEffects());
+            writeInstant(out, status.getAdded());
+            writeInstant(out, status.getExpiration());
+            writeBoolean(out, status.getCanStack());
+            writeString(out, status.getOrigin());
+        }
+    }
+
+    static ActorStatus readActorStatus(ByteBuffer in) {
+        String actorId = readString(in);
+        boolean add = in.get() == 1;
+        Set<String> statusEffects = readStrings(in);
+
+        int count = readVarInt(in);
+        Set<Status> statuses = new HashSet<>(count);
+        for (int i = 0; i < count; i++) {
+            String category = readString(in);
+            Status status = newStatus(category);
+            status.setCategory(category);
+            status.setId(readString(in));
+            status.setDerivedEffects(readMap(in, in::getDouble));
+            status.setStatusEffects(readStrings(in));
+            status.setAdded(readInstant(in));
+            status.setExpiration(readInstant(in));
+            status.setCanStack(readBoolean(in));
+            status.setOrigin(readString(in));
+            statuses.add(status);
+        }
+
+        return new ActorStatus(actorId, statuses, add, statusEffects);
+    }
+
+    static void writeDamageUpdate(ByteBuffer out, DamageUpdateMessage damageUpdateMessage) {
+        DamageSource damageSource = damageUpdateMessage.getDamageSource();
+        writePresent(out, damageSource != null);
+        if (damageSource != null) {
+            writeString(out, damageSource.getActorId());
+            writeString(out, damageSource.getSourceActorId());
+            writeString(out, damageSource.getSourceSkillId());
+            writeString(out, damageSource.getSourceStatusId());
+            writeMap(out, damageSource.getDamageMap(), out::putDouble);
+        }
+        writeOptionalStats(out, damageUpdateMessage.getTargetStats());
+        writeOptionalStats(out, damageUpdateMessage.getOriginStats());
+    }
+
+    static DamageUpdateMessage readDamageUpdate(ByteBuffer in) {
+        DamageSource damageSource = null;
+        if (readPresent(in)) {
+            damageSource =
+                    new DamageSource(
+                            readString(in),
+                            readString(in),
+                            readString(in),
+                            readString(in),
+                            readMap(in, in::getDouble));
+        }
+        Stats targetStats = readPresent(in) ? readStats(in) : null;
+        Stats originStats = readPresent(in) ? readStats(in) : null;
+
+        return new DamageUpdateMessage(damageSource, targetStats, originStats);
+    }
+
+    // the subtype decides how a status applies, so it is restored from the category
+    private static Status newStatus(String category) {
+        if (category == null) {
+            return new Status();
+        }
+        return switch (category) {
+            case "BLEEDING" -> new Bleeding();
+            case "BURNING" -> new Burning();
+            case "DEAD" -> new Dead();
+            case "SILENCED" -> new Silenced();
+            case "STUNNED" -> new Stunned();
+            case "UNCONSCIOUS" -> new Unconscious();
+            default -> new Status();
+        };
+    }
+
+    private static void writeOptionalStats(ByteBuffer out, Stats stats) {
+        writePresent(out, stats != null);
+        if (stats != null) {
+            writeStats(out, stats);
+        }
+    }
+
+    private static void writePresent(ByteBuffer out, boolean present) {
+        out.put((byte) (present ? 1 : 0));
+    }
+
+    private static boolean readPresent(ByteBuffer in) {
+        return in.get() == 1;
+    }
+
+    private static void writeBoolean(ByteBuffer out, Boolean value) {
+        out.put((byte) (value == null ? 0 : value ? 2 : 1));
+    }
+
+    private static Boolean readBoolean(ByteBuffer in) {
+        byte value = in.get();
+        return value == 0 ? null : value == 2;
+    }
+
+    private static void writeInstant(ByteBuffer out, Instant instant) {
+        writePresent(out, instant != null);
+        if (instant != null) {
+            writeVarLong(out, instant.getEpochSecond());
+            writeVarInt(out, instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(ByteBuffer in) {
+        return readPresent(in) ? Instant.ofEpochSecond(readVarLong(in), readVarInt(in)) : null;
+    }
+
+    private static <V> void writeMap(ByteBuffer out, Map<String, V> map, Consumer<V> writeValue) {
+        if (map == null) {
+            writeVarInt(out, -1);
+            return;
+        }
+        writeVarInt(out, map.size());
+        map.forEach(
+                (key, value) -> {
+                    writeString(out, key);
+                    writeValue.accept(value);
+                });
+    }
+
+    private static <V> Map<String, V> readMap(ByteBuffer in, Supplier<V> readValue) {
+        int count = readVarInt(in);
+        if (count < 0) {
+            return null;
+        }
+        Map<String, V> map = new HashMap<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = readString(in);
+            map.put(key, readValue.get());
+        }
+        return map;
+    }
+
+    private static void writeStrings(ByteBuffer out, Collection<String> values) {
+        if (values == null) {
+            writeVarInt(out, -1);
+            return;
+        }
+        writeVarInt(out, values.size());
+        values.forEach(value -> writeString(out, value));
+    }
+
+    private static Set<String> readStrings(ByteBuffer in) {
+        int count = readVarInt(in);
+        if (count < 0) {
+            return null;
+        }
+        Set<String> values = new HashSet<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeVarLong(ByteBuffer out, long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.put((byte) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.put((byte) zigZag);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        int shift = 0;
+        while (shift < 70) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (result >>> 1) ^ -(result & 1);
+            }
+            shift += 7;
+        }
+        throw new BufferUnderflowException();
+    }
+}
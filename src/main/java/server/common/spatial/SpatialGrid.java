@@ -0,0 +1,208 @@
+package server.common.spatial;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import server.common.dto.Location;
+
+/**
+ * In memory uniform grid per map, used to answer proximity queries without going to the database.
+ * Every entry lives in the single cell containing its x/y position, a query visits the cells
+ * overlapping the search square and checks the entries in them.
+ *
+ * <p>Queries use the same square range on x and y as the previous mongo filters, z is ignored.
+ */
+public class SpatialGrid<T> {
+
+    /**
+     * Told when an entry is added, moves into another cell or is removed. Moves within a cell are
+     * not reported, so listeners only do work at cell granularity.
+     */
+    @FunctionalInterface
+    public interface CellChangeListener {
+        // previous is null for a new entry, current is null for a removed one
+        void onCellChanged(String id, Location previous, Location current);
+    }
+
+    private record Entry<T>(String map, long cell, int x, int y, T value) {
+        Location location() {
+            return new Location(map, x, y, 0);
+        }
+    }
+
+    private final int cellSize;
+
+    private final ConcurrentMap<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    // map -> cell -> ids in that cell
+    private final ConcurrentMap<String, ConcurrentMap<Long, Set<String>>> maps =
+            new ConcurrentHashMap<>();
+
+    private final List<CellChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+    public void addListener(CellChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /** Adds or moves the entry, entries without a map or x/y position are removed instead. */
+    public void put(String id, Location location, T value) {
+        if (!isValid(location)) {
+            remove(id);
+            return;
+        }
+
+        String map = location.getMap();
+        int x = location.getX();
+        int y = location.getY();
+        long cell = cellKey(cellOf(x), cellOf(y));
+
+        List<Entry<T>> moved = new ArrayList<>(1);
+        // compute serialises updates of the same id, so it can never end up in two cells
+        Entry<T> current =
+                entries.compute(
+                        id,
+                        (key, previous) -> {
+                            boolean changedCell =
+                                    previous == null
+                                            || previous.cell() != cell
+                                            || !previous.map().equals(map);
+                            if (changedCell) {
+                                if (previous != null) {
+                                    removeFromCell(previous.map(), previous.cell(), id);
+                                }
+                                addToCell(map, cell, id);
+                                moved.add(previous);
+                            }
+                            return new Entry<>(map, cell, x, y, value);
+                        });
+
+        if (!moved.isEmpty()) {
+            Entry<T> previous = moved.get(0);
+            notifyListeners(id, previous == null ? null : previous.location(), current.location());
+        }
+    }
+
+    public T get(String id) {
+        Entry<T> entry = entries.get(id);
+        return entry == null ? null : entry.value();
+    }
+
+    public T remove(String id) {
+        Entry<T> removed = entries.remove(id);
+        if (removed == null) {
+            return null;
+        }
+        removeFromCell(removed.map(), removed.cell(), id);
+        notifyListeners(id, removed.location(), null);
+        return removed.value();
+    }
+
+    public void removeIf(Predicate<T> filter) {
+        entries.forEach(
+                (id, entry) -> {
+                    // only drop the entry we tested, not one that moved in the meantime
+                    if (filter.test(entry.value()) && entries.remove(id, entry)) {
+                        removeFromCell(entry.map(), entry.cell(), id);
+                        notifyListeners(id, entry.location(), null);
+                    }
+                });
+    }
+
+    public List<T> query(Location center, int threshold) {
+        List<T> found = new ArrayList<>();
+        if (!isValid(center)) {
+            return found;
+        }
+
+        ConcurrentMap<Long, Set<String>> cells = maps.get(center.getMap());
+        if (cells == null) {
+            return found;
+        }
+
+        int minX = center.getX() - threshold;
+        int maxX = center.getX() + threshold;
+        int minY = center.getY() - threshold;
+        int maxY = center.getY() + threshold;
+
+        for (int cx = cellOf(minX); cx <= cellOf(maxX); cx++) {
+            for (int cy = cellOf(minY); cy <= cellOf(maxY); cy++) {
+                Set<String> ids = cells.get(cellKey(cx, cy));
+                if (ids == null) {
+                    continue;
+                }
+                for (String id : ids) {
+                    Entry<T> entry = entries.get(id);
+                    if (entry != null
+                            && entry.map().equals(center.getMap())
+                            && entry.x() >= minX
+                            && entry.x() <= maxX
+                            && entry.y() >= minY
+                            && entry.y() <= maxY) {
+                        found.add(entry.value());
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void notifyListeners(String id, Location previous, Location current) {
+        listeners.forEach(listener -> listener.onCellChanged(id, previous, current));
+    }
+
+    private void addToCell(String map, long cell, String id) {
+        maps.computeIfAbsent(map, m -> new ConcurrentHashMap<>())
+                .compute(
+                        cell,
+                        (key, ids) -> {
+                            Set<String> updated = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                            updated.add(id);
+                            return updated;
+                        });
+    }
+
+    private void removeFromCell(String map, long cell, String id) {
+        ConcurrentMap<Long, Set<String>> cells = maps.get(map);
+        if (cells == null) {
+            return;
+        }
+        cells.computeIfPresent(
+                cell,
+                (key, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+    }
+
+    private int cellOf(int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static boolean isValid(Location location) {
+        return location != null
+                && location.getMap() != null
+                && location.getX() != null
+                && location.getY() != null;
+    }
+}
@@ -23,8 +23,9 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 import server.attribute.stats.types.StatsTypes;
 import server.common.configuration.MongoConfiguration;
+import server.common.configuration.SpatialGridConfiguration;
 import server.common.dto.Location;
-import server.common.mongo.query.MongoDbQueryHelper;
+import server.common.spatial.SpatialGrid;
 import server.items.model.DroppedItem;
 import server.items.model.Item;
 import server.items.model.ItemInstance;
@@ -44,21 +45,37 @@ public class ItemRepository {
     MongoCollection<DroppedItem> droppedItemCollection;
     MongoCollection<ItemInstance> itemInstanceCollection;
 
-    public ItemRepository(MongoConfiguration configuration, MongoClient mongoClient) {
+    // dropped items by location, mongo is only read to fill it on start up
+    SpatialGrid<DroppedItem> droppedItemGrid;
+
+    public ItemRepository(
+            MongoConfiguration configuration,
+            MongoClient mongoClient,
+            SpatialGridConfiguration spatialGridConfiguration) {
         this.configuration = configuration;
         this.mongoClient = mongoClient;
+        this.droppedItemGrid = new SpatialGrid<>(spatialGridConfiguration.getCellSize());
         prepareCollections();
+        loadDroppedItemGrid();
+    }
+
+    public void addCellChangeListener(SpatialGrid.CellChangeListener listener) {
+        droppedItemGrid.addListener(listener);
     }
 
     public Single<List<DroppedItem>> getItemsNear(Location location) {
-        return MongoDbQueryHelper.betweenLocation(droppedItemCollection, location, 1000);
+        return Single.fromCallable(() -> droppedItemGrid.query(location, 1000));
     }
 
     public Single<DroppedItem> createDroppedItem(DroppedItem droppedItem) {
         Bson filter = Filters.eq("itemInstanceId", droppedItem.getItemInstanceId());
         ReplaceOptions options = new ReplaceOptions().upsert(true);
         return Single.fromPublisher(droppedItemCollection.replaceOne(filter, droppedItem, options))
-                .map(res -> droppedItem);
+                .map(res -> droppedItem)
+                .doOnSuccess(
+                        item ->
+                                droppedItemGrid.put(
+                                        item.getItemInstanceId(), item.getLocation(), item));
     }
 
     public Single<DroppedItem> findDroppedItemByInstanceId(String itemInstanceId) {
@@ -90,6 +107,7 @@ public class ItemRepository {
     }
 
     public Single<DeleteResult> deleteDroppedItem(String itemInstanceId) {
+        droppedItemGrid.remove(itemInstanceId);
         return Single.fromPublisher(
                 droppedItemCollection.deleteOne(eq("itemInstanceId", itemInstanceId)));
     }
@@ -135,6 +153,17 @@ public class ItemRepository {
         return Single.fromPublisher(droppedItemCollection.deleteMany(gt("droppedAt", cutoffTime)));
     }
 
+    private void loadDroppedItemGrid() {
+        Flowable.fromPublisher(droppedItemCollection.find())
+                .doOnNext(
+                        item ->
+                                droppedItemGrid.put(
+                                        item.getItemInstanceId(), item.getLocation(), item))
+                .doOnComplete(() -> log.info("Loaded {} dropped items", droppedItemGrid.size()))
+                .doOnError(err -> log.error("Failed to load dropped items, {}", err.getMessage()))
+                .subscribe();
+    }
+
     private void prepareCollections() {
         this.itemCollection =
                 mongoClient
@@ -0,0 +1,47 @@
+package server.monster.server_integration.listener;
+
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.OffsetReset;
+import io.micronaut.configuration.kafka.annotation.OffsetStrategy;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import jakarta.inject.Inject;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import server.common.executor.KeyedOrderedExecutor;
+import server.monster.server_integration.model.Monster;
+import server.motion.repository.ActorMotionRepository;
+import server.socket.producer.SocketUpdateRouter;
+import server.utils.Conflation;
+
+// batch listeners are per class, so mob motion is kept apart from the other mob topics
+@Slf4j
+@KafkaListener(
+        groupId = "mob-motion-listener",
+        offsetReset = OffsetReset.LATEST,
+        offsetStrategy = OffsetStrategy.SYNC,
+        clientId = "mob-motion-listener",
+        batch = true)
+public class MobMotionUpdateListener {
+
+    @Inject SocketUpdateRouter socketUpdateRouter;
+
+    @Inject ActorMotionRepository actorMotionRepository;
+
+    @Inject KeyedOrderedExecutor keyedExecutor;
+
+    @Topic("mob-motion-update")
+    public void receiveUpdateMobs(List<Monster> monsters) {
+        // Add validation
+        Conflation.latestByKey(monsters, Monster::getActorId)
+                .values()
+                .forEach(
+                        monster ->
+                                keyedExecutor.execute(
+                                        monster.getActorId(), () -> handle(monster)));
+    }
+
+    private void handle(Monster monster) {
+        actorMotionRepository.updateActorMotion(monster.getActorId(), monster.getMotion());
+        socketUpdateRouter.sendMobUpdateResult(monster);
+    }
+}
@@ -10,10 +10,8 @@ import lombok.extern.slf4j.Slf4j;
 import server.attribute.stats.service.StatsService;
 import server.attribute.status.service.StatusService;
 import server.monster.server_integration.model.Monster;
-import server.monster.server_integration.producer.MonsterServerProducer;
 import server.monster.server_integration.service.MobInstanceService;
-import server.motion.repository.ActorMotionRepository;
-import server.session.SessionParamHelper;
+import server.session.SessionSubscriptionIndex;
 import server.socket.model.SocketResponse;
 import server.socket.model.SocketResponseType;
 import server.socket.service.WebsocketClientUpdatesService;
@@ -26,16 +24,12 @@ import server.socket.service.WebsocketClientUpdatesService;
         clientId = "mob-listener")
 public class MonsterServerListener {
 
-    @Inject MonsterServerProducer monsterServerProducer;
-
     @Inject MobInstanceService mobInstanceService;
 
     @Inject StatsService statsService;
     @Inject StatusService statusService;
 
-    @Inject SessionParamHelper sessionParamHelper;
-
-    @Inject ActorMotionRepository actorMotionRepository;
+    @Inject SessionSubscriptionIndex subscriptionIndex;
 
     @Inject WebsocketClientUpdatesService clientUpdatesService;
 
@@ -56,11 +50,7 @@ public class MonsterServerListener {
     public void receiveRemoveMobsFromGame(String actorId) {
         notifyClientsToRemoveMobs(actorId);
 
-        sessionParamHelper
-                .getLiveSessions()
-                .forEach(
-                        (actor, session) ->
-                                SessionParamHelper.getTrackingMobs(session).remove(actorId));
+        subscriptionIndex.removeTrackedMob(actorId);
     }
 
     private void notifyClientsToRemoveMobs(String actorId) {
@@ -72,11 +62,4 @@ public class MonsterServerListener {
                         .build();
         clientUpdatesService.sendUpdateToListeningIncludingServer(socketResponse, actorId);
     }
-
-    @Topic("mob-motion-update")
-    public void receiveUpdateMob(Monster monster) {
-        // Add validation
-        actorMotionRepository.updateActorMotion(monster.getActorId(), monster.getMotion());
-        monsterServerProducer.sendMobUpdateResult(monster);
-    }
 }
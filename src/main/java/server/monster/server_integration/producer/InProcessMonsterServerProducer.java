@@ -0,0 +1,27 @@
+package server.monster.server_integration.producer;
+
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import server.common.configuration.EventBusConfiguration;
+import server.common.eventbus.InProcessEventBus;
+import server.monster.server_integration.model.Monster;
+
+@Singleton
+@Replaces(MonsterServerProducer.class)
+@Requires(property = EventBusConfiguration.MODE, value = EventBusConfiguration.IN_PROCESS)
+public class InProcessMonsterServerProducer implements MonsterServerProducer {
+
+    @Inject InProcessEventBus eventBus;
+
+    @Override
+    public void sendMobUpdateResult(String actorId, Monster monster) {
+        eventBus.publish("mob-motion-update-result", monster);
+    }
+
+    @Override
+    public void sendMobUpdateResultToNode(String topic, String actorId, Monster monster) {
+        eventBus.publish(topic, monster);
+    }
+}
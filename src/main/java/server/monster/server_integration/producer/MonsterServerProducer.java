@@ -1,12 +1,18 @@
 package server.monster.server_integration.producer;
 
 import io.micronaut.configuration.kafka.annotation.KafkaClient;
+import io.micronaut.configuration.kafka.annotation.KafkaKey;
 import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.messaging.annotation.MessageBody;
 import server.monster.server_integration.model.Monster;
 
 @KafkaClient(id = "mob-server-client")
 public interface MonsterServerProducer {
 
     @Topic("mob-motion-update-result")
-    void sendMobUpdateResult(Monster monster);
+    void sendMobUpdateResult(@KafkaKey String actorId, @MessageBody Monster monster);
+
+    // the topic is a node topic, see ClusterConfiguration.nodeTopic
+    void sendMobUpdateResultToNode(
+            @Topic String topic, @KafkaKey String actorId, @MessageBody Monster monster);
 }
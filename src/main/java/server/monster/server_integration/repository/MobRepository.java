@@ -3,7 +3,10 @@ package server.monster.server_integration.repository;
 import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.Filters.in;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.reactivestreams.client.MongoClient;
@@ -14,13 +17,15 @@ import jakarta.inject.Singleton;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import server.common.configuration.MongoConfiguration;
+import server.common.configuration.SpatialGridConfiguration;
 import server.common.dto.Location;
 import server.common.dto.Motion;
-import server.common.mongo.query.MongoDbQueryHelper;
+import server.common.spatial.SpatialGrid;
 import server.monster.server_integration.model.Monster;
 
 @Slf4j
@@ -32,10 +37,18 @@ public class MobRepository {
     MongoClient mongoClient;
     MongoCollection<Monster> mobMotionMongoCollection;
 
-    public MobRepository(MongoConfiguration configuration, MongoClient mongoClient) {
+    // mob instances by location, mongo is only read to fill it on start up
+    SpatialGrid<Monster> mobGrid;
+
+    public MobRepository(
+            MongoConfiguration configuration,
+            MongoClient mongoClient,
+            SpatialGridConfiguration spatialGridConfiguration) {
         this.configuration = configuration;
         this.mongoClient = mongoClient;
+        this.mobGrid = new SpatialGrid<>(spatialGridConfiguration.getCellSize());
         prepareCollections();
+        loadMobGrid();
     }
 
     public Single<Monster> findMobInstance(String actorId) {
@@ -44,10 +57,30 @@ public class MobRepository {
 
     public Single<Monster> insertMobInstance(Monster mobInstance) {
         return Single.fromPublisher(mobMotionMongoCollection.insertOne(mobInstance))
-                .map(mob -> mobInstance);
+                .map(mob -> mobInstance)
+                .doOnSuccess(this::indexMob);
+    }
+
+    /** Moves the mob in the grid straight away, persisting the motion can happen later. */
+    public void indexMobMotion(String actorId, Motion motion) {
+        Monster indexed = mobGrid.get(actorId);
+        if (indexed != null) {
+            indexMob(withMotion(indexed, motion));
+            return;
+        }
+
+        // spawned before this node started listening, fetch the rest of the mob once
+        findMobInstance(actorId)
+                .doOnSuccess(mob -> indexMob(withMotion(mob, motion)))
+                .doOnError(err -> log.error("Failed to index mob {}, {}", actorId, err.getMessage()))
+                .subscribe();
     }
 
     public Single<Monster> updateMotionOnly(String actorId, Motion motion) {
+        Monster indexed = mobGrid.get(actorId);
+        if (indexed != null) {
+            indexMob(withMotion(indexed, motion));
+        }
         return Single.fromPublisher(
                 mobMotionMongoCollection.findOneAndUpdate(
                         eq("actorId", actorId),
@@ -58,8 +91,30 @@ public class MobRepository {
                                         Instant.now().truncatedTo(ChronoUnit.MICROS)))));
     }
 
+    /**
+     * Writes the motion of many mobs in one unordered bulk write. Write error indexes follow the
+     * iteration order of the map.
+     */
+    public Single<BulkWriteResult> bulkUpdateMotion(Map<String, Motion> motions) {
+        Instant updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<UpdateOneModel<Monster>> updates =
+                motions.entrySet().stream()
+                        .map(
+                                entry ->
+                                        new UpdateOneModel<Monster>(
+                                                eq("actorId", entry.getKey()),
+                                                Updates.combine(
+                                                        Updates.set("motion", entry.getValue()),
+                                                        Updates.set("updatedAt", updatedAt))))
+                        .toList();
+
+        return Single.fromPublisher(
+                mobMotionMongoCollection.bulkWrite(updates, new BulkWriteOptions().ordered(false)));
+    }
+
     public Single<DeleteResult> deleteMobInstance(String actorId) {
         log.info("Deleting mob instance {}, time now: {}", actorId, Instant.now());
+        mobGrid.remove(actorId);
 
         return Single.fromPublisher(mobMotionMongoCollection.deleteOne(eq("actorId", actorId)));
     }
@@ -69,16 +124,45 @@ public class MobRepository {
                 .toList();
     }
 
+    public Monster getIndexedMob(String actorId) {
+        return mobGrid.get(actorId);
+    }
+
+    public void addCellChangeListener(SpatialGrid.CellChangeListener listener) {
+        mobGrid.addListener(listener);
+    }
+
     public Single<List<Monster>> getMobsNearby(Location location, int threshold) {
-        return MongoDbQueryHelper.nearbyMobMotionFinder(
-                mobMotionMongoCollection, location, threshold);
+        return Single.fromCallable(() -> mobGrid.query(location, threshold));
     }
 
     public Single<DeleteResult> deleteMobsNotUpdatedWithin(Instant time) {
+        mobGrid.removeIf(mob -> mob.getUpdatedAt() != null && mob.getUpdatedAt().isBefore(time));
         return Single.fromPublisher(
                 mobMotionMongoCollection.deleteMany(Filters.lt("updatedAt", time)));
     }
 
+    private void indexMob(Monster mob) {
+        if (mob.getMotion() == null) {
+            return;
+        }
+        mobGrid.put(mob.getActorId(), new Location(mob.getMotion()), mob);
+    }
+
+    // grid entries are shared with readers, a moved mob is a new instance
+    private Monster withMotion(Monster mob, Motion motion) {
+        return new Monster(
+                mob.getMobId(), mob.getActorId(), motion, Instant.now(), mob.getTimestamp());
+    }
+
+    private void loadMobGrid() {
+        Flowable.fromPublisher(mobMotionMongoCollection.find())
+                .doOnNext(this::indexMob)
+                .doOnComplete(() -> log.info("Loaded {} mob instances", mobGrid.size()))
+                .doOnError(err -> log.error("Failed to load mob instances, {}", err.getMessage()))
+                .subscribe();
+    }
+
     private void prepareCollections() {
         this.mobMotionMongoCollection =
                 mongoClient
@@ -130,7 +130,7 @@ public class MobInstanceService {
 
         Single.fromCallable(
                         () -> {
-                            updateProducer.removeMobsFromGame(mobId);
+                            updateProducer.removeMobsFromGame(mobId, mobId);
                             return 1;
                         })
                 .delaySubscription((DEATH_DELETE_TIME - 500), TimeUnit.MILLISECONDS)
@@ -5,18 +5,25 @@ import io.micronaut.configuration.kafka.annotation.OffsetReset;
 import io.micronaut.configuration.kafka.annotation.OffsetStrategy;
 import io.micronaut.configuration.kafka.annotation.Topic;
 import jakarta.inject.Inject;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import server.attribute.status.model.ActorStatus;
 import server.attribute.status.service.StatusService;
+import server.common.executor.KeyedOrderedExecutor;
 import server.motion.dto.PlayerMotion;
 import server.motion.repository.ActorMotionRepository;
+import server.motion.service.DeadReckoningService;
 import server.motion.service.PlayerMotionService;
+import server.utils.Conflation;
 
 @Slf4j
 @KafkaListener(
         groupId = "player-motion-listener-group",
         offsetReset = OffsetReset.LATEST,
         offsetStrategy = OffsetStrategy.SYNC,
-        clientId = "player-motion-listener-client")
+        clientId = "player-motion-listener-client",
+        batch = true)
 public class PlayerMotionUpdateListener {
 
     @Inject PlayerMotionService playerMotionService;
@@ -25,33 +32,52 @@ public class PlayerMotionUpdateListener {
 
     @Inject StatusService statusService;
 
+    @Inject DeadReckoningService deadReckoningService;
+
+    @Inject KeyedOrderedExecutor keyedExecutor;
+
     @Topic("player-motion-update")
-    public void receive(PlayerMotion playerMotion) {
+    public void receive(List<PlayerMotion> playerMotions) {
         // TODO: validate
-//        log.info("received player motion in player-motion-update");
-//        log.info("{}", playerMotion);
-
-        // consider random sampling
-        statusService
-                .getActorStatus(playerMotion.getActorId())
-                .doOnSuccess(
-                        actorStatus -> {
-                            if (!actorStatus.canMove()) {
-                                log.warn(
-                                        "Actor tried to move whilst dead, {}",
-                                        playerMotion.getActorId());
-                                return;
-                            }
-
-                            actorMotionRepository.updateActorMotion(
-                                    playerMotion.getActorId(), playerMotion.getMotion());
-                            playerMotionService.relayPlayerMotion(playerMotion);
-                        })
-                .doOnError(
-                        err ->
-                                log.error(
-                                        "Error processing player motion update: {}",
-                                        err.getMessage()))
-                .subscribe();
+        Map<String, PlayerMotion> latest =
+                Conflation.latestByKey(playerMotions, PlayerMotion::getActorId);
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        Map<String, ActorStatus> statuses;
+        try {
+            // waited for on the poll thread, so each actor's motion is handed on in poll order
+            statuses = statusService.getActorStatuses(latest.keySet()).blockingGet();
+        } catch (RuntimeException err) {
+            log.error("Error processing player motion update: {}", err.getMessage());
+            return;
+        }
+
+        latest.values()
+                .forEach(
+                        playerMotion ->
+                                keyedExecutor.execute(
+                                        playerMotion.getActorId(),
+                                        () -> handle(playerMotion, statuses)));
+    }
+
+    private void handle(PlayerMotion playerMotion, Map<String, ActorStatus> statuses) {
+        ActorStatus actorStatus = statuses.get(playerMotion.getActorId());
+        if (actorStatus == null) {
+            log.error("No status found for moving actor {}", playerMotion.getActorId());
+            return;
+        }
+        if (!actorStatus.canMove()) {
+            log.warn("Actor tried to move whilst dead, {}", playerMotion.getActorId());
+            return;
+        }
+
+        actorMotionRepository.updateActorMotion(
+                playerMotion.getActorId(), playerMotion.getMotion());
+        if (deadReckoningService.shouldRelay(
+                playerMotion.getActorId(), playerMotion.getMotion())) {
+            playerMotionService.relayPlayerMotion(playerMotion);
+        }
     }
 }
@@ -17,7 +17,8 @@ public enum SessionParams {
     DROPPED_ITEMS("DROPPED_ITEMS"),
     DERIVED_STATS("DERIVED_STATS"),
     COMBAT_DATA("COMBAT_DATA"),
-    EQUIPPED_ITEMS("EQUIPPED_ITEMS");
+    EQUIPPED_ITEMS("EQUIPPED_ITEMS"),
+    SESSION_STATE("SESSION_STATE");
 
     public final String type;
 }
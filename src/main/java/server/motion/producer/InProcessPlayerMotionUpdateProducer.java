@@ -0,0 +1,28 @@
+package server.motion.producer;
+
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import server.common.configuration.EventBusConfiguration;
+import server.common.eventbus.InProcessEventBus;
+import server.motion.dto.PlayerMotion;
+
+@Singleton
+@Replaces(PlayerMotionUpdateProducer.class)
+@Requires(property = EventBusConfiguration.MODE, value = EventBusConfiguration.IN_PROCESS)
+public class InProcessPlayerMotionUpdateProducer implements PlayerMotionUpdateProducer {
+
+    @Inject InProcessEventBus eventBus;
+
+    @Override
+    public void sendPlayerMotionResult(String actorId, PlayerMotion playerMotion) {
+        eventBus.publish("player-motion-update-result", playerMotion);
+    }
+
+    @Override
+    public void sendPlayerMotionResultToNode(
+            String topic, String actorId, PlayerMotion playerMotion) {
+        eventBus.publish(topic, playerMotion);
+    }
+}
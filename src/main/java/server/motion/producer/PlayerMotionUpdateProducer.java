@@ -1,12 +1,20 @@
 package server.motion.producer;
 
 import io.micronaut.configuration.kafka.annotation.KafkaClient;
+import io.micronaut.configuration.kafka.annotation.KafkaKey;
 import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.messaging.annotation.MessageBody;
 import server.motion.dto.PlayerMotion;
 
 @KafkaClient(id = "player-motion-client")
 public interface PlayerMotionUpdateProducer {
 
     @Topic("player-motion-update-result")
-    void sendPlayerMotionResult(PlayerMotion playerMotion);
+    void sendPlayerMotionResult(@KafkaKey String actorId, @MessageBody PlayerMotion playerMotion);
+
+    // the topic is a node topic, see ClusterConfiguration.nodeTopic
+    void sendPlayerMotionResultToNode(
+            @Topic String topic,
+            @KafkaKey String actorId,
+            @MessageBody PlayerMotion playerMotion);
 }
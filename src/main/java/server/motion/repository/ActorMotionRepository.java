@@ -1,44 +1,59 @@
 package server.motion.repository;
 
-import io.micronaut.cache.annotation.CacheConfig;
-import io.micronaut.cache.annotation.CacheInvalidate;
-import io.micronaut.cache.annotation.CachePut;
-import io.micronaut.cache.annotation.Cacheable;
-import io.micronaut.scheduling.annotation.Scheduled;
-import io.netty.util.internal.ConcurrentSet;
 import io.reactivex.rxjava3.core.Single;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.time.Instant;
 import java.util.List;
-import java.util.Set;
+import javax.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import server.common.dto.Location;
 import server.common.dto.Motion;
+import server.common.spatial.SpatialGrid;
 import server.common.uuid.UUIDHelper;
 import server.monster.server_integration.model.Monster;
 import server.monster.server_integration.repository.MobRepository;
 import server.motion.dto.PlayerMotion;
+import server.motion.service.DeadReckoningService;
 
 @Slf4j
 @Singleton
-@CacheConfig("actor-motion-cache")
 public class ActorMotionRepository {
 
-    private static final String ACTOR_MOTION_CACHE = "actor-motion-cache";
-
-    private Set<String> syncActorMotion = new ConcurrentSet<>();
-
     @Inject PlayerMotionRepository playerMotionRepository;
 
     @Inject MobRepository mobRepository;
 
-    @Cacheable(value = ACTOR_MOTION_CACHE, parameters = "actorId")
+    @Inject DeadReckoningService deadReckoningService;
+
+    @Inject MotionWriteBehindBuffer motionWriteBehindBuffer;
+
+    @Inject ActorPositionStore actorPositionStore;
+
+    @PostConstruct
+    void init() {
+        // actors taken off the grids have logged out or despawned
+        SpatialGrid.CellChangeListener evict =
+                (actorId, previous, current) -> {
+                    if (current == null) {
+                        actorPositionStore.remove(actorId);
+                    }
+                };
+        playerMotionRepository.addCellChangeListener(evict);
+        mobRepository.addCellChangeListener(evict);
+    }
+
     public Single<Motion> fetchActorMotion(String actorId) {
         if (actorId == null || actorId.isBlank()) {
             return null;
         }
 
+        // hot path, mongo only has actors that haven't moved since this server started
+        Motion motion = actorPositionStore.read(actorId);
+        if (motion != null) {
+            return Single.just(motion);
+        }
+
         if (UUIDHelper.isPlayer(actorId)) {
             return playerMotionRepository
                     .fetchPlayerMotion(actorId)
@@ -53,26 +68,40 @@ public class ActorMotionRepository {
         }
     }
 
-    @CachePut(value = ACTOR_MOTION_CACHE, parameters = "actorId", async = true)
     public Motion updateActorMotion(String actorId, Motion motion) {
         if (actorId == null) {
             log.error("actorId null when trying to update motion");
             return null;
         }
-        if (!syncActorMotion.contains(actorId)) {
-            // sync it now if its fresh
-            handleUpdate(actorId, motion, true);
+        // proximity queries read the grid, so it moves now and mongo catches up on the next sync
+        if (UUIDHelper.isPlayer(actorId)) {
+            playerMotionRepository.indexPlayerMotion(
+                    new PlayerMotion(actorId, motion, true, Instant.now()));
+        } else {
+            mobRepository.indexMobMotion(actorId, motion);
         }
 
-        syncActorMotion.add(actorId);
+        actorPositionStore.write(actorId, motion);
+        motionWriteBehindBuffer.add(actorId, motion);
 
         return motion;
     }
 
-    @CacheInvalidate(value = ACTOR_MOTION_CACHE, parameters = "actorId")
     public void handleDisconnect(String actorId) {
-        fetchActorMotion(actorId)
-                .doOnSuccess(motion -> handleUpdate(actorId, motion, false))
+        if (actorId == null || actorId.isBlank()) {
+            return;
+        }
+        deadReckoningService.remove(actorId);
+        // the offline write below replaces whatever was still buffered, and has to land after
+        // any flush already writing it as online
+        motionWriteBehindBuffer
+                .discardAfterInFlight(actorId)
+                .andThen(Single.defer(() -> fetchActorMotion(actorId)))
+                .doOnSuccess(
+                        motion -> {
+                            handleUpdate(actorId, motion, false);
+                            actorPositionStore.remove(actorId);
+                        })
                 .doOnError(
                         err ->
                                 log.error(
@@ -82,31 +111,11 @@ public class ActorMotionRepository {
                 .subscribe();
     }
 
-    @Scheduled(fixedDelay = "1s", initialDelay = "1s")
-    public void syncMotionWithRepo() {
-        // we pull motion information from the cache and we update the cache as first resort
-        // TODO: Convert to batch process
-        //        log.info("Running syncMotionWithRepo scheduler");
-        for (String id : syncActorMotion) {
-            // fetch from cache:
-            fetchActorMotion(id)
-                    .doOnSuccess(motion -> handleUpdate(id, motion, true))
-                    .doOnError(
-                            err ->
-                                    log.error(
-                                            "failed to sync actor: {}, motion with repo: {}",
-                                            id,
-                                            err.getMessage()))
-                    .subscribe();
-        }
-    }
-
     private void handleUpdate(String actorId, Motion motion, boolean online) {
         if (!online) {
             log.info("updating motion to be offline");
             log.info("{}, {}", actorId, motion);
         }
-        syncActorMotion.remove(actorId);
         if (UUIDHelper.isPlayer(actorId)) {
             playerMotionRepository
                     .updateMotion(actorId, new PlayerMotion(actorId, motion, online, Instant.now()))
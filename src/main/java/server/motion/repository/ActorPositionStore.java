@@ -0,0 +1,261 @@
+package server.motion.repository;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.lang.invoke.VarHandle;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.ActorPositionStoreConfiguration;
+import server.common.dto.Motion;
+
+/**
+ * Authoritative in-process actor positions. Every actor gets a slot index, and each slot's fields
+ * live in primitive arrays, so reads don't deserialize anything and writes don't allocate.
+ *
+ * <p>Slots are guarded by a sequence lock. A writer makes the slot version odd while it writes.
+ * Readers never block: they retry when the version was odd or changed while they were reading.
+ * Slots are allocated in pages as the actor count grows, so existing slots never move.
+ *
+ * <p>Freed slots are reused, so each slot records the actor owning it. Removing an actor clears the
+ * owner under the slot lock before the slot is freed, a late writer still holding the old index
+ * retries with a fresh slot and readers of the old index find no owner.
+ */
+@Slf4j
+@Singleton
+public class ActorPositionStore {
+
+    private static final int PAGE_SIZE = 4096;
+
+    private static final int NULL = Integer.MIN_VALUE;
+
+    private static final byte FALLING_UNKNOWN = -1;
+
+    private static final class Page {
+        final AtomicIntegerArray version = new AtomicIntegerArray(PAGE_SIZE);
+        final String[] owner = new String[PAGE_SIZE];
+        final int[] map = new int[PAGE_SIZE];
+        final int[] x = new int[PAGE_SIZE];
+        final int[] y = new int[PAGE_SIZE];
+        final int[] z = new int[PAGE_SIZE];
+        final int[] pitch = new int[PAGE_SIZE];
+        final int[] roll = new int[PAGE_SIZE];
+        final int[] yaw = new int[PAGE_SIZE];
+        final int[] vx = new int[PAGE_SIZE];
+        final int[] vy = new int[PAGE_SIZE];
+        final int[] vz = new int[PAGE_SIZE];
+        final byte[] falling = new byte[PAGE_SIZE];
+        final long[] updatedAtNanos = new long[PAGE_SIZE];
+    }
+
+    private final AtomicReferenceArray<Page> pages;
+
+    private final ConcurrentMap<String, Integer> slots = new ConcurrentHashMap<>();
+
+    private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    // maps are few, keep their names once and store an id per slot
+    private final ConcurrentMap<String, Integer> mapIds = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, String> mapNames = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextMapId = new AtomicInteger();
+
+    private final int capacity;
+
+    @Inject
+    public ActorPositionStore(ActorPositionStoreConfiguration configuration) {
+        int pageCount = Math.max(1, (configuration.getCapacity() + PAGE_SIZE - 1) / PAGE_SIZE);
+        this.pages = new AtomicReferenceArray<>(pageCount);
+        this.capacity = pageCount * PAGE_SIZE;
+    }
+
+    /** Stores the motion, returns false if the store is full. */
+    public boolean write(String actorId, Motion motion) {
+        if (actorId == null || motion == null) {
+            return false;
+        }
+
+        while (true) {
+            Integer slot = slots.computeIfAbsent(actorId, id -> allocate());
+            if (slot == null) {
+                log.warn("Actor position store is full, {} is not stored", actorId);
+                return false;
+            }
+            if (write(actorId, slot, motion)) {
+                return true;
+            }
+        }
+    }
+
+    // false when the actor was removed from the slot before the lock was taken
+    private boolean write(String actorId, Integer slot, Motion motion) {
+        Page page = pages.get(slot / PAGE_SIZE);
+        int i = slot % PAGE_SIZE;
+        int version = lock(page, i);
+        if (!slot.equals(slots.get(actorId))) {
+            page.version.set(i, version + 2);
+            return false;
+        }
+
+        page.owner[i] = actorId;
+        page.map[i] = mapId(motion.getMap());
+        page.x[i] = fromInteger(motion.getX());
+        page.y[i] = fromInteger(motion.getY());
+        page.z[i] = fromInteger(motion.getZ());
+        page.pitch[i] = fromInteger(motion.getPitch());
+        page.roll[i] = fromInteger(motion.getRoll());
+        page.yaw[i] = fromInteger(motion.getYaw());
+        page.vx[i] = fromInteger(motion.getVx());
+        page.vy[i] = fromInteger(motion.getVy());
+        page.vz[i] = fromInteger(motion.getVz());
+        page.falling[i] =
+                motion.getIsFalling() == null
+                        ? FALLING_UNKNOWN
+                        : (byte) (motion.getIsFalling() ? 1 : 0);
+        page.updatedAtNanos[i] = System.nanoTime();
+
+        page.version.set(i, version + 2);
+        return true;
+    }
+
+    /** A copy of the stored motion, or null when the actor isn't stored. */
+    public Motion read(String actorId) {
+        Integer slot = actorId == null ? null : slots.get(actorId);
+        if (slot == null) {
+            return null;
+        }
+
+        Page page = pages.get(slot / PAGE_SIZE);
+        int i = slot % PAGE_SIZE;
+        while (true) {
+            int before = page.version.get(i);
+            if ((before & 1) == 1) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            String owner = page.owner[i];
+            Motion motion =
+                    new Motion(
+                            mapNames.get(page.map[i]),
+                            toInteger(page.x[i]),
+                            toInteger(page.y[i]),
+                            toInteger(page.z[i]),
+                            toInteger(page.pitch[i]),
+                            toInteger(page.roll[i]),
+                            toInteger(page.yaw[i]),
+                            toInteger(page.vx[i]),
+                            toInteger(page.vy[i]),
+                            toInteger(page.vz[i]),
+                            page.falling[i] == FALLING_UNKNOWN ? null : page.falling[i] == 1);
+
+            // the plain reads above must not move past the version check
+            VarHandle.acquireFence();
+            if (page.version.get(i) == before) {
+                // removed since the slot was looked up, and maybe reused
+                return actorId.equals(owner) ? motion : null;
+            }
+        }
+    }
+
+    /** Nanos of the last write for the actor, or -1 when the actor isn't stored. */
+    public long getUpdatedAtNanos(String actorId) {
+        Integer slot = actorId == null ? null : slots.get(actorId);
+        if (slot == null) {
+            return -1;
+        }
+
+        Page page = pages.get(slot / PAGE_SIZE);
+        int i = slot % PAGE_SIZE;
+        while (true) {
+            int before = page.version.get(i);
+            String owner = page.owner[i];
+            long updatedAt = page.updatedAtNanos[i];
+            VarHandle.acquireFence();
+            if ((before & 1) == 0 && page.version.get(i) == before) {
+                return actorId.equals(owner) ? updatedAt : -1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public void remove(String actorId) {
+        Integer slot = actorId == null ? null : slots.remove(actorId);
+        if (slot == null) {
+            return;
+        }
+
+        Page page = pages.get(slot / PAGE_SIZE);
+        int i = slot % PAGE_SIZE;
+        int version = lock(page, i);
+        page.owner[i] = null;
+        page.version.set(i, version + 2);
+
+        // only reusable once no writer can still fill it in for the removed actor
+        freeSlots.add(slot);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // null when the store is full, so no slot is recorded for the actor
+    private Integer allocate() {
+        Integer free = freeSlots.poll();
+        if (free != null) {
+            return free;
+        }
+
+        int slot = nextSlot.getAndIncrement();
+        if (slot >= capacity) {
+            nextSlot.decrementAndGet();
+            return null;
+        }
+
+        int pageIndex = slot / PAGE_SIZE;
+        if (pages.get(pageIndex) == null) {
+            pages.compareAndSet(pageIndex, null, new Page());
+        }
+        return slot;
+    }
+
+    private static int lock(Page page, int i) {
+        while (true) {
+            int version = page.version.get(i);
+            if ((version & 1) == 0 && page.version.compareAndSet(i, version, version + 1)) {
+                return version;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private int mapId(String map) {
+        if (map == null) {
+            return NULL;
+        }
+
+        return mapIds.computeIfAbsent(
+                map,
+                name -> {
+                    int id = nextMapId.getAndIncrement();
+                    mapNames.put(id, name);
+                    return id;
+                });
+    }
+
+    private static int fromInteger(Integer value) {
+        return value == null ? NULL : value;
+    }
+
+    private static Integer toInteger(int value) {
+        return value == NULL ? null : value;
+    }
+}
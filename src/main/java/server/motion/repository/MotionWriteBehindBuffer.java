@@ -0,0 +1,190 @@
+package server.motion.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.CompletableSubject;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.MotionPersistenceConfiguration;
+import server.common.dto.Motion;
+import server.common.uuid.UUIDHelper;
+import server.monster.server_integration.repository.MobRepository;
+
+/**
+ * Holds the latest motion per actor until the next flush, which writes it with one unordered bulk
+ * write per collection and batch. Actors whose write failed go back in the buffer, unless a newer
+ * motion arrived for them in the meantime.
+ *
+ * <p>Flushes can overlap when a write is slow, so an actor with a write under way is left in the
+ * buffer until that write is done. An actor never has two writes racing each other, and a failed
+ * write can't be put back over a newer one that already went through.
+ *
+ * <p>Writes that must land after the buffered motion, like marking a player offline, wait on
+ * {@link #discardAfterInFlight(String)} so an in-flight flush can't overwrite them.
+ */
+@Slf4j
+@Singleton
+public class MotionWriteBehindBuffer {
+
+    private record Pending(Motion motion, int attempts) {}
+
+    @Inject PlayerMotionRepository playerMotionRepository;
+
+    @Inject MobRepository mobRepository;
+
+    @Inject MotionPersistenceConfiguration configuration;
+
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    // the batch write each actor is in, while it is under way
+    private final ConcurrentMap<String, Completable> inFlight = new ConcurrentHashMap<>();
+
+    public void add(String actorId, Motion motion) {
+        pending.put(actorId, new Pending(motion, 0));
+    }
+
+    public Motion discard(String actorId) {
+        Pending removed = pending.remove(actorId);
+        return removed == null ? null : removed.motion();
+    }
+
+    /**
+     * Discards the buffered motion once any write of it already under way has finished, failed or
+     * not. A failed write is not retried.
+     */
+    public Completable discardAfterInFlight(String actorId) {
+        discard(actorId);
+        return inFlight.getOrDefault(actorId, Completable.complete())
+                // a failed write goes back in the buffer before it completes
+                .andThen(Completable.fromAction(() -> discard(actorId)));
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    @Scheduled(
+            fixedDelay = "${motion-persistence.flush-interval:1s}",
+            initialDelay = "${motion-persistence.flush-interval:1s}")
+    public void scheduledFlush() {
+        flush()
+                .doOnError(err -> log.error("Failed to flush actor motion, {}", err.getMessage()))
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    // taking from the buffer and marking in flight happen together, so flushes can't interleave
+    public synchronized Completable flush() {
+        Map<String, Pending> players = new LinkedHashMap<>();
+        Map<String, Pending> mobs = new LinkedHashMap<>();
+        for (String actorId : pending.keySet()) {
+            if (inFlight.containsKey(actorId)) {
+                // taken by the next flush, once the write under way is done
+                continue;
+            }
+            Pending motion = pending.remove(actorId);
+            if (motion == null) {
+                continue;
+            }
+            (UUIDHelper.isPlayer(actorId) ? players : mobs).put(actorId, motion);
+        }
+
+        List<Completable> writes = new ArrayList<>();
+        batches(players).forEach(b -> writes.add(write(b, playerMotionRepository::bulkUpdateMotion)));
+        batches(mobs).forEach(b -> writes.add(write(b, mobRepository::bulkUpdateMotion)));
+
+        return Completable.merge(writes);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        log.info("Flushing {} buffered actor motions before shutdown", pending.size());
+        boolean completed =
+                flush()
+                        .blockingAwait(
+                                configuration.getShutdownTimeout().toMillis(),
+                                TimeUnit.MILLISECONDS);
+        if (!completed) {
+            log.warn("Timed out flushing actor motion on shutdown");
+        }
+    }
+
+    private List<Map<String, Pending>> batches(Map<String, Pending> motions) {
+        List<Map<String, Pending>> batches = new ArrayList<>();
+        Map<String, Pending> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, Pending> entry : motions.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= configuration.getMaxBatchSize()) {
+                batches.add(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
+    private Completable write(
+            Map<String, Pending> batch,
+            Function<Map<String, Motion>, Single<BulkWriteResult>> bulkWrite) {
+        Map<String, Motion> motions = new LinkedHashMap<>();
+        batch.forEach((actorId, p) -> motions.put(actorId, p.motion()));
+
+        CompletableSubject written = CompletableSubject.create();
+        batch.keySet().forEach(actorId -> inFlight.put(actorId, written));
+
+        return Completable.defer(() -> bulkWrite.apply(motions).ignoreElement())
+                .onErrorComplete(
+                        err -> {
+                            retryFailed(batch, err);
+                            return true;
+                        })
+                .doFinally(
+                        () -> {
+                            batch.keySet().forEach(actorId -> inFlight.remove(actorId, written));
+                            written.onComplete();
+                        });
+    }
+
+    private void retryFailed(Map<String, Pending> batch, Throwable err) {
+        List<String> actorIds = new ArrayList<>(batch.keySet());
+        List<String> failed;
+        if (err instanceof MongoBulkWriteException bulkWriteException) {
+            // unordered, so everything but the reported writes went through
+            failed =
+                    bulkWriteException.getWriteErrors().stream()
+                            .map(BulkWriteError::getIndex)
+                            .map(actorIds::get)
+                            .toList();
+        } else {
+            failed = actorIds;
+        }
+
+        log.warn("Failed to write motion for {} actors, {}", failed.size(), err.getMessage());
+        for (String actorId : failed) {
+            Pending p = batch.get(actorId);
+            if (p.attempts() + 1 >= configuration.getMaxAttempts()) {
+                log.error("Dropping motion for {} after {} attempts", actorId, p.attempts() + 1);
+                continue;
+            }
+            // a newer motion replaces the failed one, it is still buffered as the actor is in flight
+            pending.putIfAbsent(actorId, new Pending(p.motion(), p.attempts() + 1));
+        }
+    }
+}
@@ -4,8 +4,11 @@ import static com.mongodb.client.model.Filters.*;
 import static com.mongodb.client.model.Updates.combine;
 import static com.mongodb.client.model.Updates.set;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
@@ -20,12 +23,15 @@ import jakarta.inject.Singleton;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.conversions.Bson;
 import server.common.configuration.MongoConfiguration;
+import server.common.configuration.SpatialGridConfiguration;
+import server.common.dto.Location;
 import server.common.dto.Motion;
-import server.common.mongo.query.MongoDbQueryHelper;
+import server.common.spatial.SpatialGrid;
 import server.motion.dto.PlayerMotion;
 import server.motion.dto.exceptions.PlayerMotionException;
 
@@ -39,10 +45,18 @@ public class PlayerMotionRepository {
     private final MongoClient mongoClient;
     private MongoCollection<PlayerMotion> playerMotionMongoCollection;
 
-    public PlayerMotionRepository(MongoConfiguration configuration, MongoClient mongoClient) {
+    // online players by location, mongo is only read to fill it on start up
+    private final SpatialGrid<PlayerMotion> onlinePlayerGrid;
+
+    public PlayerMotionRepository(
+            MongoConfiguration configuration,
+            MongoClient mongoClient,
+            SpatialGridConfiguration spatialGridConfiguration) {
         this.configuration = configuration;
         this.mongoClient = mongoClient;
+        this.onlinePlayerGrid = new SpatialGrid<>(spatialGridConfiguration.getCellSize());
         prepareCollections();
+        loadOnlinePlayerGrid();
     }
 
     public Single<PlayerMotion> fetchPlayerMotion(String actorId) {
@@ -70,6 +84,9 @@ public class PlayerMotionRepository {
 
     @CacheInvalidate(value = ACTOR_MOTION_CACHE, parameters = "actorId")
     public Single<PlayerMotion> setPlayerOnlineStatus(String actorId, boolean isOnline) {
+        if (!isOnline) {
+            onlinePlayerGrid.remove(actorId);
+        }
         return Single.fromPublisher(
                 playerMotionMongoCollection.findOneAndUpdate(
                         eq("actorId", actorId), set("isOnline", isOnline)));
@@ -77,6 +94,7 @@ public class PlayerMotionRepository {
 
     @CacheInvalidate(value = ACTOR_MOTION_CACHE, parameters = "actorId")
     public Single<PlayerMotion> updateMotion(String actorId, PlayerMotion playerMotion) {
+        indexPlayerMotion(playerMotion);
         return Single.fromPublisher(
                         playerMotionMongoCollection.findOneAndUpdate(
                                 eq("actorId", playerMotion.getActorId()),
@@ -89,22 +107,74 @@ public class PlayerMotionRepository {
                 .map(success -> playerMotion);
     }
 
+    /**
+     * Writes the motion of online players in one unordered bulk write. Write error indexes follow
+     * the iteration order of the map.
+     */
+    public Single<BulkWriteResult> bulkUpdateMotion(Map<String, Motion> motions) {
+        Instant updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<UpdateOneModel<PlayerMotion>> updates =
+                motions.entrySet().stream()
+                        .map(
+                                entry ->
+                                        new UpdateOneModel<PlayerMotion>(
+                                                eq("actorId", entry.getKey()),
+                                                Updates.combine(
+                                                        Updates.set("motion", entry.getValue()),
+                                                        Updates.set("isOnline", true),
+                                                        Updates.set("updatedAt", updatedAt))))
+                        .toList();
+
+        return Single.fromPublisher(
+                playerMotionMongoCollection.bulkWrite(
+                        updates, new BulkWriteOptions().ordered(false)));
+    }
+
     @CacheInvalidate(value = ACTOR_MOTION_CACHE, parameters = "actorId")
     public Single<DeleteResult> deletePlayerMotion(String actorId) {
+        onlinePlayerGrid.remove(actorId);
         // TODO: should be delete one, but sometimes tests can flake
         return Single.fromPublisher(playerMotionMongoCollection.deleteMany(eq("actorId", actorId)));
     }
 
     public Single<List<PlayerMotion>> getPlayersNearby(
             PlayerMotion playerMotion, Integer threshold) {
-        return MongoDbQueryHelper.getNearbyPlayers(
-                playerMotionMongoCollection, playerMotion, threshold);
+        return Single.fromCallable(
+                () ->
+                        onlinePlayerGrid
+                                .query(new Location(playerMotion.getMotion()), threshold)
+                                .stream()
+                                .filter(p -> !p.getActorId().equals(playerMotion.getActorId()))
+                                .toList());
+    }
+
+    /** Online players are moved in the grid straight away, offline ones are taken out of it. */
+    public void indexPlayerMotion(PlayerMotion playerMotion) {
+        if (Boolean.TRUE.equals(playerMotion.getIsOnline())) {
+            onlinePlayerGrid.put(
+                    playerMotion.getActorId(),
+                    new Location(playerMotion.getMotion()),
+                    playerMotion);
+        } else {
+            onlinePlayerGrid.remove(playerMotion.getActorId());
+        }
+    }
+
+    public PlayerMotion getIndexedPlayerMotion(String actorId) {
+        return onlinePlayerGrid.get(actorId);
+    }
+
+    public void addCellChangeListener(SpatialGrid.CellChangeListener listener) {
+        onlinePlayerGrid.addListener(listener);
     }
 
     public Flowable<UpdateResult> checkAndUpdateUserOnline() {
         // Duplicate functionality of Character service
         Instant logoutTime = Instant.now().minusSeconds(360);
 
+        onlinePlayerGrid.removeIf(
+                p -> p.getUpdatedAt() != null && p.getUpdatedAt().isBefore(logoutTime));
+
         // if is online and not updated in the last 20 seconds, set to logged out.
         return Flowable.fromPublisher(
                 playerMotionMongoCollection.updateMany(
@@ -112,6 +182,14 @@ public class PlayerMotionRepository {
                         set("isOnline", false)));
     }
 
+    private void loadOnlinePlayerGrid() {
+        Flowable.fromPublisher(playerMotionMongoCollection.find(eq("isOnline", true)))
+                .doOnNext(this::indexPlayerMotion)
+                .doOnComplete(() -> log.info("Loaded {} online players", onlinePlayerGrid.size()))
+                .doOnError(err -> log.error("Failed to load online players, {}", err.getMessage()))
+                .subscribe();
+    }
+
     private void prepareCollections() {
         this.playerMotionMongoCollection =
                 mongoClient
@@ -0,0 +1,128 @@
+package server.motion.service;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import server.common.configuration.DeadReckoningConfiguration;
+import server.common.dto.Motion;
+import server.utils.FeatureFlag;
+
+/**
+ * Predicts where players are from their last reported velocity. Observers extrapolate the same
+ * way, so a player's motion only has to be relayed when the real position drifts away from what
+ * was last relayed, or the velocity or facing changes. Players running in a straight line then
+ * cost a heartbeat rather than every update.
+ */
+@Singleton
+public class DeadReckoningService {
+
+    private record Track(Motion received, long receivedAt, Motion relayed, long relayedAt) {}
+
+    @Inject DeadReckoningConfiguration configuration;
+
+    @Inject FeatureFlag featureFlag;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final ConcurrentMap<String, Track> tracks = new ConcurrentHashMap<>();
+
+    /** Records the motion and tells whether observers need it. */
+    public boolean shouldRelay(String actorId, Motion motion) {
+        if (!isEnabled() || actorId == null || motion == null) {
+            return true;
+        }
+
+        long now = clock.getAsLong();
+        boolean[] relay = new boolean[1];
+        tracks.compute(
+                actorId,
+                (id, track) -> {
+                    relay[0] = track == null || diverged(track, motion, now);
+                    return relay[0]
+                            ? new Track(motion, now, motion, now)
+                            : new Track(motion, now, track.relayed(), track.relayedAt());
+                });
+
+        return relay[0];
+    }
+
+    /** The motion extrapolated to now from the last update, or the given motion if unknown. */
+    public Motion extrapolate(String actorId, Motion motion) {
+        if (!isEnabled() || actorId == null) {
+            return motion;
+        }
+
+        Track track = tracks.get(actorId);
+        if (track == null) {
+            return motion;
+        }
+
+        return track.received().extrapolate(elapsed(track.receivedAt(), clock.getAsLong()));
+    }
+
+    public void remove(String actorId) {
+        tracks.remove(actorId);
+    }
+
+    @Scheduled(fixedDelay = "60s", initialDelay = "60s")
+    public void evictStaleTracks() {
+        long cutOff = clock.getAsLong() - 60_000;
+        tracks.values().removeIf(track -> track.receivedAt() < cutOff);
+    }
+
+    private boolean diverged(Track track, Motion motion, long now) {
+        Motion relayed = track.relayed();
+        if (now - track.relayedAt() >= configuration.getHeartbeat().toMillis()
+                || !Objects.equals(relayed.getMap(), motion.getMap())
+                || !Objects.equals(relayed.getIsFalling(), motion.getIsFalling())
+                || !hasPosition(relayed)
+                || !hasPosition(motion)) {
+            return true;
+        }
+
+        int velocityThreshold = configuration.getVelocityThreshold();
+        if (velocityChanged(relayed.getVx(), motion.getVx(), velocityThreshold)
+                || velocityChanged(relayed.getVy(), motion.getVy(), velocityThreshold)
+                || velocityChanged(relayed.getVz(), motion.getVz(), velocityThreshold)) {
+            return true;
+        }
+
+        if (yawChanged(relayed.getYaw(), motion.getYaw(), configuration.getYawThreshold())) {
+            return true;
+        }
+
+        // where observers currently think the actor is
+        Motion predicted = relayed.extrapolate(elapsed(track.relayedAt(), now));
+        return predicted.distanceTo(motion) > configuration.getErrorThreshold();
+    }
+
+    private long elapsed(long since, long now) {
+        return Math.min(now - since, configuration.getMaxExtrapolation().toMillis());
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(featureFlag.getEnableDeadReckoning());
+    }
+
+    private static boolean velocityChanged(Integer previous, Integer current, int threshold) {
+        int p = previous == null ? 0 : previous;
+        int c = current == null ? 0 : current;
+        return Math.abs(p - c) > threshold;
+    }
+
+    private static boolean yawChanged(Integer previous, Integer current, int threshold) {
+        int p = previous == null ? 0 : previous;
+        int c = current == null ? 0 : current;
+        // the shorter way round, turning from 350 to 10 is 20 degrees
+        int turned = Math.floorMod(c - p, 360);
+        return Math.min(turned, 360 - turned) > threshold;
+    }
+
+    private static boolean hasPosition(Motion motion) {
+        return motion.getX() != null && motion.getY() != null && motion.getZ() != null;
+    }
+}
@@ -10,9 +10,9 @@ import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import server.common.dto.Motion;
 import server.motion.dto.PlayerMotion;
-import server.motion.producer.PlayerMotionUpdateProducer;
 import server.motion.repository.ActorMotionRepository;
 import server.motion.repository.PlayerMotionRepository;
+import server.socket.producer.SocketUpdateRouter;
 
 @Slf4j
 @Singleton
@@ -20,7 +20,7 @@ public class PlayerMotionService {
 
     @Inject PlayerMotionRepository playerMotionRepository;
 
-    @Inject PlayerMotionUpdateProducer playerMotionUpdateProducer;
+    @Inject SocketUpdateRouter socketUpdateRouter;
 
     @Inject ActorMotionRepository actorMotionRepository;
 
@@ -82,7 +82,7 @@ public class PlayerMotionService {
 
     public void relayPlayerMotion(PlayerMotion playerMotion) {
 //        log.info("relaying player motion: {}", playerMotion.getActorId());
-        playerMotionUpdateProducer.sendPlayerMotionResult(playerMotion);
+        socketUpdateRouter.sendPlayerMotionResult(playerMotion);
     }
 
     public void handlePlayerRespawn(String actorId, String customData) {}
@@ -1,9 +1,5 @@
 package server.session;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.sync.RedisCommands;
 import io.micronaut.websocket.WebSocketSession;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -16,29 +12,21 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import server.attribute.stats.repository.ActorStatsRepository;
 import server.combat.model.CombatData;
-import server.common.configuration.redis.JacksonCodecCombatData;
 import server.common.configuration.redis.JacksonCodecMotion;
 import server.common.dto.Motion;
-import server.common.uuid.UUIDHelper;
-import server.motion.model.SessionParams;
-import server.session.model.CacheDomains;
-import server.session.model.CacheKey;
-import server.socket.model.UdpAddressHolder;
+import server.session.cache.CombatDataCache;
 
 @Singleton
 @Slf4j
 @NoArgsConstructor
 public class SessionParamHelper {
 
-    private final ObjectMapper objectMapper =
-            new ObjectMapper().registerModule(new JavaTimeModule());
-
-    RedisCommands<String, CombatData> combatDataCache;
+    CombatDataCache combatDataCache;
 
     public ConcurrentMap<String, WebSocketSession> liveSessions = new ConcurrentHashMap<>();
 
-    public SessionParamHelper(RedisClient redisClient) {
-        combatDataCache = redisClient.connect(new JacksonCodecCombatData(objectMapper)).sync();
+    public SessionParamHelper(CombatDataCache combatDataCache) {
+        this.combatDataCache = combatDataCache;
     }
 
     public void setLiveSessions(ConcurrentMap<String, WebSocketSession> liveSessions) {
@@ -50,119 +38,65 @@ public class SessionParamHelper {
     }
 
     public static void setAddress(WebSocketSession session, String address) {
-        session.put(CacheDomains.CLIENT_ADDRESS.getDomain(), address);
+        SessionState.of(session).setAddress(address);
     }
 
     public static String getAddress(WebSocketSession session) {
-        return (String) session.asMap().get(CacheDomains.CLIENT_ADDRESS.getDomain());
+        return SessionState.of(session).getAddress();
     }
 
-
+    // held on this node and replicated to redis behind the combat loop, see CombatDataCache
     public void setSharedActorCombatData(String actorId, CombatData combatData) {
-        combatDataCache.set(CacheKey.of(CacheDomains.COMBAT_DATA, actorId), combatData);
+        combatDataCache.put(actorId, combatData);
     }
 
     public CombatData getSharedActorCombatData(String actorId) {
-        CombatData combatData = combatDataCache.get(CacheKey.of(CacheDomains.COMBAT_DATA, actorId));
-        if (combatData == null) {
-            combatData = new CombatData(actorId);
-            setSharedActorCombatData(actorId, combatData);
-        }
-
-        return combatData;
+        return combatDataCache.get(actorId);
     }
 
     public static Motion getMotion(WebSocketSession session) {
         // this should only be used by server
-        return (Motion) session.asMap().getOrDefault(SessionParams.MOTION.getType(), null);
+        return SessionState.of(session).getMotion();
     }
 
     public void setMotion(WebSocketSession session, Motion motion) {
-        session.put(SessionParams.MOTION.getType(), motion);
+        SessionState.of(session).setMotion(motion);
     }
 
+    // tracking sets are replaced through SessionSubscriptionIndex, these are read only snapshots
     public static Set<String> getTrackingPlayers(WebSocketSession session) {
-        Set<String> trackingPlayers =
-                (Set<String>) session.asMap().get(SessionParams.TRACKING_PLAYERS.getType());
-        if (trackingPlayers == null) {
-            trackingPlayers = new HashSet<>();
-            setTrackingPlayers(session, trackingPlayers);
-        }
-
-        return trackingPlayers;
-    }
-
-    public static void setTrackingPlayers(WebSocketSession session, Set<String> trackingPlayers) {
-        session.put(SessionParams.TRACKING_PLAYERS.getType(), trackingPlayers);
+        return SessionState.of(session).getTrackingPlayers();
     }
 
     public static Set<String> getTrackingMobs(WebSocketSession session) {
-        Set<String> trackingMobs =
-                (Set<String>) session.asMap().get(SessionParams.TRACKING_MOBS.getType());
-        if (trackingMobs == null) {
-            trackingMobs = new HashSet<>();
-            setTrackingMobs(session, trackingMobs);
-        }
-
-        return trackingMobs;
-    }
-
-    public static void setTrackingMobs(WebSocketSession session, Set<String> trackingMobs) {
-        session.put(SessionParams.TRACKING_MOBS.getType(), trackingMobs);
-    }
-
-    public static void addTrackingMobs(WebSocketSession session, Set<String> trackingMobs) {
-        Set<String> mobs = getTrackingMobs(session);
-        mobs.addAll(trackingMobs);
+        return SessionState.of(session).getTrackingMobs();
     }
 
     public static void setActorId(WebSocketSession session, String actorId) {
-        if (actorId == null || actorId.isBlank()) {
-            return;
-        }
-        session.put(SessionParams.ACTOR_ID.getType(), actorId);
-        boolean isServer = UUIDHelper.isValid(actorId);
-
-        session.put(SessionParams.IS_PLAYER.getType(), !isServer);
-        session.put(SessionParams.IS_SERVER.getType(), isServer);
+        SessionState.of(session).setActorId(actorId);
     }
 
     public static void setServerName(WebSocketSession session, String serverName) {
-        session.put(SessionParams.SERVER_NAME.getType(), serverName);
-        if (serverName != null && !serverName.equalsIgnoreCase("false") && !serverName.isBlank()) {
-            session.put(SessionParams.IS_SERVER.getType(), true);
-            session.put(SessionParams.IS_PLAYER.getType(), false);
-        }
+        SessionState.of(session).setServerName(serverName);
     }
 
     public static String getActorId(WebSocketSession session) {
-        return (String) session.asMap().getOrDefault(SessionParams.ACTOR_ID.getType(), "");
+        return SessionState.of(session).getActorId();
     }
 
     public static String getServerName(WebSocketSession session) {
-        return (String) session.asMap().getOrDefault(SessionParams.SERVER_NAME.getType(), "");
+        return SessionState.of(session).getServerName();
     }
 
     public static boolean getIsPlayer(WebSocketSession session) {
-        return (Boolean) session.asMap().getOrDefault(SessionParams.IS_PLAYER.getType(), false);
+        return SessionState.of(session).isPlayer();
     }
 
     public static boolean getIsServer(WebSocketSession session) {
-        return (Boolean) session.asMap().getOrDefault(SessionParams.IS_SERVER.getType(), false);
-    }
-
-    public static void setDroppedItems(WebSocketSession session, Set<String> droppedItems) {
-        session.put(SessionParams.DROPPED_ITEMS.getType(), droppedItems);
+        return SessionState.of(session).isServer();
     }
 
     public static Set<String> getDroppedItems(WebSocketSession session) {
-        Set<String> droppedItems =
-                (Set<String>) session.asMap().get(SessionParams.DROPPED_ITEMS.getType());
-        if (droppedItems == null) {
-            droppedItems = new HashSet<>();
-            setDroppedItems(session, droppedItems);
-        }
-
-        return droppedItems;
+        return SessionState.of(session).getDroppedItems();
     }
 }
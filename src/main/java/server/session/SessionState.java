@@ -0,0 +1,134 @@
+package server.session;
+
+import io.micronaut.websocket.WebSocketSession;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import server.common.dto.Motion;
+import server.common.uuid.UUIDHelper;
+import server.motion.model.SessionParams;
+
+/**
+ * Typed state of a single websocket session, attached to the session once and read without casts
+ * or boxing afterwards.
+ *
+ * <p>Tracking sets are immutable snapshots swapped by {@link SessionSubscriptionIndex}, so readers
+ * never see a set that is being changed and membership checks do not allocate. Dropped items are
+ * added and removed one at a time, that set is concurrent instead.
+ */
+public class SessionState {
+
+    private volatile String actorId = "";
+    private volatile String serverName = "";
+    private volatile boolean player;
+    private volatile boolean server;
+    private volatile String address;
+    private volatile Motion motion;
+
+    private volatile Set<String> trackingPlayers = Set.of();
+    private volatile Set<String> trackingMobs = Set.of();
+
+    private final Set<String> droppedItems = ConcurrentHashMap.newKeySet();
+
+    public static SessionState of(WebSocketSession session) {
+        Object state = session.asMap().get(SessionParams.SESSION_STATE.getType());
+        if (state != null) {
+            return (SessionState) state;
+        }
+
+        synchronized (session) {
+            state = session.asMap().get(SessionParams.SESSION_STATE.getType());
+            if (state == null) {
+                state = new SessionState();
+                session.put(SessionParams.SESSION_STATE.getType(), state);
+            }
+            return (SessionState) state;
+        }
+    }
+
+    public String getActorId() {
+        return actorId;
+    }
+
+    public void setActorId(String actorId) {
+        if (actorId == null || actorId.isBlank()) {
+            return;
+        }
+        this.actorId = actorId;
+        // mob instances are identified by a uuid, players by their character name
+        this.server = UUIDHelper.isValid(actorId);
+        this.player = !server;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public void setServerName(String serverName) {
+        this.serverName = serverName == null ? "" : serverName;
+        if (serverName != null && !serverName.equalsIgnoreCase("false") && !serverName.isBlank()) {
+            this.server = true;
+            this.player = false;
+        }
+    }
+
+    public boolean isPlayer() {
+        return player;
+    }
+
+    public boolean isServer() {
+        return server;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public Motion getMotion() {
+        return motion;
+    }
+
+    public void setMotion(Motion motion) {
+        this.motion = motion;
+    }
+
+    public Set<String> getTrackingPlayers() {
+        return trackingPlayers;
+    }
+
+    // only SessionSubscriptionIndex replaces the tracking sets, it keeps the reverse index in step
+    void setTrackingPlayers(Set<String> trackingPlayers) {
+        this.trackingPlayers = Set.copyOf(trackingPlayers);
+    }
+
+    public Set<String> getTrackingMobs() {
+        return trackingMobs;
+    }
+
+    void setTrackingMobs(Set<String> trackingMobs) {
+        this.trackingMobs = Set.copyOf(trackingMobs);
+    }
+
+    public boolean tracksPlayer(String actorId) {
+        return trackingPlayers.contains(actorId);
+    }
+
+    public boolean tracksMob(String actorId) {
+        return trackingMobs.contains(actorId);
+    }
+
+    public boolean tracks(String actorId) {
+        return tracksPlayer(actorId) || tracksMob(actorId);
+    }
+
+    public Set<String> getDroppedItems() {
+        return droppedItems;
+    }
+
+    public boolean tracksDroppedItem(String itemInstanceId) {
+        return droppedItems.contains(itemInstanceId);
+    }
+}
@@ -0,0 +1,153 @@
+package server.session;
+
+import io.micronaut.websocket.WebSocketSession;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import server.session.cluster.NodeInterestRegistry;
+
+/**
+ * Reverse index of the session tracking sets: for every actor, the sessions that track it as a
+ * player and the sessions that track it as a mob. Fan-out looks up the listeners of an actor here
+ * instead of testing every live session.
+ *
+ * <p>The tracking sets held in {@link SessionState} and this index must change together, so this
+ * class is the only writer of those sets.
+ *
+ * <p>Every actor with at least one subscriber holds a reference in the {@link
+ * NodeInterestRegistry}, so updates about it are routed to this node.
+ */
+@Slf4j
+@Singleton
+public class SessionSubscriptionIndex {
+
+    @Inject SessionParamHelper sessionParamHelper;
+
+    @Inject NodeInterestRegistry nodeInterest;
+
+    private final ConcurrentMap<String, Set<WebSocketSession>> playerSubscribers =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<WebSocketSession>> mobSubscribers =
+            new ConcurrentHashMap<>();
+
+    public void setNodeInterest(NodeInterestRegistry nodeInterest) {
+        this.nodeInterest = nodeInterest;
+    }
+
+    public void setTrackingPlayers(WebSocketSession session, Set<String> actorIds) {
+        SessionState state = SessionState.of(session);
+        synchronized (state) {
+            reindex(playerSubscribers, session, state.getTrackingPlayers(), actorIds);
+            state.setTrackingPlayers(actorIds);
+        }
+    }
+
+    public void setTrackingMobs(WebSocketSession session, Set<String> actorIds) {
+        SessionState state = SessionState.of(session);
+        synchronized (state) {
+            reindex(mobSubscribers, session, state.getTrackingMobs(), actorIds);
+            state.setTrackingMobs(actorIds);
+        }
+    }
+
+    public void addTrackingMobs(WebSocketSession session, Set<String> actorIds) {
+        SessionState state = SessionState.of(session);
+        synchronized (state) {
+            Set<String> updated = new HashSet<>(state.getTrackingMobs());
+            updated.addAll(actorIds);
+            setTrackingMobs(session, updated);
+        }
+    }
+
+    public void removeTrackedMob(String actorId) {
+        Set<WebSocketSession> sessions = mobSubscribers.remove(actorId);
+        if (sessions == null) {
+            return;
+        }
+        nodeInterest.release(actorId);
+
+        sessions.forEach(
+                session -> {
+                    SessionState state = SessionState.of(session);
+                    synchronized (state) {
+                        Set<String> updated = new HashSet<>(state.getTrackingMobs());
+                        updated.remove(actorId);
+                        state.setTrackingMobs(updated);
+                    }
+                });
+    }
+
+    public void removeSession(WebSocketSession session) {
+        SessionState state = SessionState.of(session);
+        synchronized (state) {
+            state.getTrackingPlayers()
+                    .forEach(actorId -> unsubscribe(playerSubscribers, actorId, session));
+            state.getTrackingMobs()
+                    .forEach(actorId -> unsubscribe(mobSubscribers, actorId, session));
+        }
+    }
+
+    public Collection<WebSocketSession> getPlayerSubscribers(String actorId) {
+        return playerSubscribers.getOrDefault(actorId, Set.of());
+    }
+
+    public Collection<WebSocketSession> getMobSubscribers(String actorId) {
+        return mobSubscribers.getOrDefault(actorId, Set.of());
+    }
+
+    public WebSocketSession getActorSession(String actorId) {
+        return sessionParamHelper.getLiveSessions().get(actorId);
+    }
+
+    private void reindex(
+            ConcurrentMap<String, Set<WebSocketSession>> index,
+            WebSocketSession session,
+            Set<String> previous,
+            Set<String> current) {
+        previous.stream()
+                .filter(actorId -> !current.contains(actorId))
+                .forEach(actorId -> unsubscribe(index, actorId, session));
+        current.stream()
+                .filter(actorId -> !previous.contains(actorId))
+                .forEach(actorId -> subscribe(index, actorId, session));
+    }
+
+    private void subscribe(
+            ConcurrentMap<String, Set<WebSocketSession>> index,
+            String actorId,
+            WebSocketSession session) {
+        // add inside compute so we never add to a set that unsubscribe just dropped as empty
+        index.compute(
+                actorId,
+                (id, sessions) -> {
+                    if (sessions == null) {
+                        nodeInterest.acquire(actorId);
+                    }
+                    Set<WebSocketSession> updated =
+                            sessions == null ? ConcurrentHashMap.newKeySet() : sessions;
+                    updated.add(session);
+                    return updated;
+                });
+    }
+
+    private void unsubscribe(
+            ConcurrentMap<String, Set<WebSocketSession>> index,
+            String actorId,
+            WebSocketSession session) {
+        index.computeIfPresent(
+                actorId,
+                (id, sessions) -> {
+                    sessions.remove(session);
+                    if (sessions.isEmpty()) {
+                        nodeInterest.release(actorId);
+                        return null;
+                    }
+                    return sessions;
+                });
+    }
+}
@@ -0,0 +1,273 @@
+package server.session.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.functions.Action;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import server.combat.model.CombatData;
+import server.common.configuration.CombatDataCacheConfiguration;
+import server.common.configuration.redis.JacksonCodecCombatData;
+import server.session.SessionState;
+import server.session.SessionSubscriptionIndex;
+import server.session.model.CacheDomains;
+import server.session.model.CacheKey;
+
+/**
+ * Node local combat data, authoritative for the actors owned by this node: players whose session
+ * is connected here, and mobs run by a server session connected here. Attack loops and skill casts
+ * read and write owned actors in memory, and changed entries are replicated to Redis in one
+ * pipelined write per flush, so another node can pick an actor up after a failover. Every caller
+ * gets the same {@link CombatData}, which is why its collections are concurrent, and a flush
+ * replicates a copy of it.
+ *
+ * <p>Redis is only read the first time a node touches an owned actor, entries idle past the
+ * configured timeout are dropped once Redis has their latest data. A removed actor is held as a
+ * tombstone until Redis has deleted it, so it can't be read back from its stale replica.
+ *
+ * <p>Other actors, e.g. a target damaged from a listener on this node, are read from Redis every
+ * time and written straight through to it. Those writes race the owner's next flush, the last
+ * write wins.
+ */
+@Slf4j
+@Singleton
+public class CombatDataCache {
+
+    private static final class Entry {
+
+        // null for a removed actor, until redis has deleted it
+        private final CombatData combatData;
+
+        private volatile long lastAccess = System.nanoTime();
+
+        Entry(CombatData combatData) {
+            this.combatData = combatData;
+        }
+    }
+
+    private final CombatDataCacheConfiguration configuration;
+
+    private final Provider<SessionSubscriptionIndex> subscriptionIndex;
+
+    private final StatefulRedisConnection<String, CombatData> connection;
+
+    private final RedisAsyncCommands<String, CombatData> commands;
+
+    private final ConcurrentMap<String, Entry> local = new ConcurrentHashMap<>();
+
+    // changed since the last flush, written if held and deleted from redis if a tombstone
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    // the index is looked up lazily, it depends on this cache through the session helper
+    public CombatDataCache(
+            RedisClient redisClient,
+            CombatDataCacheConfiguration configuration,
+            Provider<SessionSubscriptionIndex> subscriptionIndex) {
+        this.configuration = configuration;
+        this.subscriptionIndex = subscriptionIndex;
+        this.connection =
+                redisClient.connect(
+                        new JacksonCodecCombatData(
+                                new ObjectMapper().registerModule(new JavaTimeModule())));
+        this.commands = connection.async();
+    }
+
+    public CombatData get(String actorId) {
+        if (!isOwned(actorId)) {
+            CombatData combatData = load(actorId);
+            return combatData == null ? new CombatData(actorId) : combatData;
+        }
+
+        Entry entry = local.get(actorId);
+        if (entry != null && entry.combatData != null) {
+            entry.lastAccess = System.nanoTime();
+            return entry.combatData;
+        }
+        if (entry != null) {
+            // removed, redis may still hold the old data until the delete completes
+            Entry created = new Entry(new CombatData(actorId));
+            if (!local.replace(actorId, entry, created)) {
+                return get(actorId);
+            }
+            dirty.add(actorId);
+            return created.combatData;
+        }
+
+        // first touch on this node, carry on from wherever the actor was last replicated
+        CombatData combatData = load(actorId);
+        if (combatData == null) {
+            combatData = new CombatData(actorId);
+            dirty.add(actorId);
+        }
+        Entry loaded = new Entry(combatData);
+        Entry raced = local.putIfAbsent(actorId, loaded);
+        return raced == null ? loaded.combatData : raced.combatData;
+    }
+
+    public void put(String actorId, CombatData combatData) {
+        if (!isOwned(actorId)) {
+            local.remove(actorId);
+            writeThrough(actorId, combatData);
+            return;
+        }
+
+        local.put(actorId, new Entry(combatData));
+        dirty.add(actorId);
+    }
+
+    public int size() {
+        return local.size();
+    }
+
+    @Scheduled(
+            fixedDelay = "${combat-data-cache.flush-interval:500ms}",
+            initialDelay = "${combat-data-cache.flush-interval:500ms}")
+    public void scheduledFlush() {
+        evictIdle();
+        flush()
+                .doOnError(
+                        err -> log.error("Failed to replicate combat data, {}", err.getMessage()))
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    public Completable flush() {
+        List<String> written = new ArrayList<>();
+        Map<String, CombatData> writes = new HashMap<>();
+        Map<String, Entry> deleted = new HashMap<>();
+        for (String actorId : dirty) {
+            dirty.remove(actorId);
+            Entry entry = local.get(actorId);
+            if (entry == null) {
+                // written through since, once it stopped being owned here
+                continue;
+            }
+            if (entry.combatData == null) {
+                deleted.put(actorId, entry);
+                continue;
+            }
+            // encoded after this returns, while the combat loop carries on changing the entry
+            writes.put(key(actorId), entry.combatData.copy());
+            written.add(actorId);
+        }
+
+        List<Completable> replicated = new ArrayList<>(2);
+        if (!writes.isEmpty()) {
+            replicated.add(replicate(written, () -> commands.mset(writes), () -> {}));
+        }
+        if (!deleted.isEmpty()) {
+            String[] keys =
+                    deleted.keySet().stream().map(CombatDataCache::key).toArray(String[]::new);
+            // unless the actor was touched again meanwhile, the tombstone has done its job
+            replicated.add(
+                    replicate(
+                            List.copyOf(deleted.keySet()),
+                            () -> commands.del(keys),
+                            () -> deleted.forEach(local::remove)));
+        }
+        return Completable.merge(replicated);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        log.info("Replicating {} changed combat data entries before shutdown", dirty.size());
+        boolean completed =
+                flush().blockingAwait(
+                                configuration.getShutdownTimeout().toMillis(),
+                                TimeUnit.MILLISECONDS);
+        if (!completed) {
+            log.warn("Timed out replicating combat data on shutdown");
+        }
+        connection.close();
+    }
+
+    private CombatData load(String actorId) {
+        try {
+            return commands.get(key(actorId)).get(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.error("Failed to load combat data for {}, {}", actorId, e.getMessage());
+            return null;
+        }
+    }
+
+    private Completable replicate(
+            List<String> actorIds, Supplier<CompletionStage<?>> command, Action onReplicated) {
+        return Completable.defer(() -> Completable.fromCompletionStage(command.get()))
+                .doOnComplete(onReplicated)
+                .onErrorComplete(
+                        err -> {
+                            log.warn(
+                                    "Failed to replicate combat data for {} actors, {}",
+                                    actorIds.size(),
+                                    err.getMessage());
+                            // written on the next flush, as whatever the actor holds by then
+                            dirty.addAll(actorIds);
+                            return true;
+                        });
+    }
+
+    private void writeThrough(String actorId, CombatData combatData) {
+        CompletionStage<?> written =
+                combatData == null
+                        ? commands.del(key(actorId))
+                        : commands.set(key(actorId), combatData.copy());
+        written.whenComplete(
+                (result, err) -> {
+                    if (err != null) {
+                        log.error(
+                                "Failed to write combat data for {}, {}",
+                                actorId,
+                                err.getMessage());
+                    }
+                });
+    }
+
+    private void evictIdle() {
+        long idleBefore = System.nanoTime() - configuration.getIdleTimeout().toNanos();
+        local.forEach(
+                (actorId, entry) -> {
+                    // dirty entries stay until redis has them, tombstones until it deleted them
+                    if (dirty.contains(actorId) || entry.combatData == null) {
+                        return;
+                    }
+                    // no longer owned here, the owner's replica is read from now on
+                    if (entry.lastAccess < idleBefore || !isOwned(actorId)) {
+                        local.remove(actorId, entry);
+                    }
+                });
+    }
+
+    private boolean isOwned(String actorId) {
+        SessionSubscriptionIndex index = subscriptionIndex.get();
+        if (index.getActorSession(actorId) != null) {
+            return true;
+        }
+        // mobs are run by the server session tracking them
+        return index.getMobSubscribers(actorId).stream()
+                .anyMatch(session -> SessionState.of(session).isServer());
+    }
+
+    private static String key(String actorId) {
+        return CacheKey.of(CacheDomains.COMBAT_DATA, actorId);
+    }
+}
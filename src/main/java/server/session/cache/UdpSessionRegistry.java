@@ -0,0 +1,38 @@
+package server.session.cache;
+
+import jakarta.inject.Singleton;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * UDP return address per actor/server id. The address is resolved once when the session
+ * registers, so the send path is a single map read with no cache interceptor or host lookup.
+ */
+@Slf4j
+@Singleton
+public class UdpSessionRegistry {
+
+    private final ConcurrentMap<String, InetSocketAddress> sessions = new ConcurrentHashMap<>();
+
+    public void register(String id, String host, Integer port) {
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        if (address.isUnresolved()) {
+            log.error("Could not resolve UDP address {} for {}", host, id);
+            return;
+        }
+
+        sessions.put(id, address);
+    }
+
+    public InetSocketAddress get(String id) {
+        return id == null ? null : sessions.get(id);
+    }
+
+    public void remove(String id) {
+        if (id != null) {
+            sessions.remove(id);
+        }
+    }
+}
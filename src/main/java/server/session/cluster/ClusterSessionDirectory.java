@@ -0,0 +1,25 @@
+package server.session.cluster;
+
+import io.reactivex.rxjava3.core.Single;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Records, for every actor, the nodes that hold a session interested in it: the actor's own
+ * session and the sessions tracking it. Updates about an actor only need to reach those nodes.
+ */
+public interface ClusterSessionDirectory {
+
+    /**
+     * Adds the node for the actors, or keeps its entries alive when already there. The node
+     * itself is kept alive too, even when it has no actors.
+     */
+    void register(String nodeId, Collection<String> actorIds);
+
+    void unregister(String nodeId, Collection<String> actorIds);
+
+    Single<Set<String>> getNodes(String actorId);
+
+    /** Every node that registered recently, for updates that aren't about a single actor. */
+    Single<Set<String>> getLiveNodes();
+}
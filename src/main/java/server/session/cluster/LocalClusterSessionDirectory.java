@@ -0,0 +1,49 @@
+package server.session.cluster;
+
+import io.micronaut.context.annotation.Requires;
+import io.reactivex.rxjava3.core.Single;
+import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** In memory directory for a single node and for tests, entries never expire. */
+@Singleton
+@Requires(property = "cluster.directory", value = "local")
+public class LocalClusterSessionDirectory implements ClusterSessionDirectory {
+
+    private final ConcurrentMap<String, Set<String>> nodes = new ConcurrentHashMap<>();
+
+    private final Set<String> liveNodes = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void register(String nodeId, Collection<String> actorIds) {
+        liveNodes.add(nodeId);
+        for (String actorId : actorIds) {
+            nodes.computeIfAbsent(actorId, id -> ConcurrentHashMap.newKeySet()).add(nodeId);
+        }
+    }
+
+    @Override
+    public void unregister(String nodeId, Collection<String> actorIds) {
+        actorIds.forEach(
+                actorId ->
+                        nodes.computeIfPresent(
+                                actorId,
+                                (id, registered) -> {
+                                    registered.remove(nodeId);
+                                    return registered.isEmpty() ? null : registered;
+                                }));
+    }
+
+    @Override
+    public Single<Set<String>> getNodes(String actorId) {
+        return Single.just(Set.copyOf(nodes.getOrDefault(actorId, Set.of())));
+    }
+
+    @Override
+    public Single<Set<String>> getLiveNodes() {
+        return Single.just(Set.copyOf(liveNodes));
+    }
+}
@@ -0,0 +1,84 @@
+package server.session.cluster;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.ClusterConfiguration;
+import server.utils.FeatureFlag;
+
+/**
+ * Keeps this node's entries in the {@link ClusterSessionDirectory}. An actor is of interest while
+ * it has a session here or a session here tracks it. Each of those holds a reference, the node is
+ * registered for the first one and unregistered when the last one goes.
+ */
+@Slf4j
+@Singleton
+public class NodeInterestRegistry {
+
+    @Inject ClusterSessionDirectory directory;
+
+    @Inject ClusterConfiguration configuration;
+
+    @Inject FeatureFlag featureFlag;
+
+    private final ConcurrentMap<String, Integer> references = new ConcurrentHashMap<>();
+
+    // the directory is called under the actor's entry lock, so its calls are in the same order as
+    // the count changes and an unregister can't land after the register that followed it
+    public void acquire(String actorId) {
+        references.compute(
+                actorId,
+                (id, count) -> {
+                    if (count == null && isEnabled()) {
+                        directory.register(configuration.getNodeId(), List.of(id));
+                    }
+                    return count == null ? 1 : count + 1;
+                });
+    }
+
+    public void release(String actorId) {
+        references.computeIfPresent(
+                actorId,
+                (id, count) -> {
+                    if (count > 1) {
+                        return count - 1;
+                    }
+                    if (isEnabled()) {
+                        directory.unregister(configuration.getNodeId(), List.of(id));
+                    }
+                    return null;
+                });
+    }
+
+    public boolean isInterested(String actorId) {
+        return references.containsKey(actorId);
+    }
+
+    @Scheduled(fixedDelay = "${cluster.refresh-interval:10s}")
+    public void refresh() {
+        // runs with no actors as well, so the node stays live
+        if (isEnabled()) {
+            directory.register(configuration.getNodeId(), List.copyOf(references.keySet()));
+        }
+    }
+
+    @PreDestroy
+    void unregisterAll() {
+        if (isEnabled() && !references.isEmpty()) {
+            log.info(
+                    "Removing {} actors of node {} from the directory",
+                    references.size(),
+                    configuration.getNodeId());
+            directory.unregister(configuration.getNodeId(), List.copyOf(references.keySet()));
+        }
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(featureFlag.getEnableNodeRouting());
+    }
+}
@@ -0,0 +1,81 @@
+package server.session.cluster;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.micronaut.context.annotation.Requires;
+import io.reactivex.rxjava3.core.Single;
+import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.ClusterConfiguration;
+import server.session.model.CacheDomains;
+import server.session.model.CacheKey;
+
+/**
+ * Directory shared by every node through Redis. Each actor has a sorted set of node ids scored by
+ * when the entry expires, so a node that dies without unregistering drops out once its entries
+ * are no longer refreshed.
+ */
+@Slf4j
+@Singleton
+@Requires(property = "cluster.directory", value = "redis", defaultValue = "redis")
+public class RedisClusterSessionDirectory implements ClusterSessionDirectory {
+
+    private static final String LIVE_NODES = CacheKey.of(CacheDomains.CLUSTER_NODES, "live");
+
+    private final RedisAsyncCommands<String, String> commands;
+
+    private final ClusterConfiguration configuration;
+
+    public RedisClusterSessionDirectory(
+            RedisClient redisClient, ClusterConfiguration configuration) {
+        this.commands = redisClient.connect().async();
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void register(String nodeId, Collection<String> actorIds) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + configuration.getEntryTtl().toMillis();
+        commands.zadd(LIVE_NODES, expiresAt, nodeId);
+        commands.zremrangebyscore(LIVE_NODES, Range.create(0L, now));
+        for (String actorId : actorIds) {
+            String key = key(actorId);
+            commands.zadd(key, expiresAt, nodeId);
+            commands.zremrangebyscore(key, Range.create(0L, now));
+            commands.pexpire(key, configuration.getEntryTtl().toMillis());
+        }
+    }
+
+    @Override
+    public void unregister(String nodeId, Collection<String> actorIds) {
+        actorIds.forEach(actorId -> commands.zrem(key(actorId), nodeId));
+    }
+
+    @Override
+    public Single<Set<String>> getNodes(String actorId) {
+        return unexpired(key(actorId));
+    }
+
+    @Override
+    public Single<Set<String>> getLiveNodes() {
+        return unexpired(LIVE_NODES);
+    }
+
+    private Single<Set<String>> unexpired(String key) {
+        Range<Long> live =
+                Range.from(
+                        Range.Boundary.including(System.currentTimeMillis()),
+                        Range.Boundary.unbounded());
+        return Single.fromCompletionStage(commands.zrangebyscore(key, live))
+                .map(nodes -> (Set<String>) new HashSet<>(nodes))
+                .doOnError(err -> log.error("Failed to read {}, {}", key, err.getMessage()));
+    }
+
+    private static String key(String actorId) {
+        return CacheKey.of(CacheDomains.SESSION_NODES, actorId);
+    }
+}
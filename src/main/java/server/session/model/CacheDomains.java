@@ -10,7 +10,9 @@ public enum CacheDomains {
     CLIENT_ADDRESS("CLIENT_ADDRESS"),
     MOTION("MOTION"),
     COMBAT_DATA("COMBAT_DATA"),
-    INVENTORY("INVENTORY");
+    INVENTORY("INVENTORY"),
+    SESSION_NODES("SESSION_NODES"),
+    CLUSTER_NODES("CLUSTER_NODES");
 
     public final String domain;
 }
@@ -27,6 +27,7 @@ import server.skills.repository.ActorSkillsRepository;
 import server.socket.model.SocketResponse;
 import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.types.MessageType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
@@ -42,6 +43,8 @@ public class CombatSkillsService {
 
     @Inject SocketResponseSubscriber socketResponseSubscriber;
 
+    @Inject SessionOutboundService sessionOutboundService;
+
     ObjectMapper objectMapper = new ObjectMapper();
 
     @Inject CombatService combatService;
@@ -82,7 +85,7 @@ public class CombatSkillsService {
         socketResponse.setActorSkills(actorSkills);
         socketResponse.setMessageType(MessageType.UPDATE_ACTOR_SKILLS.getType());
 
-        session.send(socketResponse).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, socketResponse);
 
 //        actionbarService.getActorActionbar(session);
 
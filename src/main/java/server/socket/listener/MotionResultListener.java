@@ -0,0 +1,95 @@
+package server.socket.listener;
+
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.OffsetReset;
+import io.micronaut.configuration.kafka.annotation.OffsetStrategy;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import jakarta.inject.Inject;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.service.UdpClientUpdateService;
+import server.socket.service.WebsocketClientUpdatesService;
+import server.utils.Conflation;
+import server.utils.FeatureFlag;
+
+/**
+ * Fans motion results out to listening sessions a poll at a time. Each batch is conflated to the
+ * latest motion per actor. Over UDP every group of sessions listening to the same actors gets a
+ * single update holding all of them, websocket sessions get one per actor for their queues to
+ * conflate.
+ *
+ * <p>With enableNodeRouting on, motion results go to node topics instead and reach these handlers
+ * through {@link NodeSocketUpdateListener}.
+ */
+@Slf4j
+@KafkaListener(
+        groupId = "socket-motion-listener",
+        offsetReset = OffsetReset.LATEST,
+        offsetStrategy = OffsetStrategy.SYNC,
+        clientId = "socket-motion-listener",
+        batch = true)
+public class MotionResultListener {
+
+    @Inject WebsocketClientUpdatesService websocketClientUpdatesService;
+
+    @Inject UdpClientUpdateService udpClientUpdateService;
+
+    @Inject FeatureFlag featureFlag;
+
+    @Topic("player-motion-update-result")
+    void receivePlayerMotionUpdates(List<PlayerMotion> playerMotions) {
+        Map<String, PlayerMotion> latest =
+                Conflation.latestByKey(playerMotions, PlayerMotion::getActorId);
+
+        send(
+                latest.keySet(),
+                actorIds ->
+                        SocketResponse.builder()
+                                .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                                .playerMotion(subset(latest, actorIds))
+                                .playerKeys(actorIds)
+                                .build());
+    }
+
+    @Topic("mob-motion-update-result")
+    void receiveMobMotionUpdates(List<Monster> monsters) {
+        Map<String, Monster> latest = Conflation.latestByKey(monsters, Monster::getActorId);
+
+        send(
+                latest.keySet(),
+                actorIds ->
+                        SocketResponse.builder()
+                                .messageType(SocketResponseType.MOB_MOTION_UPDATE.getType())
+                                .monsters(subset(latest, actorIds))
+                                .mobKeys(actorIds)
+                                .build());
+    }
+
+    private void send(
+            Collection<String> actorIds, Function<Set<String>, SocketResponse> responseFor) {
+        if (actorIds.isEmpty()) {
+            return;
+        }
+
+        if (featureFlag.getEnableUdp()) {
+            udpClientUpdateService.sendGroupedUpdateToListening(actorIds, responseFor);
+        } else {
+            websocketClientUpdatesService.sendGroupedUpdateToListening(actorIds, responseFor);
+        }
+    }
+
+    private static <T> Map<String, T> subset(Map<String, T> latest, Set<String> actorIds) {
+        Map<String, T> subset = new LinkedHashMap<>();
+        actorIds.forEach(id -> subset.put(id, latest.get(id)));
+        return subset;
+    }
+}
@@ -0,0 +1,97 @@
+package server.socket.listener;
+
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.OffsetReset;
+import io.micronaut.configuration.kafka.annotation.OffsetStrategy;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import jakarta.inject.Inject;
+import java.util.List;
+import server.attribute.stats.listener.StatsListener;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.listener.StatusListener;
+import server.attribute.status.model.ActorStatus;
+import server.combat.InternalCombatListener;
+import server.combat.model.ThreatUpdate;
+import server.items.equippable.model.EquippedItems;
+import server.items.inventory.model.ItemInstanceIds;
+import server.items.model.DroppedItem;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+
+/**
+ * Consumes this node's topics when enableNodeRouting is on, see {@link
+ * server.socket.producer.SocketUpdateRouter}. The group is per node, so every node reads its own
+ * topics, and the updates go to the same handlers as the shared topics.
+ *
+ * <p>Batch mode is set per listener class and motion results are fanned out a poll at a time, so
+ * every topic here is consumed in batches. The other updates are handled one by one, in order.
+ */
+@KafkaListener(
+        groupId = "socket-node-${cluster.node-id}",
+        offsetReset = OffsetReset.LATEST,
+        offsetStrategy = OffsetStrategy.SYNC,
+        clientId = "socket-node-${cluster.node-id}",
+        batch = true)
+public class NodeSocketUpdateListener {
+
+    @Inject StatsListener statsListener;
+
+    @Inject StatusListener statusListener;
+
+    @Inject SocketUpdateListener socketUpdateListener;
+
+    @Inject MotionResultListener motionResultListener;
+
+    @Inject InternalCombatListener internalCombatListener;
+
+    @Topic("player-motion-update-result.${cluster.node-id}")
+    void receivePlayerMotionUpdates(List<PlayerMotion> playerMotions) {
+        motionResultListener.receivePlayerMotionUpdates(playerMotions);
+    }
+
+    @Topic("mob-motion-update-result.${cluster.node-id}")
+    void receiveMobMotionUpdates(List<Monster> monsters) {
+        motionResultListener.receiveMobMotionUpdates(monsters);
+    }
+
+    @Topic("update-actor-stats.${cluster.node-id}")
+    void receiveStats(List<Stats> stats) {
+        stats.forEach(statsListener::receiveUpdatePlayerAttributes);
+    }
+
+    @Topic("processed-damage-updates.${cluster.node-id}")
+    void receiveDamageUpdates(List<DamageUpdateMessage> damageUpdateMessages) {
+        damageUpdateMessages.forEach(statsListener::sendDamageUpdates);
+    }
+
+    @Topic("update-actor-status.${cluster.node-id}")
+    void receiveStatus(List<ActorStatus> actorStatuses) {
+        actorStatuses.forEach(statusListener::receiveUpdateActorStatus);
+    }
+
+    @Topic("update-threat-levels.${cluster.node-id}")
+    void receiveThreatUpdates(List<ThreatUpdate> threatUpdates) {
+        internalCombatListener.receiveUpdateActorThreat(threatUpdates);
+    }
+
+    @Topic("notify-equip-items.${cluster.node-id}")
+    void receiveEquipItems(List<EquippedItems> equippedItems) {
+        equippedItems.forEach(socketUpdateListener::notifyItemEquip);
+    }
+
+    @Topic("notify-un-equip-items.${cluster.node-id}")
+    void receiveUnEquipItems(List<ItemInstanceIds> itemInstanceIds) {
+        itemInstanceIds.forEach(socketUpdateListener::notifyUnEquipItem);
+    }
+
+    @Topic("item-added-to-map.${cluster.node-id}")
+    void receiveItemAdded(List<DroppedItem> droppedItems) {
+        droppedItems.forEach(socketUpdateListener::itemAddedToMap);
+    }
+
+    @Topic("item-removed-from-map.${cluster.node-id}")
+    void receiveItemRemoved(List<String> itemInstanceIds) {
+        itemInstanceIds.forEach(socketUpdateListener::itemRemovedFromMap);
+    }
+}
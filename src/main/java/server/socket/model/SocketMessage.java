@@ -32,4 +32,7 @@ public class SocketMessage {
     ActorActionbar actorActionbar;
 
     String customData;
+
+    // increasing per actor on UDP motion, lets the server drop late or duplicated packets
+    Integer sequence;
 }
@@ -60,6 +60,12 @@ public class SocketResponse {
 
     ThreatUpdate threatUpdate;
 
+    // TICK_UPDATE only, every event of the tick in the order it happened
+    List<Stats> statsUpdates;
+    List<ActorStatus> statusUpdates;
+    List<DamageSource> damageUpdates;
+    List<ThreatUpdate> threatUpdates;
+
     String customData;
 
     public static SocketResponse messageWithType(SocketResponseType type) {
@@ -30,7 +30,10 @@ public enum SocketResponseType {
     PLAYER_NOTIFICATION("PLAYER_NOTIFICATION"),
 
     THREAT_UPDATE("THREAT_UPDATE"),
-    FORCE_UPDATE_MOTION("FORCE_UPDATE_MOTION");
+    FORCE_UPDATE_MOTION("FORCE_UPDATE_MOTION"),
+
+    // several updates merged into a single frame, see SessionTickAggregator
+    TICK_UPDATE("TICK_UPDATE");
 
     public final String type;
 }
@@ -1,14 +0,0 @@
-package server.socket.model;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class UdpAddressHolder {
-
-    String host;
-    Integer port;
-}
@@ -0,0 +1,65 @@
+package server.socket.producer;
+
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.combat.model.ThreatUpdate;
+import server.common.configuration.EventBusConfiguration;
+import server.common.eventbus.InProcessEventBus;
+import server.items.equippable.model.EquippedItems;
+import server.items.inventory.model.ItemInstanceIds;
+import server.items.model.DroppedItem;
+
+@Singleton
+@Replaces(NodeUpdateProducer.class)
+@Requires(property = EventBusConfiguration.MODE, value = EventBusConfiguration.IN_PROCESS)
+public class InProcessNodeUpdateProducer implements NodeUpdateProducer {
+
+    @Inject InProcessEventBus eventBus;
+
+    @Override
+    public void updateStats(String topic, String actorId, Stats stats) {
+        eventBus.publish(topic, stats);
+    }
+
+    @Override
+    public void updateDamage(
+            String topic, String actorId, DamageUpdateMessage damageUpdateMessage) {
+        eventBus.publish(topic, damageUpdateMessage);
+    }
+
+    @Override
+    public void updateStatus(String topic, String actorId, ActorStatus actorStatus) {
+        eventBus.publish(topic, actorStatus);
+    }
+
+    @Override
+    public void updateThreatLevels(String topic, String actorId, ThreatUpdate threatUpdate) {
+        eventBus.publish(topic, threatUpdate);
+    }
+
+    @Override
+    public void notifyEquipItems(String topic, String actorId, EquippedItems equippedItems) {
+        eventBus.publish(topic, equippedItems);
+    }
+
+    @Override
+    public void notifyUnEquipItems(
+            String topic, String actorId, ItemInstanceIds itemInstanceIds) {
+        eventBus.publish(topic, itemInstanceIds);
+    }
+
+    @Override
+    public void addItemToMap(String topic, DroppedItem droppedItem) {
+        eventBus.publish(topic, droppedItem);
+    }
+
+    @Override
+    public void removeItemFromMap(String topic, String itemInstanceId) {
+        eventBus.publish(topic, itemInstanceId);
+    }
+}
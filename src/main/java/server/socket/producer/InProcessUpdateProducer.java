@@ -0,0 +1,90 @@
+package server.socket.producer;
+
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.combat.model.ThreatUpdate;
+import server.common.configuration.EventBusConfiguration;
+import server.common.eventbus.InProcessEventBus;
+import server.items.equippable.model.EquippedItems;
+import server.items.inventory.model.ItemInstanceIds;
+import server.items.model.DroppedItem;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+
+@Singleton
+@Replaces(UpdateProducer.class)
+@Requires(property = EventBusConfiguration.MODE, value = EventBusConfiguration.IN_PROCESS)
+public class InProcessUpdateProducer implements UpdateProducer {
+
+    @Inject InProcessEventBus eventBus;
+
+    @Override
+    public void sendMobMotionUpdate(String actorId, Monster monster) {
+        eventBus.publish("mob-motion-update", monster);
+    }
+
+    @Override
+    public void sendCreateMob(String actorId, Monster monster) {
+        eventBus.publish("create-mob", monster);
+    }
+
+    @Override
+    public void removeMobsFromGame(String actorId, String actorIds) {
+        eventBus.publish("remove-mobs-from-game", actorIds);
+    }
+
+    @Override
+    public void sendPlayerMotionUpdate(String actorId, PlayerMotion playerMotion) {
+        eventBus.publish("player-motion-update", playerMotion);
+    }
+
+    @Override
+    public void addItemToMap(DroppedItem droppedItem) {
+        eventBus.publish("item-added-to-map", droppedItem);
+    }
+
+    @Override
+    public void removeItemFromMap(String itemInstanceId) {
+        eventBus.publish("item-removed-from-map", itemInstanceId);
+    }
+
+    @Override
+    public void notifyEquipItems(String actorId, EquippedItems equippedItems) {
+        eventBus.publish("notify-equip-items", equippedItems);
+    }
+
+    @Override
+    public void notifyUnEquipItems(String actorId, ItemInstanceIds itemInstanceIds) {
+        eventBus.publish("notify-un-equip-items", itemInstanceIds);
+    }
+
+    @Override
+    public void updateStats(String actorId, Stats stats) {
+        eventBus.publish("update-actor-stats", stats);
+    }
+
+    @Override
+    public void updateDamage(String actorId, DamageUpdateMessage damageUpdateMessage) {
+        eventBus.publish("processed-damage-updates", damageUpdateMessage);
+    }
+
+    @Override
+    public void updateStatus(String actorId, ActorStatus actorStatus) {
+        eventBus.publish("update-actor-status", actorStatus);
+    }
+
+    @Override
+    public void updateThreatLevels(String actorId, ThreatUpdate threatUpdate) {
+        eventBus.publish("update-threat-levels", threatUpdate);
+    }
+
+    @Override
+    public void updateThreatLevels(String threatUpdate) {
+        eventBus.publish("update-threat-levels", threatUpdate);
+    }
+}
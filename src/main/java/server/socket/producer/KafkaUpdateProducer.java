@@ -0,0 +1,188 @@
+package server.socket.producer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.combat.model.ThreatUpdate;
+import server.items.equippable.model.EquippedItems;
+import server.items.inventory.model.ItemInstanceIds;
+import server.items.model.DroppedItem;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+
+/**
+ * Sends each update through the producer tier its topic needs. Motion is only ever read for the
+ * latest value per actor, so it goes through the lossy tier, tuned for latency, where a lost record
+ * is replaced by the next one. Everything else has to arrive and goes through the reliable,
+ * idempotent tier. Each tier has its own producers, so a backlog on one doesn't hold up the other.
+ *
+ * <p>Sends don't wait for the broker. Send latency, counted per tier, is timed up to the broker's
+ * acknowledgement, failed sends are counted and logged.
+ */
+@Slf4j
+@Singleton
+public class KafkaUpdateProducer implements UpdateProducer {
+
+    enum Tier {
+        LOSSY,
+        RELIABLE
+    }
+
+    private final LossyUpdateProducer lossy;
+    private final ReliableUpdateProducer reliable;
+
+    private final Timer lossyLatency;
+    private final Timer reliableLatency;
+    private final Counter lossyFailed;
+    private final Counter reliableFailed;
+
+    public KafkaUpdateProducer(
+            LossyUpdateProducer lossy,
+            ReliableUpdateProducer reliable,
+            MeterRegistry meterRegistry) {
+        this.lossy = lossy;
+        this.reliable = reliable;
+        this.lossyLatency = meterRegistry.timer("kafka.producer.send.latency", "tier", "lossy");
+        this.reliableLatency =
+                meterRegistry.timer("kafka.producer.send.latency", "tier", "reliable");
+        this.lossyFailed = meterRegistry.counter("kafka.producer.send.failed", "tier", "lossy");
+        this.reliableFailed =
+                meterRegistry.counter("kafka.producer.send.failed", "tier", "reliable");
+    }
+
+    @Override
+    public void sendMobMotionUpdate(String actorId, Monster monster) {
+        send(Tier.LOSSY, "mob-motion-update", () -> lossy.sendMobMotionUpdate(actorId, monster));
+    }
+
+    @Override
+    public void sendCreateMob(String actorId, Monster monster) {
+        send(Tier.RELIABLE, "create-mob", () -> reliable.sendCreateMob(actorId, monster));
+    }
+
+    @Override
+    public void removeMobsFromGame(String actorId, String actorIds) {
+        send(
+                Tier.RELIABLE,
+                "remove-mobs-from-game",
+                () -> reliable.removeMobsFromGame(actorId, actorIds));
+    }
+
+    @Override
+    public void sendPlayerMotionUpdate(String actorId, PlayerMotion playerMotion) {
+        send(
+                Tier.LOSSY,
+                "player-motion-update",
+                () -> lossy.sendPlayerMotionUpdate(actorId, playerMotion));
+    }
+
+    @Override
+    public void addItemToMap(DroppedItem droppedItem) {
+        send(Tier.RELIABLE, "item-added-to-map", () -> reliable.addItemToMap(droppedItem));
+    }
+
+    @Override
+    public void removeItemFromMap(String itemInstanceId) {
+        send(
+                Tier.RELIABLE,
+                "item-removed-from-map",
+                () -> reliable.removeItemFromMap(itemInstanceId));
+    }
+
+    @Override
+    public void notifyEquipItems(String actorId, EquippedItems equippedItems) {
+        send(
+                Tier.RELIABLE,
+                "notify-equip-items",
+                () -> reliable.notifyEquipItems(actorId, equippedItems));
+    }
+
+    @Override
+    public void notifyUnEquipItems(String actorId, ItemInstanceIds itemInstanceIds) {
+        send(
+                Tier.RELIABLE,
+                "notify-un-equip-items",
+                () -> reliable.notifyUnEquipItems(actorId, itemInstanceIds));
+    }
+
+    @Override
+    public void updateStats(String actorId, Stats stats) {
+        send(Tier.RELIABLE, "update-actor-stats", () -> reliable.updateStats(actorId, stats));
+    }
+
+    @Override
+    public void updateDamage(String actorId, DamageUpdateMessage damageUpdateMessage) {
+        send(
+                Tier.RELIABLE,
+                "processed-damage-updates",
+                () -> reliable.updateDamage(actorId, damageUpdateMessage));
+    }
+
+    @Override
+    public void updateStatus(String actorId, ActorStatus actorStatus) {
+        send(
+                Tier.RELIABLE,
+                "update-actor-status",
+                () -> reliable.updateStatus(actorId, actorStatus));
+    }
+
+    @Override
+    public void updateThreatLevels(String actorId, ThreatUpdate threatUpdate) {
+        // threat updates add and remove entries, so they can't be lost either
+        send(
+                Tier.RELIABLE,
+                "update-threat-levels",
+                () -> reliable.updateThreatLevels(actorId, threatUpdate));
+    }
+
+    @Override
+    public void updateThreatLevels(String threatUpdate) {
+        send(
+                Tier.RELIABLE,
+                "update-threat-levels",
+                () -> reliable.updateThreatLevels(threatUpdate));
+    }
+
+    private void send(
+            Tier tier, String topic, Supplier<CompletableFuture<RecordMetadata>> producer) {
+        long start = System.nanoTime();
+        CompletableFuture<RecordMetadata> sent;
+        try {
+            sent = producer.get();
+        } catch (RuntimeException e) {
+            // e.g. the lossy tier's buffer being full past max.block.ms
+            failed(tier, topic, e);
+            return;
+        }
+
+        sent.whenComplete(
+                (metadata, err) -> {
+                    if (err != null) {
+                        failed(tier, topic, err);
+                        return;
+                    }
+                    Timer latency = tier == Tier.LOSSY ? lossyLatency : reliableLatency;
+                    latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                });
+    }
+
+    private void failed(Tier tier, String topic, Throwable err) {
+        if (tier == Tier.LOSSY) {
+            // the next update for the actor replaces it
+            lossyFailed.increment();
+            log.debug("Dropped update on {}, {}", topic, err.getMessage());
+        } else {
+            reliableFailed.increment();
+            log.error("Failed to send update on {}, {}", topic, err.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package server.socket.producer;
+
+import io.micronaut.configuration.kafka.annotation.KafkaClient;
+import io.micronaut.configuration.kafka.annotation.KafkaKey;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.messaging.annotation.MessageBody;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+
+// latest value topics, tuned for latency, see kafka.producers in application.yml
+@KafkaClient(id = "lossy-update-producer")
+public interface LossyUpdateProducer {
+
+    @Topic("mob-motion-update")
+    CompletableFuture<RecordMetadata> sendMobMotionUpdate(
+            @KafkaKey String actorId, @MessageBody Monster monster);
+
+    @Topic("player-motion-update")
+    CompletableFuture<RecordMetadata> sendPlayerMotionUpdate(
+            @KafkaKey String actorId, @MessageBody PlayerMotion playerMotion);
+}
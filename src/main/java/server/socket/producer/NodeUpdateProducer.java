@@ -0,0 +1,47 @@
+package server.socket.producer;
+
+import io.micronaut.configuration.kafka.annotation.KafkaClient;
+import io.micronaut.configuration.kafka.annotation.KafkaKey;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.messaging.annotation.MessageBody;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.combat.model.ThreatUpdate;
+import server.items.equippable.model.EquippedItems;
+import server.items.inventory.model.ItemInstanceIds;
+import server.items.model.DroppedItem;
+
+// the topic is a node topic, see ClusterConfiguration.nodeTopic
+@KafkaClient(id = "node-update-producer")
+public interface NodeUpdateProducer {
+
+    void updateStats(@Topic String topic, @KafkaKey String actorId, @MessageBody Stats stats);
+
+    void updateDamage(
+            @Topic String topic,
+            @KafkaKey String actorId,
+            @MessageBody DamageUpdateMessage damageUpdateMessage);
+
+    void updateStatus(
+            @Topic String topic, @KafkaKey String actorId, @MessageBody ActorStatus actorStatus);
+
+    void updateThreatLevels(
+            @Topic String topic,
+            @KafkaKey String actorId,
+            @MessageBody ThreatUpdate threatUpdate);
+
+    void notifyEquipItems(
+            @Topic String topic,
+            @KafkaKey String actorId,
+            @MessageBody EquippedItems equippedItems);
+
+    void notifyUnEquipItems(
+            @Topic String topic,
+            @KafkaKey String actorId,
+            @MessageBody ItemInstanceIds itemInstanceIds);
+
+    void addItemToMap(@Topic String topic, @MessageBody DroppedItem droppedItem);
+
+    void removeItemFromMap(@Topic String topic, @MessageBody String itemInstanceId);
+}
@@ -0,0 +1,62 @@
+package server.socket.producer;
+
+import io.micronaut.configuration.kafka.annotation.KafkaClient;
+import io.micronaut.configuration.kafka.annotation.KafkaKey;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.messaging.annotation.MessageBody;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.combat.model.ThreatUpdate;
+import server.items.equippable.model.EquippedItems;
+import server.items.inventory.model.ItemInstanceIds;
+import server.items.model.DroppedItem;
+import server.monster.server_integration.model.Monster;
+
+// topics that must not be lost, acks=all and idempotent, see kafka.producers in application.yml
+@KafkaClient(id = "reliable-update-producer")
+public interface ReliableUpdateProducer {
+
+    @Topic("create-mob")
+    CompletableFuture<RecordMetadata> sendCreateMob(
+            @KafkaKey String actorId, @MessageBody Monster monster);
+
+    @Topic("remove-mobs-from-game")
+    CompletableFuture<RecordMetadata> removeMobsFromGame(
+            @KafkaKey String actorId, @MessageBody String actorIds);
+
+    @Topic("item-added-to-map")
+    CompletableFuture<RecordMetadata> addItemToMap(DroppedItem droppedItem);
+
+    @Topic("item-removed-from-map")
+    CompletableFuture<RecordMetadata> removeItemFromMap(String itemInstanceId);
+
+    @Topic("notify-equip-items")
+    CompletableFuture<RecordMetadata> notifyEquipItems(
+            @KafkaKey String actorId, @MessageBody EquippedItems equippedItems);
+
+    @Topic("notify-un-equip-items")
+    CompletableFuture<RecordMetadata> notifyUnEquipItems(
+            @KafkaKey String actorId, @MessageBody ItemInstanceIds itemInstanceIds);
+
+    @Topic("update-actor-stats")
+    CompletableFuture<RecordMetadata> updateStats(
+            @KafkaKey String actorId, @MessageBody Stats stats);
+
+    @Topic("processed-damage-updates")
+    CompletableFuture<RecordMetadata> updateDamage(
+            @KafkaKey String actorId, @MessageBody DamageUpdateMessage damageUpdateMessage);
+
+    @Topic("update-actor-status")
+    CompletableFuture<RecordMetadata> updateStatus(
+            @KafkaKey String actorId, @MessageBody ActorStatus actorStatus);
+
+    @Topic("update-threat-levels")
+    CompletableFuture<RecordMetadata> updateThreatLevels(
+            @KafkaKey String actorId, @MessageBody ThreatUpdate threatUpdate);
+
+    @Topic("update-threat-levels")
+    CompletableFuture<RecordMetadata> updateThreatLevels(String threatUpdate);
+}
@@ -0,0 +1,193 @@
+package server.socket.producer;
+
+import io.reactivex.rxjava3.core.Single;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Set;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.combat.model.ThreatUpdate;
+import server.common.configuration.ClusterConfiguration;
+import server.items.equippable.model.EquippedItems;
+import server.items.inventory.model.ItemInstanceIds;
+import server.items.model.DroppedItem;
+import server.monster.server_integration.model.Monster;
+import server.monster.server_integration.producer.MonsterServerProducer;
+import server.motion.dto.PlayerMotion;
+import server.motion.producer.PlayerMotionUpdateProducer;
+import server.session.cluster.ClusterSessionDirectory;
+import server.utils.FeatureFlag;
+
+/**
+ * Sends the updates that are fanned out to client sessions. With enableNodeRouting on, an update
+ * about an actor goes to the node topic of each node the {@link ClusterSessionDirectory} lists for
+ * it, instead of the shared topic, so a node only consumes what its sessions are listening to.
+ * Map wide updates go to every live node. Motion results keep to the lossy motion producers, on
+ * node topics of their own.
+ */
+@Slf4j
+@Singleton
+public class SocketUpdateRouter {
+
+    @Inject UpdateProducer updateProducer;
+
+    @Inject NodeUpdateProducer nodeUpdateProducer;
+
+    @Inject PlayerMotionUpdateProducer playerMotionUpdateProducer;
+
+    @Inject MonsterServerProducer monsterServerProducer;
+
+    @Inject ClusterSessionDirectory directory;
+
+    @Inject FeatureFlag featureFlag;
+
+    public void sendPlayerMotionResult(PlayerMotion playerMotion) {
+        String actorId = playerMotion.getActorId();
+        if (!isEnabled()) {
+            playerMotionUpdateProducer.sendPlayerMotionResult(actorId, playerMotion);
+            return;
+        }
+
+        route(
+                directory.getNodes(actorId),
+                "player-motion-update-result",
+                topic ->
+                        playerMotionUpdateProducer.sendPlayerMotionResultToNode(
+                                topic, actorId, playerMotion));
+    }
+
+    public void sendMobUpdateResult(Monster monster) {
+        String actorId = monster.getActorId();
+        if (!isEnabled()) {
+            monsterServerProducer.sendMobUpdateResult(actorId, monster);
+            return;
+        }
+
+        route(
+                directory.getNodes(actorId),
+                "mob-motion-update-result",
+                topic -> monsterServerProducer.sendMobUpdateResultToNode(topic, actorId, monster));
+    }
+
+    public void updateStats(Stats stats) {
+        if (!isEnabled()) {
+            updateProducer.updateStats(stats.getActorId(), stats);
+            return;
+        }
+
+        String actorId = stats.getActorId();
+        route(
+                directory.getNodes(actorId),
+                "update-actor-stats",
+                topic -> nodeUpdateProducer.updateStats(topic, actorId, stats));
+    }
+
+    public void updateDamage(DamageUpdateMessage damageUpdateMessage) {
+        // combat consumes the shared topic once per cluster, routed or not
+        updateProducer.updateDamage(
+                damageUpdateMessage.getTargetStats().getActorId(), damageUpdateMessage);
+        if (!isEnabled()) {
+            return;
+        }
+
+        String actorId = damageUpdateMessage.getOriginStats().getActorId();
+        route(
+                directory.getNodes(actorId),
+                "processed-damage-updates",
+                topic -> nodeUpdateProducer.updateDamage(topic, actorId, damageUpdateMessage));
+    }
+
+    public void updateStatus(ActorStatus actorStatus) {
+        if (!isEnabled()) {
+            updateProducer.updateStatus(actorStatus.getActorId(), actorStatus);
+            return;
+        }
+
+        String actorId = actorStatus.getActorId();
+        route(
+                directory.getNodes(actorId),
+                "update-actor-status",
+                topic -> nodeUpdateProducer.updateStatus(topic, actorId, actorStatus));
+    }
+
+    public void updateThreatLevels(ThreatUpdate threatUpdate) {
+        if (!isEnabled()) {
+            updateProducer.updateThreatLevels(threatUpdate.getActorId(), threatUpdate);
+            return;
+        }
+
+        // the mob's threat goes to the server sessions tracking it
+        String actorId = threatUpdate.getActorId();
+        route(
+                directory.getNodes(actorId),
+                "update-threat-levels",
+                topic -> nodeUpdateProducer.updateThreatLevels(topic, actorId, threatUpdate));
+    }
+
+    public void notifyEquipItems(EquippedItems equippedItems) {
+        if (!isEnabled()) {
+            updateProducer.notifyEquipItems(equippedItems.getActorId(), equippedItems);
+            return;
+        }
+
+        String actorId = equippedItems.getActorId();
+        route(
+                directory.getNodes(actorId),
+                "notify-equip-items",
+                topic -> nodeUpdateProducer.notifyEquipItems(topic, actorId, equippedItems));
+    }
+
+    public void notifyUnEquipItems(ItemInstanceIds itemInstanceIds) {
+        if (!isEnabled()) {
+            updateProducer.notifyUnEquipItems(itemInstanceIds.getActorId(), itemInstanceIds);
+            return;
+        }
+
+        String actorId = itemInstanceIds.getActorId();
+        route(
+                directory.getNodes(actorId),
+                "notify-un-equip-items",
+                topic -> nodeUpdateProducer.notifyUnEquipItems(topic, actorId, itemInstanceIds));
+    }
+
+    public void addItemToMap(DroppedItem droppedItem) {
+        if (!isEnabled()) {
+            updateProducer.addItemToMap(droppedItem);
+            return;
+        }
+
+        route(
+                directory.getLiveNodes(),
+                "item-added-to-map",
+                topic -> nodeUpdateProducer.addItemToMap(topic, droppedItem));
+    }
+
+    public void removeItemFromMap(String itemInstanceId) {
+        if (!isEnabled()) {
+            updateProducer.removeItemFromMap(itemInstanceId);
+            return;
+        }
+
+        route(
+                directory.getLiveNodes(),
+                "item-removed-from-map",
+                topic -> nodeUpdateProducer.removeItemFromMap(topic, itemInstanceId));
+    }
+
+    private void route(Single<Set<String>> nodes, String topic, Consumer<String> send) {
+        nodes.subscribe(
+                nodeIds -> {
+                    for (String nodeId : nodeIds) {
+                        send.accept(ClusterConfiguration.nodeTopic(topic, nodeId));
+                    }
+                },
+                err -> log.error("Failed to route {}, {}", topic, err.getMessage()));
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(featureFlag.getEnableNodeRouting());
+    }
+}
@@ -1,8 +1,5 @@
 package server.socket.producer;
 
-import io.micronaut.configuration.kafka.annotation.KafkaClient;
-import io.micronaut.configuration.kafka.annotation.Topic;
-import io.micronaut.scheduling.TaskExecutors;
 import server.attribute.stats.model.DamageUpdateMessage;
 import server.attribute.stats.model.Stats;
 import server.attribute.status.model.ActorStatus;
@@ -13,45 +10,35 @@ import server.items.model.DroppedItem;
 import server.monster.server_integration.model.Monster;
 import server.motion.dto.PlayerMotion;
 
-@KafkaClient(id = "general-update-producer")
+/**
+ * Publishes game updates. Over Kafka each topic goes through the producer tier it needs, see
+ * {@link KafkaUpdateProducer}, actor scoped updates are keyed by actor id.
+ */
 public interface UpdateProducer {
 
-    @Topic("mob-motion-update")
-    void sendMobMotionUpdate(Monster monster);
+    void sendMobMotionUpdate(String actorId, Monster monster);
 
-    @Topic("create-mob")
-    void sendCreateMob(Monster monster);
+    void sendCreateMob(String actorId, Monster monster);
 
-    @Topic("remove-mobs-from-game")
-    void removeMobsFromGame(String actorIds);
+    void removeMobsFromGame(String actorId, String actorIds);
 
-    @Topic("player-motion-update")
-    void sendPlayerMotionUpdate(PlayerMotion playerMotion);
+    void sendPlayerMotionUpdate(String actorId, PlayerMotion playerMotion);
 
-    @Topic("item-added-to-map")
     void addItemToMap(DroppedItem droppedItem);
 
-    @Topic("item-removed-from-map")
     void removeItemFromMap(String itemInstanceId);
 
-    @Topic("notify-equip-items")
-    void notifyEquipItems(EquippedItems equippedItems);
+    void notifyEquipItems(String actorId, EquippedItems equippedItems);
 
-    @Topic("notify-un-equip-items")
-    void notifyUnEquipItems(ItemInstanceIds itemInstanceIds);
+    void notifyUnEquipItems(String actorId, ItemInstanceIds itemInstanceIds);
 
-    @Topic("update-actor-stats")
-    void updateStats(Stats stats);
+    void updateStats(String actorId, Stats stats);
 
-    @Topic("processed-damage-updates")
-    void updateDamage(DamageUpdateMessage damageUpdateMessage);
+    void updateDamage(String actorId, DamageUpdateMessage damageUpdateMessage);
 
-    @Topic("update-actor-status")
-    void updateStatus(ActorStatus actorStatus);
+    void updateStatus(String actorId, ActorStatus actorStatus);
 
-    @Topic("update-threat-levels")
-    void updateThreatLevels(ThreatUpdate threatUpdate);
+    void updateThreatLevels(String actorId, ThreatUpdate threatUpdate);
 
-    @Topic("update-threat-levels")
     void updateThreatLevels(String threatUpdate);
 }
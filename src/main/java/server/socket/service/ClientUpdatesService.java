@@ -1,34 +1,42 @@
 package server.socket.service;
 
-import io.micronaut.websocket.WebSocketBroadcaster;
 import io.micronaut.websocket.WebSocketSession;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import server.common.dto.Location;
 import server.common.dto.Motion;
 import server.items.model.DroppedItem;
-import server.motion.model.SessionParams;
 import server.motion.repository.ActorMotionRepository;
 import server.session.SessionParamHelper;
+import server.session.SessionState;
+import server.session.SessionSubscriptionIndex;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
 public class ClientUpdatesService {
 
-    // broadcaster is a singleton, so should have the sessions available
-    @Inject WebSocketBroadcaster broadcaster;
+    @Inject ActorMotionRepository actorMotionRepository;
 
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
+    @Inject SessionSubscriptionIndex subscriptionIndex;
 
-    @Inject ActorMotionRepository actorMotionRepository;
+    @Inject SessionOutboundService sessionOutboundService;
+
+    @Inject SessionParamHelper sessionParamHelper;
+
+    public void broadcast(Collection<WebSocketSession> sessions, SocketResponse message) {
+        sessionOutboundService.broadcast(sessions, message);
+    }
 
     public void sendDroppedItemUpdates(DroppedItem droppedItem) {
         SocketResponse socketResponse =
@@ -40,9 +48,7 @@ public class ClientUpdatesService {
                                         droppedItem))
                         .build();
 
-        broadcaster
-                .broadcast(socketResponse, listensToItemDrops(droppedItem))
-                .subscribe(socketResponseSubscriber);
+        broadcast(liveSessionsMatching(listensToItemDrops(droppedItem)), socketResponse);
     }
 
     public void sendItemPickupUpdates(String itemInstanceId) {
@@ -52,39 +58,36 @@ public class ClientUpdatesService {
                         .itemInstanceIds(Set.of(itemInstanceId))
                         .build();
 
-        broadcaster
-                .broadcast(socketResponse, listensToItemPickup(itemInstanceId))
-                .subscribe(socketResponseSubscriber);
+        broadcast(liveSessionsMatching(listensToItemPickup(itemInstanceId)), socketResponse);
+    }
+
+    // item updates go through the session queues too, so they stay in order with the rest
+    private Set<WebSocketSession> liveSessionsMatching(Predicate<WebSocketSession> filter) {
+        if (sessionParamHelper.getLiveSessions() == null) {
+            return Set.of();
+        }
+        return sessionParamHelper.getLiveSessions().values().stream()
+                .filter(filter)
+                .collect(Collectors.toSet());
     }
 
     private Predicate<WebSocketSession> listensToItemPickup(String itemInstanceId) {
         return s -> {
-            if (SessionParamHelper.getIsServer(s)) {
-                return false;
-                // servers don't need item updates
-            }
-
-            Set<String> trackedItems = SessionParamHelper.getDroppedItems(s);
-
-            if (trackedItems.contains(itemInstanceId)) {
-                trackedItems.remove(itemInstanceId);
-
-                return true;
-            }
-
-            return false;
+            SessionState state = SessionState.of(s);
+            // servers don't need item updates
+            return !state.isServer() && state.getDroppedItems().remove(itemInstanceId);
         };
     }
 
     private Predicate<WebSocketSession> listensToItemDrops(DroppedItem droppedItem) {
         return s -> {
-            if (SessionParamHelper.getIsServer(s)) {
+            SessionState state = SessionState.of(s);
+            if (state.isServer()) {
                 // servers don't need item updates
                 return false;
             }
             // TODO: needs to be batched
-            String actorId = SessionParamHelper.getActorId(s);
-            Motion motion = actorMotionRepository.fetchActorMotion(actorId).blockingGet();
+            Motion motion = actorMotionRepository.fetchActorMotion(state.getActorId()).blockingGet();
 
             if (motion == null) {
                 return false;
@@ -94,11 +97,7 @@ public class ClientUpdatesService {
             Location location = new Location(motion);
             if (location.withinThreshold(droppedItem.getLocation(), defaultThresholdDistance)) {
                 // automatically make it listen to this items events
-
-                Set<String> trackedItems = SessionParamHelper.getDroppedItems(s);
-
-                trackedItems.add(droppedItem.getItemInstance().getItemInstanceId());
-                s.put(SessionParams.DROPPED_ITEMS.getType(), trackedItems);
+                state.getDroppedItems().add(droppedItem.getItemInstance().getItemInstanceId());
 
                 return true;
             }
@@ -107,74 +106,68 @@ public class ClientUpdatesService {
         };
     }
 
-    Predicate<WebSocketSession> sessionIsPlayerAndListensToActor(String playerOrMob) {
-        return s -> sessionIsPlayerAndListensToActor(s, playerOrMob);
+    // player sessions tracking the actor, whether it is a player or a mob
+    Set<WebSocketSession> playersListeningTo(String actorId) {
+        Set<WebSocketSession> sessions = new HashSet<>();
+        addIf(sessions, subscriptionIndex.getPlayerSubscribers(actorId), s -> !isServer(s));
+        addIf(sessions, subscriptionIndex.getMobSubscribers(actorId), s -> !isServer(s));
+        return sessions;
     }
 
-    Predicate<WebSocketSession> sessionIsServerAndListensToMob(String mobId) {
-        return s -> sessionIsServerAndListensToMob(s, mobId);
+    // server sessions that own the mob
+    Set<WebSocketSession> serversListeningToMob(String mobId) {
+        Set<WebSocketSession> sessions = new HashSet<>();
+        addIf(sessions, subscriptionIndex.getMobSubscribers(mobId), this::isServer);
+        return sessions;
     }
 
-    private boolean sessionIsServerAndListensToMob(WebSocketSession s, String mobId) {
-        if (!SessionParamHelper.getIsServer(s)) {
-            return false;
-        }
-
-        Set<String> actorIds = SessionParamHelper.getTrackingMobs(s);
-
-        return actorIds.contains(mobId);
+    // players tracking the actor, and servers tracking it as a player. Servers do not get mob updates
+    Set<WebSocketSession> listeningTo(String actorId) {
+        Set<WebSocketSession> sessions = new HashSet<>(subscriptionIndex.getPlayerSubscribers(actorId));
+        addIf(sessions, subscriptionIndex.getMobSubscribers(actorId), s -> !isServer(s));
+        return sessions;
     }
 
-    private boolean sessionIsPlayerAndListensToActor(WebSocketSession s, String actorId) {
-        if (SessionParamHelper.getIsServer(s)) {
-            return false;
-        }
-
-        Set<String> actorIds = SessionParamHelper.getTrackingMobs(s);
-        actorIds.addAll(SessionParamHelper.getTrackingPlayers(s));
-
-        return actorIds.contains(actorId);
+    Set<WebSocketSession> listeningToIncludingServer(String actorId) {
+        Set<WebSocketSession> sessions = new HashSet<>(subscriptionIndex.getPlayerSubscribers(actorId));
+        sessions.addAll(subscriptionIndex.getMobSubscribers(actorId));
+        return sessions;
     }
 
-    Predicate<WebSocketSession> sessionListensToActorId(String actorId) {
-        return s -> sessionListensToActorId(s, actorId);
-    }
-
-    Predicate<WebSocketSession> sessionListensToActorIdWithServer(String actorId) {
-        return s -> sessionListensToActorIdWithServer(s, actorId);
-    }
-
-    private boolean sessionListensToActorId(WebSocketSession s, String actorId) {
-        boolean isServer = SessionParamHelper.getIsServer(s);
-        // server does not track mob updates
-        Set<String> actorIds = isServer ? new HashSet<>() : SessionParamHelper.getTrackingMobs(s);
-        actorIds.addAll(SessionParamHelper.getTrackingPlayers(s));
-
-        return actorIds.contains(actorId);
+    // everyone tracking the actor plus the actor's own session, or the server owning the mob
+    Set<WebSocketSession> listeningToOrIsTheActor(String actorId) {
+        Set<WebSocketSession> sessions = listeningToIncludingServer(actorId);
+        WebSocketSession self = subscriptionIndex.getActorSession(actorId);
+        if (self != null) {
+            sessions.add(self);
+        }
+        return sessions;
     }
 
-    private boolean sessionListensToActorIdWithServer(WebSocketSession s, String actorId) {
-        Set<String> actorIds = SessionParamHelper.getTrackingMobs(s);
-        actorIds.addAll(SessionParamHelper.getTrackingPlayers(s));
-
-        return actorIds.contains(actorId);
-    }
+    // sessions listening to any of the actors, grouped by the actors they listen to, so every
+    // session seeing the same actors can share one response
+    Map<Set<String>, Set<WebSocketSession>> listeningToGrouped(Collection<String> actorIds) {
+        Map<WebSocketSession, Set<String>> actorsBySession = new HashMap<>();
+        for (String actorId : actorIds) {
+            listeningTo(actorId)
+                    .forEach(s -> actorsBySession.computeIfAbsent(s, k -> new HashSet<>()).add(actorId));
+        }
 
-    Predicate<WebSocketSession> sessionListensToActorsOrIsTheActor(String actorId) {
-        return s -> sessionListensToActorsOrIsTheActor(s, actorId);
+        Map<Set<String>, Set<WebSocketSession>> sessionsByActors = new HashMap<>();
+        actorsBySession.forEach(
+                (session, actors) ->
+                        sessionsByActors.computeIfAbsent(actors, k -> new HashSet<>()).add(session));
+        return sessionsByActors;
     }
 
-    private boolean sessionListensToActorsOrIsTheActor(WebSocketSession s, String actorId) {
-        return sessionIsTheActor(s, actorId) || sessionListensToActorId(s, actorId);
+    private boolean isServer(WebSocketSession session) {
+        return SessionState.of(session).isServer();
     }
 
-    private boolean sessionIsTheActor(WebSocketSession s, String playerOrMob) {
-        String actorId = SessionParamHelper.getActorId(s);
-        Set<String> serverActors =
-                SessionParamHelper.getIsServer(s)
-                        ? SessionParamHelper.getTrackingMobs(s)
-                        : new HashSet<>();
-
-        return actorId.equalsIgnoreCase(playerOrMob) || serverActors.contains(playerOrMob);
+    private static void addIf(
+            Set<WebSocketSession> target,
+            Collection<WebSocketSession> sessions,
+            Predicate<WebSocketSession> filter) {
+        sessions.stream().filter(filter).forEach(target::add);
     }
 }
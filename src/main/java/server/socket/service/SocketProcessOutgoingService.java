@@ -17,12 +17,14 @@ import server.actionbar.service.ActionbarService;
 import server.combat.service.ActorThreatService;
 import server.combat.service.MobCombatService;
 import server.combat.service.PlayerCombatService;
+import server.monster.server_integration.model.Monster;
 import server.motion.dto.PlayerMotion;
 import server.session.SessionParamHelper;
-import server.session.cache.UdpSessionCache;
+import server.session.SessionSubscriptionIndex;
+import server.session.cache.UdpSessionRegistry;
+import server.session.cluster.NodeInterestRegistry;
 import server.skills.service.CombatSkillsService;
 import server.socket.model.SocketMessage;
-import server.socket.model.UdpAddressHolder;
 import server.socket.model.types.MessageType;
 import server.socket.model.types.SkillMessageType;
 import server.socket.producer.UpdateProducer;
@@ -30,6 +32,7 @@ import server.socket.service.integrations.attributes.StatsSocketIntegration;
 import server.socket.service.integrations.items.ItemSocketIntegration;
 import server.socket.service.integrations.motion.PlayerMotionIntegration;
 import server.socket.service.integrations.status.StatusSocketIntegration;
+import server.socket.v2.UdpSequenceTracker;
 
 @Slf4j
 @Singleton
@@ -55,12 +58,18 @@ public class SocketProcessOutgoingService {
 
     @Inject ActionbarService actionbarService;
 
-    @Inject UdpSessionCache sessionCache;
+    @Inject UdpSessionRegistry udpSessionRegistry;
+
+    @Inject UdpSequenceTracker udpSequenceTracker;
+
+    @Inject SessionSubscriptionIndex subscriptionIndex;
 
     @Inject SessionParamHelper sessionParamHelper;
 
     @Inject ActorThreatService threatService;
 
+    @Inject NodeInterestRegistry nodeInterest;
+
     Map<String, BiConsumer<SocketMessage, WebSocketSession>> functionMap;
 
     Map<String, Consumer<SocketMessage>> udpFunctionMap;
@@ -77,7 +86,9 @@ public class SocketProcessOutgoingService {
     }
 
     public void removeActorSession(String actorId) {
-        actorSessions.remove(actorId);
+        if (actorSessions.remove(actorId) != null) {
+            nodeInterest.release(actorId);
+        }
     }
 
     public SocketProcessOutgoingService() {
@@ -173,11 +184,13 @@ public class SocketProcessOutgoingService {
         }
 
 //        log.info("sending player motion update");
-        updateProducer.sendPlayerMotionUpdate(message.getPlayerMotion());
+        PlayerMotion playerMotion = message.getPlayerMotion();
+        updateProducer.sendPlayerMotionUpdate(playerMotion.getActorId(), playerMotion);
     }
 
     private void handleMobMotionUpdate(SocketMessage message) {
-        updateProducer.sendMobMotionUpdate(message.getMonster());
+        Monster monster = message.getMonster();
+        updateProducer.sendMobMotionUpdate(monster.getActorId(), monster);
     }
 
     private void handleMobMotionUpdate(SocketMessage message, WebSocketSession session) {
@@ -185,8 +198,8 @@ public class SocketProcessOutgoingService {
     }
 
     private void handleCreateMob(SocketMessage message, WebSocketSession session) {
-        SessionParamHelper.addTrackingMobs(session, Set.of(message.getActorId()));
-        updateProducer.sendCreateMob(message.getMonster());
+        subscriptionIndex.addTrackingMobs(session, Set.of(message.getActorId()));
+        updateProducer.sendCreateMob(message.getMonster().getActorId(), message.getMonster());
     }
 
     // handle inventory interaction
@@ -318,7 +331,11 @@ public class SocketProcessOutgoingService {
 
         String useId = actorId == null || actorId.isBlank() ? serverName : actorId;
 
-        actorSessions.put(useId, session);
+        if (actorSessions.put(useId, session) == null) {
+            nodeInterest.acquire(useId);
+        }
+        // a (re)connecting client starts its udp sequence again
+        udpSequenceTracker.reset(useId);
 
         String address = SessionParamHelper.getAddress(session);
         Integer port = Integer.parseInt(message.getCustomData());
@@ -328,7 +345,7 @@ public class SocketProcessOutgoingService {
             throw new RuntimeException("UDP address not configured");
         }
 
-        sessionCache.setUdpSession(useId, new UdpAddressHolder(address, port));
+        udpSessionRegistry.register(useId, address, port);
     }
 
     private boolean validate(String value, String name) {
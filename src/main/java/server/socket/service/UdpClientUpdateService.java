@@ -4,22 +4,28 @@ import io.micronaut.websocket.WebSocketSession;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.UdpServerConfiguration;
 import server.session.SessionParamHelper;
-import server.session.cache.UdpSessionCache;
+import server.session.cache.UdpSessionRegistry;
 import server.socket.model.SocketResponse;
-import server.socket.model.UdpAddressHolder;
 import server.socket.v2.UDPServer;
-
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-import java.util.function.Predicate;
+import server.socket.v2.codec.UdpMessageCodec;
+import server.socket.v2.delta.MotionBaselineRegistry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 @Slf4j
 @Singleton
 public class UdpClientUpdateService extends ClientUpdatesService  {
 
-    @Inject SocketProcessOutgoingService socketService;
-
     @Inject
     SessionParamHelper sessionParamHelper;
 
@@ -27,44 +33,125 @@ public class UdpClientUpdateService extends ClientUpdatesService  {
     UDPServer udpServer;
 
     @Inject
-    UdpSessionCache sessionCache;
-
-    private void sendWithFilter(Predicate<WebSocketSession> filter, SocketResponse message) {
-        socketService.getLiveSessions().values()
-                .parallelStream()
-                .filter(filter)
-                .forEach(s -> {
-                    String id = SessionParamHelper.getIsPlayer(s) ?
-                            SessionParamHelper.getActorId(s) : SessionParamHelper.getServerName(s);
-
-                    try {
-                        UdpAddressHolder addressHolder = sessionCache.fetchUdpSession(id);
-                        udpServer.send(message, InetAddress.getByName(addressHolder.getHost()), addressHolder.getPort());
-                    } catch (UnknownHostException e) {
-                        log.error("Error sending UDP message, {}", e.getMessage());
-                    }
-                });
+    UdpSessionRegistry udpSessionRegistry;
+
+    @Inject
+    MotionBaselineRegistry motionBaselines;
+
+    @Inject
+    UdpMessageCodec udpMessageCodec;
+
+    @Inject
+    UdpServerConfiguration udpServerConfiguration;
+
+    private void sendToSessions(Set<WebSocketSession> sessions, SocketResponse message) {
+        if (sessions.isEmpty()) {
+            return;
+        }
 
+        ByteBuffer encoded = encode(message);
+        if (encoded != null) {
+            sendToSessions(sessions, message, encoded);
+        }
+    }
+
+    private ByteBuffer encode(SocketResponse message) {
+        try {
+            return udpMessageCodec.encode(message);
+        } catch (IOException e) {
+            log.error("Failed to encode UDP message, {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // encoded once, every target gets its own view of the same bytes
+    private void sendToSessions(
+            Set<WebSocketSession> sessions, SocketResponse message, ByteBuffer encoded) {
+        sessions.forEach(s -> {
+            String id = SessionParamHelper.getIsPlayer(s) ?
+                    SessionParamHelper.getActorId(s) : SessionParamHelper.getServerName(s);
+
+            InetSocketAddress address = udpSessionRegistry.get(id);
+            if (address == null) {
+                log.error("No UDP session registered for {}", id);
+                return;
+            }
+
+            // clients acking motion get a delta against their last acked state
+            ByteBuffer delta = motionBaselines.isDeltaClient(id)
+                    ? motionBaselines.encode(id, message) : null;
+            udpServer.send(delta != null ? delta : encoded.duplicate(), address);
+        });
     }
 
     public void sendUpdateToListeningPlayers(SocketResponse message, String actorId) {
-        sendWithFilter(sessionIsPlayerAndListensToActor(actorId), message);
+        sendToSessions(playersListeningTo(actorId), message);
     }
 
     public void sendUpdateToListening(SocketResponse message, String actorId) {
         // this is to send message to both, players and mobs, but excluding self.
-        sendWithFilter(sessionListensToActorId(actorId), message);
+        sendToSessions(listeningTo(actorId), message);
     }
 
     public void sendUpdateToListeningIncludingServer(SocketResponse message, String actorId) {
         // this is to send message to both, players and mobs, but excluding self.
-        sendWithFilter(sessionListensToActorIdWithServer(actorId), message);
+        sendToSessions(listeningToIncludingServer(actorId), message);
     }
 
     public void sendUpdateToListeningIncludingSelf(SocketResponse message, String actorId) {
         // send message to anyone subscribed to this actor
-        sendWithFilter(sessionListensToActorsOrIsTheActor(actorId), message);
+        sendToSessions(listeningToOrIsTheActor(actorId), message);
     }
 
+    /**
+     * Sends one response per group of sessions listening to the same actors, built for just the
+     * actors that group listens to. Responses larger than the MTU are split by actor, a datagram
+     * past it gets fragmented and is lost whole when any fragment is.
+     */
+    public void sendGroupedUpdateToListening(
+            Collection<String> actorIds, Function<Set<String>, SocketResponse> responseFor) {
+        listeningToGrouped(actorIds)
+                .forEach((actors, sessions) -> sendChunked(sessions, actors, responseFor));
+    }
+
+    private void sendChunked(
+            Set<WebSocketSession> sessions,
+            Set<String> actors,
+            Function<Set<String>, SocketResponse> responseFor) {
+        SocketResponse message = responseFor.apply(actors);
+        ByteBuffer encoded = encode(message);
+        if (encoded == null) {
+            return;
+        }
+
+        int mtu = udpServerConfiguration.getMtu();
+        if (encoded.remaining() <= mtu || actors.size() == 1) {
+            sendToSessions(sessions, message, encoded);
+            return;
+        }
+
+        // split by the size seen so far, chunks still too large split again
+        int chunks = Math.min(actors.size(), encoded.remaining() / mtu + 1);
+        for (Set<String> chunk : partition(actors, chunks)) {
+            sendChunked(sessions, chunk, responseFor);
+        }
+    }
+
+    private static List<Set<String>> partition(Set<String> actors, int chunks) {
+        List<Set<String>> partitions = new ArrayList<>();
+        int chunkSize = (actors.size() + chunks - 1) / chunks;
+        Set<String> chunk = new LinkedHashSet<>();
+        for (String actorId : actors) {
+            chunk.add(actorId);
+            if (chunk.size() == chunkSize) {
+                partitions.add(chunk);
+                chunk = new LinkedHashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            partitions.add(chunk);
+        }
+        return partitions;
+    }
 
 }
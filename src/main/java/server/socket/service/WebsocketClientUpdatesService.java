@@ -1,69 +1,62 @@
 package server.socket.service;
 
-import io.micronaut.websocket.WebSocketBroadcaster;
 import io.micronaut.websocket.WebSocketSession;
-import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
-import server.common.dto.Location;
-import server.common.dto.Motion;
-import server.items.model.DroppedItem;
-import server.motion.model.SessionParams;
-import server.session.SessionParamHelper;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
-import server.socket.model.SocketResponseType;
 
-import java.util.HashSet;
-import java.util.Map;
+import java.util.Collection;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.function.Function;
 
 @Slf4j
 @Singleton
 public class WebsocketClientUpdatesService extends ClientUpdatesService {
 
-    // broadcaster is a singleton, so should have the sessions available
-    @Inject WebSocketBroadcaster broadcaster;
-
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
-
     public void sendUpdateToListeningPlayers(SocketResponse message, String actorId) {
-        broadcaster
-                .broadcast(message, sessionIsPlayerAndListensToActor(actorId))
-                .subscribe(socketResponseSubscriber);
+        sendToSessions(playersListeningTo(actorId), message);
     }
 
     public void sendUpdateToListeningMob(SocketResponse message, String mobId) {
-        broadcaster
-                .broadcast(message, sessionIsServerAndListensToMob(mobId))
-                .subscribe(socketResponseSubscriber);
-
+        sendToSessions(serversListeningToMob(mobId), message);
     }
 
     public void sendUpdateToListening(SocketResponse message, String actorId) {
         // this is to send message to both, players and mobs, but excluding self.
-        broadcaster
-                .broadcast(message, sessionListensToActorId(actorId))
-                .subscribe(socketResponseSubscriber);
+        sendToSessions(listeningTo(actorId), message);
     }
 
     public void sendUpdateToListeningIncludingServer(SocketResponse message, String actorId) {
         // this is to send message to both, players and mobs, but excluding self.
-        broadcaster
-                .broadcast(message, sessionListensToActorIdWithServer(actorId))
-                .subscribe(socketResponseSubscriber);
+        sendToSessions(listeningToIncludingServer(actorId), message);
     }
 
     public void sendUpdateToListeningIncludingSelf(SocketResponse message, String actorId) {
         // send message to anyone subscribed to this actor
-        broadcaster
-                .broadcast(message, sessionListensToActorsOrIsTheActor(actorId))
-                .subscribe(socketResponseSubscriber);
+        sendToSessions(listeningToOrIsTheActor(actorId), message);
+    }
+
+    /**
+     * Sends a response per actor to the sessions listening to it. Each is serialized once for all
+     * of them, and a single actor's response is conflated in the session queues, so a slow session
+     * only ever holds the latest motion for an actor.
+     */
+    public void sendGroupedUpdateToListening(
+            Collection<String> actorIds, Function<Set<String>, SocketResponse> responseFor) {
+        for (String actorId : actorIds) {
+            Set<WebSocketSession> sessions = listeningTo(actorId);
+            if (!sessions.isEmpty()) {
+                sendToSessions(sessions, responseFor.apply(Set.of(actorId)));
+            }
+        }
     }
 
     public void sendToSelf(WebSocketSession session, SocketResponse message) {
-        session.send(message).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, message);
+    }
+
+    private void sendToSessions(Set<WebSocketSession> sessions, SocketResponse message) {
+        broadcast(sessions, message);
     }
 
 }
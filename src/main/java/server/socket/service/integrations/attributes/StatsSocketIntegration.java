@@ -9,8 +9,8 @@ import server.attribute.stats.service.StatsService;
 import server.session.SessionParamHelper;
 import server.socket.model.SocketMessage;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
@@ -21,7 +21,7 @@ public class StatsSocketIntegration {
     @Inject
     PlayerLevelStatsService playerLevelStatsService;
 
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
+    @Inject SessionOutboundService sessionOutboundService;
 
     // TODO: Offload load via kafka
 
@@ -36,7 +36,7 @@ public class StatsSocketIntegration {
                                             .stats(stats)
                                             .build();
 
-                            session.send(response).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, response);
                         })
                 .doOnError(
                         e -> log.error("Failed to fetch stats for {}, {}", actorId, e.getMessage()))
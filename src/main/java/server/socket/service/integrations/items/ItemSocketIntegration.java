@@ -15,9 +15,9 @@ import server.items.inventory.model.response.GenericInventoryData;
 import server.items.inventory.service.InventoryService;
 import server.session.SessionParamHelper;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
-import server.socket.producer.UpdateProducer;
+import server.socket.producer.SocketUpdateRouter;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
@@ -29,9 +29,9 @@ public class ItemSocketIntegration {
 
     @Inject InventoryService inventoryService;
 
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
+    @Inject SessionOutboundService sessionOutboundService;
 
-    @Inject UpdateProducer updateProducer;
+    @Inject SocketUpdateRouter socketUpdateRouter;
 
     @Inject EquipItemService equipItemService;
 
@@ -53,7 +53,7 @@ public class ItemSocketIntegration {
                                                     SocketResponseType.INVENTORY_ERROR.getType())
                                             .error(e.getMessage())
                                             .build();
-                            session.send(response).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, response);
                         })
                 .doOnSuccess(
                         droppedItem -> {
@@ -61,7 +61,7 @@ public class ItemSocketIntegration {
                                     "Dropped item instance created, returning inventory to player"
                                             + " and sending item to be broadcasted");
                             sendInventoryToPlayer(session, request.getActorId());
-                            updateProducer.addItemToMap(droppedItem);
+                            socketUpdateRouter.addItemToMap(droppedItem);
                         })
                 .subscribe();
     }
@@ -80,11 +80,11 @@ public class ItemSocketIntegration {
                                                     SocketResponseType.INVENTORY_ERROR.getType())
                                             .error(e.getMessage())
                                             .build();
-                            session.send(response).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, response);
                         })
                 .doOnSuccess(
                         inventory -> {
-                            updateProducer.removeItemFromMap(request.getItemInstanceId());
+                            socketUpdateRouter.removeItemFromMap(request.getItemInstanceId());
 
                             sendInventory(inventory, session);
                         })
@@ -112,7 +112,7 @@ public class ItemSocketIntegration {
                                                     SocketResponseType.ADD_EQUIP_ITEM.getType())
                                             .inventoryData(inventoryData)
                                             .build();
-                            session.send(response).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, response);
                         })
                 .subscribe();
     }
@@ -128,7 +128,8 @@ public class ItemSocketIntegration {
                             GenericInventoryData equipData = new GenericInventoryData();
                             equipData.setEquippedItems(List.of(equippedItems));
                             equipData.setActorId(equippedItems.getActorId());
-                            updateProducer.notifyEquipItems(equippedItems); // notify other players
+                            // notify other players
+                            socketUpdateRouter.notifyEquipItems(equippedItems);
                         })
                 .subscribe();
     }
@@ -153,13 +154,13 @@ public class ItemSocketIntegration {
                                                     SocketResponseType.REMOVE_EQUIP_ITEM.getType())
                                             .build();
 
-                            session.send(res).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, res);
                             ItemInstanceIds itemInstanceIds =
                                     ItemInstanceIds.builder()
                                             .itemInstanceIds(List.of(unequippedItemInstanceId))
                                             .actorId(request.getActorId())
                                             .build();
-                            updateProducer.notifyUnEquipItems(
+                            socketUpdateRouter.notifyUnEquipItems(
                                     itemInstanceIds); // notify other players
                         })
                 .subscribe();
@@ -183,7 +184,7 @@ public class ItemSocketIntegration {
                         .messageType(SocketResponseType.INVENTORY_UPDATE.getType())
                         .build();
 
-        session.send(res).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, res);
     }
 
     public void handleMoveItem(GenericInventoryData request, WebSocketSession session) {
@@ -12,9 +12,9 @@ import server.motion.repository.RespawnPoints;
 import server.session.SessionParamHelper;
 import server.socket.model.SocketMessage;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
 import server.socket.service.integrations.status.StatusSocketIntegration;
+import server.socket.service.outbound.SessionOutboundService;
 
 import java.time.Instant;
 import java.util.Map;
@@ -29,7 +29,7 @@ public class PlayerMotionIntegration {
     ActorMotionRepository actorMotionRepository;
 
     @Inject
-    SocketResponseSubscriber socketResponseSubscriber;
+    SessionOutboundService sessionOutboundService;
 
     @Inject
     StatusSocketIntegration statusSocketIntegration;
@@ -55,7 +55,7 @@ public class PlayerMotionIntegration {
                     updatedPlayerMotion.setUpdatedAt(Instant.now());
 
                     response.setPlayerMotion(Map.of(actorId, updatedPlayerMotion));
-                    session.send(response).subscribe(socketResponseSubscriber);
+                    sessionOutboundService.send(session, response);
 
                     actorMotionRepository.updateActorMotion(actorId, motion);
                     statusService.removeAllStatuses(actorId).doOnSuccess(status ->
@@ -7,15 +7,15 @@ import lombok.extern.slf4j.Slf4j;
 import server.attribute.status.model.ActorStatus;
 import server.attribute.status.repository.StatusRepository;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
 public class StatusSocketIntegration {
 
     @Inject
-    SocketResponseSubscriber socketResponseSubscriber;
+    SessionOutboundService sessionOutboundService;
 
     @Inject
     StatusRepository statusRepository;
@@ -38,6 +38,6 @@ public class StatusSocketIntegration {
                         .actorStatus(status)
                         .build();
 
-        session.send(socketResponse).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, socketResponse);
     }
 }
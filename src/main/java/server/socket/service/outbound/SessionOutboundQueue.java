@@ -0,0 +1,132 @@
+package server.socket.service.outbound;
+
+import io.micronaut.websocket.WebSocketSession;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbound frames for a single session, written one at a time so nothing piles up inside netty
+ * when the client stops reading.
+ *
+ * <p>Frames with a conflation key replace a still queued frame with the same key, the newer one
+ * moving to the back of the queue. Frames without a key are reliable and keep their order.
+ */
+@Slf4j
+public class SessionOutboundQueue {
+
+    public enum Result {
+        QUEUED,
+        CONFLATED,
+        OVERFLOW,
+        CLOSED
+    }
+
+    private final WebSocketSession session;
+    private final int maxQueuedFrames;
+
+    // insertion ordered, reliable frames are keyed by a sequence so they never collide
+    private final LinkedHashMap<Object, WebSocketFrame> queue = new LinkedHashMap<>();
+
+    private long reliableSequence = 0;
+    private boolean inFlight = false;
+    private boolean closed = false;
+
+    public SessionOutboundQueue(WebSocketSession session, int maxQueuedFrames) {
+        this.session = session;
+        this.maxQueuedFrames = maxQueuedFrames;
+    }
+
+    /** Takes ownership of the frame, it is released if it is never written. */
+    public synchronized Result enqueue(String conflationKey, WebSocketFrame frame) {
+        if (closed) {
+            frame.release();
+            return Result.CLOSED;
+        }
+
+        Result result = Result.QUEUED;
+        Object key = conflationKey;
+        if (key == null) {
+            key = reliableSequence++;
+        } else {
+            WebSocketFrame replaced = queue.remove(key);
+            if (replaced != null) {
+                replaced.release();
+                result = Result.CONFLATED;
+            }
+        }
+
+        queue.put(key, frame);
+        if (queue.size() > maxQueuedFrames) {
+            return Result.OVERFLOW;
+        }
+
+        drain();
+        return result;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /** Drops everything queued, the queue keeps accepting frames. */
+    public synchronized void clear() {
+        queue.values().forEach(WebSocketFrame::release);
+        queue.clear();
+    }
+
+    public synchronized void close() {
+        closed = true;
+        clear();
+    }
+
+    // caller holds the lock
+    private void drain() {
+        while (!inFlight && !closed) {
+            Iterator<Map.Entry<Object, WebSocketFrame>> iterator = queue.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            WebSocketFrame frame = iterator.next().getValue();
+            iterator.remove();
+
+            if (!session.isOpen()) {
+                frame.release();
+                continue;
+            }
+
+            inFlight = true;
+            CompletableFuture<WebSocketFrame> write = session.sendAsync(frame);
+            if (write.isDone()) {
+                // written straight away, carry on without waiting for a callback
+                inFlight = false;
+                logFailure(write);
+                continue;
+            }
+
+            write.whenComplete(
+                    (written, error) -> {
+                        if (error != null) {
+                            log.error("Failed to write to session, {}", error.getMessage());
+                        }
+                        synchronized (this) {
+                            inFlight = false;
+                            drain();
+                        }
+                    });
+        }
+    }
+
+    private void logFailure(CompletableFuture<?> write) {
+        if (write.isCompletedExceptionally()) {
+            write.exceptionally(
+                    e -> {
+                        log.error("Failed to write to session, {}", e.getMessage());
+                        return null;
+                    });
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package server.socket.service.outbound;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.websocket.CloseReason;
+import io.micronaut.websocket.WebSocketSession;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.WebsocketOutboundConfiguration;
+import server.common.configuration.WebsocketOutboundConfiguration.SlowConsumerPolicy;
+import server.session.SessionState;
+import server.session.SessionSubscriptionIndex;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.utils.FeatureFlag;
+
+/**
+ * Every websocket write goes through here. Each session gets a bounded {@link
+ * SessionOutboundQueue}, motion updates for a single actor are conflated so only the latest one
+ * waits in the queue, and sessions that fall too far behind are disconnected or resynchronised
+ * depending on the configured policy.
+ *
+ * <p>With the enableTickAggregation feature flag on, frequent updates are held back and sent once
+ * per tick, merged by {@link SessionTickAggregator}. A session's tick is drained and queued while
+ * holding its queue's lock, so it cannot end up behind a frame that was sent after it.
+ */
+@Slf4j
+@Singleton
+public class SessionOutboundService {
+
+    private final JsonMapper jsonMapper;
+    private final WebsocketOutboundConfiguration configuration;
+    private final SessionSubscriptionIndex subscriptionIndex;
+    private final FeatureFlag featureFlag;
+
+    private final ConcurrentMap<WebSocketSession, SessionOutboundQueue> queues =
+            new ConcurrentHashMap<>();
+
+    private final Counter conflated;
+    private final Counter slowConsumers;
+    private final Counter aggregated;
+
+    private final SessionTickAggregator tickAggregator = new SessionTickAggregator();
+
+    public SessionOutboundService(
+            JsonMapper jsonMapper,
+            WebsocketOutboundConfiguration configuration,
+            SessionSubscriptionIndex subscriptionIndex,
+            FeatureFlag featureFlag,
+            MeterRegistry meterRegistry) {
+        this.jsonMapper = jsonMapper;
+        this.configuration = configuration;
+        this.subscriptionIndex = subscriptionIndex;
+        this.featureFlag = featureFlag;
+        this.conflated = meterRegistry.counter("websocket.outbound.conflated");
+        this.slowConsumers =
+                meterRegistry.counter(
+                        "websocket.outbound.slow.consumers",
+                        "policy",
+                        configuration.getSlowConsumerPolicy().name());
+        this.aggregated = meterRegistry.counter("websocket.outbound.aggregated");
+    }
+
+    public void send(WebSocketSession session, SocketResponse message) {
+        broadcast(Set.of(session), message);
+    }
+
+    /** Serializes the response once and queues the same bytes for every session. */
+    public void broadcast(Collection<WebSocketSession> sessions, SocketResponse message) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+
+        boolean aggregation = aggregationEnabled();
+        if (aggregation && SessionTickAggregator.isMergeable(message)) {
+            sessions.stream()
+                    .filter(WebSocketSession::isOpen)
+                    .forEach(session -> tickAggregator.add(session, message));
+            aggregated.increment();
+            return;
+        }
+
+        TextWebSocketFrame frame = serialize(message);
+        if (frame == null) {
+            return;
+        }
+
+        String conflationKey = conflationKey(message);
+        Map<SocketResponse, TextWebSocketFrame> tickFrames = new IdentityHashMap<>();
+        try {
+            for (WebSocketSession session : sessions) {
+                if (!session.isOpen()) {
+                    continue;
+                }
+                SessionOutboundQueue queue = queueFor(session);
+                synchronized (queue) {
+                    // anything waiting for the tick goes out first so the client sees updates in
+                    // order, drained under the queue's lock so flushTick cannot queue it after us
+                    if (aggregation) {
+                        enqueuePending(session, queue, tickFrames);
+                    }
+                    // each queue owns a reference, the bytes are shared rather than copied
+                    enqueue(session, queue, conflationKey, frame.retainedDuplicate());
+                }
+            }
+        } finally {
+            frame.release();
+            release(tickFrames);
+        }
+    }
+
+    @Scheduled(fixedDelay = "${websocket-outbound.tick-interval:50ms}")
+    void flushTick() {
+        if (!aggregationEnabled()) {
+            return;
+        }
+
+        Map<SocketResponse, TextWebSocketFrame> frames = new IdentityHashMap<>();
+        try {
+            for (WebSocketSession session : tickAggregator.sessions()) {
+                if (!session.isOpen()) {
+                    tickAggregator.remove(session);
+                    continue;
+                }
+                SessionOutboundQueue queue = queueFor(session);
+                synchronized (queue) {
+                    enqueuePending(session, queue, frames);
+                }
+            }
+        } finally {
+            release(frames);
+        }
+    }
+
+    public void remove(WebSocketSession session) {
+        tickAggregator.remove(session);
+        SessionOutboundQueue queue = queues.remove(session);
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    // caller holds the queue's lock, so the tick is drained and queued in one step
+    private void enqueuePending(
+            WebSocketSession session,
+            SessionOutboundQueue queue,
+            Map<SocketResponse, TextWebSocketFrame> frames) {
+        SocketResponse response = tickAggregator.drain(session);
+        if (response == null) {
+            return;
+        }
+        // sessions that only got one broadcast this tick hold the same response, serialize it once
+        TextWebSocketFrame frame = frames.computeIfAbsent(response, this::serialize);
+        if (frame != null) {
+            enqueue(session, queue, conflationKey(response), frame.retainedDuplicate());
+        }
+    }
+
+    private static void release(Map<SocketResponse, TextWebSocketFrame> frames) {
+        frames.values().stream().filter(Objects::nonNull).forEach(TextWebSocketFrame::release);
+    }
+
+    private TextWebSocketFrame serialize(SocketResponse message) {
+        try {
+            byte[] json = jsonMapper.writeValueAsBytes(message);
+            return new TextWebSocketFrame(Unpooled.wrappedBuffer(json));
+        } catch (IOException e) {
+            log.error("Failed to serialize socket response, {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean aggregationEnabled() {
+        return Boolean.TRUE.equals(featureFlag.getEnableTickAggregation());
+    }
+
+    int queued(WebSocketSession session) {
+        SessionOutboundQueue queue = queues.get(session);
+        return queue == null ? 0 : queue.size();
+    }
+
+    private SessionOutboundQueue queueFor(WebSocketSession session) {
+        return queues.computeIfAbsent(
+                session, s -> new SessionOutboundQueue(s, configuration.getMaxQueuedFrames()));
+    }
+
+    private void enqueue(
+            WebSocketSession session,
+            SessionOutboundQueue queue,
+            String conflationKey,
+            WebSocketFrame frame) {
+        switch (queue.enqueue(conflationKey, frame)) {
+            case CONFLATED -> conflated.increment();
+            case OVERFLOW -> handleSlowConsumer(session, queue);
+            default -> {}
+        }
+    }
+
+    private void handleSlowConsumer(WebSocketSession session, SessionOutboundQueue queue) {
+        slowConsumers.increment();
+        String actorId = SessionState.of(session).getActorId();
+
+        if (configuration.getSlowConsumerPolicy() == SlowConsumerPolicy.RESYNC) {
+            log.warn("Session for {} fell behind, dropping queued frames and resyncing", actorId);
+            queue.clear();
+            // with nothing tracked, the next synchronisation treats every nearby actor as new
+            subscriptionIndex.setTrackingPlayers(session, Set.of());
+            subscriptionIndex.setTrackingMobs(session, Set.of());
+            return;
+        }
+
+        log.warn("Session for {} fell behind, disconnecting", actorId);
+        remove(session);
+        session.close(CloseReason.TRY_AGAIN_LATER);
+    }
+
+    // motion for a single actor is state, only the newest one is worth sending
+    static String conflationKey(SocketResponse message) {
+        String type = message.getMessageType();
+        if (SocketResponseType.PLAYER_MOTION_UPDATE.getType().equals(type)) {
+            return singleKey(type, message.getPlayerMotion());
+        }
+        if (SocketResponseType.MOB_MOTION_UPDATE.getType().equals(type)) {
+            return singleKey(type, message.getMonsters());
+        }
+        return null;
+    }
+
+    private static String singleKey(String type, Map<String, ?> updates) {
+        if (updates == null || updates.size() != 1) {
+            return null;
+        }
+        return type + ":" + updates.keySet().iterator().next();
+    }
+}
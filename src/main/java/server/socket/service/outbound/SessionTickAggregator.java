@@ -0,0 +1,146 @@
+package server.socket.service.outbound;
+
+import io.micronaut.websocket.WebSocketSession;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+
+/**
+ * Collects the updates for each session during a tick. A session that got a single update in the
+ * tick is sent that update unchanged, more than one are merged into a single TICK_UPDATE.
+ *
+ * <p>Motion, monsters and dropped items are keyed, so the latest one for an actor or item wins.
+ * Stats, status, damage and threat updates are events, they are appended in the order they came in.
+ */
+class SessionTickAggregator {
+
+    private static final Set<String> MERGEABLE =
+            Set.of(
+                    SocketResponseType.PLAYER_MOTION_UPDATE.getType(),
+                    SocketResponseType.MOB_MOTION_UPDATE.getType(),
+                    SocketResponseType.ADD_ITEMS_TO_MAP.getType(),
+                    SocketResponseType.STATS_UPDATE.getType(),
+                    SocketResponseType.STATUS_UPDATE.getType(),
+                    SocketResponseType.DAMAGE_UPDATE.getType(),
+                    SocketResponseType.THREAT_UPDATE.getType());
+
+    private final ConcurrentMap<WebSocketSession, PendingTick> pending = new ConcurrentHashMap<>();
+
+    static boolean isMergeable(SocketResponse message) {
+        return MERGEABLE.contains(message.getMessageType());
+    }
+
+    void add(WebSocketSession session, SocketResponse message) {
+        // merging inside compute keeps it atomic with drain removing the tick
+        pending.compute(
+                session,
+                (s, tick) -> {
+                    PendingTick updated = tick == null ? new PendingTick() : tick;
+                    updated.add(message);
+                    return updated;
+                });
+    }
+
+    /** Removes what is pending for the session, null if nothing is. */
+    SocketResponse drain(WebSocketSession session) {
+        PendingTick tick = pending.remove(session);
+        return tick == null ? null : tick.response();
+    }
+
+    /** Sessions with something pending, a live view so drain them one at a time. */
+    Set<WebSocketSession> sessions() {
+        return pending.keySet();
+    }
+
+    void remove(WebSocketSession session) {
+        pending.remove(session);
+    }
+
+    private static class PendingTick {
+
+        // the first update is kept as is, most ticks only have one and it can share its frame
+        private SocketResponse single;
+        private SocketResponse merged;
+
+        void add(SocketResponse message) {
+            if (single == null && merged == null) {
+                single = message;
+                return;
+            }
+
+            if (merged == null) {
+                merged = SocketResponse.messageWithType(SocketResponseType.TICK_UPDATE);
+                merge(merged, single);
+                single = null;
+            }
+            merge(merged, message);
+        }
+
+        SocketResponse response() {
+            return single != null ? single : merged;
+        }
+    }
+
+    private static void merge(SocketResponse target, SocketResponse message) {
+        SocketResponseType type = SocketResponseType.valueOf(message.getMessageType());
+        switch (type) {
+            case PLAYER_MOTION_UPDATE -> {
+                target.setPlayerMotion(putAll(target.getPlayerMotion(), message.getPlayerMotion()));
+                target.setPlayerKeys(addAll(target.getPlayerKeys(), message.getPlayerKeys()));
+            }
+            case MOB_MOTION_UPDATE -> {
+                target.setMonsters(putAll(target.getMonsters(), message.getMonsters()));
+                target.setMobKeys(addAll(target.getMobKeys(), message.getMobKeys()));
+            }
+            case ADD_ITEMS_TO_MAP -> target.setDroppedItems(
+                    putAll(target.getDroppedItems(), message.getDroppedItems()));
+            case STATS_UPDATE -> {
+                if (target.getStatsUpdates() == null) {
+                    target.setStatsUpdates(new ArrayList<>());
+                }
+                target.getStatsUpdates().add(message.getStats());
+            }
+            case STATUS_UPDATE -> {
+                if (target.getStatusUpdates() == null) {
+                    target.setStatusUpdates(new ArrayList<>());
+                }
+                target.getStatusUpdates().add(message.getActorStatus());
+            }
+            case DAMAGE_UPDATE -> {
+                if (target.getDamageUpdates() == null) {
+                    target.setDamageUpdates(new ArrayList<>());
+                }
+                target.getDamageUpdates().add(message.getDamageSource());
+            }
+            case THREAT_UPDATE -> {
+                if (target.getThreatUpdates() == null) {
+                    target.setThreatUpdates(new ArrayList<>());
+                }
+                target.getThreatUpdates().add(message.getThreatUpdate());
+            }
+            default -> throw new IllegalArgumentException("Cannot merge " + type);
+        }
+    }
+
+    private static <T> Map<String, T> putAll(Map<String, T> target, Map<String, T> updates) {
+        Map<String, T> merged = target == null ? new HashMap<>() : target;
+        if (updates != null) {
+            merged.putAll(updates);
+        }
+        return merged;
+    }
+
+    private static Set<String> addAll(Set<String> target, Set<String> keys) {
+        Set<String> merged = target == null ? new HashSet<>() : target;
+        if (keys != null) {
+            merged.addAll(keys);
+        }
+        return merged;
+    }
+}
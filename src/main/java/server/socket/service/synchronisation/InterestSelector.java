@@ -0,0 +1,78 @@
+package server.socket.service.synchronisation;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import server.common.dto.Location;
+import server.common.dto.Motion;
+
+/**
+ * Picks the actors a session should see. New actors have to come within the enter radius, actors
+ * already visible stay until they pass the leave radius, so an actor sitting on the edge doesn't
+ * flap in and out. When more actors qualify than the cap allows only the nearest are kept, with
+ * visible actors given the same margin so the cut off doesn't flap either.
+ */
+public final class InterestSelector {
+
+    private InterestSelector() {}
+
+    public static <T> Set<String> select(
+            Location center,
+            Collection<T> candidates,
+            Function<T, String> idOf,
+            Function<T, Motion> motionOf,
+            Set<String> tracked,
+            int enterRadius,
+            int leaveRadius,
+            int max) {
+        int margin = Math.max(0, leaveRadius - enterRadius);
+
+        Set<String> inRange =
+                candidates.stream()
+                        .filter(
+                                c -> {
+                                    Motion motion = motionOf.apply(c);
+                                    int radius =
+                                            tracked.contains(idOf.apply(c))
+                                                    ? leaveRadius
+                                                    : enterRadius;
+                                    return motion != null && withinSquare(center, motion, radius);
+                                })
+                        .map(idOf)
+                        .collect(Collectors.toSet());
+
+        if (max <= 0 || inRange.size() <= max) {
+            return inRange;
+        }
+
+        return candidates.stream()
+                .filter(c -> inRange.contains(idOf.apply(c)))
+                .sorted(
+                        Comparator.comparingDouble(
+                                c -> {
+                                    double distance = distance(center, motionOf.apply(c));
+                                    return tracked.contains(idOf.apply(c))
+                                            ? distance - margin
+                                            : distance;
+                                }))
+                .limit(max)
+                .map(idOf)
+                .collect(Collectors.toSet());
+    }
+
+    // same square range as the spatial grid queries
+    private static boolean withinSquare(Location center, Motion motion, int radius) {
+        return Objects.equals(center.getMap(), motion.getMap())
+                && Math.abs(motion.getX() - center.getX()) <= radius
+                && Math.abs(motion.getY() - center.getY()) <= radius;
+    }
+
+    private static double distance(Location center, Motion motion) {
+        double dx = motion.getX() - center.getX();
+        double dy = motion.getY() - center.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
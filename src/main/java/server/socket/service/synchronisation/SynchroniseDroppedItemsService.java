@@ -4,7 +4,6 @@ import io.micronaut.websocket.WebSocketSession;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -14,11 +13,11 @@ import server.common.dto.Location;
 import server.common.dto.Motion;
 import server.items.model.DroppedItem;
 import server.items.service.ItemService;
-import server.motion.model.SessionParams;
 import server.session.SessionParamHelper;
+import server.session.SessionState;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
@@ -26,7 +25,7 @@ public class SynchroniseDroppedItemsService {
 
     @Inject ItemService itemService;
 
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
+    @Inject SessionOutboundService sessionOutboundService;
 
     public void handleSynchroniseDroppedItems(Motion motion, WebSocketSession session) {
         if (SessionParamHelper.getIsServer(session)) {
@@ -52,23 +51,15 @@ public class SynchroniseDroppedItemsService {
                                                             Function.identity()));
 
                             Set<String> currentItems = droppedItemsMap.keySet();
-                            Set<String> trackedItems = getTrackedItems(session);
+                            Set<String> trackedItems =
+                                    SessionState.of(session).getDroppedItems();
 
                             handleNewItems(currentItems, trackedItems, droppedItemsMap, session);
                             handleLostItems(currentItems, trackedItems, session);
-
-                            session.asMap()
-                                    .put(SessionParams.DROPPED_ITEMS.getType(), currentItems);
                         })
                 .subscribe();
     }
 
-    private Set<String> getTrackedItems(WebSocketSession session) {
-        return (Set<String>)
-                session.asMap()
-                        .getOrDefault(SessionParams.DROPPED_ITEMS.getType(), new HashSet<>());
-    }
-
     private Set<String> getLostItemIds(Set<String> currentItems, Set<String> trackedItems) {
         return trackedItems.stream()
                 .filter(i -> !currentItems.contains(i))
@@ -93,7 +84,6 @@ public class SynchroniseDroppedItemsService {
         }
 
         trackedItems.addAll(newItemIds);
-        session.put(SessionParams.DROPPED_ITEMS.getType(), trackedItems);
 
         Map<String, DroppedItem> newItemsMap = new HashMap<>();
         newItemIds.forEach(id -> newItemsMap.put(id, droppedItemsMap.get(id)));
@@ -104,7 +94,7 @@ public class SynchroniseDroppedItemsService {
                         .droppedItems(newItemsMap)
                         .build();
 
-        session.send(socketResponse).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, socketResponse);
     }
 
     private void handleLostItems(
@@ -122,6 +112,6 @@ public class SynchroniseDroppedItemsService {
                         .messageType(SocketResponseType.REMOVE_ITEMS_FROM_MAP.getType())
                         .itemInstanceIds(lostItemIds)
                         .build();
-        session.send(socketResponse).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, socketResponse);
     }
 }
@@ -9,15 +9,17 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.InterestConfiguration;
 import server.common.dto.Location;
 import server.common.dto.Motion;
 import server.monster.server_integration.model.Monster;
 import server.monster.server_integration.service.MobInstanceService;
-import server.motion.model.SessionParams;
 import server.session.SessionParamHelper;
+import server.session.SessionState;
+import server.session.SessionSubscriptionIndex;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
@@ -25,7 +27,11 @@ public class SynchroniseMobService {
 
     @Inject MobInstanceService mobInstanceService;
 
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
+    @Inject SessionOutboundService sessionOutboundService;
+
+    @Inject SessionSubscriptionIndex subscriptionIndex;
+
+    @Inject InterestConfiguration interestConfiguration;
 
     public void handleSynchroniseMobs(Motion motion, WebSocketSession session) {
         if (SessionParamHelper.getIsServer(session)) {
@@ -34,32 +40,40 @@ public class SynchroniseMobService {
         }
 
         mobInstanceService
-                .getMobsNearby(new Location(motion), 20_000)
+                .getMobsNearby(new Location(motion), interestConfiguration.getMobLeaveRadius())
                 .doOnSuccess(
                         mobList -> {
                             if (mobList == null || mobList.isEmpty()) {
                                 return;
                             }
-                            Set<String> actorIds = evaluateNewMobs(mobList, session);
+                            Set<String> actorIds =
+                                    evaluateNewMobs(new Location(motion), mobList, session);
 
-                            session.put(SessionParams.TRACKING_MOBS.getType(), actorIds);
+                            subscriptionIndex.setTrackingMobs(session, actorIds);
                         })
                 .doOnError(
                         (error) -> log.error("error getting nearby mobs, {}", error.getMessage()))
                 .subscribe();
     }
 
-    private Set<String> evaluateNewMobs(List<Monster> mobList, WebSocketSession session) {
-        Set<String> actorIds =
-                mobList.stream().map(Monster::getActorId).collect(Collectors.toSet());
+    private Set<String> evaluateNewMobs(
+            Location location, List<Monster> mobList, WebSocketSession session) {
+        Set<String> previouslyTracked = SessionState.of(session).getTrackingMobs();
 
-        Set<String> previouslyTracked =
-                (Set<String>)
-                        session.asMap()
-                                .getOrDefault(SessionParams.TRACKING_MOBS.getType(), Set.of());
+        Set<String> actorIds =
+                InterestSelector.select(
+                        location,
+                        mobList,
+                        Monster::getActorId,
+                        Monster::getMotion,
+                        previouslyTracked,
+                        interestConfiguration.getMobEnterRadius(),
+                        interestConfiguration.getMobLeaveRadius(),
+                        interestConfiguration.getMaxMobs());
 
         Set<Monster> newMobs =
                 mobList.stream()
+                        .filter(i -> actorIds.contains(i.getActorId()))
                         .filter(i -> !previouslyTracked.contains(i.getActorId()))
                         .collect(Collectors.toSet());
 
@@ -91,7 +105,7 @@ public class SynchroniseMobService {
                         .monsters(mobMap)
                         .build();
 
-        session.send(response).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, response);
     }
 
     private void handleLostMobs(WebSocketSession session, Set<String> lostMobs) {
@@ -105,6 +119,6 @@ public class SynchroniseMobService {
                         .lostMobs(lostMobs)
                         .build();
 
-        session.send(socketResponse).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, socketResponse);
     }
 }
@@ -9,20 +9,23 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.InterestConfiguration;
+import server.common.dto.Location;
 import server.common.dto.Motion;
 import server.items.equippable.model.EquippedItems;
 import server.items.equippable.service.EquipItemService;
 import server.items.inventory.model.response.GenericInventoryData;
 import server.motion.dto.PlayerMotion;
-import server.motion.model.SessionParams;
 import server.motion.repository.ActorMotionRepository;
+import server.motion.service.DeadReckoningService;
 import server.motion.service.PlayerMotionService;
 import server.player.model.Character;
 import server.player.service.PlayerCharacterService;
 import server.session.SessionParamHelper;
+import server.session.SessionSubscriptionIndex;
 import server.socket.model.SocketResponse;
-import server.socket.model.SocketResponseSubscriber;
 import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
 
 @Slf4j
 @Singleton
@@ -32,16 +35,21 @@ public class SynchronisePlayerService {
 
     @Inject PlayerCharacterService playerCharacterService;
 
-    @Inject SocketResponseSubscriber socketResponseSubscriber;
+    @Inject SessionOutboundService sessionOutboundService;
 
     @Inject EquipItemService equipItemService;
 
     @Inject ActorMotionRepository actorMotionRepository;
 
-    private static final Integer DEFAULT_DISTANCE_THRESHOLD = 10_000;
+    @Inject SessionSubscriptionIndex subscriptionIndex;
+
+    @Inject InterestConfiguration interestConfiguration;
+
+    @Inject DeadReckoningService deadReckoningService;
 
     public void handleSynchronisePlayers(Motion motion, WebSocketSession session) {
-        int distanceThreshold = DEFAULT_DISTANCE_THRESHOLD;
+        // look as far as the leave radius, so players already visible can be kept
+        int distanceThreshold = interestConfiguration.getPlayerLeaveRadius();
 
         String actorId = SessionParamHelper.getActorId(session);
 //        log.info("handleSynchronisePlayers: actorId: {}, motion: {}", actorId, motion);
@@ -51,13 +59,21 @@ public class SynchronisePlayerService {
                         list -> {
 //                            log.info("Detected nearby players for actor: {}: {}", actorId, list);
                             Set<String> actorIds =
-                                    list.stream()
-                                            .map(PlayerMotion::getActorId)
-                                            .collect(Collectors.toSet());
+                                    InterestSelector.select(
+                                            new Location(motion),
+                                            list,
+                                            PlayerMotion::getActorId,
+                                            p ->
+                                                    deadReckoningService.extrapolate(
+                                                            p.getActorId(), p.getMotion()),
+                                            SessionParamHelper.getTrackingPlayers(session),
+                                            interestConfiguration.getPlayerEnterRadius(),
+                                            interestConfiguration.getPlayerLeaveRadius(),
+                                            interestConfiguration.getMaxPlayers());
 
                             evaluateNewPlayers(actorIds, session);
                             // update the names that we follow
-                            session.put(SessionParams.TRACKING_PLAYERS.getType(), actorIds);
+                            subscriptionIndex.setTrackingPlayers(session, actorIds);
 //                            log.info("Actor: {}, tracking players: {}", actorId, actorIds);
                         })
                 .doOnError(
@@ -112,7 +128,7 @@ public class SynchronisePlayerService {
                         .lostPlayers(lostPlayers)
                         .build();
 
-        session.send(socketResponse).subscribe(socketResponseSubscriber);
+        sessionOutboundService.send(session, socketResponse);
     }
 
     private void resolveCharacterMotion(Set<String> newPlayers, WebSocketSession session) {
@@ -140,7 +156,7 @@ public class SynchronisePlayerService {
                                             .playerKeys(playerMotionMap.keySet())
                                             .build();
 
-                            session.send(response).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, response);
                         })
                 .subscribe();
     }
@@ -175,7 +191,7 @@ public class SynchronisePlayerService {
                                                                 SocketResponseType.ADD_EQUIP_ITEM
                                                                         .getType())
                                                         .build();
-                                        session.send(res).subscribe(socketResponseSubscriber);
+                                        sessionOutboundService.send(session, res);
                                     });
                         })
                 .subscribe();
@@ -204,7 +220,7 @@ public class SynchronisePlayerService {
                                             .playerData(characterMap)
                                             .playerKeys(characterMap.keySet())
                                             .build();
-                            session.send(response).subscribe(socketResponseSubscriber);
+                            sessionOutboundService.send(session, response);
 
 //                          To avoid timing issues, send motion and equips after base appearance
                             resolveCharacterMotion(newPlayers, session);
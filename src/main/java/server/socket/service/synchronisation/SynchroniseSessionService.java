@@ -2,29 +2,44 @@ package server.socket.service.synchronisation;
 
 import io.micronaut.scheduling.annotation.Scheduled;
 import io.micronaut.websocket.WebSocketSession;
-import io.netty.util.internal.ConcurrentSet;
+import io.reactivex.rxjava3.core.Single;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.InterestConfiguration;
+import server.common.configuration.SpatialGridConfiguration;
+import server.common.dto.Location;
 import server.common.dto.Motion;
+import server.common.spatial.SpatialGrid;
+import server.items.repository.ItemRepository;
+import server.monster.server_integration.model.Monster;
+import server.monster.server_integration.repository.MobRepository;
+import server.motion.dto.PlayerMotion;
 import server.motion.repository.ActorMotionRepository;
-import server.session.SessionParamHelper;
+import server.motion.repository.PlayerMotionRepository;
+import server.session.SessionState;
+import server.session.SessionSubscriptionIndex;
 import server.socket.service.SocketProcessOutgoingService;
-import server.socket.v1.CommunicationSocket;
 
+/**
+ * Keeps what every session can see up to date. Instead of re-evaluating every session on a timer,
+ * a session is only re-evaluated when it is marked dirty: its own actor crossed a grid cell, or
+ * within view distance of it a player or mob crossed a cell or an item was dropped or picked up.
+ * Evaluation sends the same add/remove diffs as before (PLAYER_APPEARANCE, REMOVE_PLAYERS,
+ * REMOVE_MOBS, ADD_ITEMS_TO_MAP).
+ *
+ * <p>Server sessions follow mobs that are not on the grid as a session, they are re-evaluated on
+ * their own schedule. A slow full resync covers anything missed between cell crossings.
+ */
 @Slf4j
 @Singleton
 public class SynchroniseSessionService {
-    // we need to synchronise certain data for sessions
-    // for example, what characters are nearby
 
-    @Inject
-    SocketProcessOutgoingService socketService;
+    @Inject SocketProcessOutgoingService socketService;
 
     @Inject SynchronisePlayerService synchronisePlayerService;
 
@@ -34,61 +49,170 @@ public class SynchroniseSessionService {
 
     @Inject ActorMotionRepository actorMotionRepository;
 
-    @Scheduled(fixedDelay = "500ms")
-    public void evaluateNearbyPlayers() {
-        ConcurrentMap<String, WebSocketSession> sessions = socketService.getLiveSessions();
-
-//        Set<String> actorIdSessions = sessions.values().stream().map(SessionParamHelper::getActorId).collect(Collectors.toSet());
-//        if (!actorIdSessions.isEmpty()) {
-//            log.info("evaluateNearbyPlayers: active sessions: {}", actorIdSessions);
-//        }
-
-//        log.info("Running evaluateNearbyPlayers");
-        sessions.values().parallelStream()
-                .forEach(
-                        session -> {
-                            if (!SessionParamHelper.getIsServer(session) && !SessionParamHelper.getIsPlayer(session)) {
-                                // session is not initialized
-                                return;
-                            }
-
-                            Motion motion = SessionParamHelper.getIsServer(session) ?
-                                    getServerMotion(session) : getPlayerMotion(session);
-
-                            if (motion == null) {
-                                log.error(
-                                        "Motion unexpectedly null for session with Actor ID: {}",
-                                        SessionParamHelper.getActorId(session));
-                                return;
-                            }
-//                            log.info("handle sync players");
-                            synchronisePlayerService.handleSynchronisePlayers(motion, session);
-//                            log.info("handle sync mobs");
-                            synchroniseMobService.handleSynchroniseMobs(motion, session);
-//                            log.info("handle sync item drops");
-                            synchroniseDroppedItemsService.handleSynchroniseDroppedItems(
-                                    motion, session);
-                        });
+    @Inject PlayerMotionRepository playerMotionRepository;
+
+    @Inject MobRepository mobRepository;
+
+    @Inject ItemRepository itemRepository;
+
+    @Inject SessionSubscriptionIndex subscriptionIndex;
+
+    @Inject SpatialGridConfiguration spatialGridConfiguration;
+
+    @Inject InterestConfiguration interestConfiguration;
+
+    private final Set<WebSocketSession> knownSessions = ConcurrentHashMap.newKeySet();
+
+    private final Set<WebSocketSession> dirtySessions = ConcurrentHashMap.newKeySet();
+
+    // player sessions at the position of their last cell crossing
+    private SpatialGrid<WebSocketSession> sessionGrid;
+
+    private int searchRadius;
+
+    @PostConstruct
+    void init() {
+        sessionGrid = new SpatialGrid<>(spatialGridConfiguration.getCellSize());
+        // session positions are only as fresh as their last cell crossing, allow for a cell of drift
+        searchRadius = interestConfiguration.getMaxLeaveRadius() + sessionGrid.getCellSize();
+
+        playerMotionRepository.addCellChangeListener(this::onPlayerCellChanged);
+        mobRepository.addCellChangeListener(this::onActorCellChanged);
+        itemRepository.addCellChangeListener(this::onActorCellChanged);
     }
 
-    private Motion getServerMotion(WebSocketSession session) {
-         Set<String> trackingMobs = SessionParamHelper.getTrackingMobs(session);
-        if (trackingMobs.iterator().hasNext()) {
-            String actorId = trackingMobs.iterator().next();
-            return actorMotionRepository
-                    .fetchActorMotion(actorId)
-                    .doOnError(err -> log.error(err.getMessage()))
-                    .blockingGet();
-        } else {
+    @Scheduled(fixedDelay = "${synchronise.interval:100ms}")
+    public void synchroniseDirtySessions() {
+        socketService.getLiveSessions().values().forEach(this::registerNewSession);
+        knownSessions.removeIf(session -> !session.isOpen() && forget(session));
+
+        Iterator<WebSocketSession> dirty = dirtySessions.iterator();
+        while (dirty.hasNext()) {
+            WebSocketSession session = dirty.next();
+            dirty.remove();
+            if (session.isOpen()) {
+                synchronise(session);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = "${synchronise.server-interval:500ms}")
+    public void markServerSessionsDirty() {
+        knownSessions.stream()
+                .filter(session -> SessionState.of(session).isServer())
+                .forEach(dirtySessions::add);
+    }
+
+    @Scheduled(fixedDelay = "${synchronise.full-resync-interval:10s}")
+    public void markAllSessionsDirty() {
+        dirtySessions.addAll(knownSessions);
+    }
+
+    void onPlayerCellChanged(String actorId, Location previous, Location current) {
+        WebSocketSession session = subscriptionIndex.getActorSession(actorId);
+        if (session != null && knownSessions.contains(session)) {
+            if (current == null) {
+                sessionGrid.remove(actorId);
+            } else {
+                sessionGrid.put(actorId, current, session);
+            }
+            dirtySessions.add(session);
+        }
+
+        onActorCellChanged(actorId, previous, current);
+    }
+
+    void onActorCellChanged(String id, Location previous, Location current) {
+        // whoever could see it before or can see it now needs their view refreshed
+        markNearbyDirty(previous);
+        markNearbyDirty(current);
+    }
+
+    boolean isDirty(WebSocketSession session) {
+        return dirtySessions.contains(session);
+    }
+
+    private void markNearbyDirty(Location location) {
+        if (location != null) {
+            dirtySessions.addAll(sessionGrid.query(location, searchRadius));
+        }
+    }
+
+    private void registerNewSession(WebSocketSession session) {
+        SessionState state = SessionState.of(session);
+        if (!state.isPlayer() && !state.isServer()) {
+            // session is not initialized
+            return;
+        }
+        if (knownSessions.add(session)) {
+            dirtySessions.add(session);
+        }
+    }
+
+    private boolean forget(WebSocketSession session) {
+        dirtySessions.remove(session);
+        sessionGrid.remove(SessionState.of(session).getActorId());
+        return true;
+    }
+
+    private void synchronise(WebSocketSession session) {
+        SessionState state = SessionState.of(session);
+        Motion motion = state.isServer() ? getServerMotion(state) : getPlayerMotion(session, state);
+
+        if (motion == null) {
+            String actorId = motionActorId(state);
+            if (actorId == null) {
+                // a server session not tracking any mobs yet has nothing to synchronise around
+                return;
+            }
+            Single<Motion> fetched = actorMotionRepository.fetchActorMotion(actorId);
+            if (fetched == null) {
+                return;
+            }
+            // not on the grid yet, pick it up from the motion cache without blocking this thread
+            fetched.doOnSuccess(m -> synchronise(session, m))
+                    .doOnError(
+                            err ->
+                                    log.error(
+                                            "Motion unexpectedly null for session with Actor ID: {}, {}",
+                                            state.getActorId(),
+                                            err.getMessage()))
+                    .subscribe();
+            return;
+        }
+
+        synchronise(session, motion);
+    }
+
+    private void synchronise(WebSocketSession session, Motion motion) {
+        synchronisePlayerService.handleSynchronisePlayers(motion, session);
+        synchroniseMobService.handleSynchroniseMobs(motion, session);
+        synchroniseDroppedItemsService.handleSynchroniseDroppedItems(motion, session);
+    }
+
+    private Motion getServerMotion(SessionState state) {
+        if (state.getTrackingMobs().isEmpty()) {
+            return null;
+        }
+        Monster mob = mobRepository.getIndexedMob(motionActorId(state));
+        return mob == null ? null : mob.getMotion();
+    }
+
+    private Motion getPlayerMotion(WebSocketSession session, SessionState state) {
+        PlayerMotion playerMotion = playerMotionRepository.getIndexedPlayerMotion(state.getActorId());
+        if (playerMotion == null) {
             return null;
         }
+        // a player loaded on start up has not crossed a cell since, place its session now
+        sessionGrid.put(state.getActorId(), new Location(playerMotion.getMotion()), session);
+        return playerMotion.getMotion();
     }
 
-    private Motion getPlayerMotion(WebSocketSession session) {
-        return actorMotionRepository
-                .fetchActorMotion(
-                        SessionParamHelper.getActorId(session))
-                .doOnError(err -> log.error(err.getMessage()))
-                .blockingGet();
+    private String motionActorId(SessionState state) {
+        if (!state.isServer()) {
+            return state.getActorId();
+        }
+        Iterator<String> trackingMobs = state.getTrackingMobs().iterator();
+        return trackingMobs.hasNext() ? trackingMobs.next() : null;
     }
 }
@@ -11,8 +11,13 @@ import lombok.extern.slf4j.Slf4j;
 import server.common.dto.Motion;
 import server.motion.service.PlayerMotionService;
 import server.session.SessionParamHelper;
+import server.session.SessionSubscriptionIndex;
+import server.session.cache.UdpSessionRegistry;
 import server.socket.model.SocketMessage;
 import server.socket.service.SocketProcessOutgoingService;
+import server.socket.service.outbound.SessionOutboundService;
+import server.socket.v2.UdpSequenceTracker;
+import server.socket.v2.delta.MotionBaselineRegistry;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -30,6 +35,15 @@ public class CommunicationSocket {
 
     @Inject SessionParamHelper sessionParamHelper;
 
+    @Inject MotionBaselineRegistry motionBaselines;
+
+    @Inject UdpSessionRegistry udpSessionRegistry;
+
+    @Inject UdpSequenceTracker udpSequenceTracker;
+
+    @Inject SessionSubscriptionIndex subscriptionIndex;
+
+    @Inject SessionOutboundService sessionOutboundService;
 
     @OnOpen
     public void onOpen(WebSocketSession session, HttpRequest<?> request) {
@@ -76,7 +90,13 @@ public class CommunicationSocket {
             }
         }
         log.info("Disconnecting {}", sessionId);
+        subscriptionIndex.removeSession(session);
+        sessionOutboundService.remove(session);
         socketProcessService.removeActorSession(sessionId);
+        // unregistered first, so no ack is accepted for the removed baselines
+        udpSessionRegistry.remove(sessionId);
+        motionBaselines.remove(sessionId);
+        udpSequenceTracker.reset(sessionId);
     }
 
     public void updateSessionParams(WebSocketSession session, SocketMessage message) {
@@ -1,136 +1,201 @@
 package server.socket.v2;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
-import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-
 import java.io.IOException;
-import java.net.*;
-import java.util.HashMap;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.UdpServerConfiguration;
 import server.socket.model.SocketMessage;
 import server.socket.model.SocketResponse;
 import server.socket.service.SocketProcessOutgoingService;
+import server.socket.v2.codec.MotionDeltaCodec;
+import server.socket.v2.codec.UdpMessageCodec;
+import server.socket.v2.delta.MotionBaselineRegistry;
+import server.utils.FeatureFlag;
 
 @Slf4j
 @Singleton
 public class UDPServer {
 
-    private static final int UDP_PORT = 9876;
+    @Inject SocketProcessOutgoingService socketProcessOutgoingService;
+
+    @Inject UdpMessageCodec codec;
 
-    private static final ObjectMapper mapper = new ObjectMapper();
-    private static final ObjectReader reader = mapper.reader();
-    private static final ObjectWriter writer = mapper.writer();
+    @Inject UdpServerConfiguration configuration;
 
-//    used for local testing only
-    private DatagramSocket backupSocket = new DatagramSocket();
+    @Inject MotionBaselineRegistry motionBaselines;
 
+    @Inject UdpSequenceTracker sequenceTracker;
 
-    // TODO: put to config?
-    private static final int RETRIES = 10;
-    private int attempts = 0;
+    @Inject FeatureFlag featureFlag;
 
-    Map<Integer, DatagramSocket> openSockets = new HashMap<>();
+    @Inject MeterRegistry meterRegistry;
 
-    @Inject SocketProcessOutgoingService socketProcessOutgoingService;
+    private final List<UdpReactor> reactors = new ArrayList<>();
+
+    // decoding and message handling (validation, kafka produce) run here so reactors only do IO
+    private final List<Thread> workers = new ArrayList<>();
+
+    // sized to every reactor's packet pool, so it never fills, the pools bound what is waiting
+    private BlockingQueue<UdpPacket> received;
+
+    private UdpOutboundCoalescer coalescer;
+
+    @PostConstruct
+    void startServer() {
+        int reactorCount = Math.max(1, configuration.getReactors());
+        boolean reusePort = reactorCount > 1 && supportsReusePort();
+        if (!reusePort && reactorCount > 1) {
+            log.warn("SO_REUSEPORT not supported on this platform, starting a single UDP reactor");
+            reactorCount = 1;
+        }
+
+        received = new ArrayBlockingQueue<>(reactorCount * configuration.getBuffersPerReactor());
+        for (int i = 0; i < configuration.getWorkers(); i++) {
+            Thread worker = new Thread(this::work, "udp-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        log.info("Starting udp server with {} reactors", reactorCount);
+        for (int i = 0; i < reactorCount; i++) {
+            UdpReactor reactor = new UdpReactor(i, configuration, reusePort, this::handlePacket);
+            try {
+                reactor.start();
+                reactors.add(reactor);
+            } catch (IOException e) {
+                log.error("Failed to start UDP reactor {}, {}", i, e.getMessage());
+            }
+        }
 
-    private void startServerOnPort(int port) {
-        Thread serverThread =
-                new Thread(
-                        () -> {
-                            log.info("initialized udp server thread");
-                            try {
-                                startServer(port);
-                            } catch (Exception e) {
-                                log.error(e.getMessage());
-                            }
-                        });
-        serverThread.start();
+        coalescer = new UdpOutboundCoalescer(configuration.getMtu(), this::dispatch, meterRegistry);
     }
-    public UDPServer() throws SocketException {
-        log.info("Starting udp server");
-        List.of(UDP_PORT
-//                , 5000
-//                , 5001, 5002, 5003, 5004, 5005, 5006, 5007, 5008, 5009, 5010
-        ).forEach(
-                this::startServerOnPort
-        );
+
+    @PreDestroy
+    void stopServer() {
+        reactors.forEach(UdpReactor::stop);
+        reactors.clear();
+        workers.forEach(Thread::interrupt);
+        workers.clear();
     }
 
-    public void send(SocketResponse message, InetAddress address, Integer port) {
+    public void send(SocketResponse message, InetSocketAddress target) {
         try {
-//            log.info("Sending msg to: {}:{}", address.getHostAddress(), port);
-            DatagramSocket socket = openSockets.get(port);
-            if (socket == null) {
-                // should only happen during local testing
-//                log.error("Should not be called");
-                socket = backupSocket;
-            }
-            byte[] data = writer.writeValueAsBytes(message);
-            DatagramPacket packet =
-                    new DatagramPacket(
-                            data, data.length, address, port);
-            socket.send(packet);
+            send(codec.encode(message), target);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error sending UDP message, {}", e.getMessage());
         }
     }
 
-    private void startServer(int port) {
+    public void send(ByteBuffer data, InetSocketAddress target) {
+        if (reactors.isEmpty()) {
+            log.error("UDP server not running, cannot send message");
+            return;
+        }
+
         try {
-            DatagramSocket socket = openSockets.get(port);
-            if (socket != null) {
-                socket.close();
+            if (coalescingEnabled()) {
+                coalescer.add(data, target);
+            } else {
+                dispatch(data, target);
             }
-            socket = new DatagramSocket(port);
+        } catch (Exception e) {
+            log.error("Error sending UDP message, {}", e.getMessage());
+        }
+    }
 
-            openSockets.put(port, socket);
+    @Scheduled(fixedDelay = "${udp-server.flush-interval:20ms}")
+    void flushOutbound() {
+        if (coalescer != null) {
+            coalescer.flushAll();
+        }
+    }
 
-            byte[] buffer = new byte[1024];
+    private void dispatch(ByteBuffer data, InetSocketAddress target) {
+        // keep a destination on the same reactor so its datagrams stay in order
+        int index = Math.floorMod(target.hashCode(), reactors.size());
+        reactors.get(index).send(data, target);
+    }
 
-            log.info("UDP server started");
+    private boolean coalescingEnabled() {
+        return Boolean.TRUE.equals(featureFlag.getEnableUdpCoalescing());
+    }
 
-            while (true) {
-                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-                socket.receive(packet);
+    // runs on the reactor thread, the pooled packet itself is queued so the hand-off allocates
+    // nothing, and the packet is ours until it is released
+    private void handlePacket(UdpPacket packet) {
+        received.add(packet);
+    }
 
-                processUDPMessage(packet);
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            UdpPacket packet;
+            try {
+                packet = received.take();
+            } catch (InterruptedException e) {
+                return;
             }
-        } catch (BindException e) {
-          log.error("Bind exception detected, another thread already using this");
-        } catch (Exception e) {
-            log.error("Server failed with stacktrace: {}", e.getMessage());
+            processPacket(packet);
+        }
+    }
 
-            e.printStackTrace();
-            attempts++;
-            if (attempts < RETRIES) {
-                startServer(port);
-            } else {
-                log.error("Critical error, server failed too many times, shutting down");
+    private void processPacket(UdpPacket packet) {
+        ByteBuffer data = packet.buffer();
+        try {
+            if (data.hasRemaining() && data.get(data.position()) == MotionDeltaCodec.MOTION_ACK) {
+                MotionDeltaCodec.MotionAck ack = MotionDeltaCodec.decodeAck(data);
+                motionBaselines.acknowledge(
+                        ack.clientId(), packet.source(), ack.sequence(), ack.receivedBits());
+                return;
             }
+
+            processUDPMessage(codec.decode(data));
+        } catch (Exception e) {
+            log.error("Failed to handle UDP message, {}", e.getMessage());
+        } finally {
+            packet.release();
         }
     }
 
-    private boolean processUDPMessage(DatagramPacket packet) throws IOException {
-//        log.info("Received packet from address: {} with port: {}", packet.getAddress(), packet.getPort());
-//        log.info("Socket address: {}", packet.getSocketAddress());
-
-        SocketMessage message = reader.readValue(packet.getData(), SocketMessage.class);
-//        log.info("Message received! {}", message);
+    private void processUDPMessage(SocketMessage message) {
         String actorId = getActorId(message);
 
         if (actorId == null) {
             log.error("UDP message did not contain actor ID, {}", message);
-            return true;
+            return;
         }
 
-        socketProcessOutgoingService.processUDPMessage(message);
-        return false;
+        // late or repeated motion would rewind the actor, drop it before it reaches kafka
+        if (!sequenceTracker.accept(actorId, message.getSequence())) {
+            return;
+        }
+
+        try {
+            socketProcessOutgoingService.processUDPMessage(message);
+        } catch (Exception e) {
+            log.error("Failed to process UDP message, {}", e.getMessage());
+        }
+    }
+
+    private boolean supportsReusePort() {
+        try (DatagramChannel probe = DatagramChannel.open()) {
+            return probe.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        } catch (IOException e) {
+            return false;
+        }
     }
 
     private String getActorId(SocketMessage message) {
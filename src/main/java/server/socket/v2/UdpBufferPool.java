@@ -0,0 +1,45 @@
+package server.socket.v2;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Fixed size pool of direct receive buffers, each wrapped in the {@link UdpPacket} that carries it
+ * to a worker. Packets are allocated once up front and recycled, so the receive path does not
+ * create garbage per datagram. The backing queue is array based, so acquire and release do not
+ * allocate either.
+ *
+ * <p>A packet taken with {@link #acquire()} is owned by the caller until it is handed back with
+ * {@link UdpPacket#release()}; its buffer must not be read after release as it may already be
+ * receiving the next datagram.
+ */
+public class UdpBufferPool {
+
+    private final ArrayBlockingQueue<UdpPacket> packets;
+
+    public UdpBufferPool(int poolSize, int bufferSize) {
+        this.packets = new ArrayBlockingQueue<>(poolSize);
+
+        for (int i = 0; i < poolSize; i++) {
+            packets.offer(new UdpPacket(this, bufferSize));
+        }
+    }
+
+    /**
+     * @return a packet with a cleared buffer, or null when every packet is in flight
+     */
+    public UdpPacket acquire() {
+        UdpPacket packet = packets.poll();
+        if (packet != null) {
+            packet.buffer().clear();
+        }
+        return packet;
+    }
+
+    void release(UdpPacket packet) {
+        packets.offer(packet);
+    }
+
+    public int available() {
+        return packets.size();
+    }
+}
@@ -0,0 +1,145 @@
+package server.socket.v2;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import server.socket.v2.codec.UdpBatchCodec;
+
+/**
+ * Packs outbound UDP payloads per destination into {@link UdpBatchCodec} datagrams of at most
+ * mtu bytes. A batch goes out as soon as the next payload would not fit, and whatever is left is
+ * sent by {@link #flushAll()} on every tick. A batch holding a single payload is sent as the bare
+ * payload, so quiet destinations see the same datagrams as before.
+ */
+public class UdpOutboundCoalescer {
+
+    // destinations with nothing to send for this many ticks release their batch buffer
+    private static final int IDLE_TICKS = 250;
+
+    private final int mtu;
+    private final BiConsumer<ByteBuffer, InetSocketAddress> sink;
+
+    private final ConcurrentMap<InetSocketAddress, PendingBatch> batches =
+            new ConcurrentHashMap<>();
+
+    private final Counter datagramsSent;
+    private final Counter payloadsQueued;
+    private final Timer flushLatency;
+
+    public UdpOutboundCoalescer(
+            int mtu, BiConsumer<ByteBuffer, InetSocketAddress> sink, MeterRegistry meterRegistry) {
+        this.mtu = mtu;
+        this.sink = sink;
+        this.datagramsSent = meterRegistry.counter("udp.outbound.datagrams");
+        this.payloadsQueued = meterRegistry.counter("udp.outbound.payloads");
+        this.flushLatency = meterRegistry.timer("udp.outbound.flush.latency");
+    }
+
+    public void add(ByteBuffer payload, InetSocketAddress target) {
+        payloadsQueued.increment();
+        int entrySize = UdpBatchCodec.entrySize(payload);
+
+        while (true) {
+            PendingBatch batch = batches.computeIfAbsent(target, t -> new PendingBatch());
+            synchronized (batch) {
+                if (batch.closed) {
+                    // evicted as idle while we were looking it up, take a fresh one
+                    continue;
+                }
+
+                if (UdpBatchCodec.HEADER_SIZE + entrySize > mtu) {
+                    // can never share a datagram, keep ordering by flushing what is queued first
+                    flush(batch, target);
+                    send(payload, target);
+                    return;
+                }
+
+                if (batch.buffer.remaining() < entrySize) {
+                    flush(batch, target);
+                }
+                batch.append(payload);
+                return;
+            }
+        }
+    }
+
+    public void flushAll() {
+        batches.forEach(
+                (target, batch) -> {
+                    synchronized (batch) {
+                        if (batch.count > 0) {
+                            flush(batch, target);
+                        } else if (++batch.idleTicks > IDLE_TICKS) {
+                            batch.closed = true;
+                            batches.remove(target, batch);
+                        }
+                    }
+                });
+    }
+
+    // caller holds the batch lock, so datagrams for a target leave in the order they were added
+    private void flush(PendingBatch batch, InetSocketAddress target) {
+        if (batch.count == 0) {
+            return;
+        }
+
+        ByteBuffer data;
+        if (batch.count == 1) {
+            data = copy(batch.first);
+        } else {
+            batch.buffer.flip();
+            data = copy(batch.buffer);
+        }
+
+        flushLatency.record(System.nanoTime() - batch.firstQueuedAt, TimeUnit.NANOSECONDS);
+        batch.reset();
+        send(data, target);
+    }
+
+    private void send(ByteBuffer data, InetSocketAddress target) {
+        datagramsSent.increment();
+        sink.accept(data, target);
+    }
+
+    private static ByteBuffer copy(ByteBuffer source) {
+        ByteBuffer data = ByteBuffer.allocate(source.remaining());
+        data.put(source.duplicate()).flip();
+        return data;
+    }
+
+    private class PendingBatch {
+        private final ByteBuffer buffer = ByteBuffer.allocate(mtu);
+        private ByteBuffer first;
+        private int count;
+        private long firstQueuedAt;
+        private int idleTicks;
+        private boolean closed;
+
+        PendingBatch() {
+            reset();
+        }
+
+        void append(ByteBuffer payload) {
+            if (count == 0) {
+                first = payload;
+                firstQueuedAt = System.nanoTime();
+            }
+            UdpBatchCodec.writeEntry(buffer, payload);
+            count++;
+            idleTicks = 0;
+        }
+
+        void reset() {
+            buffer.clear();
+            UdpBatchCodec.writeHeader(buffer);
+            first = null;
+            count = 0;
+        }
+    }
+}
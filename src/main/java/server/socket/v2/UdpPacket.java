@@ -0,0 +1,42 @@
+package server.socket.v2;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * A datagram received into one of a reactor's pooled direct buffers, along with its source. Packets
+ * are created once with their {@link UdpBufferPool} and recycled with it, so handing one from the
+ * reactor to a worker does not allocate.
+ *
+ * <p>The worker owns the packet until it hands it back with {@link #release()}, after which the
+ * buffer may already be receiving the next datagram.
+ */
+public final class UdpPacket {
+
+    private final UdpBufferPool pool;
+    private final ByteBuffer buffer;
+    private SocketAddress source;
+
+    UdpPacket(UdpBufferPool pool, int bufferSize) {
+        this.pool = pool;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public SocketAddress source() {
+        return source;
+    }
+
+    public void release() {
+        source = null;
+        pool.release(this);
+    }
+
+    void received(SocketAddress source) {
+        this.source = source;
+        buffer.flip();
+    }
+}
@@ -0,0 +1,254 @@
+package server.socket.v2;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.UdpServerConfiguration;
+
+/**
+ * A single UDP event loop. Each reactor owns its own {@link DatagramChannel} and {@link Selector}
+ * bound to the shared server port (SO_REUSEPORT lets the kernel spread datagrams between them).
+ * Received packets are handed to the packet handler on the reactor thread, so the handler must not
+ * block. Outbound datagrams are written directly when the socket buffer has room and are queued
+ * for the reactor to flush otherwise.
+ *
+ * <p>Datagrams are received into packets taken from the reactor's {@link UdpBufferPool}. The packet
+ * handler takes ownership of the packet and must hand it back with {@link UdpPacket#release()}
+ * once it is done reading it. If every packet is still in flight the datagram is dropped, which
+ * keeps memory bounded when the workers fall behind.
+ */
+@Slf4j
+public class UdpReactor implements Runnable {
+
+    @FunctionalInterface
+    public interface PacketHandler {
+        void handle(UdpPacket packet);
+    }
+
+    private final int id;
+    private final UdpServerConfiguration configuration;
+    private final boolean reusePort;
+    private final PacketHandler packetHandler;
+
+    private final UdpBufferPool bufferPool;
+
+    // used to drain the socket when the pool is exhausted, contents are discarded
+    private final ByteBuffer discardBuffer;
+    private long droppedPackets = 0;
+
+    private final Queue<PendingSend> pendingSends = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean writeInterest = new AtomicBoolean(false);
+
+    private volatile boolean running = true;
+    private volatile DatagramChannel channel;
+    private volatile Selector selector;
+    private SelectionKey selectionKey;
+    // consecutive failures, reset by the first datagram received after a reopen
+    private int attempts = 0;
+
+    private Thread thread;
+
+    private record PendingSend(ByteBuffer data, SocketAddress target) {}
+
+    public UdpReactor(
+            int id,
+            UdpServerConfiguration configuration,
+            boolean reusePort,
+            PacketHandler packetHandler) {
+        this.id = id;
+        this.configuration = configuration;
+        this.reusePort = reusePort;
+        this.packetHandler = packetHandler;
+        this.bufferPool =
+                new UdpBufferPool(
+                        configuration.getBuffersPerReactor(), configuration.getMaxPacketSize());
+        this.discardBuffer = ByteBuffer.allocateDirect(configuration.getMaxPacketSize());
+    }
+
+    public void start() throws IOException {
+        open();
+        thread = new Thread(this, "udp-reactor-" + id);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
+        close();
+    }
+
+    public void send(ByteBuffer data, SocketAddress target) {
+        try {
+            // DatagramChannel.send is thread safe, try to write straight away if nothing is queued
+            if (pendingSends.isEmpty() && channel.send(data, target) > 0) {
+                return;
+            }
+        } catch (IOException e) {
+            log.error("Error sending UDP message to {}, {}", target, e.getMessage());
+            return;
+        }
+
+        if (pendingCount.incrementAndGet() > configuration.getMaxPendingSends()) {
+            pendingCount.decrementAndGet();
+            log.warn("UDP reactor {} outbound queue full, dropping datagram to {}", id, target);
+            return;
+        }
+
+        pendingSends.add(new PendingSend(data, target));
+        if (writeInterest.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        log.info("UDP reactor {} started on port {}", id, configuration.getPort());
+
+        while (running) {
+            try {
+                if (writeInterest.get()) {
+                    selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+
+                selector.select();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (key.isReadable()) {
+                        handleRead();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        handleWrite();
+                    }
+                }
+            } catch (Exception e) {
+                if (running) {
+                    reopen(e);
+                }
+            }
+        }
+
+        log.info("UDP reactor {} stopped", id);
+    }
+
+    private void handleRead() throws IOException {
+        // drain everything currently available before going back to the selector
+        while (true) {
+            UdpPacket packet = bufferPool.acquire();
+            if (packet == null) {
+                discardBuffer.clear();
+                if (channel.receive(discardBuffer) == null) {
+                    return;
+                }
+                if (droppedPackets++ % 1000 == 0) {
+                    log.warn(
+                            "UDP reactor {} has no free receive buffers, dropped {} packets",
+                            id,
+                            droppedPackets);
+                }
+                continue;
+            }
+
+            SocketAddress source = channel.receive(packet.buffer());
+            if (source == null) {
+                packet.release();
+                return;
+            }
+            // receiving again, so earlier failures don't count against later reopens
+            attempts = 0;
+
+            packet.received(source);
+            try {
+                packetHandler.handle(packet);
+            } catch (Exception e) {
+                packet.release();
+                log.error("Failed to handle UDP packet from {}, {}", source, e.getMessage());
+            }
+        }
+    }
+
+    private void handleWrite() throws IOException {
+        PendingSend pending;
+        while ((pending = pendingSends.peek()) != null) {
+            if (channel.send(pending.data(), pending.target()) == 0) {
+                // socket buffer still full, wait for the next writable event
+                return;
+            }
+            pendingSends.poll();
+            pendingCount.decrementAndGet();
+        }
+
+        writeInterest.set(false);
+        selectionKey.interestOps(SelectionKey.OP_READ);
+        if (!pendingSends.isEmpty() && writeInterest.compareAndSet(false, true)) {
+            // a sender raced with us while we were clearing interest
+            selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void open() throws IOException {
+        DatagramChannel newChannel = DatagramChannel.open();
+        if (reusePort) {
+            newChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+        }
+        newChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        newChannel.bind(new InetSocketAddress(configuration.getPort()));
+        newChannel.configureBlocking(false);
+
+        Selector newSelector = Selector.open();
+        selectionKey = newChannel.register(newSelector, SelectionKey.OP_READ);
+
+        channel = newChannel;
+        selector = newSelector;
+    }
+
+    private void reopen(Exception cause) {
+        log.error("UDP reactor {} failed with: {}", id, cause.getMessage());
+        close();
+
+        attempts++;
+        if (attempts >= configuration.getRetries()) {
+            log.error("Critical error, UDP reactor {} failed too many times, shutting down", id);
+            running = false;
+            return;
+        }
+
+        try {
+            open();
+        } catch (IOException e) {
+            log.error("UDP reactor {} failed to re-open channel, {}", id, e.getMessage());
+        }
+    }
+
+    private void close() {
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.error("Failed to close UDP reactor {}, {}", id, e.getMessage());
+        }
+    }
+}
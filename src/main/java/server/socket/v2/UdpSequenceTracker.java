@@ -0,0 +1,114 @@
+package server.socket.v2;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rejects UDP motion packets that arrive out of order or twice. Each actor's sender stamps its
+ * packets with an increasing sequence, and a packet is only let through if it is newer than the
+ * last one we accepted for that actor. Sequences are compared with wrap around, so a long running
+ * sender can roll over the int range.
+ *
+ * <p>Packets without a sequence are always accepted so older clients keep working. Tracking for an
+ * actor is reset when its session is (re)registered, as a restarted client starts counting again.
+ */
+@Slf4j
+@Singleton
+public class UdpSequenceTracker {
+
+    private static final long NO_SEQUENCE = Long.MIN_VALUE;
+
+    private static final long IDLE_EVICT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final MeterRegistry meterRegistry;
+    private final Counter staleDropped;
+    private final Counter duplicateDropped;
+
+    private final ConcurrentMap<String, ActorSequence> actors = new ConcurrentHashMap<>();
+
+    public UdpSequenceTracker(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.staleDropped = meterRegistry.counter("udp.inbound.dropped", "reason", "stale");
+        this.duplicateDropped = meterRegistry.counter("udp.inbound.dropped", "reason", "duplicate");
+    }
+
+    public boolean accept(String actorId, Integer sequence) {
+        if (sequence == null) {
+            return true;
+        }
+
+        ActorSequence actor = actors.computeIfAbsent(actorId, ActorSequence::new);
+        actor.lastSeen = System.currentTimeMillis();
+
+        while (true) {
+            long last = actor.last.get();
+            if (last != NO_SEQUENCE) {
+                int diff = sequence - (int) last;
+                if (diff <= 0) {
+                    actor.drop(diff == 0 ? duplicateDropped : staleDropped);
+                    return false;
+                }
+            }
+            if (actor.last.compareAndSet(last, sequence)) {
+                return true;
+            }
+        }
+    }
+
+    public long getDroppedCount(String actorId) {
+        ActorSequence actor = actors.get(actorId);
+        return actor == null ? 0 : actor.dropped.get();
+    }
+
+    public void reset(String actorId) {
+        if (actorId == null) {
+            return;
+        }
+        ActorSequence actor = actors.remove(actorId);
+        if (actor != null && actor.meter != null) {
+            meterRegistry.remove(actor.meter);
+        }
+    }
+
+    @Scheduled(fixedDelay = "60s")
+    void evictIdle() {
+        long cutoff = System.currentTimeMillis() - IDLE_EVICT_MILLIS;
+        actors.values().stream()
+                .filter(actor -> actor.lastSeen < cutoff)
+                .map(actor -> actor.actorId)
+                .toList()
+                .forEach(this::reset);
+    }
+
+    private class ActorSequence {
+        private final String actorId;
+        private final AtomicLong last = new AtomicLong(NO_SEQUENCE);
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long lastSeen;
+        private volatile FunctionCounter meter;
+
+        ActorSequence(String actorId) {
+            this.actorId = actorId;
+        }
+
+        void drop(Counter aggregate) {
+            aggregate.increment();
+            if (dropped.getAndIncrement() == 0) {
+                // per actor meter is only registered once the actor actually drops something
+                meter =
+                        FunctionCounter.builder(
+                                        "udp.inbound.dropped.actor", dropped, AtomicLong::get)
+                                .tag("actorId", actorId)
+                                .register(meterRegistry);
+            }
+        }
+    }
+}
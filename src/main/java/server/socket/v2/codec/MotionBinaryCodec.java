@@ -0,0 +1,281 @@
+package server.socket.v2.codec;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import server.common.dto.Motion;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+import server.socket.model.SocketMessage;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.model.types.MessageType;
+
+/**
+ * Compact binary wire format for motion traffic over UDP.
+ *
+ * <p>Every binary datagram starts with a type byte followed by a version byte. Type bytes are kept
+ * below 0x20 so they can never be confused with a JSON payload, which always starts with '{'.
+ *
+ * <pre>
+ * PLAYER_MOTION         [type][version][actorId][motion]([sequence])
+ * MOB_MOTION            [type][version][actorId][mobId][motion]([sequence])
+ * PLAYER_MOTION_UPDATE  [type][version][count]{[actorId][motion]}*count
+ * MOB_MOTION_UPDATE     [type][version][count]{[actorId][mobId][motion]}*count
+ *
+ * motion  [map][x][y][z][pitch][roll][yaw][vx][vy][vz][flags]
+ * </pre>
+ *
+ * Strings are a varint byte length followed by UTF-8 bytes, an empty string decodes to null.
+ * Integers are zig-zag varints, so small values and small negatives take one or two bytes. Null
+ * motion integers are written as 0. Flags bit 0 is isFalling. The trailing sequence on inbound
+ * motion is optional, it is only read when bytes are left after the motion.
+ */
+public final class MotionBinaryCodec {
+
+    public static final byte PLAYER_MOTION = 0x01;
+    public static final byte MOB_MOTION = 0x02;
+    public static final byte PLAYER_MOTION_UPDATE = 0x11;
+    public static final byte MOB_MOTION_UPDATE = 0x12;
+
+    public static final byte VERSION = 1;
+
+    private static final int FLAG_IS_FALLING = 1;
+
+    private MotionBinaryCodec() {}
+
+    public static boolean isBinary(byte typeByte) {
+        return typeByte == PLAYER_MOTION
+                || typeByte == MOB_MOTION
+                || typeByte == PLAYER_MOTION_UPDATE
+                || typeByte == MOB_MOTION_UPDATE;
+    }
+
+    public static boolean canEncode(SocketMessage message) {
+        String type = message.getUpdateType();
+        if (MessageType.PLAYER_MOTION.getType().equals(type)) {
+            return message.getPlayerMotion() != null
+                    && message.getPlayerMotion().getMotion() != null;
+        }
+        if (MessageType.MOB_MOTION.getType().equals(type)) {
+            return message.getMonster() != null && message.getMonster().getMotion() != null;
+        }
+        return false;
+    }
+
+    public static boolean canEncode(SocketResponse response) {
+        String type = response.getMessageType();
+        if (SocketResponseType.PLAYER_MOTION_UPDATE.getType().equals(type)) {
+            return response.getPlayerMotion() != null;
+        }
+        if (SocketResponseType.MOB_MOTION_UPDATE.getType().equals(type)) {
+            return response.getMonsters() != null;
+        }
+        return false;
+    }
+
+    public static void encode(SocketMessage message, ByteBuffer out) {
+        if (MessageType.PLAYER_MOTION.getType().equals(message.getUpdateType())) {
+            PlayerMotion playerMotion = message.getPlayerMotion();
+            out.put(PLAYER_MOTION).put(VERSION);
+            writeString(out, playerMotion.getActorId());
+            writeMotion(out, playerMotion.getMotion());
+        } else {
+            Monster monster = message.getMonster();
+            out.put(MOB_MOTION).put(VERSION);
+            writeString(out, monster.getActorId());
+            writeString(out, monster.getMobId());
+            writeMotion(out, monster.getMotion());
+        }
+        if (message.getSequence() != null) {
+            writeVarInt(out, message.getSequence());
+        }
+    }
+
+    public static void encode(SocketResponse response, ByteBuffer out) {
+        if (SocketResponseType.PLAYER_MOTION_UPDATE.getType().equals(response.getMessageType())) {
+            out.put(PLAYER_MOTION_UPDATE).put(VERSION);
+            writeVarInt(out, response.getPlayerMotion().size());
+            response.getPlayerMotion()
+                    .forEach(
+                            (actorId, playerMotion) -> {
+                                writeString(out, actorId);
+                                writeMotion(out, playerMotion.getMotion());
+                            });
+        } else {
+            out.put(MOB_MOTION_UPDATE).put(VERSION);
+            writeVarInt(out, response.getMonsters().size());
+            response.getMonsters()
+                    .forEach(
+                            (actorId, monster) -> {
+                                writeString(out, actorId);
+                                writeString(out, monster.getMobId());
+                                writeMotion(out, monster.getMotion());
+                            });
+        }
+    }
+
+    public static SocketMessage decodeMessage(ByteBuffer in) throws IOException {
+        try {
+            byte type = in.get();
+            readVersion(in);
+
+            SocketMessage message = new SocketMessage();
+            if (type == PLAYER_MOTION) {
+                String actorId = readString(in);
+                message.setUpdateType(MessageType.PLAYER_MOTION.getType());
+                message.setPlayerMotion(new PlayerMotion(actorId, readMotion(in), null, null));
+            } else if (type == MOB_MOTION) {
+                Monster monster = new Monster();
+                monster.setActorId(readString(in));
+                monster.setMobId(readString(in));
+                monster.setMotion(readMotion(in));
+                message.setUpdateType(MessageType.MOB_MOTION.getType());
+                message.setMonster(monster);
+            } else {
+                throw new IOException("Not a binary motion message, type: " + type);
+            }
+
+            if (in.hasRemaining()) {
+                message.setSequence(readVarInt(in));
+            }
+
+            return message;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary motion message");
+        }
+    }
+
+    public static SocketResponse decodeResponse(ByteBuffer in) throws IOException {
+        try {
+            byte type = in.get();
+            readVersion(in);
+            int count = readVarInt(in);
+
+            if (type == PLAYER_MOTION_UPDATE) {
+                Map<String, PlayerMotion> playerMotion = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    String actorId = readString(in);
+                    playerMotion.put(actorId, new PlayerMotion(actorId, readMotion(in), null, null));
+                }
+                return SocketResponse.builder()
+                        .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                        .playerMotion(playerMotion)
+                        .playerKeys(playerMotion.keySet())
+                        .build();
+            } else if (type == MOB_MOTION_UPDATE) {
+                Map<String, Monster> monsters = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    Monster monster = new Monster();
+                    monster.setActorId(readString(in));
+                    monster.setMobId(readString(in));
+                    monster.setMotion(readMotion(in));
+                    monsters.put(monster.getActorId(), monster);
+                }
+                return SocketResponse.builder()
+                        .messageType(SocketResponseType.MOB_MOTION_UPDATE.getType())
+                        .monsters(monsters)
+                        .mobKeys(monsters.keySet())
+                        .build();
+            }
+
+            throw new IOException("Not a binary motion response, type: " + type);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary motion response");
+        }
+    }
+
+    private static void readVersion(ByteBuffer in) throws IOException {
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary motion version: " + version);
+        }
+    }
+
+    public static void writeMotion(ByteBuffer out, Motion motion) {
+        writeString(out, motion.getMap());
+        writeVarInt(out, orZero(motion.getX()));
+        writeVarInt(out, orZero(motion.getY()));
+        writeVarInt(out, orZero(motion.getZ()));
+        writeVarInt(out, orZero(motion.getPitch()));
+        writeVarInt(out, orZero(motion.getRoll()));
+        writeVarInt(out, orZero(motion.getYaw()));
+        writeVarInt(out, orZero(motion.getVx()));
+        writeVarInt(out, orZero(motion.getVy()));
+        writeVarInt(out, orZero(motion.getVz()));
+
+        int flags = Boolean.TRUE.equals(motion.getIsFalling()) ? FLAG_IS_FALLING : 0;
+        out.put((byte) flags);
+    }
+
+    public static Motion readMotion(ByteBuffer in) {
+        String map = readString(in);
+        int x = readVarInt(in);
+        int y = readVarInt(in);
+        int z = readVarInt(in);
+        int pitch = readVarInt(in);
+        int roll = readVarInt(in);
+        int yaw = readVarInt(in);
+        int vx = readVarInt(in);
+        int vy = readVarInt(in);
+        int vz = readVarInt(in);
+        int flags = in.get();
+
+        return new Motion(
+                map, x, y, z, pitch, roll, yaw, vx, vy, vz, (flags & FLAG_IS_FALLING) != 0);
+    }
+
+    public static void writeString(ByteBuffer out, String value) {
+        if (value == null || value.isEmpty()) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.put(bytes);
+    }
+
+    public static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // zig-zag encoding maps small negatives to small positives before the varint
+    public static void writeVarInt(ByteBuffer out, int value) {
+        int zigZag = (value << 1) ^ (value >> 31);
+        while ((zigZag & ~0x7F) != 0) {
+            out.put((byte) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.put((byte) zigZag);
+    }
+
+    public static int readVarInt(ByteBuffer in) {
+        int result = 0;
+        int shift = 0;
+        while (shift < 35) {
+            byte b = in.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (result >>> 1) ^ -(result & 1);
+            }
+            shift += 7;
+        }
+        throw new BufferUnderflowException();
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
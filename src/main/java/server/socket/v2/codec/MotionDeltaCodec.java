@@ -0,0 +1,254 @@
+package server.socket.v2.codec;
+
+import static server.socket.v2.codec.MotionBinaryCodec.VERSION;
+import static server.socket.v2.codec.MotionBinaryCodec.readMotion;
+import static server.socket.v2.codec.MotionBinaryCodec.readString;
+import static server.socket.v2.codec.MotionBinaryCodec.readVarInt;
+import static server.socket.v2.codec.MotionBinaryCodec.writeMotion;
+import static server.socket.v2.codec.MotionBinaryCodec.writeString;
+import static server.socket.v2.codec.MotionBinaryCodec.writeVarInt;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import server.common.dto.Motion;
+
+/**
+ * Wire format for delta compressed motion updates, sent to clients that acknowledge what they
+ * received.
+ *
+ * <pre>
+ * MOTION_ACK (client to server)  [type][version][clientId][sequence][receivedBits]
+ *
+ * PLAYER_MOTION_DELTA / MOB_MOTION_DELTA
+ *   [type][version][sequence][positionQuantum][rotationQuantum][count]{entry}*count
+ *
+ * entry  [actorId][baselineSequence] then
+ *        baselineSequence == 0: full snapshot, (mob only: [mobId]) [motion]
+ *        otherwise:             [fieldMask] followed by every field whose bit is set
+ * </pre>
+ *
+ * Field mask bits in order: map, x, y, z, pitch, roll, yaw, vx, vy, vz, flags. Position and
+ * rotation deltas are written in quantum units, velocity deltas are exact. A client rebuilds the
+ * state by applying the delta to the state it received in the datagram with baselineSequence, and
+ * acknowledges the highest sequence it has seen so the server can move the baseline forward.
+ *
+ * <p>Bit i of receivedBits is set when sequence - 1 - i was received too. Only sequences the client
+ * confirmed are used as baselines, a datagram lost below the acked sequence never is. Acks without
+ * the bits confirm the acked sequence alone.
+ */
+public final class MotionDeltaCodec {
+
+    public static final byte MOTION_ACK = 0x03;
+    public static final byte PLAYER_MOTION_DELTA = 0x13;
+    public static final byte MOB_MOTION_DELTA = 0x14;
+
+    private static final int FIELD_MAP = 1;
+    private static final int FIELD_FLAGS = 1 << 10;
+
+    public record MotionAck(String clientId, int sequence, int receivedBits) {}
+
+    public record DeltaEntry(String actorId, String mobId, Motion motion) {}
+
+    public record DecodedDelta(byte type, int sequence, Map<String, DeltaEntry> entries) {}
+
+    @FunctionalInterface
+    public interface BaselineLookup {
+        Motion find(String actorId, int baselineSequence);
+    }
+
+    private MotionDeltaCodec() {}
+
+    public static void encodeAck(
+            String clientId, int sequence, int receivedBits, ByteBuffer out) {
+        out.put(MOTION_ACK).put(VERSION);
+        writeString(out, clientId);
+        writeVarInt(out, sequence);
+        writeVarInt(out, receivedBits);
+    }
+
+    public static MotionAck decodeAck(ByteBuffer in) throws IOException {
+        try {
+            if (in.get() != MOTION_ACK) {
+                throw new IOException("Not a motion ack");
+            }
+            readVersion(in);
+            String clientId = readString(in);
+            int sequence = readVarInt(in);
+            int receivedBits = in.hasRemaining() ? readVarInt(in) : 0;
+            return new MotionAck(clientId, sequence, receivedBits);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated motion ack");
+        }
+    }
+
+    public static void writeHeader(
+            ByteBuffer out,
+            byte type,
+            int sequence,
+            int positionQuantum,
+            int rotationQuantum,
+            int count) {
+        out.put(type).put(VERSION);
+        writeVarInt(out, sequence);
+        writeVarInt(out, positionQuantum);
+        writeVarInt(out, rotationQuantum);
+        writeVarInt(out, count);
+    }
+
+    public static void writeFull(
+            ByteBuffer out, byte type, String actorId, String mobId, Motion motion) {
+        writeString(out, actorId);
+        writeVarInt(out, 0);
+        if (type == MOB_MOTION_DELTA) {
+            writeString(out, mobId);
+        }
+        writeMotion(out, motion);
+    }
+
+    /** Both motions are expected to already be quantized. */
+    public static void writeDelta(
+            ByteBuffer out,
+            String actorId,
+            int baselineSequence,
+            Motion baseline,
+            Motion motion,
+            int positionQuantum,
+            int rotationQuantum) {
+        int[] current = fields(motion);
+        int[] base = fields(baseline);
+        int[] quanta = quanta(positionQuantum, rotationQuantum);
+
+        int mask = 0;
+        if (!Objects.equals(baseline.getMap(), motion.getMap())) {
+            mask |= FIELD_MAP;
+        }
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != base[i]) {
+                mask |= 1 << (i + 1);
+            }
+        }
+        if (isFalling(baseline) != isFalling(motion)) {
+            mask |= FIELD_FLAGS;
+        }
+
+        writeString(out, actorId);
+        writeVarInt(out, baselineSequence);
+        writeVarInt(out, mask);
+
+        if ((mask & FIELD_MAP) != 0) {
+            writeString(out, motion.getMap());
+        }
+        for (int i = 0; i < current.length; i++) {
+            if ((mask & (1 << (i + 1))) != 0) {
+                writeVarInt(out, (current[i] - base[i]) / quanta[i]);
+            }
+        }
+        if ((mask & FIELD_FLAGS) != 0) {
+            out.put((byte) (isFalling(motion) ? 1 : 0));
+        }
+    }
+
+    public static DecodedDelta decode(ByteBuffer in, BaselineLookup baselines) throws IOException {
+        try {
+            byte type = in.get();
+            if (type != PLAYER_MOTION_DELTA && type != MOB_MOTION_DELTA) {
+                throw new IOException("Not a motion delta, type: " + type);
+            }
+            readVersion(in);
+
+            int sequence = readVarInt(in);
+            int[] quanta = quanta(readVarInt(in), readVarInt(in));
+            int count = readVarInt(in);
+
+            Map<String, DeltaEntry> entries = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String actorId = readString(in);
+                int baselineSequence = readVarInt(in);
+
+                if (baselineSequence == 0) {
+                    String mobId = type == MOB_MOTION_DELTA ? readString(in) : null;
+                    entries.put(actorId, new DeltaEntry(actorId, mobId, readMotion(in)));
+                    continue;
+                }
+
+                Motion baseline = baselines.find(actorId, baselineSequence);
+                if (baseline == null) {
+                    throw new IOException("Missing baseline " + baselineSequence + " for " + actorId);
+                }
+                entries.put(actorId, new DeltaEntry(actorId, null, applyDelta(in, baseline, quanta)));
+            }
+
+            return new DecodedDelta(type, sequence, entries);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated motion delta");
+        }
+    }
+
+    public static Motion quantize(Motion motion, int positionQuantum, int rotationQuantum) {
+        int[] values = fields(motion);
+        int[] quanta = quanta(positionQuantum, rotationQuantum);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round((float) values[i] / quanta[i]) * quanta[i];
+        }
+        return toMotion(motion.getMap(), values, isFalling(motion));
+    }
+
+    private static Motion applyDelta(ByteBuffer in, Motion baseline, int[] quanta) {
+        int mask = readVarInt(in);
+
+        String map = (mask & FIELD_MAP) != 0 ? readString(in) : baseline.getMap();
+        int[] values = fields(baseline);
+        for (int i = 0; i < values.length; i++) {
+            if ((mask & (1 << (i + 1))) != 0) {
+                values[i] += readVarInt(in) * quanta[i];
+            }
+        }
+        boolean falling = (mask & FIELD_FLAGS) != 0 ? in.get() != 0 : isFalling(baseline);
+
+        return toMotion(map, values, falling);
+    }
+
+    // x, y, z, pitch, roll, yaw, vx, vy, vz - must match the field mask bit order
+    private static int[] fields(Motion motion) {
+        return new int[] {
+            orZero(motion.getX()),
+            orZero(motion.getY()),
+            orZero(motion.getZ()),
+            orZero(motion.getPitch()),
+            orZero(motion.getRoll()),
+            orZero(motion.getYaw()),
+            orZero(motion.getVx()),
+            orZero(motion.getVy()),
+            orZero(motion.getVz())
+        };
+    }
+
+    private static int[] quanta(int positionQuantum, int rotationQuantum) {
+        int p = Math.max(1, positionQuantum);
+        int r = Math.max(1, rotationQuantum);
+        return new int[] {p, p, p, r, r, r, 1, 1, 1};
+    }
+
+    private static Motion toMotion(String map, int[] v, boolean isFalling) {
+        return new Motion(map, v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], isFalling);
+    }
+
+    private static boolean isFalling(Motion motion) {
+        return Boolean.TRUE.equals(motion.getIsFalling());
+    }
+
+    private static void readVersion(ByteBuffer in) throws IOException {
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported motion delta version: " + version);
+        }
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
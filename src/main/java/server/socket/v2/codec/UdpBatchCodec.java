@@ -0,0 +1,78 @@
+package server.socket.v2.codec;
+
+import static server.socket.v2.codec.MotionBinaryCodec.VERSION;
+import static server.socket.v2.codec.MotionBinaryCodec.readVarInt;
+import static server.socket.v2.codec.MotionBinaryCodec.writeVarInt;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Framing for several UDP payloads packed into one datagram.
+ *
+ * <pre>
+ * BATCH  [type][version]{[length][payload]}* until the end of the datagram
+ * </pre>
+ *
+ * Each payload is exactly what would otherwise have been sent as its own datagram, JSON or binary.
+ */
+public final class UdpBatchCodec {
+
+    public static final byte BATCH = 0x10;
+
+    public static final int HEADER_SIZE = 2;
+
+    private UdpBatchCodec() {}
+
+    public static void writeHeader(ByteBuffer out) {
+        out.put(BATCH).put(VERSION);
+    }
+
+    public static void writeEntry(ByteBuffer out, ByteBuffer payload) {
+        writeVarInt(out, payload.remaining());
+        out.put(payload.duplicate());
+    }
+
+    public static int entrySize(ByteBuffer payload) {
+        return varIntSize(payload.remaining()) + payload.remaining();
+    }
+
+    public static List<ByteBuffer> decode(ByteBuffer in) throws IOException {
+        try {
+            if (in.get() != BATCH) {
+                throw new IOException("Not a UDP batch");
+            }
+            byte version = in.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported UDP batch version: " + version);
+            }
+
+            List<ByteBuffer> payloads = new ArrayList<>();
+            while (in.hasRemaining()) {
+                int length = readVarInt(in);
+                if (length < 0 || length > in.remaining()) {
+                    throw new IOException("Truncated UDP batch entry");
+                }
+                ByteBuffer payload = in.slice(in.position(), length);
+                in.position(in.position() + length);
+                payloads.add(payload);
+            }
+            return payloads;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated UDP batch");
+        }
+    }
+
+    private static int varIntSize(int value) {
+        int zigZag = (value << 1) ^ (value >> 31);
+        int size = 1;
+        while ((zigZag & ~0x7F) != 0) {
+            zigZag >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,81 @@
+package server.socket.v2.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import lombok.extern.slf4j.Slf4j;
+import server.socket.model.SocketMessage;
+import server.socket.model.SocketResponse;
+import server.utils.FeatureFlag;
+
+/**
+ * Picks the wire format for UDP datagrams. Inbound packets are decoded as binary when they start
+ * with a {@link MotionBinaryCodec} type byte and as JSON otherwise. Outbound motion updates are
+ * encoded as binary when the enableUdpBinaryCodec feature flag is on, everything else stays JSON.
+ */
+@Slf4j
+@Singleton
+public class UdpMessageCodec {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectReader reader = mapper.readerFor(SocketMessage.class);
+    private static final ObjectWriter writer = mapper.writer();
+
+    private static final int MAX_BINARY_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> encodeBuffer =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(MAX_BINARY_SIZE));
+
+    // JSON is parsed from a heap array, received packets are copied in here rather than wrapped
+    private static final ThreadLocal<byte[]> decodeBuffer =
+            ThreadLocal.withInitial(() -> new byte[MAX_BINARY_SIZE]);
+
+    private final FeatureFlag featureFlag;
+
+    public UdpMessageCodec(FeatureFlag featureFlag) {
+        this.featureFlag = featureFlag;
+    }
+
+    public SocketMessage decode(ByteBuffer packet) throws IOException {
+        if (packet.hasRemaining() && MotionBinaryCodec.isBinary(packet.get(packet.position()))) {
+            return MotionBinaryCodec.decodeMessage(packet);
+        }
+
+        int length = packet.remaining();
+        byte[] bytes = decodeBuffer.get();
+        if (bytes.length < length) {
+            bytes = new byte[length];
+            decodeBuffer.set(bytes);
+        }
+        packet.get(bytes, 0, length);
+        return reader.readValue(bytes, 0, length);
+    }
+
+    public ByteBuffer encode(SocketResponse response) throws IOException {
+        if (binaryEnabled() && MotionBinaryCodec.canEncode(response)) {
+            ByteBuffer scratch = encodeBuffer.get();
+            scratch.clear();
+            try {
+                MotionBinaryCodec.encode(response, scratch);
+                scratch.flip();
+
+                // copy out of the scratch buffer, the datagram may be queued by the reactor
+                ByteBuffer data = ByteBuffer.allocate(scratch.remaining());
+                data.put(scratch).flip();
+                return data;
+            } catch (BufferOverflowException e) {
+                log.warn("Motion update too large for binary encoding, falling back to JSON");
+            }
+        }
+
+        return ByteBuffer.wrap(writer.writeValueAsBytes(response));
+    }
+
+    private boolean binaryEnabled() {
+        return Boolean.TRUE.equals(featureFlag.getEnableUdpBinaryCodec());
+    }
+}
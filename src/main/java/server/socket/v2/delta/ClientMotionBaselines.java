@@ -0,0 +1,169 @@
+package server.socket.v2.delta;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import server.common.dto.Motion;
+import server.socket.v2.codec.MotionDeltaCodec;
+
+/**
+ * Motion states sent to a single client, keyed by the datagram sequence they went out with. A
+ * delta is only ever encoded against a state from a datagram the client confirmed receiving, so a
+ * lost datagram never leaves the client without the baseline it needs.
+ */
+public class ClientMotionBaselines {
+
+    // actors not sent to for this many datagrams are forgotten, they get a full snapshot again
+    private static final int STALE_AFTER = 1024;
+
+    // confirmations are kept for this many sequences, older baselines fall back to a full snapshot
+    private static final int CONFIRM_WINDOW = 1024;
+
+    private final int historySize;
+    private final int positionQuantum;
+    private final int rotationQuantum;
+
+    private final Map<String, ActorHistory> actors = new HashMap<>();
+
+    private final int[] confirmed = new int[CONFIRM_WINDOW];
+
+    private int nextSequence = 1;
+    private int ackedSequence = 0;
+
+    public ClientMotionBaselines(int historySize, int positionQuantum, int rotationQuantum) {
+        this.historySize = Math.max(1, historySize);
+        this.positionQuantum = positionQuantum;
+        this.rotationQuantum = rotationQuantum;
+    }
+
+    /**
+     * Marks the acked sequence as received, along with each earlier sequence whose bit is set in
+     * receivedBits, bit i standing for sequence - 1 - i.
+     */
+    public synchronized void acknowledge(int sequence, int receivedBits) {
+        // ignore acks for datagrams we never sent
+        if (sequence <= 0 || sequence >= nextSequence) {
+            return;
+        }
+        ackedSequence = Math.max(ackedSequence, sequence);
+
+        confirm(sequence);
+        for (int i = 0; i < Integer.SIZE; i++) {
+            if ((receivedBits & (1 << i)) != 0) {
+                confirm(sequence - 1 - i);
+            }
+        }
+    }
+
+    public synchronized int getAckedSequence() {
+        return ackedSequence;
+    }
+
+    /**
+     * Writes one delta datagram for the given motions and records them as sent under its sequence.
+     * Must be sent to the client in the order it was encoded, which the reactor does per target.
+     */
+    public synchronized void encode(
+            byte type, Map<String, Motion> motions, Map<String, String> mobIds, ByteBuffer out) {
+        int sequence = nextSequence++;
+
+        MotionDeltaCodec.writeHeader(
+                out, type, sequence, positionQuantum, rotationQuantum, motions.size());
+
+        // only recorded once the whole datagram is written, an overflow leaves no trace
+        List<Runnable> records = new ArrayList<>(motions.size());
+        motions.forEach(
+                (actorId, motion) -> {
+                    Motion quantized =
+                            MotionDeltaCodec.quantize(motion, positionQuantum, rotationQuantum);
+                    ActorHistory history =
+                            actors.computeIfAbsent(actorId, id -> new ActorHistory(historySize));
+
+                    int baselineSequence = history.findConfirmed(this::isConfirmed);
+                    if (baselineSequence == 0) {
+                        MotionDeltaCodec.writeFull(
+                                out, type, actorId, mobIds.get(actorId), quantized);
+                    } else {
+                        MotionDeltaCodec.writeDelta(
+                                out,
+                                actorId,
+                                baselineSequence,
+                                history.get(baselineSequence),
+                                quantized,
+                                positionQuantum,
+                                rotationQuantum);
+                    }
+
+                    records.add(() -> history.record(sequence, quantized));
+                });
+        records.forEach(Runnable::run);
+
+        if (sequence % STALE_AFTER == 0) {
+            pruneStale(sequence);
+        }
+    }
+
+    private void confirm(int sequence) {
+        if (sequence > 0) {
+            confirmed[sequence % CONFIRM_WINDOW] = sequence;
+        }
+    }
+
+    private boolean isConfirmed(int sequence) {
+        return confirmed[sequence % CONFIRM_WINDOW] == sequence;
+    }
+
+    private void pruneStale(int sequence) {
+        Iterator<ActorHistory> iterator = actors.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().latestSequence() < sequence - STALE_AFTER) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class ActorHistory {
+        private final int[] sequences;
+        private final Motion[] states;
+        private int next;
+
+        ActorHistory(int size) {
+            sequences = new int[size];
+            states = new Motion[size];
+        }
+
+        void record(int sequence, Motion motion) {
+            sequences[next] = sequence;
+            states[next] = motion;
+            next = (next + 1) % sequences.length;
+        }
+
+        // newest recorded sequence the client confirmed receiving, 0 when there is none
+        int findConfirmed(IntPredicate isConfirmed) {
+            int best = 0;
+            for (int sequence : sequences) {
+                if (sequence != 0 && sequence > best && isConfirmed.test(sequence)) {
+                    best = sequence;
+                }
+            }
+            return best;
+        }
+
+        Motion get(int sequence) {
+            for (int i = 0; i < sequences.length; i++) {
+                if (sequences[i] == sequence) {
+                    return states[i];
+                }
+            }
+            return null;
+        }
+
+        int latestSequence() {
+            return sequences[Math.floorMod(next - 1, sequences.length)];
+        }
+    }
+}
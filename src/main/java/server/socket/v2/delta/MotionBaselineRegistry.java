@@ -0,0 +1,136 @@
+package server.socket.v2.delta;
+
+import jakarta.inject.Singleton;
+import java.net.SocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import server.common.configuration.UdpServerConfiguration;
+import server.common.dto.Motion;
+import server.session.cache.UdpSessionRegistry;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.v2.codec.MotionBinaryCodec;
+import server.socket.v2.codec.MotionDeltaCodec;
+
+/**
+ * Tracks which UDP clients take delta compressed motion and what each of them has acknowledged.
+ *
+ * <p>A client opts in by sending a {@link MotionDeltaCodec#MOTION_ACK}, sequence 0 is fine for the
+ * first one. Until then it keeps receiving the regular motion updates.
+ *
+ * <p>Acks are only taken from the address the client registered its UDP session with, so a
+ * datagram naming someone else's id can't opt them in or mark motion as received. The session is
+ * unregistered before its baselines are removed, which keeps a late ack from bringing them back.
+ */
+@Slf4j
+@Singleton
+public class MotionBaselineRegistry {
+
+    private static final int MAX_DATAGRAM_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> encodeBuffer =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(MAX_DATAGRAM_SIZE));
+
+    private final UdpServerConfiguration configuration;
+
+    private final UdpSessionRegistry udpSessions;
+
+    private final ConcurrentMap<String, ClientMotionBaselines> clients = new ConcurrentHashMap<>();
+
+    public MotionBaselineRegistry(
+            UdpServerConfiguration configuration, UdpSessionRegistry udpSessions) {
+        this.configuration = configuration;
+        this.udpSessions = udpSessions;
+    }
+
+    public void acknowledge(String clientId, SocketAddress source, int sequence, int receivedBits) {
+        if (clientId == null || source == null) {
+            return;
+        }
+
+        // checked under the entry's lock, so a remove after unregistering always wins
+        clients.compute(
+                clientId,
+                (id, baselines) -> {
+                    if (!source.equals(udpSessions.get(id))) {
+                        log.debug("Ignoring motion ack for {} from {}", id, source);
+                        return baselines;
+                    }
+                    ClientMotionBaselines acked = baselines == null ? newBaselines() : baselines;
+                    acked.acknowledge(sequence, receivedBits);
+                    return acked;
+                });
+    }
+
+    public boolean isDeltaClient(String clientId) {
+        return clientId != null && clients.containsKey(clientId);
+    }
+
+    public void remove(String clientId) {
+        if (clientId != null) {
+            clients.remove(clientId);
+        }
+    }
+
+    /**
+     * Encodes a motion update for one client. Returns null if the client has not opted in or the
+     * update does not fit a datagram, in which case the caller sends the regular update instead.
+     */
+    public ByteBuffer encode(String clientId, SocketResponse response) {
+        ClientMotionBaselines baselines = clients.get(clientId);
+        if (baselines == null || !MotionBinaryCodec.canEncode(response)) {
+            return null;
+        }
+
+        byte type;
+        Map<String, Motion> motions = new HashMap<>();
+        Map<String, String> mobIds = new HashMap<>();
+        if (SocketResponseType.PLAYER_MOTION_UPDATE.getType().equals(response.getMessageType())) {
+            type = MotionDeltaCodec.PLAYER_MOTION_DELTA;
+            response.getPlayerMotion()
+                    .forEach(
+                            (actorId, playerMotion) -> {
+                                if (playerMotion.getMotion() != null) {
+                                    motions.put(actorId, playerMotion.getMotion());
+                                }
+                            });
+        } else {
+            type = MotionDeltaCodec.MOB_MOTION_DELTA;
+            response.getMonsters()
+                    .forEach(
+                            (actorId, monster) -> {
+                                if (monster.getMotion() != null) {
+                                    motions.put(actorId, monster.getMotion());
+                                    mobIds.put(actorId, monster.getMobId());
+                                }
+                            });
+        }
+
+        ByteBuffer scratch = encodeBuffer.get();
+        scratch.clear();
+        try {
+            baselines.encode(type, motions, mobIds, scratch);
+        } catch (BufferOverflowException e) {
+            // nothing was recorded under the sequence, the client never sees it so never acks it
+            log.warn("Motion delta for {} too large for a datagram", clientId);
+            return null;
+        }
+        scratch.flip();
+
+        ByteBuffer data = ByteBuffer.allocate(scratch.remaining());
+        data.put(scratch).flip();
+        return data;
+    }
+
+    private ClientMotionBaselines newBaselines() {
+        return new ClientMotionBaselines(
+                configuration.getBaselineHistory(),
+                configuration.getPositionQuantum(),
+                configuration.getRotationQuantum());
+    }
+}
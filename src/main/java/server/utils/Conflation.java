@@ -0,0 +1,26 @@
+package server.utils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public final class Conflation {
+
+    private Conflation() {}
+
+    /**
+     * Keeps the last record per key, records without a key are dropped. Batches from a partition
+     * come in order, so the last record for an actor is its current state.
+     */
+    public static <T> Map<String, T> latestByKey(List<T> records, Function<T, String> keyOf) {
+        Map<String, T> latest = new LinkedHashMap<>();
+        for (T record : records) {
+            String key = record == null ? null : keyOf.apply(record);
+            if (key != null) {
+                latest.put(key, record);
+            }
+        }
+        return latest;
+    }
+}
@@ -8,4 +8,22 @@ import lombok.Data;
 public class FeatureFlag {
 
     private Boolean enableUdp;
+
+    // send motion updates over UDP with the compact binary codec instead of JSON
+    private Boolean enableUdpBinaryCodec;
+
+    // pack UDP updates per client into batched datagrams up to the configured mtu
+    private Boolean enableUdpCoalescing;
+
+    // merge the websocket updates for a session into one TICK_UPDATE frame per tick
+    private Boolean enableTickAggregation;
+
+    // only relay player motion when it drifts from the position predicted by its velocity
+    private Boolean enableDeadReckoning;
+
+    // send socket updates only to the nodes whose sessions are listening to the actor
+    private Boolean enableNodeRouting;
+
+    // write the high volume kafka topics in the compact binary format, see KafkaPayloadCodec
+    private Boolean enableKafkaBinarySerde;
 }
@@ -0,0 +1,87 @@
+package server.common.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import server.combat.model.ThreatUpdate;
+
+@MicronautTest
+@Property(name = "spec.name", value = "InProcessEventBusContextTest")
+@Property(name = "event-bus.mode", value = "in-process")
+@Property(name = "kafka.enabled", value = "false")
+@Property(name = "cluster.node-id", value = "node1")
+class InProcessEventBusContextTest {
+
+    @Inject InProcessEventBus eventBus;
+
+    @Inject ThreatListener threatListener;
+
+    @Inject NodeBatchListener nodeBatchListener;
+
+    @Test
+    void kafkaListenersArePickedUp() {
+        eventBus.publish("in-process-test-threat", threatUpdate("mob1"));
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(
+                        () ->
+                                assertThat(threatListener.received)
+                                        .extracting(ThreatUpdate::getActorId)
+                                        .containsExactly("mob1"));
+    }
+
+    @Test
+    void batchListenersOnNodeTopicsArePickedUp() {
+        eventBus.publish("in-process-test-batch.node1", threatUpdate("mob1"));
+        eventBus.publish("in-process-test-batch.node1", threatUpdate("mob2"));
+
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(
+                        () ->
+                                assertThat(
+                                                nodeBatchListener.batches.stream()
+                                                        .flatMap(List::stream)
+                                                        .map(ThreatUpdate::getActorId))
+                                        .containsExactly("mob1", "mob2"));
+    }
+
+    private static ThreatUpdate threatUpdate(String actorId) {
+        ThreatUpdate threatUpdate = new ThreatUpdate();
+        threatUpdate.setActorId(actorId);
+        return threatUpdate;
+    }
+
+    @Requires(property = "spec.name", value = "InProcessEventBusContextTest")
+    @KafkaListener(groupId = "in-process-test")
+    static class ThreatListener {
+
+        final List<ThreatUpdate> received = new CopyOnWriteArrayList<>();
+
+        @Topic("in-process-test-threat")
+        void receive(ThreatUpdate threatUpdate) {
+            received.add(threatUpdate);
+        }
+    }
+
+    @Requires(property = "spec.name", value = "InProcessEventBusContextTest")
+    @KafkaListener(groupId = "in-process-test-${cluster.node-id}", batch = true)
+    static class NodeBatchListener {
+
+        final List<List<ThreatUpdate>> batches = new CopyOnWriteArrayList<>();
+
+        @Topic("in-process-test-batch.${cluster.node-id}")
+        void receive(List<ThreatUpdate> threatUpdates) {
+            batches.add(threatUpdates);
+        }
+    }
+}
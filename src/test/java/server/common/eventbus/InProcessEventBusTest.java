@@ -0,0 +1,162 @@
+package server.common.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.json.JsonMapper;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.combat.model.ThreatUpdate;
+import server.common.configuration.EventBusConfiguration;
+
+class InProcessEventBusTest {
+
+    private InProcessEventBus eventBus;
+
+    @BeforeEach
+    void setUp() {
+        EventBusConfiguration configuration = new EventBusConfiguration();
+        configuration.setCapacity(16);
+        eventBus =
+                new InProcessEventBus(
+                        configuration,
+                        JsonMapper.createDefault(),
+                        new SimpleMeterRegistry(),
+                        null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventBus.close();
+    }
+
+    @Test
+    void everyGroupReceivesEveryEventInOrder() throws InterruptedException {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(6);
+        eventBus.subscribe("first", "topic", String.class, e -> record(first, e, latch));
+        eventBus.subscribe("second", "topic", String.class, e -> record(second, e, latch));
+
+        eventBus.publish("topic", "a");
+        eventBus.publish("topic", "b");
+        eventBus.publish("topic", "c");
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(first).containsExactly("a", "b", "c");
+        assertThat(second).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void batchListenersReceiveWaitingEventsTogether() throws InterruptedException {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        eventBus.subscribeBatch(
+                "group",
+                "topic",
+                Integer.class,
+                batch -> {
+                    batches.add(batch);
+                    started.countDown();
+                    await(release);
+                    done.countDown();
+                });
+
+        eventBus.publish("topic", 1);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        eventBus.publish("topic", 2);
+        eventBus.publish("topic", 3);
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches).containsExactly(List.of(1), List.of(2, 3));
+    }
+
+    @Test
+    void payloadsAreConvertedToTheListenerType() throws InterruptedException {
+        List<ThreatUpdate> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        eventBus.subscribe(
+                "group",
+                "update-threat-levels",
+                ThreatUpdate.class,
+                e -> record(received, e, latch));
+
+        eventBus.publish("update-threat-levels", "{\"actorId\":\"mob1\"}");
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received.get(0).getActorId()).isEqualTo("mob1");
+    }
+
+    @Test
+    void everyGroupGetsItsOwnCopyOfThePayload() throws InterruptedException {
+        List<ThreatUpdate> first = new CopyOnWriteArrayList<>();
+        List<ThreatUpdate> second = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        eventBus.subscribe(
+                "first", "update-threat-levels", ThreatUpdate.class, e -> record(first, e, latch));
+        eventBus.subscribe(
+                "second",
+                "update-threat-levels",
+                ThreatUpdate.class,
+                e -> record(second, e, latch));
+        ThreatUpdate threatUpdate = new ThreatUpdate();
+        threatUpdate.setActorId("mob1");
+
+        eventBus.publish("update-threat-levels", threatUpdate);
+        threatUpdate.setActorId("changed after publishing");
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(first.get(0)).isNotSameAs(second.get(0)).isNotSameAs(threatUpdate);
+        assertThat(first.get(0).getActorId()).isEqualTo("mob1");
+        assertThat(second.get(0).getActorId()).isEqualTo("mob1");
+    }
+
+    @Test
+    void eventsAreDroppedWhenTheRingIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        eventBus.subscribe(
+                "group",
+                "topic",
+                Integer.class,
+                e -> {
+                    started.countDown();
+                    await(release);
+                });
+
+        eventBus.publish("topic", 0);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 16; i++) {
+            assertThat(eventBus.publish("topic", i)).isTrue();
+        }
+
+        assertThat(eventBus.publish("topic", 17)).isFalse();
+        release.countDown();
+    }
+
+    @Test
+    void publishingWithoutSubscribersIsIgnored() {
+        assertThat(eventBus.publish("nobody-listens", "event")).isTrue();
+    }
+
+    private static <T> void record(List<T> received, T event, CountDownLatch latch) {
+        received.add(event);
+        latch.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
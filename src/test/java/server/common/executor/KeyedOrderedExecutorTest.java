@@ -0,0 +1,162 @@
+package server.common.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.configuration.KeyedExecutorConfiguration;
+
+class KeyedOrderedExecutorTest {
+
+    private KeyedOrderedExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        KeyedExecutorConfiguration configuration = new KeyedExecutorConfiguration();
+        configuration.setThreads(4);
+        configuration.setMaxTasksPerTurn(8);
+        executor = new KeyedOrderedExecutor(configuration, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void tasksForOneKeyRunInSubmissionOrder() throws InterruptedException {
+        List<Integer> first = new CopyOnWriteArrayList<>();
+        List<Integer> second = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2_000);
+
+        for (int i = 0; i < 1_000; i++) {
+            int value = i;
+            executor.execute("actor1", () -> record(first, value, latch));
+            executor.execute("actor2", () -> record(second, value, latch));
+        }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Integer> expected = IntStream.range(0, 1_000).boxed().toList();
+        assertThat(first).containsExactlyElementsOf(expected);
+        assertThat(second).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void differentKeysRunInParallel() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(
+                "actor1",
+                () -> {
+                    blocked.countDown();
+                    await(release);
+                });
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // would wait behind actor1 if keys shared a thread
+        executor.execute("actor2", done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void aKeyWaitsForItsRunningTask() throws InterruptedException {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(
+                "actor1",
+                () -> {
+                    blocked.countDown();
+                    await(release);
+                    order.add("first");
+                });
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.execute("actor1", () -> record(order, "second", done));
+
+        assertThat(done.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("first", "second");
+    }
+
+    @Test
+    void aFailedTaskDoesNotStopTheKey() throws InterruptedException {
+        List<String> ran = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(
+                "actor1",
+                () -> {
+                    throw new IllegalStateException("failed");
+                });
+        executor.execute("actor1", () -> record(ran, "after", done));
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).containsExactly("after");
+    }
+
+    @Test
+    void theFutureCompletesOnceTheTaskHasRun() {
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> done = executor.execute("actor1", () -> ran.add("task"));
+
+        done.orTimeout(5, TimeUnit.SECONDS).join();
+        assertThat(ran).containsExactly("task");
+    }
+
+    @Test
+    void executeBlocksWhileTheExecutorIsFull() throws InterruptedException {
+        executor.close();
+        KeyedExecutorConfiguration configuration = new KeyedExecutorConfiguration();
+        configuration.setThreads(2);
+        configuration.setMaxPendingTasks(1);
+        executor = new KeyedOrderedExecutor(configuration, new SimpleMeterRegistry());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch submitted = new CountDownLatch(1);
+        executor.execute("actor1", () -> await(release));
+
+        Thread submitter =
+                new Thread(
+                        () -> {
+                            executor.execute("actor2", () -> {});
+                            submitted.countDown();
+                        });
+        submitter.start();
+
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        release.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+        submitter.join();
+    }
+
+    private static <T> void record(List<T> received, T value, CountDownLatch latch) {
+        received.add(value);
+        latch.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package server.common.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micronaut.configuration.kafka.serde.JsonObjectSerde;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.json.JsonObjectSerializer;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.attribute.stats.model.DamageSource;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.attribute.status.model.Status;
+import server.attribute.status.model.derived.Bleeding;
+import server.attribute.status.model.derived.Dead;
+import server.common.configuration.KafkaSerdeConfiguration;
+import server.common.dto.Motion;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+import server.utils.FeatureFlag;
+
+public class KafkaPayloadCodecTest {
+
+    private static final String CHARACTER_1 = "character1";
+    private static final String MOB_INSTANCE_ID = "9b50e6c6-84d0-467f-b455-6b9c125f9105";
+    private static final Instant NOW = Instant.parse("2024-05-01T10:15:30.123456789Z");
+
+    private final JsonObjectSerializer jsonObjectSerializer =
+            new JsonObjectSerializer(JsonMapper.createDefault());
+
+    private FeatureFlag featureFlag;
+
+    @BeforeEach
+    void setUp() {
+        featureFlag = new FeatureFlag();
+        featureFlag.setEnableKafkaBinarySerde(true);
+    }
+
+    @Test
+    void playerMotionRoundTrip() throws IOException {
+        PlayerMotion playerMotion = new PlayerMotion(CHARACTER_1, motion(), true, NOW);
+
+        assertRoundTrip(KafkaPayloadCodec.PLAYER_MOTION, playerMotion);
+        assertRoundTrip(
+                KafkaPayloadCodec.PLAYER_MOTION, new PlayerMotion(CHARACTER_1, null, null, null));
+    }
+
+    @Test
+    void monsterRoundTrip() throws IOException {
+        Monster monster = new Monster("goblin", MOB_INSTANCE_ID, motion(), NOW, "12345");
+
+        assertRoundTrip(KafkaPayloadCodec.MONSTER, monster);
+    }
+
+    @Test
+    void statsRoundTrip() throws IOException {
+        assertRoundTrip(KafkaPayloadCodec.STATS, stats());
+    }
+
+    @Test
+    void actorStatusRoundTripKeepsStatusTypes() throws IOException {
+        Status bleeding = new Bleeding(NOW, "character2", 12.5);
+        bleeding.setAdded(NOW);
+        ActorStatus actorStatus =
+                new ActorStatus(
+                        CHARACTER_1,
+                        new HashSet<>(Set.of(bleeding, new Dead())),
+                        true,
+                        new HashSet<>(Set.of("CANNOT_ACT")));
+
+        ActorStatus decoded = roundTrip(KafkaPayloadCodec.ACTOR_STATUS, actorStatus);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(actorStatus);
+        assertThat(decoded.getActorStatuses())
+                .hasExactlyElementsOfTypes(
+                        actorStatus.getActorStatuses().stream()
+                                .map(Object::getClass)
+                                .toArray(Class<?>[]::new));
+    }
+
+    @Test
+    void damageUpdateRoundTrip() throws IOException {
+        DamageSource damageSource =
+                new DamageSource(
+                        MOB_INSTANCE_ID,
+                        CHARACTER_1,
+                        "fireball",
+                        null,
+                        new HashMap<>(Map.of("FIRE", 40.0)));
+
+        assertRoundTrip(
+                KafkaPayloadCodec.DAMAGE_UPDATE,
+                new DamageUpdateMessage(damageSource, stats(), stats()));
+        assertRoundTrip(
+                KafkaPayloadCodec.DAMAGE_UPDATE, new DamageUpdateMessage(null, null, stats()));
+    }
+
+    @Test
+    void binaryAndJsonRecordsReadTheSame() {
+        BinaryKafkaSerde<PlayerMotion> serde = serde(KafkaPayloadCodec.PLAYER_MOTION);
+        PlayerMotion playerMotion = new PlayerMotion(CHARACTER_1, motion(), true, NOW);
+
+        byte[] binary = serde.serialize("player-motion-update", playerMotion);
+        byte[] json = jsonSerde(PlayerMotion.class).serialize("player-motion-update", playerMotion);
+
+        assertThat(KafkaPayloadCodec.isBinary(binary)).isTrue();
+        assertThat(KafkaPayloadCodec.isBinary(json)).isFalse();
+        assertThat(binary.length).isLessThan(json.length);
+        assertThat(serde.deserialize("player-motion-update", binary))
+                .isEqualTo(serde.deserialize("player-motion-update", json))
+                .isEqualTo(playerMotion);
+    }
+
+    @Test
+    void onlyConfiguredTopicsAreWrittenAsBinary() {
+        BinaryKafkaSerde<Monster> serde = serde(KafkaPayloadCodec.MONSTER);
+        Monster monster = new Monster("goblin", MOB_INSTANCE_ID, motion(), NOW, null);
+
+        assertThat(KafkaPayloadCodec.isBinary(serde.serialize("mob-motion-update", monster)))
+                .isTrue();
+        assertThat(KafkaPayloadCodec.isBinary(serde.serialize("create-mob", monster))).isFalse();
+
+        featureFlag.setEnableKafkaBinarySerde(false);
+        assertThat(KafkaPayloadCodec.isBinary(serde.serialize("mob-motion-update", monster)))
+                .isFalse();
+    }
+
+    @Test
+    void nodeTopicsFollowTheirTopic() {
+        BinaryKafkaSerde<Stats> serde = serde(KafkaPayloadCodec.STATS);
+
+        assertThat(KafkaPayloadCodec.isBinary(serde.serialize("update-actor-stats.node1", stats())))
+                .isTrue();
+    }
+
+    @Test
+    void unknownVersionsAndTruncatedRecordsAreRejected() {
+        BinaryKafkaSerde<Stats> serde = serde(KafkaPayloadCodec.STATS);
+        byte[] binary = KafkaPayloadCodec.encode(KafkaPayloadCodec.STATS, stats());
+
+        byte[] future = binary.clone();
+        future[2] = KafkaPayloadCodec.VERSION + 1;
+        assertThatThrownBy(() -> serde.deserialize("update-actor-stats", future))
+                .isInstanceOf(SerializationException.class);
+
+        byte[] truncated = Arrays.copyOf(binary, binary.length - 3);
+        assertThatThrownBy(() -> serde.deserialize("update-actor-stats", truncated))
+                .isInstanceOf(SerializationException.class);
+
+        assertThatThrownBy(() -> KafkaPayloadCodec.decode(KafkaPayloadCodec.MONSTER, binary))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void largePayloadsGrowTheBuffer() throws IOException {
+        Stats stats = stats();
+        for (int i = 0; i < 500; i++) {
+            stats.getDerivedStats().put("derived-" + i, (double) i);
+        }
+
+        assertRoundTrip(KafkaPayloadCodec.STATS, stats);
+    }
+
+    private <T> void assertRoundTrip(KafkaPayloadCodec.Schema<T> schema, T value)
+            throws IOException {
+        assertThat(roundTrip(schema, value)).usingRecursiveComparison().isEqualTo(value);
+    }
+
+    private static <T> T roundTrip(KafkaPayloadCodec.Schema<T> schema, T value)
+            throws IOException {
+        return KafkaPayloadCodec.decode(schema, KafkaPayloadCodec.encode(schema, value));
+    }
+
+    private <T> BinaryKafkaSerde<T> serde(KafkaPayloadCodec.Schema<T> schema) {
+        return new BinaryKafkaSerde<>(
+                schema,
+                jsonSerde(schema.payloadType()),
+                new KafkaSerdeConfiguration(),
+                featureFlag);
+    }
+
+    private <T> JsonObjectSerde<T> jsonSerde(Class<T> type) {
+        return new JsonObjectSerde<>(jsonObjectSerializer, type);
+    }
+
+    private static Motion motion() {
+        return new Motion("tooksworth", 240, 350, -230, 0, 0, 90, 10, 0, -5, true);
+    }
+
+    private static Stats stats() {
+        return new Stats(
+                CHARACTER_1,
+                new HashMap<>(Map.of("STR", 15, "DEX", 12)),
+                new HashMap<>(Map.of("MAX_HP", 250.0, "PHY_AMP", 1.05)),
+                new HashMap<>(Map.of("MAX_HP", 20.0)),
+                new HashMap<>(),
+                3);
+    }
+}
@@ -0,0 +1,111 @@
+package server.common.spatial;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.dto.Location;
+
+public class SpatialGridTest {
+
+    private static final String MAP = "tooksworth";
+
+    private SpatialGrid<String> grid;
+
+    @BeforeEach
+    void setUp() {
+        grid = new SpatialGrid<>(100);
+    }
+
+    @Test
+    void findsEntriesWithinTheSquare() {
+        grid.put("a", location(MAP, 0, 0), "a");
+        grid.put("b", location(MAP, 250, -250), "b");
+        grid.put("c", location(MAP, 251, 0), "c");
+
+        assertThat(grid.query(location(MAP, 0, 0), 250)).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void entriesOnOtherMapsAreIgnored() {
+        grid.put("a", location(MAP, 0, 0), "a");
+        grid.put("b", location("other", 0, 0), "b");
+
+        assertThat(grid.query(location(MAP, 0, 0), 10)).containsExactly("a");
+    }
+
+    @Test
+    void movedEntryIsOnlyFoundAtItsNewPosition() {
+        grid.put("a", location(MAP, 0, 0), "a");
+        grid.put("a", location(MAP, 10_000, -10_000), "a");
+
+        assertThat(grid.query(location(MAP, 0, 0), 500)).isEmpty();
+        assertThat(grid.query(location(MAP, 10_000, -10_000), 0)).containsExactly("a");
+        assertThat(grid.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removedEntriesAreNotFound() {
+        grid.put("a", location(MAP, 0, 0), "a");
+        grid.put("b", location(MAP, 5, 5), "b");
+
+        grid.remove("a");
+        grid.removeIf(value -> value.equals("b"));
+
+        assertThat(grid.query(location(MAP, 0, 0), 100)).isEmpty();
+        assertThat(grid.get("a")).isNull();
+    }
+
+    @Test
+    void entryWithoutPositionIsRemoved() {
+        grid.put("a", location(MAP, 0, 0), "a");
+
+        grid.put("a", new Location(MAP, null, null, null), "a");
+
+        assertThat(grid.get("a")).isNull();
+        assertThat(grid.query(location(MAP, 0, 0), 100)).isEmpty();
+    }
+
+    @Test
+    void listenersAreOnlyToldAboutCellChanges() {
+        List<String> changes = new ArrayList<>();
+        grid.addListener(
+                (id, previous, current) ->
+                        changes.add(id + ":" + describe(previous) + "->" + describe(current)));
+
+        grid.put("a", location(MAP, 10, 10), "a");
+        grid.put("a", location(MAP, 90, 90), "a");
+        grid.put("a", location(MAP, 110, 90), "a");
+        grid.remove("a");
+
+        assertThat(changes)
+                .containsExactly("a:none->10,10", "a:90,90->110,90", "a:110,90->none");
+    }
+
+    @Test
+    void removeIfTellsListeners() {
+        List<String> removed = new ArrayList<>();
+        grid.addListener(
+                (id, previous, current) -> {
+                    if (current == null) {
+                        removed.add(id);
+                    }
+                });
+        grid.put("a", location(MAP, 0, 0), "a");
+        grid.put("b", location(MAP, 0, 0), "b");
+
+        grid.removeIf(value -> value.equals("b"));
+
+        assertThat(removed).containsExactly("b");
+    }
+
+    private String describe(Location location) {
+        return location == null ? "none" : location.getX() + "," + location.getY();
+    }
+
+    private Location location(String map, int x, int y) {
+        return new Location(map, x, y, 0);
+    }
+}
@@ -0,0 +1,148 @@
+package server.motion.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.configuration.ActorPositionStoreConfiguration;
+import server.common.dto.Motion;
+
+public class ActorPositionStoreTest {
+
+    private static final String ACTOR = "character1";
+
+    private ActorPositionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ActorPositionStore(new ActorPositionStoreConfiguration());
+    }
+
+    @Test
+    void storedMotionIsReadBack() {
+        Motion motion = new Motion("tooksworth", 1, -2, 3, 4, 5, 6, 7, 8, 9, true);
+
+        store.write(ACTOR, motion);
+
+        assertThat(store.read(ACTOR)).isEqualTo(motion);
+        assertThat(store.getUpdatedAtNanos(ACTOR)).isPositive();
+    }
+
+    @Test
+    void missingFieldsStayMissing() {
+        Motion motion = Motion.builder().map("tooksworth").x(1).y(2).z(3).build();
+
+        store.write(ACTOR, motion);
+
+        assertThat(store.read(ACTOR)).isEqualTo(motion);
+    }
+
+    @Test
+    void removedActorsAreNotRead() {
+        store.write(ACTOR, motion(1));
+
+        store.remove(ACTOR);
+
+        assertThat(store.read(ACTOR)).isNull();
+        assertThat(store.getUpdatedAtNanos(ACTOR)).isEqualTo(-1);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void freedSlotsAreReused() {
+        ActorPositionStoreConfiguration configuration = new ActorPositionStoreConfiguration();
+        configuration.setCapacity(1);
+        store = new ActorPositionStore(configuration);
+
+        // capacity is rounded up to a page
+        for (int i = 0; i < 4096; i++) {
+            assertThat(store.write("actor" + i, motion(i))).isTrue();
+        }
+        assertThat(store.write("one too many", motion(0))).isFalse();
+
+        store.remove("actor0");
+
+        assertThat(store.write("one too many", motion(5))).isTrue();
+        assertThat(store.read("one too many").getX()).isEqualTo(5);
+    }
+
+    @Test
+    void readersNeverSeeAHalfWrittenMotion() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger torn = new AtomicInteger();
+        store.write(ACTOR, motion(0));
+
+        Thread writer =
+                new Thread(
+                        () -> {
+                            for (int i = 0; i < 200_000; i++) {
+                                store.write(ACTOR, motion(i));
+                            }
+                            running.set(false);
+                        });
+        Thread reader =
+                new Thread(
+                        () -> {
+                            while (running.get()) {
+                                Motion motion = store.read(ACTOR);
+                                if (!motion.getX().equals(motion.getY())) {
+                                    torn.incrementAndGet();
+                                }
+                            }
+                        });
+
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertThat(torn.get()).isZero();
+    }
+
+    @Test
+    void reusedSlotsAreNeverReadAsTheRemovedActor() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger mixedUp = new AtomicInteger();
+
+        Thread first = churn("first", 1, running);
+        Thread second = churn("second", 2, running);
+        Thread reader =
+                new Thread(
+                        () -> {
+                            while (running.get()) {
+                                Motion motion = store.read("first");
+                                if (motion != null && motion.getX() != 1) {
+                                    mixedUp.incrementAndGet();
+                                }
+                            }
+                        });
+
+        first.start();
+        second.start();
+        reader.start();
+        first.join();
+        second.join();
+        reader.join();
+
+        assertThat(mixedUp.get()).isZero();
+        assertThat(store.size()).isZero();
+    }
+
+    // writes and removes the actor, so the two churning actors keep taking each other's slot
+    private Thread churn(String actorId, int position, AtomicBoolean running) {
+        return new Thread(
+                () -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        store.write(actorId, motion(position));
+                        store.remove(actorId);
+                    }
+                    running.set(false);
+                });
+    }
+
+    private Motion motion(int position) {
+        return Motion.builder().map("tooksworth").x(position).y(position).z(0).build();
+    }
+}
@@ -0,0 +1,194 @@
+package server.motion.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import server.common.configuration.MotionPersistenceConfiguration;
+import server.common.dto.Motion;
+import server.monster.server_integration.repository.MobRepository;
+
+public class MotionWriteBehindBufferTest {
+
+    private static final String MOB_ID = "9b1deb4d3b7d4bad9bdd2b0d7b3dcb6d";
+
+    private MotionWriteBehindBuffer buffer;
+
+    private PlayerMotionRepository playerMotionRepository;
+
+    private MobRepository mobRepository;
+
+    private MotionPersistenceConfiguration configuration;
+
+    @BeforeEach
+    void setUp() {
+        playerMotionRepository = mock(PlayerMotionRepository.class);
+        mobRepository = mock(MobRepository.class);
+        configuration = new MotionPersistenceConfiguration();
+
+        when(playerMotionRepository.bulkUpdateMotion(any()))
+                .thenReturn(Single.just(BulkWriteResult.unacknowledged()));
+        when(mobRepository.bulkUpdateMotion(any()))
+                .thenReturn(Single.just(BulkWriteResult.unacknowledged()));
+
+        buffer = new MotionWriteBehindBuffer();
+        buffer.playerMotionRepository = playerMotionRepository;
+        buffer.mobRepository = mobRepository;
+        buffer.configuration = configuration;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void latestMotionPerActorIsWrittenOncePerCollection() {
+        buffer.add("player1", motion(1));
+        buffer.add("player1", motion(2));
+        buffer.add("player2", motion(3));
+        buffer.add(MOB_ID, motion(4));
+
+        buffer.flush().blockingAwait();
+
+        ArgumentCaptor<Map<String, Motion>> players = ArgumentCaptor.forClass(Map.class);
+        verify(playerMotionRepository).bulkUpdateMotion(players.capture());
+        assertThat(players.getValue()).containsOnlyKeys("player1", "player2");
+        assertThat(players.getValue().get("player1").getX()).isEqualTo(2);
+        verify(mobRepository).bulkUpdateMotion(Map.of(MOB_ID, motion(4)));
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void batchesAreBounded() {
+        configuration.setMaxBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            buffer.add("player" + i, motion(i));
+        }
+
+        buffer.flush().blockingAwait();
+
+        verify(playerMotionRepository, times(3)).bulkUpdateMotion(any());
+    }
+
+    @Test
+    void onlyFailedWritesAreRetried() {
+        buffer.add("player1", motion(1));
+        buffer.add("player2", motion(2));
+        when(playerMotionRepository.bulkUpdateMotion(any()))
+                .thenReturn(Single.error(bulkWriteFailure(1)));
+
+        buffer.flush().blockingAwait();
+
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.discard("player2")).isEqualTo(motion(2));
+    }
+
+    @Test
+    void newerMotionReplacesFailedWrite() {
+        buffer.add("player1", motion(1));
+        when(playerMotionRepository.bulkUpdateMotion(any()))
+                .thenAnswer(
+                        invocation -> {
+                            buffer.add("player1", motion(5));
+                            return Single.error(new IllegalStateException("down"));
+                        });
+
+        buffer.flush().blockingAwait();
+
+        assertThat(buffer.discard("player1")).isEqualTo(motion(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void slowFailedWriteIsNotPutBackOverANewerOne() {
+        buffer.add("player1", motion(1));
+        buffer.add("player2", motion(2));
+        SingleSubject<BulkWriteResult> slow = SingleSubject.create();
+        when(playerMotionRepository.bulkUpdateMotion(any()))
+                .thenReturn(slow)
+                .thenReturn(Single.just(BulkWriteResult.unacknowledged()));
+        buffer.flush().subscribe();
+
+        // the next flush starts while the first write is still under way
+        buffer.add("player1", motion(5));
+        buffer.add("player3", motion(3));
+        buffer.flush().blockingAwait();
+        slow.onError(new IllegalStateException("down"));
+        buffer.flush().blockingAwait();
+
+        ArgumentCaptor<Map<String, Motion>> writes = ArgumentCaptor.forClass(Map.class);
+        verify(playerMotionRepository, times(3)).bulkUpdateMotion(writes.capture());
+        assertThat(writes.getAllValues().get(1)).containsOnlyKeys("player3");
+        // player1's newer motion was held back, player2 goes back in as nothing replaced it
+        assertThat(writes.getAllValues().get(2))
+                .isEqualTo(Map.of("player1", motion(5), "player2", motion(2)));
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void failedWritesAreDroppedAfterMaxAttempts() {
+        configuration.setMaxAttempts(2);
+        buffer.add("player1", motion(1));
+        when(playerMotionRepository.bulkUpdateMotion(any()))
+                .thenReturn(Single.error(new IllegalStateException("down")));
+
+        buffer.flush().blockingAwait();
+        buffer.flush().blockingAwait();
+
+        assertThat(buffer.size()).isZero();
+        verify(mobRepository, never()).bulkUpdateMotion(any());
+    }
+
+    @Test
+    void discardWaitsForTheInFlightWrite() {
+        buffer.add("player1", motion(1));
+        SingleSubject<BulkWriteResult> write = SingleSubject.create();
+        when(playerMotionRepository.bulkUpdateMotion(any())).thenReturn(write);
+        buffer.flush().subscribe();
+
+        TestObserver<Void> discarded = buffer.discardAfterInFlight("player1").test();
+        discarded.assertNotComplete();
+
+        write.onError(new IllegalStateException("down"));
+
+        // the failed write went back in the buffer, and is dropped instead of retried
+        discarded.assertComplete();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void discardCompletesStraightAwayWithoutAWriteUnderWay() {
+        buffer.add("player1", motion(1));
+
+        buffer.discardAfterInFlight("player1").test().assertComplete();
+        assertThat(buffer.size()).isZero();
+    }
+
+    private MongoBulkWriteException bulkWriteFailure(int index) {
+        return new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(1, "failed", new BsonDocument(), index)),
+                null,
+                new ServerAddress(),
+                Set.of());
+    }
+
+    private Motion motion(int x) {
+        return Motion.builder().map("tooksworth").x(x).y(0).z(0).build();
+    }
+}
@@ -0,0 +1,105 @@
+package server.motion.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.configuration.DeadReckoningConfiguration;
+import server.common.dto.Motion;
+import server.utils.FeatureFlag;
+
+public class DeadReckoningServiceTest {
+
+    private static final String ACTOR = "character1";
+
+    private DeadReckoningService deadReckoningService;
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        FeatureFlag featureFlag = new FeatureFlag();
+        featureFlag.setEnableDeadReckoning(true);
+
+        deadReckoningService = new DeadReckoningService();
+        deadReckoningService.configuration = new DeadReckoningConfiguration();
+        deadReckoningService.featureFlag = featureFlag;
+        deadReckoningService.clock = () -> now;
+    }
+
+    @Test
+    void straightLineMovementIsOnlyRelayedOnce() {
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(0, 100))).isTrue();
+
+        now = 200;
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(20, 100))).isFalse();
+        now = 400;
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(40, 100))).isFalse();
+    }
+
+    @Test
+    void driftPastTheThresholdIsRelayed() {
+        deadReckoningService.shouldRelay(ACTOR, motion(0, 100));
+
+        now = 200;
+        // predicted at 20, 100 units off
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(120, 100))).isTrue();
+    }
+
+    @Test
+    void velocityChangeIsRelayed() {
+        deadReckoningService.shouldRelay(ACTOR, motion(0, 100));
+
+        now = 100;
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(10, 0))).isTrue();
+    }
+
+    @Test
+    void turningIsRelayed() {
+        deadReckoningService.shouldRelay(ACTOR, motion(0, 100, 350));
+
+        now = 100;
+        // 5 degrees the short way round
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(10, 100, -5))).isFalse();
+        now = 200;
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(20, 100, 30))).isTrue();
+    }
+
+    @Test
+    void heartbeatIsRelayedWhenThePredictionHolds() {
+        deadReckoningService.shouldRelay(ACTOR, motion(0, 100));
+
+        now = 1_000;
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion(100, 100))).isTrue();
+    }
+
+    @Test
+    void positionIsExtrapolatedFromTheLastUpdate() {
+        deadReckoningService.shouldRelay(ACTOR, motion(0, 100));
+
+        now = 500;
+        assertThat(deadReckoningService.extrapolate(ACTOR, null).getX()).isEqualTo(50);
+
+        // held in place once the prediction runs past the limit
+        now = 5_000;
+        assertThat(deadReckoningService.extrapolate(ACTOR, null).getX()).isEqualTo(100);
+    }
+
+    @Test
+    void everythingIsRelayedWhenDisabled() {
+        deadReckoningService.featureFlag.setEnableDeadReckoning(false);
+        Motion motion = motion(0, 100);
+
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion)).isTrue();
+        assertThat(deadReckoningService.shouldRelay(ACTOR, motion)).isTrue();
+        assertThat(deadReckoningService.extrapolate(ACTOR, motion)).isSameAs(motion);
+    }
+
+    private Motion motion(int x, int vx) {
+        return motion(x, vx, 0);
+    }
+
+    private Motion motion(int x, int vx, int yaw) {
+        return new Motion("tooksworth", x, 0, 0, 0, 0, yaw, vx, 0, 0, false);
+    }
+}
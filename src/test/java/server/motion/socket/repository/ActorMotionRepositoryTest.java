@@ -10,12 +10,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import server.common.configuration.ActorPositionStoreConfiguration;
 import server.common.dto.Motion;
 import server.common.uuid.UUIDHelper;
 import server.monster.server_integration.model.Monster;
 import server.monster.server_integration.repository.MobRepository;
 import server.motion.dto.PlayerMotion;
 import server.motion.repository.ActorMotionRepository;
+import server.motion.repository.ActorPositionStore;
+import server.motion.repository.MotionWriteBehindBuffer;
 import server.motion.repository.PlayerMotionRepository;
 
 import java.util.UUID;
@@ -33,6 +37,13 @@ public class ActorMotionRepositoryTest {
     @Mock
     private MobRepository mobRepository;
 
+    @Mock
+    private MotionWriteBehindBuffer motionWriteBehindBuffer;
+
+    @Spy
+    private ActorPositionStore actorPositionStore =
+            new ActorPositionStore(new ActorPositionStoreConfiguration());
+
     @InjectMocks
     private ActorMotionRepository actorMotionRepository;
 
@@ -89,37 +100,25 @@ public class ActorMotionRepositoryTest {
         expectedPlayerMotion.setActorId(actorId);
         expectedPlayerMotion.setMotion(motion);
 
-        // prepare update requests
-        when(playerMotionRepository.updateMotion(anyString(), any(PlayerMotion.class)))
-                .thenReturn(Single.just(expectedPlayerMotion));
-        when(mobRepository.updateMotionOnly(actorId, motion))
-                .thenReturn(Single.just(expectedMob));
-
-        // prepare read requests
-        when(playerMotionRepository.fetchPlayerMotion(actorId)).thenReturn(Single.just(expectedPlayerMotion));
-        when(mobRepository.findMobInstance(actorId)).thenReturn(Single.just(expectedMob));
-
         Motion updatedMotion = actorMotionRepository.updateActorMotion(actorId, motion);
         assertThat(updatedMotion).isEqualTo(motion);
 
+        // persisted later by the write behind buffer, only the grid is updated straight away
+        verify(motionWriteBehindBuffer).add(actorId, motion);
         if (UUIDHelper.isPlayer(actorId)) {
-            verify(playerMotionRepository).updateMotion(anyString(), any(PlayerMotion.class));
+            verify(playerMotionRepository).indexPlayerMotion(any(PlayerMotion.class));
             verifyNoInteractions(mobRepository);
         } else {
-            verify(mobRepository).updateMotionOnly(eq(actorId), eq(motion));
+            verify(mobRepository).indexMobMotion(actorId, motion);
             verifyNoInteractions(playerMotionRepository);
         }
 
+        // served from the position store, without going to mongo
         Motion resultMotion = actorMotionRepository.fetchActorMotion(actorId).blockingGet();
         assertThat(resultMotion).isEqualTo(motion);
 
-        if (UUIDHelper.isPlayer(actorId)) {
-            verify(playerMotionRepository).fetchPlayerMotion(eq(actorId));
-            verifyNoInteractions(mobRepository);
-        } else {
-            verify(mobRepository).findMobInstance(eq(actorId));
-            verifyNoInteractions(playerMotionRepository);
-        }
+        verify(playerMotionRepository, never()).fetchPlayerMotion(anyString());
+        verify(mobRepository, never()).findMobInstance(anyString());
     }
 
 }
@@ -0,0 +1,72 @@
+package server.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micronaut.websocket.WebSocketSession;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.socket.session.FakeSession;
+
+public class SessionStateTest {
+
+    private static final String CHARACTER_1 = "character1";
+    private static final String MOB_1 = "9b50e6c6-84d0-467f-b455-6b9c125f9105";
+
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = new FakeSession();
+    }
+
+    @Test
+    void stateIsAttachedOnce() {
+        assertThat(SessionState.of(session)).isSameAs(SessionState.of(session));
+    }
+
+    @Test
+    void playerActorIdMakesAPlayerSession() {
+        SessionParamHelper.setActorId(session, CHARACTER_1);
+
+        assertThat(SessionParamHelper.getActorId(session)).isEqualTo(CHARACTER_1);
+        assertThat(SessionParamHelper.getIsPlayer(session)).isTrue();
+        assertThat(SessionParamHelper.getIsServer(session)).isFalse();
+    }
+
+    @Test
+    void serverNameMakesAServerSession() {
+        SessionParamHelper.setServerName(session, "server1");
+
+        assertThat(SessionState.of(session).isServer()).isTrue();
+        assertThat(SessionState.of(session).isPlayer()).isFalse();
+    }
+
+    @Test
+    void newSessionHasNoActorAndTracksNothing() {
+        SessionState state = SessionState.of(session);
+
+        assertThat(state.getActorId()).isEmpty();
+        assertThat(state.isPlayer()).isFalse();
+        assertThat(state.isServer()).isFalse();
+        assertThat(state.tracks(CHARACTER_1)).isFalse();
+    }
+
+    @Test
+    void trackingSetsAreSnapshots() {
+        Set<String> mobs = new HashSet<>(Set.of(MOB_1));
+        SessionState state = SessionState.of(session);
+        state.setTrackingMobs(mobs);
+
+        // changing the set that was passed in does not change what the session tracks
+        mobs.clear();
+
+        assertThat(state.tracksMob(MOB_1)).isTrue();
+        assertThat(state.tracks(MOB_1)).isTrue();
+        assertThat(state.tracksPlayer(MOB_1)).isFalse();
+        assertThatThrownBy(() -> state.getTrackingMobs().add(CHARACTER_1))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
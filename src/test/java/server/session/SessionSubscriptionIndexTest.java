@@ -0,0 +1,79 @@
+package server.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.micronaut.websocket.WebSocketSession;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.session.cluster.NodeInterestRegistry;
+import server.socket.session.FakeSession;
+
+public class SessionSubscriptionIndexTest {
+
+    private static final String CHARACTER_1 = "character1";
+    private static final String CHARACTER_2 = "character2";
+    private static final String MOB_1 = "9b50e6c6-84d0-467f-b455-6b9c125f9105";
+
+    private SessionSubscriptionIndex index;
+
+    private WebSocketSession session1;
+    private WebSocketSession session2;
+
+    @BeforeEach
+    void setUp() {
+        index = new SessionSubscriptionIndex();
+        index.sessionParamHelper = new SessionParamHelper();
+        index.nodeInterest = mock(NodeInterestRegistry.class);
+
+        session1 = new FakeSession();
+        session2 = new FakeSession();
+    }
+
+    @Test
+    void trackingPlayersAreIndexed() {
+        index.setTrackingPlayers(session1, Set.of(CHARACTER_2));
+        index.setTrackingPlayers(session2, Set.of(CHARACTER_1, CHARACTER_2));
+
+        assertThat(index.getPlayerSubscribers(CHARACTER_2))
+                .containsExactlyInAnyOrder(session1, session2);
+        assertThat(index.getPlayerSubscribers(CHARACTER_1)).containsExactly(session2);
+        assertThat(SessionParamHelper.getTrackingPlayers(session2))
+                .containsExactlyInAnyOrder(CHARACTER_1, CHARACTER_2);
+    }
+
+    @Test
+    void lostActorsAreUnsubscribed() {
+        index.setTrackingPlayers(session1, Set.of(CHARACTER_1, CHARACTER_2));
+
+        index.setTrackingPlayers(session1, Set.of(CHARACTER_2));
+
+        assertThat(index.getPlayerSubscribers(CHARACTER_1)).isEmpty();
+        assertThat(index.getPlayerSubscribers(CHARACTER_2)).containsExactly(session1);
+    }
+
+    @Test
+    void addAndRemoveTrackedMob() {
+        index.addTrackingMobs(session1, Set.of(MOB_1));
+        index.addTrackingMobs(session2, Set.of(MOB_1));
+
+        assertThat(index.getMobSubscribers(MOB_1)).containsExactlyInAnyOrder(session1, session2);
+
+        index.removeTrackedMob(MOB_1);
+
+        assertThat(index.getMobSubscribers(MOB_1)).isEmpty();
+        assertThat(SessionParamHelper.getTrackingMobs(session1)).isEmpty();
+    }
+
+    @Test
+    void removedSessionIsNoLongerASubscriber() {
+        index.setTrackingPlayers(session1, Set.of(CHARACTER_2));
+        index.setTrackingMobs(session1, Set.of(MOB_1));
+
+        index.removeSession(session1);
+
+        assertThat(index.getPlayerSubscribers(CHARACTER_2)).isEmpty();
+        assertThat(index.getMobSubscribers(MOB_1)).isEmpty();
+    }
+}
@@ -0,0 +1,252 @@
+package server.session.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.micronaut.websocket.WebSocketSession;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import server.combat.model.CombatData;
+import server.combat.model.CombatState;
+import server.common.configuration.CombatDataCacheConfiguration;
+import server.session.SessionSubscriptionIndex;
+
+class CombatDataCacheTest {
+
+    private static final String CHARACTER_1 = "character1";
+
+    private static final String KEY_1 = "COMBAT_DATA_character1";
+
+    // connected to another node
+    private static final String CHARACTER_2 = "character2";
+
+    private static final String KEY_2 = "COMBAT_DATA_character2";
+
+    private RedisAsyncCommands<String, CombatData> commands;
+
+    private CombatDataCacheConfiguration configuration;
+
+    private CombatDataCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        commands = mock(RedisAsyncCommands.class);
+        StatefulRedisConnection<String, CombatData> connection =
+                mock(StatefulRedisConnection.class);
+        RedisClient redisClient = mock(RedisClient.class);
+        when(redisClient.connect(any(RedisCodec.class))).thenReturn(connection);
+        when(connection.async()).thenReturn(commands);
+
+        when(commands.get(KEY_1)).thenReturn(completed(null));
+        when(commands.mset(anyMap())).thenReturn(completed("OK"));
+        when(commands.del(any(String[].class))).thenReturn(completed(1L));
+        when(commands.set(any(), any())).thenReturn(completed("OK"));
+
+        SessionSubscriptionIndex subscriptionIndex = mock(SessionSubscriptionIndex.class);
+        when(subscriptionIndex.getActorSession(CHARACTER_1))
+                .thenReturn(mock(WebSocketSession.class));
+
+        configuration = new CombatDataCacheConfiguration();
+        cache = new CombatDataCache(redisClient, configuration, () -> subscriptionIndex);
+    }
+
+    @Test
+    void redisIsOnlyReadTheFirstTimeAnActorIsTouched() {
+        CombatData first = cache.get(CHARACTER_1);
+        CombatData second = cache.get(CHARACTER_1);
+
+        assertThat(first.getActorId()).isEqualTo(CHARACTER_1);
+        assertThat(second).isSameAs(first);
+        verify(commands, times(1)).get(KEY_1);
+    }
+
+    @Test
+    void actorsAreCarriedOnFromRedis() {
+        CombatData replicated = new CombatData(CHARACTER_1);
+        replicated.setCombatState("replicated");
+        when(commands.get(KEY_1)).thenReturn(completed(replicated));
+
+        assertThat(cache.get(CHARACTER_1).getCombatState()).isEqualTo("replicated");
+
+        // nothing changed since it was read
+        cache.flush().blockingAwait();
+        verify(commands, never()).mset(anyMap());
+    }
+
+    @Test
+    void changesAreReplicatedOncePerFlush() {
+        CombatData combatData = cache.get(CHARACTER_1);
+        combatData.setCombatState("attacking");
+        cache.put(CHARACTER_1, combatData);
+
+        cache.flush().blockingAwait();
+        cache.flush().blockingAwait();
+
+        verify(commands, times(1)).mset(Map.of(KEY_1, combatData));
+    }
+
+    @Test
+    void removedActorsAreDeletedFromRedis() {
+        cache.get(CHARACTER_1);
+        cache.put(CHARACTER_1, null);
+
+        cache.flush().blockingAwait();
+
+        verify(commands).del(KEY_1);
+        verify(commands, never()).mset(anyMap());
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void removedActorsAreNotReadBackBeforeRedisDeletesThem() {
+        CombatData replicated = new CombatData(CHARACTER_1);
+        replicated.setCombatState("replicated");
+        when(commands.get(KEY_1)).thenReturn(completed(replicated));
+        TestRedisFuture<Long> deleting = new TestRedisFuture<>();
+        when(commands.del(any(String[].class))).thenReturn(deleting);
+        cache.get(CHARACTER_1);
+        cache.put(CHARACTER_1, null);
+
+        cache.flush().subscribe();
+        CombatData recreated = cache.get(CHARACTER_1);
+        deleting.complete(1L);
+
+        assertThat(recreated.getCombatState()).isEqualTo(CombatState.IDLE.getType());
+        verify(commands, times(1)).get(KEY_1);
+        // the recreated entry outlives the delete, and replaces it in redis
+        assertThat(cache.get(CHARACTER_1)).isSameAs(recreated);
+        cache.flush().blockingAwait();
+        verify(commands).mset(Map.of(KEY_1, recreated));
+    }
+
+    @Test
+    void actorsOwnedByAnotherNodeAreReadFromRedisAndWrittenThrough() {
+        CombatData replicated = new CombatData(CHARACTER_2);
+        when(commands.get(KEY_2)).thenReturn(completed(replicated));
+
+        CombatData combatData = cache.get(CHARACTER_2);
+        cache.get(CHARACTER_2);
+        combatData.setCombatState("attacking");
+        cache.put(CHARACTER_2, combatData);
+        cache.put(CHARACTER_2, null);
+        cache.flush().blockingAwait();
+
+        verify(commands, times(2)).get(KEY_2);
+        verify(commands).set(KEY_2, combatData);
+        verify(commands).del(KEY_2);
+        verify(commands, never()).mset(anyMap());
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replicatedEntriesAreSnapshotsOfTheCombatData() {
+        CombatData combatData = cache.get(CHARACTER_1);
+        combatData.getTargets().add("mob1");
+
+        cache.flush().blockingAwait();
+        combatData.getTargets().clear();
+
+        ArgumentCaptor<Map<String, CombatData>> writes = ArgumentCaptor.forClass(Map.class);
+        verify(commands).mset(writes.capture());
+        assertThat(writes.getValue().get(KEY_1)).isNotSameAs(combatData);
+        assertThat(writes.getValue().get(KEY_1).getTargets()).containsExactly("mob1");
+    }
+
+    @Test
+    void entriesChangedByCombatWhileFlushingAreStillReplicated() throws Exception {
+        CombatData combatData = cache.get(CHARACTER_1);
+        AtomicBoolean fighting = new AtomicBoolean(true);
+        Thread combat =
+                new Thread(
+                        () -> {
+                            for (int i = 0; fighting.get(); i++) {
+                                combatData.getTargets().add("mob" + i % 64);
+                                combatData.getTargets().remove("mob" + (i + 32) % 64);
+                                combatData.getActivatedSkills().put("skill" + i % 8, Instant.now());
+                            }
+                        });
+        combat.start();
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(CHARACTER_1, combatData);
+            cache.flush().blockingAwait();
+        }
+        fighting.set(false);
+        combat.join();
+
+        verify(commands, times(1_000)).mset(anyMap());
+    }
+
+    @Test
+    void failedWritesAreRetriedOnTheNextFlush() {
+        when(commands.mset(anyMap()))
+                .thenReturn(failed(new IllegalStateException("connection lost")))
+                .thenReturn(completed("OK"));
+        CombatData combatData = cache.get(CHARACTER_1);
+
+        cache.flush().blockingAwait();
+        cache.flush().blockingAwait();
+        cache.flush().blockingAwait();
+
+        verify(commands, times(2)).mset(Map.of(KEY_1, combatData));
+    }
+
+    @Test
+    void idleActorsAreDroppedOnceReplicated() {
+        configuration.setIdleTimeout(Duration.ZERO);
+        cache.get(CHARACTER_1);
+
+        // still waiting to be replicated
+        cache.scheduledFlush();
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.scheduledFlush();
+        assertThat(cache.size()).isZero();
+    }
+
+    private static <T> RedisFuture<T> completed(T value) {
+        TestRedisFuture<T> future = new TestRedisFuture<>();
+        future.complete(value);
+        return future;
+    }
+
+    private static <T> RedisFuture<T> failed(Throwable err) {
+        TestRedisFuture<T> future = new TestRedisFuture<>();
+        future.completeExceptionally(err);
+        return future;
+    }
+
+    private static final class TestRedisFuture<T> extends CompletableFuture<T>
+            implements RedisFuture<T> {
+
+        @Override
+        public String getError() {
+            return isCompletedExceptionally() ? "failed" : null;
+        }
+
+        @Override
+        public boolean await(long timeout, TimeUnit unit) {
+            return isDone();
+        }
+    }
+}
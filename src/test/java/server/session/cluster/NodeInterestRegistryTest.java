@@ -0,0 +1,100 @@
+package server.session.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.configuration.ClusterConfiguration;
+import server.utils.FeatureFlag;
+
+public class NodeInterestRegistryTest {
+
+    private static final String NODE = "node1";
+    private static final String CHARACTER_1 = "character1";
+
+    private NodeInterestRegistry registry;
+
+    private LocalClusterSessionDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        ClusterConfiguration configuration = new ClusterConfiguration();
+        configuration.setNodeId(NODE);
+        FeatureFlag featureFlag = new FeatureFlag();
+        featureFlag.setEnableNodeRouting(true);
+
+        directory = new LocalClusterSessionDirectory();
+        registry = new NodeInterestRegistry();
+        registry.directory = directory;
+        registry.configuration = configuration;
+        registry.featureFlag = featureFlag;
+    }
+
+    @Test
+    void nodeIsRegisteredUntilTheLastReferenceIsReleased() {
+        registry.acquire(CHARACTER_1);
+        registry.acquire(CHARACTER_1);
+        assertThat(directory.getNodes(CHARACTER_1).blockingGet()).containsExactly(NODE);
+
+        registry.release(CHARACTER_1);
+        assertThat(directory.getNodes(CHARACTER_1).blockingGet()).containsExactly(NODE);
+
+        registry.release(CHARACTER_1);
+        assertThat(directory.getNodes(CHARACTER_1).blockingGet()).isEmpty();
+        assertThat(registry.isInterested(CHARACTER_1)).isFalse();
+    }
+
+    @Test
+    void acquireDuringTheLastReleaseLeavesTheNodeRegistered() throws Exception {
+        CountDownLatch unregistering = new CountDownLatch(1);
+        CountDownLatch acquired = new CountDownLatch(1);
+        registry.directory =
+                new LocalClusterSessionDirectory() {
+                    @Override
+                    public void unregister(String nodeId, Collection<String> actorIds) {
+                        unregistering.countDown();
+                        try {
+                            // gives a racing acquire the chance to register first
+                            acquired.await(200, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        super.unregister(nodeId, actorIds);
+                    }
+                };
+        directory = (LocalClusterSessionDirectory) registry.directory;
+        registry.acquire(CHARACTER_1);
+
+        Thread release = new Thread(() -> registry.release(CHARACTER_1));
+        release.start();
+        unregistering.await();
+        registry.acquire(CHARACTER_1);
+        acquired.countDown();
+        release.join();
+
+        assertThat(registry.isInterested(CHARACTER_1)).isTrue();
+        assertThat(directory.getNodes(CHARACTER_1).blockingGet()).containsExactly(NODE);
+    }
+
+    @Test
+    void refreshKeepsTheNodeLiveWithoutActors() {
+        registry.refresh();
+
+        assertThat(directory.getLiveNodes().blockingGet()).containsExactly(NODE);
+    }
+
+    @Test
+    void directoryIsLeftAloneWhenRoutingIsOff() {
+        registry.featureFlag.setEnableNodeRouting(false);
+
+        registry.acquire(CHARACTER_1);
+        registry.refresh();
+
+        assertThat(registry.isInterested(CHARACTER_1)).isTrue();
+        assertThat(directory.getNodes(CHARACTER_1).blockingGet()).isEmpty();
+        assertThat(directory.getLiveNodes().blockingGet()).isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package server.socket.producer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.attribute.stats.model.Stats;
+import server.items.model.DroppedItem;
+import server.motion.dto.PlayerMotion;
+
+public class KafkaUpdateProducerTest {
+
+    private static final String CHARACTER_1 = "character1";
+
+    private LossyUpdateProducer lossy;
+
+    private ReliableUpdateProducer reliable;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private KafkaUpdateProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        lossy = mock(LossyUpdateProducer.class);
+        reliable = mock(ReliableUpdateProducer.class);
+        meterRegistry = new SimpleMeterRegistry();
+        producer = new KafkaUpdateProducer(lossy, reliable, meterRegistry);
+    }
+
+    @Test
+    void motionGoesThroughTheLossyTier() {
+        PlayerMotion playerMotion = new PlayerMotion();
+        CompletableFuture<RecordMetadata> sent = new CompletableFuture<>();
+        when(lossy.sendPlayerMotionUpdate(CHARACTER_1, playerMotion)).thenReturn(sent);
+
+        producer.sendPlayerMotionUpdate(CHARACTER_1, playerMotion);
+
+        verifyNoInteractions(reliable);
+        assertThat(latencyCount("lossy")).isZero();
+
+        // timed up to the acknowledgement
+        sent.complete(null);
+        assertThat(latencyCount("lossy")).isEqualTo(1);
+        assertThat(latencyCount("reliable")).isZero();
+    }
+
+    @Test
+    void itemsAndStatsGoThroughTheReliableTier() {
+        DroppedItem droppedItem = new DroppedItem();
+        Stats stats = new Stats();
+        when(reliable.addItemToMap(droppedItem))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(reliable.updateStats(CHARACTER_1, stats))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        producer.addItemToMap(droppedItem);
+        producer.updateStats(CHARACTER_1, stats);
+
+        verify(reliable).addItemToMap(droppedItem);
+        verify(reliable).updateStats(CHARACTER_1, stats);
+        verifyNoInteractions(lossy);
+        assertThat(latencyCount("reliable")).isEqualTo(2);
+    }
+
+    @Test
+    void failedSendsAreCountedPerTier() {
+        when(lossy.sendMobMotionUpdate(anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("timed out")));
+        when(reliable.updateStats(anyString(), any()))
+                .thenThrow(new TimeoutException("buffer full"));
+
+        producer.sendMobMotionUpdate(CHARACTER_1, null);
+        producer.updateStats(CHARACTER_1, new Stats());
+
+        assertThat(failedCount("lossy")).isEqualTo(1);
+        assertThat(failedCount("reliable")).isEqualTo(1);
+        assertThat(latencyCount("lossy")).isZero();
+    }
+
+    private long latencyCount(String tier) {
+        return meterRegistry.get("kafka.producer.send.latency").tag("tier", tier).timer().count();
+    }
+
+    private double failedCount(String tier) {
+        return meterRegistry.get("kafka.producer.send.failed").tag("tier", tier).counter().count();
+    }
+}
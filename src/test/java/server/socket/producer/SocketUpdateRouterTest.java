@@ -0,0 +1,167 @@
+package server.socket.producer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.attribute.stats.model.DamageUpdateMessage;
+import server.attribute.stats.model.Stats;
+import server.attribute.status.model.ActorStatus;
+import server.combat.model.ThreatUpdate;
+import server.items.model.DroppedItem;
+import server.monster.server_integration.model.Monster;
+import server.monster.server_integration.producer.MonsterServerProducer;
+import server.motion.dto.PlayerMotion;
+import server.motion.producer.PlayerMotionUpdateProducer;
+import server.session.cluster.LocalClusterSessionDirectory;
+import server.utils.FeatureFlag;
+
+public class SocketUpdateRouterTest {
+
+    private static final String CHARACTER_1 = "character1";
+
+    private SocketUpdateRouter router;
+
+    private UpdateProducer updateProducer;
+
+    private NodeUpdateProducer nodeUpdateProducer;
+
+    private PlayerMotionUpdateProducer playerMotionUpdateProducer;
+
+    private MonsterServerProducer monsterServerProducer;
+
+    private LocalClusterSessionDirectory directory;
+
+    private FeatureFlag featureFlag;
+
+    @BeforeEach
+    void setUp() {
+        updateProducer = mock(UpdateProducer.class);
+        nodeUpdateProducer = mock(NodeUpdateProducer.class);
+        playerMotionUpdateProducer = mock(PlayerMotionUpdateProducer.class);
+        monsterServerProducer = mock(MonsterServerProducer.class);
+        directory = new LocalClusterSessionDirectory();
+        featureFlag = new FeatureFlag();
+        featureFlag.setEnableNodeRouting(true);
+
+        router = new SocketUpdateRouter();
+        router.updateProducer = updateProducer;
+        router.nodeUpdateProducer = nodeUpdateProducer;
+        router.playerMotionUpdateProducer = playerMotionUpdateProducer;
+        router.monsterServerProducer = monsterServerProducer;
+        router.directory = directory;
+        router.featureFlag = featureFlag;
+    }
+
+    @Test
+    void updatesGoToTheNodesListeningToTheActor() {
+        directory.register("node1", List.of(CHARACTER_1));
+        directory.register("node2", List.of(CHARACTER_1));
+        directory.register("node3", List.of("character2"));
+        Stats stats = stats();
+
+        router.updateStats(stats);
+
+        verify(nodeUpdateProducer).updateStats("update-actor-stats.node1", CHARACTER_1, stats);
+        verify(nodeUpdateProducer).updateStats("update-actor-stats.node2", CHARACTER_1, stats);
+        verify(nodeUpdateProducer, never())
+                .updateStats("update-actor-stats.node3", CHARACTER_1, stats);
+        verify(updateProducer, never()).updateStats(anyString(), any());
+    }
+
+    @Test
+    void motionResultsGoToTheNodesListeningToTheActor() {
+        String mobId = "9b1deb4d3b7d4bad9bdd2b0d7b3dcb6d";
+        directory.register("node1", List.of(CHARACTER_1, mobId));
+        PlayerMotion playerMotion = new PlayerMotion(CHARACTER_1, null, true, null);
+        Monster monster = new Monster();
+        monster.setActorId(mobId);
+
+        router.sendPlayerMotionResult(playerMotion);
+        router.sendMobUpdateResult(monster);
+
+        verify(playerMotionUpdateProducer)
+                .sendPlayerMotionResultToNode(
+                        "player-motion-update-result.node1", CHARACTER_1, playerMotion);
+        verify(monsterServerProducer)
+                .sendMobUpdateResultToNode("mob-motion-update-result.node1", mobId, monster);
+        verify(playerMotionUpdateProducer, never()).sendPlayerMotionResult(anyString(), any());
+        verify(monsterServerProducer, never()).sendMobUpdateResult(anyString(), any());
+    }
+
+    @Test
+    void threatUpdatesGoToTheNodesTrackingTheMob() {
+        String mobId = "9b1deb4d3b7d4bad9bdd2b0d7b3dcb6d";
+        directory.register("node1", List.of(mobId));
+        directory.register("node2", List.of(mobId));
+        ThreatUpdate threatUpdate = new ThreatUpdate();
+        threatUpdate.setActorId(mobId);
+        threatUpdate.setAddThreat(Map.of(CHARACTER_1, 10));
+
+        router.updateThreatLevels(threatUpdate);
+
+        verify(nodeUpdateProducer)
+                .updateThreatLevels("update-threat-levels.node1", mobId, threatUpdate);
+        verify(nodeUpdateProducer)
+                .updateThreatLevels("update-threat-levels.node2", mobId, threatUpdate);
+        verify(updateProducer, never()).updateThreatLevels(anyString(), any());
+    }
+
+    @Test
+    void updatesWithoutListenersAreNotSent() {
+        router.updateStatus(new ActorStatus(CHARACTER_1, Set.of(), false, Set.of()));
+
+        verify(nodeUpdateProducer, never()).updateStatus(anyString(), anyString(), any());
+        verify(updateProducer, never()).updateStatus(anyString(), any());
+    }
+
+    @Test
+    void damageStillReachesTheSharedTopic() {
+        directory.register("node1", List.of(CHARACTER_1));
+        DamageUpdateMessage damageUpdateMessage =
+                new DamageUpdateMessage(null, stats(), stats());
+
+        router.updateDamage(damageUpdateMessage);
+
+        verify(updateProducer).updateDamage(CHARACTER_1, damageUpdateMessage);
+        verify(nodeUpdateProducer)
+                .updateDamage("processed-damage-updates.node1", CHARACTER_1, damageUpdateMessage);
+    }
+
+    @Test
+    void mapUpdatesGoToEveryLiveNode() {
+        directory.register("node1", List.of());
+        directory.register("node2", List.of());
+        DroppedItem droppedItem = new DroppedItem();
+
+        router.addItemToMap(droppedItem);
+
+        verify(nodeUpdateProducer).addItemToMap("item-added-to-map.node1", droppedItem);
+        verify(nodeUpdateProducer).addItemToMap("item-added-to-map.node2", droppedItem);
+    }
+
+    @Test
+    void sharedTopicsAreUsedWhenRoutingIsOff() {
+        featureFlag.setEnableNodeRouting(false);
+        directory.register("node1", List.of(CHARACTER_1));
+        Stats stats = stats();
+
+        router.updateStats(stats);
+
+        verify(updateProducer).updateStats(CHARACTER_1, stats);
+        verify(nodeUpdateProducer, never()).updateStats(anyString(), anyString(), any());
+    }
+
+    private static Stats stats() {
+        Stats stats = new Stats();
+        stats.setActorId(CHARACTER_1);
+        return stats;
+    }
+}
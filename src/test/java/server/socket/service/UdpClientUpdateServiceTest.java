@@ -0,0 +1,110 @@
+package server.socket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.websocket.WebSocketSession;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import server.common.configuration.UdpServerConfiguration;
+import server.common.dto.Motion;
+import server.motion.dto.PlayerMotion;
+import server.session.SessionState;
+import server.session.SessionSubscriptionIndex;
+import server.session.cache.UdpSessionRegistry;
+import server.session.cluster.NodeInterestRegistry;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.session.FakeSession;
+import server.socket.v2.UDPServer;
+import server.socket.v2.codec.UdpMessageCodec;
+import server.socket.v2.delta.MotionBaselineRegistry;
+import server.utils.FeatureFlag;
+
+public class UdpClientUpdateServiceTest {
+
+    private static final String LISTENER = "listener";
+
+    private static final int MTU = 1200;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private UdpClientUpdateService udpClientUpdateService;
+
+    private UDPServer udpServer;
+
+    private SessionSubscriptionIndex subscriptionIndex;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionIndex = new SessionSubscriptionIndex();
+        subscriptionIndex.setNodeInterest(mock(NodeInterestRegistry.class));
+        udpServer = mock(UDPServer.class);
+
+        UdpSessionRegistry udpSessionRegistry = new UdpSessionRegistry();
+        udpSessionRegistry.register(LISTENER, "localhost", 9000);
+
+        UdpServerConfiguration configuration = new UdpServerConfiguration();
+        configuration.setMtu(MTU);
+
+        udpClientUpdateService = new UdpClientUpdateService();
+        udpClientUpdateService.subscriptionIndex = subscriptionIndex;
+        udpClientUpdateService.udpServer = udpServer;
+        udpClientUpdateService.udpSessionRegistry = udpSessionRegistry;
+        udpClientUpdateService.motionBaselines = mock(MotionBaselineRegistry.class);
+        udpClientUpdateService.udpMessageCodec = new UdpMessageCodec(new FeatureFlag());
+        udpClientUpdateService.udpServerConfiguration = configuration;
+    }
+
+    @Test
+    void groupedUpdatesAreSplitToFitTheMtu() throws IOException {
+        List<String> actorIds = IntStream.range(0, 40).mapToObj(i -> "character" + i).toList();
+        WebSocketSession session = new FakeSession();
+        SessionState.of(session).setActorId(LISTENER);
+        subscriptionIndex.setTrackingPlayers(session, new HashSet<>(actorIds));
+
+        udpClientUpdateService.sendGroupedUpdateToListening(actorIds, motionResponse());
+
+        ArgumentCaptor<ByteBuffer> datagrams = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(udpServer, atLeast(2)).send(datagrams.capture(), any(InetSocketAddress.class));
+
+        Set<String> sent = new HashSet<>();
+        for (ByteBuffer datagram : datagrams.getAllValues()) {
+            assertThat(datagram.remaining()).isLessThanOrEqualTo(MTU);
+            byte[] bytes = new byte[datagram.remaining()];
+            datagram.get(bytes);
+            JsonNode keys = mapper.readTree(bytes).get("playerKeys");
+            keys.forEach(key -> assertThat(sent.add(key.asText())).isTrue());
+        }
+        assertThat(sent).containsExactlyInAnyOrderElementsOf(actorIds);
+    }
+
+    private Function<Set<String>, SocketResponse> motionResponse() {
+        Motion motion = new Motion("tooksworth", 1, 2, 3, 0, 0, 0, 0, 0, 0, false);
+        return actorIds -> {
+            Map<String, PlayerMotion> motions = new LinkedHashMap<>();
+            actorIds.forEach(id -> motions.put(id, new PlayerMotion(id, motion, true, null)));
+            return SocketResponse.builder()
+                    .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                    .playerMotion(motions)
+                    .playerKeys(actorIds)
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package server.socket.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micronaut.websocket.WebSocketSession;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import server.session.SessionParamHelper;
+import server.session.SessionState;
+import server.session.SessionSubscriptionIndex;
+import server.session.cluster.NodeInterestRegistry;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.service.outbound.SessionOutboundService;
+import server.socket.session.FakeSession;
+
+public class WebsocketClientUpdatesServiceTest {
+
+    private static final String CHARACTER_1 = "character1";
+    private static final String CHARACTER_2 = "character2";
+
+    private WebsocketClientUpdatesService clientUpdatesService;
+
+    private SessionOutboundService sessionOutboundService;
+
+    private SessionSubscriptionIndex subscriptionIndex;
+
+    private final ConcurrentMap<String, WebSocketSession> liveSessions = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        subscriptionIndex = new SessionSubscriptionIndex();
+        subscriptionIndex.setNodeInterest(mock(NodeInterestRegistry.class));
+        sessionOutboundService = mock(SessionOutboundService.class);
+
+        clientUpdatesService = new WebsocketClientUpdatesService();
+        clientUpdatesService.subscriptionIndex = subscriptionIndex;
+        clientUpdatesService.sessionOutboundService = sessionOutboundService;
+
+        SessionParamHelper sessionParamHelper = mock(SessionParamHelper.class);
+        when(sessionParamHelper.getLiveSessions()).thenReturn(liveSessions);
+        clientUpdatesService.sessionParamHelper = sessionParamHelper;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eachActorGetsItsOwnResponseSoItCanBeConflated() {
+        WebSocketSession both1 = new FakeSession();
+        WebSocketSession both2 = new FakeSession();
+        WebSocketSession secondOnly = new FakeSession();
+        subscriptionIndex.setTrackingPlayers(both1, Set.of(CHARACTER_1, CHARACTER_2));
+        subscriptionIndex.setTrackingPlayers(both2, Set.of(CHARACTER_1, CHARACTER_2));
+        subscriptionIndex.setTrackingPlayers(secondOnly, Set.of(CHARACTER_2));
+
+        clientUpdatesService.sendGroupedUpdateToListening(
+                List.of(CHARACTER_1, CHARACTER_2),
+                actorIds ->
+                        SocketResponse.builder()
+                                .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                                .playerKeys(actorIds)
+                                .build());
+
+        ArgumentCaptor<Collection<WebSocketSession>> sessions =
+                ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<SocketResponse> responses = ArgumentCaptor.forClass(SocketResponse.class);
+        verify(sessionOutboundService, times(2)).broadcast(sessions.capture(), responses.capture());
+
+        for (int i = 0; i < 2; i++) {
+            Set<String> keys = responses.getAllValues().get(i).getPlayerKeys();
+            if (keys.contains(CHARACTER_1)) {
+                assertThat(keys).containsExactly(CHARACTER_1);
+                assertThat(sessions.getAllValues().get(i)).containsExactlyInAnyOrder(both1, both2);
+            } else {
+                assertThat(keys).containsExactly(CHARACTER_2);
+                assertThat(sessions.getAllValues().get(i))
+                        .containsExactlyInAnyOrder(both1, both2, secondOnly);
+            }
+        }
+    }
+
+    @Test
+    void nothingIsSentWithoutListeners() {
+        clientUpdatesService.sendGroupedUpdateToListening(
+                List.of(CHARACTER_1),
+                actorIds -> SocketResponse.messageWithType(SocketResponseType.PLAYER_MOTION_UPDATE));
+
+        verify(sessionOutboundService, times(0)).broadcast(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void itemPickupsGoThroughTheSessionQueues() {
+        WebSocketSession seesItem = new FakeSession();
+        WebSocketSession doesNotSeeItem = new FakeSession();
+        SessionState.of(seesItem).getDroppedItems().add("item1");
+        liveSessions.put(CHARACTER_1, seesItem);
+        liveSessions.put(CHARACTER_2, doesNotSeeItem);
+
+        clientUpdatesService.sendItemPickupUpdates("item1");
+
+        ArgumentCaptor<Collection<WebSocketSession>> sessions =
+                ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<SocketResponse> responses = ArgumentCaptor.forClass(SocketResponse.class);
+        verify(sessionOutboundService).broadcast(sessions.capture(), responses.capture());
+        assertThat(sessions.getValue()).containsExactly(seesItem);
+        assertThat(responses.getValue().getItemInstanceIds()).containsExactly("item1");
+        assertThat(SessionState.of(seesItem).getDroppedItems()).isEmpty();
+    }
+}
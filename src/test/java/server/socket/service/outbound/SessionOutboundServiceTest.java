@@ -0,0 +1,300 @@
+package server.socket.service.outbound;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.websocket.CloseReason;
+import io.micronaut.websocket.WebSocketSession;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.configuration.WebsocketOutboundConfiguration;
+import server.common.configuration.WebsocketOutboundConfiguration.SlowConsumerPolicy;
+import server.common.dto.Motion;
+import server.motion.dto.PlayerMotion;
+import server.session.SessionSubscriptionIndex;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.utils.FeatureFlag;
+
+public class SessionOutboundServiceTest {
+
+    private final JsonMapper jsonMapper = mock(JsonMapper.class);
+
+    private final SessionSubscriptionIndex subscriptionIndex = mock(SessionSubscriptionIndex.class);
+
+    private final WebsocketOutboundConfiguration configuration =
+            new WebsocketOutboundConfiguration();
+
+    private final FeatureFlag featureFlag = new FeatureFlag();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<TextWebSocketFrame> sentFrames = new ArrayList<>();
+
+    // writes that netty has not completed yet, used to simulate a slow client
+    private final List<CompletableFuture<Object>> pendingWrites = new ArrayList<>();
+
+    private SessionOutboundService sessionOutboundService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(jsonMapper.writeValueAsBytes(any()))
+                .thenAnswer(
+                        invocation -> {
+                            SocketResponse response = invocation.getArgument(0);
+                            String json = "{\"messageType\":\"" + response.getMessageType() + "\"}";
+                            return json.getBytes(StandardCharsets.UTF_8);
+                        });
+        configuration.setMaxQueuedFrames(3);
+        sessionOutboundService = service();
+    }
+
+    @Test
+    void responseIsSerializedOnceForAllSessions() throws Exception {
+        SocketResponse response = SocketResponse.messageWithType(SocketResponseType.STATS_UPDATE);
+
+        sessionOutboundService.broadcast(
+                Set.of(session(true, false), session(true, false), session(true, false)),
+                response);
+
+        verify(jsonMapper).writeValueAsBytes(response);
+        assertThat(sentFrames).hasSize(3);
+        // every frame shares the same bytes, nothing was copied per session
+        assertThat(sentFrames)
+                .extracting(f -> f.content().unwrap())
+                .containsOnly(sentFrames.get(0).content().unwrap());
+
+        // the sessions own a reference each until netty has written their frame
+        assertThat(sentFrames.get(0).refCnt()).isEqualTo(3);
+        sentFrames.forEach(TextWebSocketFrame::release);
+        assertThat(sentFrames.get(0).refCnt()).isZero();
+    }
+
+    @Test
+    void closedSessionsAreSkipped() {
+        WebSocketSession closed = session(false, false);
+
+        sessionOutboundService.send(
+                closed, SocketResponse.messageWithType(SocketResponseType.STATS_UPDATE));
+
+        verify(closed, never()).sendAsync(any());
+    }
+
+    @Test
+    void queuedMotionForTheSameActorIsConflated() {
+        WebSocketSession session = session(true, true);
+
+        sessionOutboundService.send(session, motionUpdate("character1", 1));
+        sessionOutboundService.send(session, motionUpdate("character1", 2));
+        sessionOutboundService.send(session, motionUpdate("character1", 3));
+        sessionOutboundService.send(session, motionUpdate("character2", 1));
+
+        // first update is in flight, the next two collapse into one
+        assertThat(sessionOutboundService.queued(session)).isEqualTo(2);
+        assertThat(meterRegistry.counter("websocket.outbound.conflated").count()).isEqualTo(1);
+    }
+
+    @Test
+    void reliableFramesKeepTheirOrder() {
+        WebSocketSession session = session(true, true);
+
+        sessionOutboundService.send(
+                session, SocketResponse.messageWithType(SocketResponseType.STATS_UPDATE));
+        sessionOutboundService.send(
+                session, SocketResponse.messageWithType(SocketResponseType.ADD_ITEMS_TO_MAP));
+        sessionOutboundService.send(
+                session, SocketResponse.messageWithType(SocketResponseType.REMOVE_ITEMS_FROM_MAP));
+
+        completeWrites();
+
+        assertThat(sentFrames)
+                .extracting(TextWebSocketFrame::text)
+                .containsExactly(
+                        json(SocketResponseType.STATS_UPDATE),
+                        json(SocketResponseType.ADD_ITEMS_TO_MAP),
+                        json(SocketResponseType.REMOVE_ITEMS_FROM_MAP));
+        assertThat(sessionOutboundService.queued(session)).isZero();
+    }
+
+    @Test
+    void slowConsumerIsDisconnected() {
+        WebSocketSession session = session(true, true);
+
+        fillQueue(session);
+
+        verify(session).close(CloseReason.TRY_AGAIN_LATER);
+        assertThat(sessionOutboundService.queued(session)).isZero();
+        assertThat(
+                        meterRegistry
+                                .counter("websocket.outbound.slow.consumers", "policy", "DISCONNECT")
+                                .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void slowConsumerIsResynced() {
+        configuration.setSlowConsumerPolicy(SlowConsumerPolicy.RESYNC);
+        sessionOutboundService = service();
+        WebSocketSession session = session(true, true);
+
+        fillQueue(session);
+
+        verify(session, never()).close(any());
+        verify(subscriptionIndex).setTrackingPlayers(session, Set.of());
+        verify(subscriptionIndex).setTrackingMobs(session, Set.of());
+        assertThat(sessionOutboundService.queued(session)).isZero();
+    }
+
+    @Test
+    void updatesInATickAreSentAsOneFrame() {
+        featureFlag.setEnableTickAggregation(true);
+        WebSocketSession session = session(true, false);
+
+        sessionOutboundService.send(session, motionUpdate("character1", 1));
+        sessionOutboundService.send(
+                session, SocketResponse.messageWithType(SocketResponseType.STATS_UPDATE));
+
+        assertThat(sentFrames).isEmpty();
+
+        sessionOutboundService.flushTick();
+
+        assertThat(sentFrames)
+                .extracting(TextWebSocketFrame::text)
+                .containsExactly(json(SocketResponseType.TICK_UPDATE));
+    }
+
+    @Test
+    void pendingTickIsSentBeforeOtherResponses() {
+        featureFlag.setEnableTickAggregation(true);
+        WebSocketSession session = session(true, false);
+
+        sessionOutboundService.send(session, motionUpdate("character1", 1));
+        sessionOutboundService.send(
+                session, SocketResponse.messageWithType(SocketResponseType.REMOVE_PLAYERS));
+
+        assertThat(sentFrames)
+                .extracting(TextWebSocketFrame::text)
+                .containsExactly(
+                        json(SocketResponseType.PLAYER_MOTION_UPDATE),
+                        json(SocketResponseType.REMOVE_PLAYERS));
+    }
+
+    @Test
+    void singleUpdateInATickIsSerializedOnceForAllSessions() throws Exception {
+        featureFlag.setEnableTickAggregation(true);
+        SocketResponse response = motionUpdate("character1", 1);
+
+        sessionOutboundService.broadcast(Set.of(session(true, false), session(true, false)), response);
+        sessionOutboundService.flushTick();
+
+        verify(jsonMapper).writeValueAsBytes(response);
+        assertThat(sentFrames).hasSize(2);
+    }
+
+    @Test
+    void responseSentWhileATickIsBeingQueuedGoesOutAfterIt() throws Exception {
+        featureFlag.setEnableTickAggregation(true);
+        WebSocketSession session = session(true, false);
+        SocketResponse tick = motionUpdate("character1", 1);
+
+        // hold flushTick between draining the tick and queueing it
+        CountDownLatch serializing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        when(jsonMapper.writeValueAsBytes(tick))
+                .thenAnswer(
+                        invocation -> {
+                            serializing.countDown();
+                            resume.await();
+                            return json(SocketResponseType.PLAYER_MOTION_UPDATE)
+                                    .getBytes(StandardCharsets.UTF_8);
+                        });
+
+        sessionOutboundService.send(session, tick);
+        Thread flush = new Thread(sessionOutboundService::flushTick);
+        flush.start();
+        serializing.await();
+
+        Thread send =
+                new Thread(
+                        () ->
+                                sessionOutboundService.send(
+                                        session,
+                                        SocketResponse.messageWithType(
+                                                SocketResponseType.REMOVE_PLAYERS)));
+        send.start();
+        await().until(() -> send.getState() == Thread.State.BLOCKED || !send.isAlive());
+
+        resume.countDown();
+        flush.join();
+        send.join();
+
+        assertThat(sentFrames)
+                .extracting(TextWebSocketFrame::text)
+                .containsExactly(
+                        json(SocketResponseType.PLAYER_MOTION_UPDATE),
+                        json(SocketResponseType.REMOVE_PLAYERS));
+    }
+
+    private void fillQueue(WebSocketSession session) {
+        // one in flight plus max queued, the next one overflows
+        for (int i = 0; i < configuration.getMaxQueuedFrames() + 2; i++) {
+            sessionOutboundService.send(
+                    session, SocketResponse.messageWithType(SocketResponseType.STATS_UPDATE));
+        }
+    }
+
+    private void completeWrites() {
+        while (!pendingWrites.isEmpty()) {
+            pendingWrites.remove(0).complete(null);
+        }
+    }
+
+    private SessionOutboundService service() {
+        return new SessionOutboundService(
+                jsonMapper, configuration, subscriptionIndex, featureFlag, meterRegistry);
+    }
+
+    private SocketResponse motionUpdate(String actorId, int x) {
+        Motion motion = Motion.builder().map("tooksworth").x(x).y(0).z(0).build();
+        return SocketResponse.builder()
+                .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                .playerMotion(Map.of(actorId, new PlayerMotion(actorId, motion, null, null)))
+                .build();
+    }
+
+    private String json(SocketResponseType type) {
+        return "{\"messageType\":\"" + type.getType() + "\"}";
+    }
+
+    private WebSocketSession session(boolean open, boolean slow) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.isOpen()).thenReturn(open);
+        when(session.sendAsync(any()))
+                .thenAnswer(
+                        invocation -> {
+                            sentFrames.add(invocation.getArgument(0));
+                            if (!slow) {
+                                return CompletableFuture.completedFuture(invocation.getArgument(0));
+                            }
+                            CompletableFuture<Object> write = new CompletableFuture<>();
+                            pendingWrites.add(write);
+                            return write;
+                        });
+        return session;
+    }
+}
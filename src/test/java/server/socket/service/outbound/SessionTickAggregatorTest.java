@@ -0,0 +1,119 @@
+package server.socket.service.outbound;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micronaut.websocket.WebSocketSession;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.attribute.stats.model.DamageSource;
+import server.attribute.stats.model.Stats;
+import server.common.dto.Motion;
+import server.motion.dto.PlayerMotion;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.session.FakeSession;
+
+public class SessionTickAggregatorTest {
+
+    private static final String CHARACTER_1 = "character1";
+    private static final String CHARACTER_2 = "character2";
+
+    private SessionTickAggregator aggregator;
+
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new SessionTickAggregator();
+        session = new FakeSession();
+    }
+
+    @Test
+    void singleUpdateIsSentUnchanged() {
+        SocketResponse response = motionUpdate(CHARACTER_1, 1);
+
+        aggregator.add(session, response);
+
+        assertThat(aggregator.drain(session)).isSameAs(response);
+        assertThat(aggregator.drain(session)).isNull();
+    }
+
+    @Test
+    void latestMotionForAnActorWins() {
+        aggregator.add(session, motionUpdate(CHARACTER_1, 1));
+        aggregator.add(session, motionUpdate(CHARACTER_2, 5));
+        aggregator.add(session, motionUpdate(CHARACTER_1, 2));
+
+        SocketResponse merged = aggregator.drain(session);
+
+        assertThat(merged.getMessageType()).isEqualTo(SocketResponseType.TICK_UPDATE.getType());
+        assertThat(merged.getPlayerMotion()).containsOnlyKeys(CHARACTER_1, CHARACTER_2);
+        assertThat(merged.getPlayerMotion().get(CHARACTER_1).getMotion().getX()).isEqualTo(2);
+        assertThat(merged.getPlayerKeys()).containsExactlyInAnyOrder(CHARACTER_1, CHARACTER_2);
+    }
+
+    @Test
+    void eventsAreKeptInOrder() {
+        Stats stats = new Stats();
+        DamageSource first = new DamageSource();
+        DamageSource second = new DamageSource();
+
+        aggregator.add(session, damageUpdate(first));
+        aggregator.add(session, statsUpdate(stats));
+        aggregator.add(session, damageUpdate(second));
+
+        SocketResponse merged = aggregator.drain(session);
+
+        assertThat(merged.getDamageUpdates()).containsExactly(first, second);
+        assertThat(merged.getStatsUpdates()).containsExactly(stats);
+    }
+
+    @Test
+    void sessionsAreAggregatedSeparately() {
+        WebSocketSession other = new FakeSession();
+        SocketResponse response = motionUpdate(CHARACTER_1, 1);
+
+        aggregator.add(session, response);
+        aggregator.add(other, response);
+        aggregator.add(other, motionUpdate(CHARACTER_2, 1));
+
+        assertThat(aggregator.sessions()).containsExactlyInAnyOrder(session, other);
+
+        assertThat(aggregator.drain(session)).isSameAs(response);
+        assertThat(aggregator.drain(other).getPlayerMotion())
+                .containsOnlyKeys(CHARACTER_1, CHARACTER_2);
+        assertThat(aggregator.sessions()).isEmpty();
+    }
+
+    @Test
+    void onlyFrequentUpdatesAreMergeable() {
+        assertThat(SessionTickAggregator.isMergeable(motionUpdate(CHARACTER_1, 1))).isTrue();
+        assertThat(
+                        SessionTickAggregator.isMergeable(
+                                SocketResponse.messageWithType(SocketResponseType.REMOVE_PLAYERS)))
+                .isFalse();
+    }
+
+    private SocketResponse motionUpdate(String actorId, int x) {
+        Motion motion = Motion.builder().map("tooksworth").x(x).y(0).z(0).build();
+        return SocketResponse.builder()
+                .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                .playerMotion(Map.of(actorId, new PlayerMotion(actorId, motion, null, null)))
+                .playerKeys(Set.of(actorId))
+                .build();
+    }
+
+    private SocketResponse statsUpdate(Stats stats) {
+        SocketResponse response = SocketResponse.messageWithType(SocketResponseType.STATS_UPDATE);
+        response.setStats(stats);
+        return response;
+    }
+
+    private SocketResponse damageUpdate(DamageSource damageSource) {
+        SocketResponse response = SocketResponse.messageWithType(SocketResponseType.DAMAGE_UPDATE);
+        response.setDamageSource(damageSource);
+        return response;
+    }
+}
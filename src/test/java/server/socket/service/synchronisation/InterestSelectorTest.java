@@ -0,0 +1,71 @@
+package server.socket.service.synchronisation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import server.common.dto.Location;
+import server.common.dto.Motion;
+import server.motion.dto.PlayerMotion;
+
+public class InterestSelectorTest {
+
+    private static final String MAP = "tooksworth";
+
+    private static final Location CENTER = new Location(MAP, 0, 0, 0);
+
+    @Test
+    void newActorsMustBeInsideTheEnterRadius() {
+        List<PlayerMotion> candidates = List.of(player("near", 900), player("edge", 1_100));
+
+        Set<String> selected = select(candidates, Set.of(), 10);
+
+        assertThat(selected).containsExactly("near");
+    }
+
+    @Test
+    void visibleActorsAreKeptUntilTheLeaveRadius() {
+        List<PlayerMotion> candidates = List.of(player("edge", 1_100), player("gone", 1_300));
+
+        Set<String> selected = select(candidates, Set.of("edge", "gone"), 10);
+
+        assertThat(selected).containsExactly("edge");
+    }
+
+    @Test
+    void crowdsAreCappedToTheNearest() {
+        List<PlayerMotion> candidates =
+                List.of(player("a", 100), player("b", 300), player("c", 200), player("d", 400));
+
+        Set<String> selected = select(candidates, Set.of(), 2);
+
+        assertThat(selected).containsExactlyInAnyOrder("a", "c");
+    }
+
+    @Test
+    void visibleActorsKeepTheirPlaceInTheCapWithinTheMargin() {
+        List<PlayerMotion> candidates = List.of(player("visible", 300), player("new", 200));
+
+        Set<String> selected = select(candidates, Set.of("visible"), 1);
+
+        assertThat(selected).containsExactly("visible");
+    }
+
+    private Set<String> select(List<PlayerMotion> candidates, Set<String> tracked, int max) {
+        return InterestSelector.select(
+                CENTER,
+                candidates,
+                PlayerMotion::getActorId,
+                PlayerMotion::getMotion,
+                tracked,
+                1_000,
+                1_200,
+                max);
+    }
+
+    private PlayerMotion player(String actorId, int x) {
+        Motion motion = Motion.builder().map(MAP).x(x).y(0).z(0).build();
+        return new PlayerMotion(actorId, motion, true, null);
+    }
+}
@@ -0,0 +1,124 @@
+package server.socket.v2;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.socket.v2.codec.UdpBatchCodec;
+
+public class UdpOutboundCoalescerTest {
+
+    private static final int MTU = 100;
+
+    private final InetSocketAddress client1 = new InetSocketAddress("127.0.0.1", 5001);
+    private final InetSocketAddress client2 = new InetSocketAddress("127.0.0.1", 5002);
+
+    private final List<ByteBuffer> sent = new ArrayList<>();
+    private final List<InetSocketAddress> targets = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private UdpOutboundCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer =
+                new UdpOutboundCoalescer(
+                        MTU,
+                        (data, target) -> {
+                            sent.add(data);
+                            targets.add(target);
+                        },
+                        meterRegistry);
+    }
+
+    @Test
+    void updatesForSameClientShareDatagramOnTick() throws Exception {
+        coalescer.add(payload("a", 20), client1);
+        coalescer.add(payload("b", 20), client1);
+        coalescer.add(payload("c", 20), client1);
+
+        Assertions.assertThat(sent).isEmpty();
+
+        coalescer.flushAll();
+
+        Assertions.assertThat(sent).hasSize(1);
+        Assertions.assertThat(UdpBatchCodec.decode(sent.get(0)))
+                .extracting(this::text)
+                .containsExactly("a".repeat(20), "b".repeat(20), "c".repeat(20));
+    }
+
+    @Test
+    void fullBatchIsSentBeforeTick() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            coalescer.add(payload(String.valueOf(i), 30), client1);
+        }
+
+        // three 31 byte entries fit under the 100 byte mtu, the fourth forces a flush
+        Assertions.assertThat(sent).hasSize(1);
+        Assertions.assertThat(UdpBatchCodec.decode(sent.get(0))).hasSize(3);
+
+        coalescer.flushAll();
+
+        Assertions.assertThat(sent).hasSize(2);
+        Assertions.assertThat(sent).allMatch(d -> d.remaining() <= MTU);
+    }
+
+    @Test
+    void singleUpdateIsSentUnwrapped() {
+        coalescer.add(payload("{", 10), client1);
+
+        coalescer.flushAll();
+
+        Assertions.assertThat(sent).hasSize(1);
+        Assertions.assertThat(text(sent.get(0))).isEqualTo("{".repeat(10));
+    }
+
+    @Test
+    void oversizedUpdateKeepsOrder() throws Exception {
+        coalescer.add(payload("a", 10), client1);
+        coalescer.add(payload("b", 10), client1);
+        coalescer.add(payload("z", 150), client1);
+
+        Assertions.assertThat(sent).hasSize(2);
+        Assertions.assertThat(UdpBatchCodec.decode(sent.get(0))).hasSize(2);
+        Assertions.assertThat(text(sent.get(1))).isEqualTo("z".repeat(150));
+    }
+
+    @Test
+    void clientsAreBatchedSeparately() {
+        coalescer.add(payload("a", 10), client1);
+        coalescer.add(payload("b", 10), client2);
+
+        coalescer.flushAll();
+
+        Assertions.assertThat(targets).containsExactlyInAnyOrder(client1, client2);
+    }
+
+    @Test
+    void datagramsAndFlushLatencyAreRecorded() {
+        coalescer.add(payload("a", 10), client1);
+        coalescer.add(payload("b", 10), client1);
+        coalescer.flushAll();
+
+        Assertions.assertThat(meterRegistry.counter("udp.outbound.datagrams").count())
+                .isEqualTo(1);
+        Assertions.assertThat(meterRegistry.counter("udp.outbound.payloads").count())
+                .isEqualTo(2);
+        Assertions.assertThat(meterRegistry.timer("udp.outbound.flush.latency").count())
+                .isEqualTo(1);
+    }
+
+    private ByteBuffer payload(String c, int size) {
+        return ByteBuffer.wrap(c.repeat(size).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String text(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+    }
+}
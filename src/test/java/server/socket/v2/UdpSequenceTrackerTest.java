@@ -0,0 +1,83 @@
+package server.socket.v2;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class UdpSequenceTrackerTest {
+
+    private static final String CHARACTER_1 = "character1";
+    private static final String CHARACTER_2 = "character2";
+
+    private SimpleMeterRegistry meterRegistry;
+    private UdpSequenceTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new UdpSequenceTracker(meterRegistry);
+    }
+
+    @Test
+    void increasingSequencesAreAccepted() {
+        Assertions.assertThat(tracker.accept(CHARACTER_1, 1)).isTrue();
+        Assertions.assertThat(tracker.accept(CHARACTER_1, 2)).isTrue();
+        Assertions.assertThat(tracker.accept(CHARACTER_1, 10)).isTrue();
+    }
+
+    @Test
+    void staleAndDuplicatePacketsAreDropped() {
+        tracker.accept(CHARACTER_1, 5);
+
+        Assertions.assertThat(tracker.accept(CHARACTER_1, 4)).isFalse();
+        Assertions.assertThat(tracker.accept(CHARACTER_1, 5)).isFalse();
+        Assertions.assertThat(tracker.getDroppedCount(CHARACTER_1)).isEqualTo(2);
+        Assertions.assertThat(
+                        meterRegistry.counter("udp.inbound.dropped", "reason", "stale").count())
+                .isEqualTo(1);
+        Assertions.assertThat(
+                        meterRegistry.counter("udp.inbound.dropped", "reason", "duplicate").count())
+                .isEqualTo(1);
+        Assertions.assertThat(
+                        meterRegistry
+                                .get("udp.inbound.dropped.actor")
+                                .tag("actorId", CHARACTER_1)
+                                .functionCounter()
+                                .count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void actorsAreTrackedIndependently() {
+        tracker.accept(CHARACTER_1, 100);
+
+        Assertions.assertThat(tracker.accept(CHARACTER_2, 1)).isTrue();
+    }
+
+    @Test
+    void sequenceWrapsAround() {
+        tracker.accept(CHARACTER_1, Integer.MAX_VALUE);
+
+        Assertions.assertThat(tracker.accept(CHARACTER_1, Integer.MIN_VALUE)).isTrue();
+        Assertions.assertThat(tracker.accept(CHARACTER_1, Integer.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void unsequencedPacketsAreAlwaysAccepted() {
+        tracker.accept(CHARACTER_1, 5);
+
+        Assertions.assertThat(tracker.accept(CHARACTER_1, null)).isTrue();
+    }
+
+    @Test
+    void resetLetsReconnectedClientStartAgain() {
+        tracker.accept(CHARACTER_1, 500);
+        tracker.accept(CHARACTER_1, 1);
+
+        tracker.reset(CHARACTER_1);
+
+        Assertions.assertThat(tracker.accept(CHARACTER_1, 1)).isTrue();
+        Assertions.assertThat(meterRegistry.find("udp.inbound.dropped.actor").meters()).isEmpty();
+    }
+}
@@ -0,0 +1,155 @@
+package server.socket.v2.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.dto.Motion;
+import server.monster.server_integration.model.Monster;
+import server.motion.dto.PlayerMotion;
+import server.socket.model.SocketMessage;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.model.types.MessageType;
+import server.utils.FeatureFlag;
+
+public class MotionBinaryCodecTest {
+
+    private static final String CHARACTER_1 = "character1";
+    private static final String MOB_INSTANCE_ID = "9b50e6c6-84d0-467f-b455-6b9c125f9105";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UdpMessageCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        FeatureFlag featureFlag = new FeatureFlag();
+        featureFlag.setEnableUdpBinaryCodec(true);
+        codec = new UdpMessageCodec(featureFlag);
+    }
+
+    @Test
+    void playerMotionRoundTrip() throws Exception {
+        SocketMessage message = new SocketMessage();
+        message.setUpdateType(MessageType.PLAYER_MOTION.getType());
+        message.setPlayerMotion(new PlayerMotion(CHARACTER_1, motion(), null, null));
+
+        SocketMessage decoded = codec.decode(encode(message));
+
+        Assertions.assertThat(decoded).usingRecursiveComparison().isEqualTo(message);
+    }
+
+    @Test
+    void sequenceRoundTrip() throws Exception {
+        SocketMessage message = new SocketMessage();
+        message.setUpdateType(MessageType.PLAYER_MOTION.getType());
+        message.setPlayerMotion(new PlayerMotion(CHARACTER_1, motion(), null, null));
+        message.setSequence(70_000);
+
+        SocketMessage decoded = codec.decode(encode(message));
+
+        Assertions.assertThat(decoded.getSequence()).isEqualTo(70_000);
+    }
+
+    @Test
+    void mobMotionRoundTrip() throws Exception {
+        Monster monster = new Monster();
+        monster.setActorId(MOB_INSTANCE_ID);
+        monster.setMobId("goblin");
+        monster.setMotion(motion());
+
+        SocketMessage message = new SocketMessage();
+        message.setUpdateType(MessageType.MOB_MOTION.getType());
+        message.setMonster(monster);
+
+        SocketMessage decoded = codec.decode(encode(message));
+
+        Assertions.assertThat(decoded).usingRecursiveComparison().isEqualTo(message);
+    }
+
+    @Test
+    void playerMotionUpdateRoundTrip() throws Exception {
+        PlayerMotion playerMotion = new PlayerMotion(CHARACTER_1, motion(), null, null);
+        SocketResponse response =
+                SocketResponse.builder()
+                        .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                        .playerMotion(Map.of(CHARACTER_1, playerMotion))
+                        .playerKeys(Set.of(CHARACTER_1))
+                        .build();
+
+        SocketResponse decoded = MotionBinaryCodec.decodeResponse(codec.encode(response));
+
+        Assertions.assertThat(decoded).usingRecursiveComparison().isEqualTo(response);
+    }
+
+    @Test
+    void binaryMotionUpdateIsSmallerThanJson() throws Exception {
+        PlayerMotion playerMotion = new PlayerMotion(CHARACTER_1, motion(), null, null);
+        SocketResponse response =
+                SocketResponse.builder()
+                        .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                        .playerMotion(Map.of(CHARACTER_1, playerMotion))
+                        .playerKeys(Set.of(CHARACTER_1))
+                        .build();
+
+        int binarySize = codec.encode(response).remaining();
+        int jsonSize = objectMapper.writeValueAsBytes(response).length;
+
+        Assertions.assertThat(binarySize).isLessThan(jsonSize / 4);
+    }
+
+    @Test
+    void jsonIsStillAcceptedForMotion() throws Exception {
+        SocketMessage message = new SocketMessage();
+        message.setUpdateType(MessageType.PLAYER_MOTION.getType());
+        message.setPlayerMotion(new PlayerMotion(CHARACTER_1, motion(), null, null));
+
+        ByteBuffer json = ByteBuffer.wrap(objectMapper.writeValueAsBytes(message));
+
+        Assertions.assertThat(codec.decode(json)).usingRecursiveComparison().isEqualTo(message);
+    }
+
+    @Test
+    void nonMotionResponsesStayJson() throws Exception {
+        SocketResponse response = SocketResponse.messageWithType(SocketResponseType.STATS_UPDATE);
+
+        ByteBuffer encoded = codec.encode(response);
+
+        Assertions.assertThat(StandardCharsets.UTF_8.decode(encoded).toString()).startsWith("{");
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        ByteBuffer packet = ByteBuffer.wrap(new byte[] {MotionBinaryCodec.PLAYER_MOTION, 99, 0});
+
+        Assertions.assertThatThrownBy(() -> codec.decode(packet))
+                .hasMessageContaining("Unsupported binary motion version");
+    }
+
+    private ByteBuffer encode(SocketMessage message) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        MotionBinaryCodec.encode(message, buffer);
+        return buffer.flip();
+    }
+
+    private Motion motion() {
+        return Motion.builder()
+                .map("tooksworth")
+                .x(-1240)
+                .y(350)
+                .z(230)
+                .pitch(0)
+                .roll(0)
+                .yaw(-90)
+                .vx(120)
+                .vy(-45)
+                .vz(0)
+                .isFalling(true)
+                .build();
+    }
+}
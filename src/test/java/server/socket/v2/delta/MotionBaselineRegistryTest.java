@@ -0,0 +1,239 @@
+package server.socket.v2.delta;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.common.configuration.UdpServerConfiguration;
+import server.common.dto.Motion;
+import server.motion.dto.PlayerMotion;
+import server.session.cache.UdpSessionRegistry;
+import server.socket.model.SocketResponse;
+import server.socket.model.SocketResponseType;
+import server.socket.v2.codec.MotionDeltaCodec;
+import server.socket.v2.codec.MotionDeltaCodec.DecodedDelta;
+
+public class MotionBaselineRegistryTest {
+
+    private static final String CLIENT = "client1";
+    private static final String CHARACTER_1 = "character1";
+    private static final String CHARACTER_2 = "character2";
+
+    private static final InetSocketAddress CLIENT_ADDRESS =
+            new InetSocketAddress("127.0.0.1", 9876);
+
+    private UdpSessionRegistry udpSessions;
+
+    private MotionBaselineRegistry registry;
+
+    // what the client has received, keyed by sequence then actor
+    private final Map<Integer, Map<String, Motion>> received = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        UdpServerConfiguration configuration = new UdpServerConfiguration();
+        configuration.setPositionQuantum(10);
+        udpSessions = new UdpSessionRegistry();
+        udpSessions.register(CLIENT, "127.0.0.1", 9876);
+        registry = new MotionBaselineRegistry(configuration, udpSessions);
+    }
+
+    @Test
+    void clientsThatNeverAckGetNoDeltas() {
+        Assertions.assertThat(registry.isDeltaClient(CLIENT)).isFalse();
+        Assertions.assertThat(registry.encode(CLIENT, update(motion(-1240, 350)))).isNull();
+    }
+
+    @Test
+    void acksFromAnotherAddressAreIgnored() {
+        registry.acknowledge(CLIENT, new InetSocketAddress("127.0.0.2", 9876), 0, 0);
+        registry.acknowledge("unregistered", CLIENT_ADDRESS, 0, 0);
+
+        Assertions.assertThat(registry.isDeltaClient(CLIENT)).isFalse();
+        Assertions.assertThat(registry.isDeltaClient("unregistered")).isFalse();
+    }
+
+    @Test
+    void acksAfterRemoveDoNotBringTheClientBack() {
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 0, 0);
+
+        udpSessions.remove(CLIENT);
+        registry.remove(CLIENT);
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 1, 0);
+
+        Assertions.assertThat(registry.isDeltaClient(CLIENT)).isFalse();
+    }
+
+    @Test
+    void fullSnapshotUntilAckedThenDelta() throws Exception {
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 0, 0);
+
+        DecodedDelta first = send(motion(-1240, 350));
+        DecodedDelta unacked = send(motion(-1230, 350));
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, unacked.sequence(), 0);
+
+        ByteBuffer deltaPacket = registry.encode(CLIENT, update(motion(-1220, 350)));
+        DecodedDelta delta = decode(deltaPacket.duplicate());
+
+        Assertions.assertThat(first.sequence()).isEqualTo(1);
+        Assertions.assertThat(delta.entries().get(CHARACTER_1).motion())
+                .usingRecursiveComparison()
+                .isEqualTo(motion(-1220, 350));
+        // header plus actor id, baseline and a single changed field
+        Assertions.assertThat(deltaPacket.remaining()).isLessThan(25);
+    }
+
+    @Test
+    void lostDatagramsAreNeverUsedAsBaseline() throws Exception {
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 0, 0);
+
+        DecodedDelta first = send(motion(0, 0));
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, first.sequence(), 0);
+
+        // sent but dropped on the way, the client never sees or acks it
+        ByteBuffer lost = registry.encode(CLIENT, update(motion(100, 0)));
+        Assertions.assertThat(lost).isNotNull();
+
+        DecodedDelta next = send(motion(200, 50));
+
+        Assertions.assertThat(next.entries().get(CHARACTER_1).motion())
+                .usingRecursiveComparison()
+                .isEqualTo(motion(200, 50));
+    }
+
+    @Test
+    void aLostDatagramBelowTheAckIsNeverABaseline() throws Exception {
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 0, 0);
+
+        DecodedDelta first = send(Map.of(CHARACTER_1, motion(0, 0)));
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, first.sequence(), 0);
+
+        // character1 moves in a datagram that is lost, the next one only has character2
+        registry.encode(CLIENT, update(Map.of(CHARACTER_1, motion(100, 0))));
+        DecodedDelta third = send(Map.of(CHARACTER_2, motion(0, 0)));
+        // the client got the first and third, bit 0 (the second) is clear, bit 1 (the first) set
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, third.sequence(), 0b10);
+
+        DecodedDelta next = send(Map.of(CHARACTER_1, motion(200, 50)));
+
+        Assertions.assertThat(next.entries().get(CHARACTER_1).motion())
+                .usingRecursiveComparison()
+                .isEqualTo(motion(200, 50));
+    }
+
+    @Test
+    void datagramsTooLargeToSendLeaveNoBaseline() throws Exception {
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 0, 0);
+
+        DecodedDelta first = send(Map.of(CHARACTER_1, motion(0, 0)));
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, first.sequence(), 0);
+
+        Map<String, Motion> tooMany = new HashMap<>();
+        tooMany.put(CHARACTER_1, motion(100, 0));
+        for (int i = 0; i < 5_000; i++) {
+            tooMany.put("character-with-a-long-name-" + i, motion(i, i));
+        }
+        Assertions.assertThat(registry.encode(CLIENT, update(tooMany))).isNull();
+
+        // even an ack claiming every earlier sequence can't make the overflowed one a baseline
+        DecodedDelta next = send(Map.of(CHARACTER_2, motion(0, 0)));
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, next.sequence(), -1);
+
+        DecodedDelta last = send(Map.of(CHARACTER_1, motion(200, 50)));
+
+        Assertions.assertThat(last.entries().get(CHARACTER_1).motion())
+                .usingRecursiveComparison()
+                .isEqualTo(motion(200, 50));
+    }
+
+    @Test
+    void positionsAreQuantized() throws Exception {
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 0, 0);
+
+        DecodedDelta decoded = send(motion(-1244, 356));
+
+        Assertions.assertThat(decoded.entries().get(CHARACTER_1).motion())
+                .usingRecursiveComparison()
+                .isEqualTo(motion(-1240, 360));
+    }
+
+    @Test
+    void ackForUnsentSequenceIsIgnored() throws Exception {
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 0, 0);
+        registry.acknowledge(CLIENT, CLIENT_ADDRESS, 50, 0);
+
+        DecodedDelta decoded = send(motion(10, 10));
+
+        Assertions.assertThat(decoded.entries().get(CHARACTER_1).motion())
+                .usingRecursiveComparison()
+                .isEqualTo(motion(10, 10));
+    }
+
+    @Test
+    void ackRoundTrip() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        MotionDeltaCodec.encodeAck(CLIENT, 300, 0b101, buffer);
+
+        MotionDeltaCodec.MotionAck ack = MotionDeltaCodec.decodeAck(buffer.flip());
+
+        Assertions.assertThat(ack).isEqualTo(new MotionDeltaCodec.MotionAck(CLIENT, 300, 0b101));
+    }
+
+    private DecodedDelta send(Motion motion) throws Exception {
+        return decode(registry.encode(CLIENT, update(motion)));
+    }
+
+    private DecodedDelta send(Map<String, Motion> motions) throws Exception {
+        return decode(registry.encode(CLIENT, update(motions)));
+    }
+
+    private DecodedDelta decode(ByteBuffer packet) throws Exception {
+        DecodedDelta decoded =
+                MotionDeltaCodec.decode(
+                        packet, (actorId, sequence) -> received.get(sequence).get(actorId));
+
+        Map<String, Motion> motions = new HashMap<>();
+        decoded.entries().forEach((actorId, entry) -> motions.put(actorId, entry.motion()));
+        received.put(decoded.sequence(), motions);
+        return decoded;
+    }
+
+    private SocketResponse update(Map<String, Motion> motions) {
+        Map<String, PlayerMotion> playerMotions = new HashMap<>();
+        motions.forEach(
+                (id, motion) -> playerMotions.put(id, new PlayerMotion(id, motion, null, null)));
+        return SocketResponse.builder()
+                .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                .playerMotion(playerMotions)
+                .playerKeys(motions.keySet())
+                .build();
+    }
+
+    private SocketResponse update(Motion motion) {
+        return SocketResponse.builder()
+                .messageType(SocketResponseType.PLAYER_MOTION_UPDATE.getType())
+                .playerMotion(Map.of(CHARACTER_1, new PlayerMotion(CHARACTER_1, motion, null, null)))
+                .playerKeys(Set.of(CHARACTER_1))
+                .build();
+    }
+
+    private Motion motion(int x, int y) {
+        return Motion.builder()
+                .map("tooksworth")
+                .x(x)
+                .y(y)
+                .z(230)
+                .pitch(0)
+                .roll(0)
+                .yaw(-90)
+                .vx(120)
+                .vy(-45)
+                .vz(0)
+                .isFalling(false)
+                .build();
+    }
+}